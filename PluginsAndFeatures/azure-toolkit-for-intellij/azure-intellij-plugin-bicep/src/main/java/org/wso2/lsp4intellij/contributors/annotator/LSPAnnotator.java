@@ -233,7 +233,7 @@ public class LSPAnnotator extends ExternalAnnotator<Object, Object> {
         final CodeActionContext context = new CodeActionContext(diagnosticContext);
         params.setContext(context);
         final LanguageServerWrapper wrapper = eventManager.wrapper;
-        final CompletableFuture<List<Either<Command, CodeAction>>> future = eventManager.wrapper.getRequestManager().codeAction(params);
+        final CompletableFuture<List<Either<Command, CodeAction>>> future = eventManager.getRequestManager().codeAction(params);
         if (future != null) {
             try {
                 List<Either<Command, CodeAction>> res = future.get(getTimeout(CODEACTION), TimeUnit.MILLISECONDS);
@@ -38,11 +38,17 @@ import org.wso2.lsp4intellij.utils.ApplicationUtils;
 import org.wso2.lsp4intellij.utils.DocumentUtils;
 import org.wso2.lsp4intellij.utils.FileUtils;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 public class DocumentEventManager {
     private final Document document;
@@ -50,10 +56,26 @@ public class DocumentEventManager {
     private final TextDocumentSyncKind syncKind;
     private final LanguageServerWrapper wrapper;
     private final TextDocumentIdentifier identifier;
-    private int version = -1;
+    private volatile int version = -1;
     protected Logger LOG = Logger.getInstance(EditorEventManager.class);
     private static final Map<String, DocumentEventManager> uriToDocumentEventManager = new HashMap<>();
 
+    private static final long CHANGE_WINDOW_MS = 50;
+    private static final long FULL_SYNC_INTERVAL_MS = 300;
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "LSP document changes");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final List<TextDocumentContentChangeEvent> pendingChanges = new ArrayList<>();
+    private boolean isFullTextPending = false;
+    private long lastFullSyncMillis = 0;
+    private ScheduledFuture<?> scheduledChanges;
+    // held while taking and sending the pending changes and while opening or closing the document, so the
+    // notifications are in order
+    private final Object sendLock = new Object();
+
+    // guarded by sendLock
     private final Set<Document> openDocuments = new HashSet<>();
 
     DocumentEventManager(Document document, DocumentListener documentListener, TextDocumentSyncKind syncKind, LanguageServerWrapper wrapper) {
@@ -92,17 +114,14 @@ public class DocumentEventManager {
         return this.version;
     }
 
+    /**
+     * Queue the change, the queued changes are sent in one notification after {@link #CHANGE_WINDOW_MS}, or at most
+     * once per {@link #FULL_SYNC_INTERVAL_MS} in the full sync mode, or when flushed by a request. The document version
+     * is increased at once, the notification carries the version of the latest change.
+     */
     public void documentChanged(DocumentEvent event) {
-
-        DidChangeTextDocumentParams changesParams = new DidChangeTextDocumentParams(new VersionedTextDocumentIdentifier(),
-                Collections.singletonList(new TextDocumentContentChangeEvent()));
-        changesParams.getTextDocument().setUri(identifier.getUri());
-
-
-        changesParams.getTextDocument().setVersion(++version);
-
         if (syncKind == TextDocumentSyncKind.Incremental) {
-            TextDocumentContentChangeEvent changeEvent = changesParams.getContentChanges().get(0);
+            TextDocumentContentChangeEvent changeEvent = new TextDocumentContentChangeEvent();
             CharSequence newText = event.getNewFragment();
             int offset = event.getOffset();
             int newTextLength = event.getNewLength();
@@ -141,33 +160,142 @@ public class DocumentEventManager {
             changeEvent.setRange(range);
             changeEvent.setRangeLength(newTextLength);
             changeEvent.setText(newText.toString());
+            synchronized (this) {
+                if (!mergeInsertion(changeEvent)) {
+                    pendingChanges.add(changeEvent);
+                }
+                version++;
+                scheduleChanges(CHANGE_WINDOW_MS);
+            }
         } else if (syncKind == TextDocumentSyncKind.Full) {
-            changesParams.getContentChanges().get(0).setText(document.getText());
+            synchronized (this) {
+                isFullTextPending = true;
+                version++;
+                long sinceLastFullSync = System.currentTimeMillis() - lastFullSyncMillis;
+                scheduleChanges(Math.max(CHANGE_WINDOW_MS, FULL_SYNC_INTERVAL_MS - sinceLastFullSync));
+            }
+        }
+    }
+
+    /**
+     * Send the queued changes on the calling thread, so that a request sent after it, e.g. on the EDT, is handled on
+     * the latest document. Sending a notification only writes it to the server, it doesn't wait for the server.
+     */
+    public void flushPendingChanges() {
+        synchronized (this) {
+            if (pendingChanges.isEmpty() && !isFullTextPending) {
+                return;
+            }
+        }
+        sendPendingChanges();
+    }
+
+    private void scheduleChanges(long delayMillis) {
+        if (scheduledChanges == null || scheduledChanges.isDone()) {
+            scheduledChanges = SCHEDULER.schedule(() -> ApplicationUtils.pool(this::sendPendingChanges),
+                    delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Merge the insertion typed right after the last pending insertion on the same line into it.
+     */
+    private boolean mergeInsertion(TextDocumentContentChangeEvent change) {
+        if (pendingChanges.isEmpty()) {
+            return false;
+        }
+        TextDocumentContentChangeEvent last = pendingChanges.get(pendingChanges.size() - 1);
+        Range lastRange = last.getRange();
+        Range range = change.getRange();
+        boolean isInsertion = lastRange.getStart().equals(lastRange.getEnd()) && range.getStart().equals(range.getEnd());
+        if (!isInsertion || last.getText().contains("\n") || change.getText().contains("\n")) {
+            return false;
+        }
+        Position end = lastRange.getStart();
+        if (range.getStart().getLine() != end.getLine()
+                || range.getStart().getCharacter() != end.getCharacter() + last.getText().length()) {
+            return false;
+        }
+        last.setText(last.getText() + change.getText());
+        last.setRangeLength(last.getText().length());
+        return true;
+    }
+
+    /**
+     * Send the queued changes, the changes are taken and sent under {@link #sendLock}, so the notifications of the
+     * scheduled sends and the flushes are in order.
+     */
+    private void sendPendingChanges() {
+        synchronized (sendLock) {
+            if (!openDocuments.contains(document)) {
+                // the changes are kept for the open notification queued on the pool thread, which sends them
+                return;
+            }
+            List<TextDocumentContentChangeEvent> changes;
+            boolean isFullText;
+            int changedVersion;
+            synchronized (this) {
+                changes = new ArrayList<>(pendingChanges);
+                isFullText = isFullTextPending;
+                changedVersion = version;
+                pendingChanges.clear();
+                isFullTextPending = false;
+                if (isFullText) {
+                    lastFullSyncMillis = System.currentTimeMillis();
+                }
+            }
+            if (isFullText) {
+                // the immutable snapshot is read without a read action, which could wait for the write actions
+                changes = Collections.singletonList(new TextDocumentContentChangeEvent(
+                        document.getImmutableCharSequence().toString()));
+            }
+            if (changes.isEmpty()) {
+                return;
+            }
+            RequestManager requestManager = wrapper.getRequestManager();
+            if (requestManager == null) {
+                LOG.warn("the language server is stopped, discarding the document changes");
+                return;
+            }
+            DidChangeTextDocumentParams changesParams = new DidChangeTextDocumentParams(
+                    new VersionedTextDocumentIdentifier(identifier.getUri(), changedVersion), changes);
+            requestManager.didChange(changesParams);
         }
-        ApplicationUtils.pool(() -> wrapper.getRequestManager().didChange(changesParams));
     }
 
     public void documentOpened() {
-        if (openDocuments.contains(document)) {
-            LOG.warn("trying to send open notification for document which was already opened!");
-        } else {
-            openDocuments.add(document);
-            final String extension = FileDocumentManager.getInstance().getFile(document).getExtension();
-            wrapper.getRequestManager().didOpen(new DidOpenTextDocumentParams(new TextDocumentItem(identifier.getUri(),
-                    wrapper.serverDefinition.languageIdFor(extension),
-                    ++version,
-                    document.getText())));
+        synchronized (sendLock) {
+            if (openDocuments.contains(document)) {
+                LOG.warn("trying to send open notification for document which was already opened!");
+            } else {
+                openDocuments.add(document);
+                final String extension = FileDocumentManager.getInstance().getFile(document).getExtension();
+                final int openedVersion;
+                synchronized (this) {
+                    // the changes made before are in the opened text
+                    pendingChanges.clear();
+                    isFullTextPending = false;
+                    openedVersion = ++version;
+                }
+                wrapper.getRequestManager().didOpen(new DidOpenTextDocumentParams(new TextDocumentItem(identifier.getUri(),
+                        wrapper.serverDefinition.languageIdFor(extension),
+                        openedVersion,
+                        document.getText())));
+            }
         }
     }
 
     public void documentClosed() {
-        if (!openDocuments.contains(document)) {
-            LOG.warn("trying to close document which is not open");
-        } else if (EditorEventManagerBase.managersForUri(FileUtils.documentToUri(document)).size() > 1) {
-            LOG.warn("trying to close document which is still open in another editor!");
-        } else {
-            openDocuments.remove(document);
-            wrapper.getRequestManager().didClose(new DidCloseTextDocumentParams(identifier));
+        synchronized (sendLock) {
+            if (!openDocuments.contains(document)) {
+                LOG.warn("trying to close document which is not open");
+            } else if (EditorEventManagerBase.managersForUri(FileUtils.documentToUri(document)).size() > 1) {
+                LOG.warn("trying to close document which is still open in another editor!");
+            } else {
+                flushPendingChanges();
+                openDocuments.remove(document);
+                wrapper.getRequestManager().didClose(new DidCloseTextDocumentParams(identifier));
+            }
         }
     }
 }
@@ -228,8 +228,12 @@ public class EditorEventManager {
         return project;
     }
 
-    @SuppressWarnings("unused")
+    /**
+     * @return the request manager, the document changes queued are sent before returned, so that the requests are
+     * handled on the latest document
+     */
     public RequestManager getRequestManager() {
+        documentEventManager.flushPendingChanges();
         return wrapper.getRequestManager();
     }
 
@@ -370,7 +374,7 @@ public class EditorEventManager {
     private Location requestDefinition(Position position) {
         DefinitionParams params = new DefinitionParams(identifier, position);
         CompletableFuture<Either<List<? extends Location>, List<? extends LocationLink>>> request =
-                wrapper.getRequestManager().definition(params);
+                getRequestManager().definition(params);
 
         if (request == null) {
             return null;
@@ -416,7 +420,7 @@ public class EditorEventManager {
         ReferenceParams params = new ReferenceParams(textDocumentIdentifier, lspPos, new ReferenceContext(getOriginalElement));
         params.setPosition(lspPos);
         params.setTextDocument(identifier);
-        CompletableFuture<List<? extends Location>> request = wrapper.getRequestManager().references(params);
+        CompletableFuture<List<? extends Location>> request = getRequestManager().references(params);
         if (request != null) {
             try {
                 List<? extends Location> res = request.get(getTimeout(REFERENCES), TimeUnit.MILLISECONDS);
@@ -508,7 +512,7 @@ public class EditorEventManager {
         Point point = editor.logicalPositionToXY(lPos);
         SignatureHelpParams params = new SignatureHelpParams(identifier, DocumentUtils.logicalToLSPPos(lPos, editor));
         pool(() -> {
-            CompletableFuture<SignatureHelp> future = wrapper.getRequestManager().signatureHelp(params);
+            CompletableFuture<SignatureHelp> future = getRequestManager().signatureHelp(params);
             if (future == null) {
                 return;
             }
@@ -587,7 +591,7 @@ public class EditorEventManager {
             options.setInsertSpaces(DocumentUtils.shouldUseSpaces(editor));
             params.setOptions(options);
 
-            CompletableFuture<List<? extends TextEdit>> request = wrapper.getRequestManager().formatting(params);
+            CompletableFuture<List<? extends TextEdit>> request = getRequestManager().formatting(params);
             if (request == null) {
                 return;
             }
@@ -621,7 +625,7 @@ public class EditorEventManager {
             options.setInsertSpaces(DocumentUtils.shouldUseSpaces(editor));
             params.setOptions(options);
 
-            CompletableFuture<List<? extends TextEdit>> request = wrapper.getRequestManager().rangeFormatting(params);
+            CompletableFuture<List<? extends TextEdit>> request = getRequestManager().rangeFormatting(params);
             if (request == null) {
                 return;
             }
@@ -654,7 +658,7 @@ public class EditorEventManager {
             }
             Position servPos = DocumentUtils.offsetToLSPPos(editor, offset);
             RenameParams params = new RenameParams(identifier, servPos, renameTo);
-            CompletableFuture<WorkspaceEdit> request = wrapper.getRequestManager().rename(params);
+            CompletableFuture<WorkspaceEdit> request = getRequestManager().rename(params);
             if (request != null) {
                 request.thenAccept(res -> {
                     WorkspaceEditHandler
@@ -690,7 +694,7 @@ public class EditorEventManager {
      */
     private void requestAndShowDoc(LogicalPosition editorPos, Point point) {
         Position serverPos = computableReadAction(() -> DocumentUtils.logicalToLSPPos(editorPos, editor));
-        CompletableFuture<Hover> request = wrapper.getRequestManager().hover(new HoverParams(identifier, serverPos));
+        CompletableFuture<Hover> request = getRequestManager().hover(new HoverParams(identifier, serverPos));
         if (request == null) {
             return;
         }
@@ -742,7 +746,7 @@ public class EditorEventManager {
     public Iterable<? extends LookupElement> completion(Position pos) {
 
         List<LookupElement> lookupItems = new ArrayList<>();
-        CompletableFuture<Either<List<CompletionItem>, CompletionList>> request = wrapper.getRequestManager()
+        CompletableFuture<Either<List<CompletionItem>, CompletionList>> request = getRequestManager()
                 .completion(new CompletionParams(identifier, pos));
         if (request == null) {
             return lookupItems;
@@ -1144,7 +1148,7 @@ public class EditorEventManager {
                 ExecuteCommandParams params = new ExecuteCommandParams();
                 params.setArguments(c.getArguments());
                 params.setCommand(c.getCommand());
-                return wrapper.getRequestManager().executeCommand(params);
+                return getRequestManager().executeCommand(params);
             }).filter(Objects::nonNull).forEach(f -> {
                 try {
                     f.get(getTimeout(EXECUTE_COMMAND), TimeUnit.MILLISECONDS);
@@ -1235,7 +1239,7 @@ public class EditorEventManager {
         pool(() -> {
             if (!editor.isDisposed()) {
                 DidSaveTextDocumentParams params = new DidSaveTextDocumentParams(identifier, editor.getDocument().getText());
-                wrapper.getRequestManager().didSave(params);
+                getRequestManager().didSave(params);
             }
         });
     }
@@ -1250,7 +1254,7 @@ public class EditorEventManager {
         } else
             pool(() -> {
                 if (!editor.isDisposed()) {
-                    wrapper.getRequestManager().willSave(new WillSaveTextDocumentParams(identifier, TextDocumentSaveReason.Manual));
+                    getRequestManager().willSave(new WillSaveTextDocumentParams(identifier, TextDocumentSaveReason.Manual));
                 }
             });
     }
@@ -1267,7 +1271,7 @@ public class EditorEventManager {
                 }
                 WillSaveTextDocumentParams params = new WillSaveTextDocumentParams(identifier,
                         TextDocumentSaveReason.Manual);
-                CompletableFuture<List<TextEdit>> future = wrapper.getRequestManager().willSaveWaitUntil(params);
+                CompletableFuture<List<TextEdit>> future = getRequestManager().willSaveWaitUntil(params);
                 if (future != null) {
                     try {
                         List<TextEdit> edits = future.get(getTimeout(WILLSAVE), TimeUnit.MILLISECONDS);
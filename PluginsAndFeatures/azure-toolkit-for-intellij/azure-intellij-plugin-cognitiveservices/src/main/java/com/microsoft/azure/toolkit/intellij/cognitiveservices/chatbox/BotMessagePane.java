@@ -39,7 +39,7 @@ public class BotMessagePane {
         this.setValue(markdown);
     }
 
-    private void setValue(MarkdownText markdownText) {
+    public void setValue(MarkdownText markdownText) {
         this.markdownPane.setValue(markdownText);
         ApplicationManager.getApplication().invokeLater(() -> {
             this.contentPanel.revalidate();
@@ -9,16 +9,24 @@ import com.microsoft.azure.toolkit.intellij.cognitiveservices.model.SystemMessag
 import com.microsoft.azure.toolkit.lib.cognitiveservices.CognitiveAccount;
 import com.microsoft.azure.toolkit.lib.cognitiveservices.CognitiveDeployment;
 import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Stack;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+@Slf4j
 public class ChatBot {
     @Getter
     private final Stack<ChatMessage> chatMessages = new Stack<>();
+    // the system message and examples, which are always sent
+    private int pinnedMessages;
     @Getter
     private final CognitiveDeployment deployment;
     private SystemMessage systemMessage;
@@ -47,6 +55,7 @@ public class ChatBot {
         this.systemMessage = SystemMessage.builder().systemMessage(systemMessage).build();
         this.chatMessages.clear();
         this.chatMessages.push(new ChatMessage(ChatRole.SYSTEM, systemMessage));
+        this.pinnedMessages = this.chatMessages.size();
     }
 
     public void setSystemMessage(@Nonnull final SystemMessage message) {
@@ -57,23 +66,61 @@ public class ChatBot {
             this.chatMessages.push(new ChatMessage(ChatRole.USER, example.getUser()));
             this.chatMessages.push(new ChatMessage(ChatRole.ASSISTANT, example.getAssistant()));
         }
+        this.pinnedMessages = this.chatMessages.size();
     }
 
     public void setConfiguration(@Nonnull final Configuration configuration) {
         this.configuration = configuration;
     }
 
-    public ChatChoice send(String message) {
+    /**
+     * send the message with the history within the token budget, the reply is streamed to {@code onDelta} piece by piece.
+     *
+     * @return the whole reply
+     */
+    public ChatMessage send(@Nonnull String message, @Nullable Consumer<String> onDelta) {
         this.chatMessages.push(new ChatMessage(ChatRole.USER, message));
         final String deploymentName = this.deployment.getName();
-        final ChatCompletions chatCompletions = this.client.getChatCompletions(deploymentName, buildChatOptions());
-        final ChatChoice chatChoice = chatCompletions.getChoices().get(0);
-        this.chatMessages.push(ChatMessage.fromResponse(chatChoice.getMessage()));
-        return chatChoice;
+        final List<ChatMessage> messages = this.getTrimmedMessages();
+        final StringBuilder content = new StringBuilder();
+        final long start = System.currentTimeMillis();
+        long firstDeltaAt = -1;
+        try {
+            for (final ChatCompletions chunk : this.client.getChatCompletionsStream(deploymentName, buildChatOptions(messages))) {
+                // the first chunk of Azure OpenAI carries the prompt filter results only, without choices
+                final String delta = Optional.ofNullable(chunk.getChoices()).flatMap(c -> c.stream().findFirst())
+                    .map(ChatChoice::getDelta).map(ChatResponseMessage::getContent).orElse(null);
+                if (StringUtils.isNotEmpty(delta)) {
+                    firstDeltaAt = firstDeltaAt < 0 ? System.currentTimeMillis() : firstDeltaAt;
+                    content.append(delta);
+                    Optional.ofNullable(onDelta).ifPresent(c -> c.accept(delta));
+                }
+            }
+        } catch (final RuntimeException e) {
+            this.chatMessages.pop(); // the query is not kept in history if failed
+            throw e;
+        }
+        log.debug("sent {} of {} messages (~{} tokens), first token in {} ms, whole reply in {} ms", messages.size(), this.chatMessages.size(),
+            ChatHistory.estimateTokens(messages), firstDeltaAt < 0 ? -1 : firstDeltaAt - start, System.currentTimeMillis() - start);
+        final ChatMessage reply = new ChatMessage(ChatRole.ASSISTANT, content.toString());
+        this.chatMessages.push(reply);
+        return reply;
+    }
+
+    /**
+     * @return the messages sent with the next query, i.e. the history trimmed to the configured token budget.
+     */
+    @Nonnull
+    public List<ChatMessage> getTrimmedMessages() {
+        return ChatHistory.trim(this.chatMessages, this.pinnedMessages, this.getMaxHistoryTokens());
+    }
+
+    private int getMaxHistoryTokens() {
+        return Optional.ofNullable(this.configuration).map(Configuration::getMaxHistoryTokens).orElse(ChatHistory.DEFAULT_MAX_TOKENS);
     }
 
-    private ChatCompletionsOptions buildChatOptions() {
-        final ChatCompletionsOptions result = new ChatCompletionsOptions(this.chatMessages.stream().map(ChatMessage::toRequest).filter(Objects::nonNull).collect(Collectors.toList()));
+    private ChatCompletionsOptions buildChatOptions(@Nonnull final List<ChatMessage> messages) {
+        final ChatCompletionsOptions result = new ChatCompletionsOptions(messages.stream().map(ChatMessage::toRequest).filter(Objects::nonNull).collect(Collectors.toList()));
         Optional.ofNullable(configuration).ifPresent(c -> {
             result.setFrequencyPenalty(c.getFrequencyPenalty());
             result.setPresencePenalty(c.getPresencePenalty());
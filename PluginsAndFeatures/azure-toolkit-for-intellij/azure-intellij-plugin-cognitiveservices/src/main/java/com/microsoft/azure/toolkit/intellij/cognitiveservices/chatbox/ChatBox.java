@@ -2,10 +2,7 @@
 
 package com.microsoft.azure.toolkit.intellij.cognitiveservices.chatbox;
 
-import com.azure.ai.openai.models.ChatChoice;
 import com.azure.ai.openai.models.ChatMessage;
-import com.azure.ai.openai.models.ChatResponseMessage;
-import com.azure.ai.openai.models.ChatRole;
 import com.intellij.ide.DataManager;
 import com.intellij.openapi.actionSystem.CommonDataKeys;
 import com.intellij.openapi.project.Project;
@@ -25,6 +22,7 @@ import com.microsoft.azure.toolkit.lib.common.task.AzureTask;
 import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
 import lombok.Getter;
 
+import javax.annotation.Nullable;
 import javax.swing.*;
 import javax.swing.border.CompoundBorder;
 import javax.swing.text.BadLocationException;
@@ -36,9 +34,13 @@ import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class ChatBox {
+    // the streamed reply is rendered at most once in the interval, since the markdown is rendered as a whole.
+    private static final long RENDER_INTERVAL_MILLIS = 100;
     @Getter
     private ChatBot chatBot;
     private JLabel sendBtn;
@@ -162,13 +164,16 @@ public class ChatBox {
         this.sendBtn.setToolTipText("Sending...");
         final AzureTaskManager tm = AzureTaskManager.getInstance();
         tm.runOnPooledThread(() -> {
+            final Turn turn = new Turn(prompt);
             try {
-                this.addMessage(new MarkdownText(prompt), ChatRole.USER);
+                turn.addQuery();
                 tm.runLater(() -> this.promptInput.setText(""));
-                final ChatChoice response = this.chatBot.send(prompt);
-                final ChatResponseMessage message = response.getMessage();
-                final String content = message.getContent();
-                this.addMessage(new MarkdownText(content), ChatRole.ASSISTANT);
+                final ChatMessage message = this.chatBot.send(prompt, turn::append);
+                turn.render(message.getContent());
+            } catch (final RuntimeException e) {
+                // the failed query is dropped from the history, so are it and the partial reply from the message box.
+                tm.runLater(turn::discard);
+                throw e;
             } finally {
                 tm.runLater(() -> {
                     this.sendBtn.setEnabled(true);
@@ -179,19 +184,14 @@ public class ChatBox {
         });
     }
 
-    private void addMessage(MarkdownText markdown, ChatRole role) {
-        final AzureTaskManager tm = AzureTaskManager.getInstance();
-        tm.runLater(() -> {
-            final JPanel message = role == ChatRole.USER ?
-                new UserMessagePane(markdown).getContentPanel() : new BotMessagePane(markdown).getContentPanel();
-            this.messageBox.add(message);
-            this.messageBox.revalidate();
-            this.messageBox.repaint();
-            this.scrollPane.revalidate();
-            this.scrollPane.repaint();
+    private void addMessagePanel(JPanel message) {
+        this.messageBox.add(message);
+        this.messageBox.revalidate();
+        this.messageBox.repaint();
+        this.scrollPane.revalidate();
+        this.scrollPane.repaint();
 
-            this.scrollToBottom();
-        });
+        this.scrollToBottom();
     }
 
     private void scrollToBottom() {
@@ -207,6 +207,79 @@ public class ChatBox {
         verticalBar.addAdjustmentListener(downScroller);
     }
 
+    /**
+     * the query and its reply being streamed, the reply is added to the message box at the first piece and then
+     * updated in place.
+     */
+    private class Turn {
+        private final String prompt;
+        private final StringBuilder content = new StringBuilder();
+        private final AtomicBoolean rendering = new AtomicBoolean(false);
+        private long renderedAt = 0;
+        @Nullable
+        private JPanel query; // accessed on EDT only
+        @Nullable
+        private BotMessagePane pane; // accessed on EDT only
+
+        Turn(String prompt) {
+            this.prompt = prompt;
+        }
+
+        void addQuery() {
+            AzureTaskManager.getInstance().runLater(() -> {
+                this.query = new UserMessagePane(new MarkdownText(this.prompt)).getContentPanel();
+                ChatBox.this.addMessagePanel(this.query);
+            });
+        }
+
+        void append(String delta) {
+            this.content.append(delta);
+            final long now = System.currentTimeMillis();
+            // skip the pieces received while the last rendering is pending, they are included in the next one.
+            if (now - this.renderedAt >= RENDER_INTERVAL_MILLIS && this.rendering.compareAndSet(false, true)) {
+                this.renderedAt = now;
+                final String text = this.content.toString();
+                AzureTaskManager.getInstance().runLater(() -> {
+                    this.doRender(text);
+                    this.rendering.set(false);
+                });
+            }
+        }
+
+        void render(String text) {
+            AzureTaskManager.getInstance().runLater(() -> this.doRender(text));
+        }
+
+        /**
+         * remove the query and the partial reply from the message box, and restore the query to the input for retry.
+         */
+        void discard() {
+            Optional.ofNullable(this.query).ifPresent(ChatBox.this.messageBox::remove);
+            Optional.ofNullable(this.pane).map(BotMessagePane::getContentPanel).ifPresent(ChatBox.this.messageBox::remove);
+            if (ChatBox.this.messageBox.getComponentCount() == 0) {
+                ChatBox.this.messageBox.setVisible(false);
+                ChatBox.this.placeholder.setVisible(true);
+            }
+            if (ChatBox.this.promptInput.getText().isBlank()) {
+                ChatBox.this.promptInput.setText(this.prompt);
+            }
+            ChatBox.this.messageBox.revalidate();
+            ChatBox.this.messageBox.repaint();
+            ChatBox.this.scrollPane.revalidate();
+            ChatBox.this.scrollPane.repaint();
+        }
+
+        private void doRender(String text) {
+            if (Objects.isNull(this.pane)) {
+                this.pane = new BotMessagePane(new MarkdownText(text));
+                ChatBox.this.addMessagePanel(this.pane.getContentPanel());
+            } else {
+                this.pane.setValue(new MarkdownText(text));
+                ChatBox.this.scrollToBottom();
+            }
+        }
+    }
+
     private void createUIComponents() {
         this.messageBox = new JPanel();
         this.messageBox.setLayout(new BoxLayout(this.messageBox, BoxLayout.Y_AXIS));
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.cognitiveservices.chatbox;
+
+import com.azure.ai.openai.models.ChatMessage;
+import com.azure.ai.openai.models.ChatRole;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the messages sent to the model within a token budget. The pinned messages (system message and examples) and
+ * the latest user query are always sent, the older turns are sent from the latest back as long as they fit in the
+ * budget. Tokens are estimated as roughly 4 characters each, plus a few tokens of each message for its role.
+ */
+public final class ChatHistory {
+    public static final int DEFAULT_MAX_TOKENS = 4000;
+    private static final int CHARS_PER_TOKEN = 4;
+    private static final int TOKENS_PER_MESSAGE = 4;
+
+    private ChatHistory() {
+    }
+
+    /**
+     * @param messages  the whole conversation, ending with the latest user query, or with the latest reply for the
+     *                  history to send with the next query, e.g. in the generated code
+     * @param pinned    count of the leading messages always sent, i.e. the system message and examples
+     * @param maxTokens the token budget of the messages sent
+     * @return the messages to send
+     */
+    @Nonnull
+    public static List<ChatMessage> trim(@Nonnull final List<ChatMessage> messages, final int pinned, final int maxTokens) {
+        if (messages.size() <= pinned) {
+            return new ArrayList<>(messages);
+        }
+        final List<ChatMessage> result = new ArrayList<>(messages.subList(0, pinned));
+        final ChatMessage last = messages.get(messages.size() - 1);
+        // the latest query is always sent, the turns before it are sent as long as they fit
+        final int end = last.getRole() == ChatRole.USER ? messages.size() - 1 : messages.size();
+        int budget = maxTokens - estimateTokens(result) - estimateTokens(messages.subList(end, messages.size()));
+        int start = end;
+        while (start > pinned && estimateTokens(messages.get(start - 1)) <= budget) {
+            start--;
+            budget -= estimateTokens(messages.get(start));
+        }
+        // a reply is not sent without its query
+        while (start < end && messages.get(start).getRole() != ChatRole.USER) {
+            start++;
+        }
+        result.addAll(messages.subList(start, messages.size()));
+        return result;
+    }
+
+    public static int estimateTokens(@Nonnull final List<ChatMessage> messages) {
+        return messages.stream().mapToInt(ChatHistory::estimateTokens).sum();
+    }
+
+    public static int estimateTokens(@Nonnull final ChatMessage message) {
+        return TOKENS_PER_MESSAGE + (StringUtils.length(message.getContent()) + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+}
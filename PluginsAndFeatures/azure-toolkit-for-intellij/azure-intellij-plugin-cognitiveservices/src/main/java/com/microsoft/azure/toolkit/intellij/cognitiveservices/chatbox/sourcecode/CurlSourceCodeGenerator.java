@@ -10,7 +10,6 @@ import lombok.SneakyThrows;
 import org.apache.commons.lang3.StringEscapeUtils;
 
 import java.util.List;
-import java.util.Stack;
 
 @Getter
 public class CurlSourceCodeGenerator implements ISourceCodeGenerator {
@@ -22,7 +21,7 @@ public class CurlSourceCodeGenerator implements ISourceCodeGenerator {
     public String generateCode(final ChatBot chatBot) {
         final String endpoint = chatBot.getDeployment().getEndpoint();
         final Configuration config = chatBot.getConfiguration();
-        final Stack<ChatMessage> messages = chatBot.getChatMessages();
+        final List<ChatMessage> messages = chatBot.getTrimmedMessages();
         final ObjectMapper mapper = new ObjectMapper();
         final List<ObjectNode> nodes = messages.stream().map(m -> {
             final ObjectNode node = mapper.createObjectNode();
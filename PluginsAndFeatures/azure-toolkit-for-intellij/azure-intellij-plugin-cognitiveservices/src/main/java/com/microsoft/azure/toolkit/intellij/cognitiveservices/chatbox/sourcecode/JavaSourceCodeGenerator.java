@@ -9,7 +9,7 @@ import lombok.Getter;
 import lombok.SneakyThrows;
 import org.apache.commons.lang3.StringEscapeUtils;
 
-import java.util.Stack;
+import java.util.List;
 import java.util.stream.Collectors;
 
 @Getter
@@ -24,7 +24,7 @@ public class JavaSourceCodeGenerator implements ISourceCodeGenerator {
         final CognitiveDeployment deployment = chatBot.getDeployment();
         final String endpoint = deployment.getParent().getEndpoint();
         final Configuration config = chatBot.getConfiguration();
-        final Stack<ChatMessage> messages = chatBot.getChatMessages();
+        final List<ChatMessage> messages = chatBot.getTrimmedMessages();
         final ObjectMapper mapper = new ObjectMapper();
         //noinspection deprecation
         final String msgs = messages.stream()
@@ -9,7 +9,6 @@ import lombok.Getter;
 import lombok.SneakyThrows;
 
 import java.util.List;
-import java.util.Stack;
 
 @Getter
 public class JsonSourceCodeGenerator implements ISourceCodeGenerator {
@@ -20,7 +19,7 @@ public class JsonSourceCodeGenerator implements ISourceCodeGenerator {
     @Override
     public String generateCode(final ChatBot chatBot) {
         final Configuration config = chatBot.getConfiguration();
-        final Stack<ChatMessage> messages = chatBot.getChatMessages();
+        final List<ChatMessage> messages = chatBot.getTrimmedMessages();
         final ObjectMapper mapper = new ObjectMapper();
         final List<ObjectNode> nodes = messages.stream().map(m -> {
             final ObjectNode node = mapper.createObjectNode();
@@ -12,7 +12,7 @@ import java.util.List;
 @EqualsAndHashCode
 public class Configuration {
     public static final Configuration DEFAULT = Configuration.builder().maxResponse(1000).temperature(0.7)
-        .topP(0.95).stopSequences(Collections.emptyList()).frequencyPenalty(0d).presencePenalty(0d).build();
+        .topP(0.95).stopSequences(Collections.emptyList()).frequencyPenalty(0d).presencePenalty(0d).maxHistoryTokens(4000).build();
 
     private Integer maxResponse;
     private Double temperature;
@@ -20,4 +20,6 @@ public class Configuration {
     private List<String> stopSequences;
     private Double frequencyPenalty;
     private Double presencePenalty;
+    // token budget of the system message, examples and history sent with each user query
+    private Integer maxHistoryTokens;
 }
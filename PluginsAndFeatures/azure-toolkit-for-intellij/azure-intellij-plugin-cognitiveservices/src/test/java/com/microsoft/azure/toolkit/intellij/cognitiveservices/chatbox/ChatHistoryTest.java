@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.cognitiveservices.chatbox;
+
+import com.azure.ai.openai.models.ChatMessage;
+import com.azure.ai.openai.models.ChatRole;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ChatHistoryTest {
+    // 4 tokens of the role and 25 tokens of the content each
+    private static final int TOKENS_PER_MESSAGE = 29;
+
+    @Test
+    public void testKeepAllWithinBudget() {
+        final List<ChatMessage> messages = conversation(3, 3);
+        Assert.assertEquals(messages, ChatHistory.trim(messages, 3, Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testTrimOldTurnsFromLatestBack() {
+        final List<ChatMessage> messages = conversation(3, 3);
+        // the pinned messages, the latest query and one more turn
+        final List<ChatMessage> trimmed = ChatHistory.trim(messages, 3, 6 * TOKENS_PER_MESSAGE);
+
+        Assert.assertEquals(6, trimmed.size());
+        Assert.assertEquals(messages.subList(0, 3), trimmed.subList(0, 3));
+        Assert.assertEquals(messages.subList(messages.size() - 3, messages.size()), trimmed.subList(3, 6));
+        Assert.assertTrue(ChatHistory.estimateTokens(trimmed) <= 6 * TOKENS_PER_MESSAGE);
+    }
+
+    @Test
+    public void testNotSendReplyWithoutQuery() {
+        final List<ChatMessage> messages = conversation(3, 3);
+        // room for the reply of the last turn but not its query
+        final List<ChatMessage> trimmed = ChatHistory.trim(messages, 3, 5 * TOKENS_PER_MESSAGE);
+
+        Assert.assertEquals(4, trimmed.size());
+        Assert.assertEquals(messages.subList(0, 3), trimmed.subList(0, 3));
+        Assert.assertEquals(messages.get(messages.size() - 1), trimmed.get(3));
+    }
+
+    @Test
+    public void testKeepPinnedAndQueryBeyondBudget() {
+        final List<ChatMessage> messages = conversation(5, 3);
+        final List<ChatMessage> expected = new ArrayList<>(messages.subList(0, 5));
+        expected.add(messages.get(messages.size() - 1));
+
+        // the budget is smaller than the pinned messages
+        Assert.assertEquals(expected, ChatHistory.trim(messages, 5, 2 * TOKENS_PER_MESSAGE));
+        Assert.assertEquals(expected, ChatHistory.trim(messages, 5, 0));
+    }
+
+    @Test
+    public void testTrimHistoryEndingWithReply() {
+        // the history sent with the next query, e.g. in the generated code
+        final List<ChatMessage> messages = conversation(3, 3);
+        messages.remove(messages.size() - 1);
+
+        final List<ChatMessage> trimmed = ChatHistory.trim(messages, 3, 5 * TOKENS_PER_MESSAGE);
+        Assert.assertEquals(5, trimmed.size());
+        Assert.assertEquals(messages.subList(messages.size() - 2, messages.size()), trimmed.subList(3, 5));
+
+        Assert.assertEquals(messages.subList(0, 3), ChatHistory.trim(messages, 3, 0));
+    }
+
+    @Test
+    public void testPinnedOnly() {
+        final List<ChatMessage> messages = conversation(3, 0);
+        messages.remove(messages.size() - 1);
+        Assert.assertEquals(messages, ChatHistory.trim(messages, 3, 0));
+    }
+
+    /**
+     * the pinned messages, the turns of a query and its reply, and the latest query.
+     */
+    private static List<ChatMessage> conversation(int pinned, int turns) {
+        final List<ChatMessage> messages = new ArrayList<>();
+        messages.add(message(ChatRole.SYSTEM));
+        for (int i = 1; i < pinned; i++) {
+            messages.add(message(i % 2 == 1 ? ChatRole.USER : ChatRole.ASSISTANT));
+        }
+        for (int i = 0; i < turns; i++) {
+            messages.add(message(ChatRole.USER));
+            messages.add(message(ChatRole.ASSISTANT));
+        }
+        messages.add(message(ChatRole.USER));
+        return messages;
+    }
+
+    private static ChatMessage message(ChatRole role) {
+        return new ChatMessage(role, StringUtils.repeat('x', 100));
+    }
+}
@@ -11,18 +11,42 @@ import com.microsoft.azure.hdinsight.common.AbfsUri;
 import com.microsoft.azure.hdinsight.common.AzureStorageUri;
 import com.microsoft.azure.hdinsight.sdk.common.HttpObservable;
 import com.microsoft.azure.hdinsight.sdk.common.errorresponse.ForbiddenHttpErrorStatus;
+import com.microsoft.azure.hdinsight.sdk.rest.azure.storageaccounts.RemoteFile;
 import com.microsoft.azure.hdinsight.sdk.storage.adlsgen2.ADLSGen2FSOperation;
 import com.microsoft.azure.hdinsight.spark.common.ADLSGen2Deploy;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import org.apache.commons.lang3.StringUtils;
 import rx.Observable;
+import rx.exceptions.Exceptions;
+import rx.schedulers.Schedulers;
+import rx.subjects.PublishSubject;
+import rx.subjects.SerializedSubject;
+import rx.subjects.Subject;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 
+/**
+ * The ADLS Gen2 file system, the children of a directory are listed page by page in background and cached by path.
+ * Listing a directory waits for the first page only, the following pages are appended to the cached children and
+ * notified by {@link #getChildrenUpdated()}. The cached children are returned until {@link #LISTING_TTL} after the
+ * listing completed, or invalidated by {@link #invalidate(VirtualFile)} or {@link #refresh(boolean)}, then they're
+ * still returned while the directory is listed again in background, and replaced when all pages are listed, with the
+ * files listed before reused.
+ */
 public class ADLSGen2FileSystem extends AzureStorageVirtualFileSystem {
     public static final String myProtocol = "abfs";
+    public static final Duration LISTING_TTL = Duration.ofSeconds(30);
 
     @Nullable
     private HttpObservable http;
@@ -30,6 +54,11 @@ public class ADLSGen2FileSystem extends AzureStorageVirtualFileSystem {
     private AbfsUri rootPathUri;
     private ADLSGen2FSOperation op;
 
+    // directory URL -> listing of the directory children
+    private final Map<String, DirectoryListing> listings = new ConcurrentHashMap<>();
+    private final Subject<AdlsGen2VirtualFile, AdlsGen2VirtualFile> childrenUpdated =
+            new SerializedSubject<>(PublishSubject.create());
+
     public ADLSGen2FileSystem(@NotNull HttpObservable http, @NotNull AbfsUri rootPathUri) {
         this.http = http;
         this.op = new ADLSGen2FSOperation(this.http);
@@ -42,34 +71,149 @@ public class ADLSGen2FileSystem extends AzureStorageVirtualFileSystem {
         return myProtocol;
     }
 
+    /**
+     * List the children of the directory, which waits for the first page if the directory isn't listed yet
+     *
+     * @return the children listed so far, the rest are notified by {@link #getChildrenUpdated()} when listed. The
+     * array is shared by the callers, which shouldn't modify it
+     */
     @NotNull
     public VirtualFile[] listFiles(AdlsGen2VirtualFile vf) {
-        List<AdlsGen2VirtualFile> childrenList = new ArrayList<>();
-        if (vf.isDirectory()) {
-            // sample fileSystemRootPath: https://accountName.dfs.core.windows.net/fileSystem/
-            String fileSystemRootPath = rootPathUri.resolve("/").getUrl().toString();
-            // sample directoryParam: sub/path/to
-            String directoryParam = vf.getAbfsUri().getDirectoryParam();
-            childrenList = this.op.list(fileSystemRootPath, directoryParam)
-                    // sample remoteFile.getName(): sub/path/to/SparkSubmission
-                    .map(remoteFile -> new AdlsGen2VirtualFile(
-                            (AbfsUri) AbfsUri.parse(fileSystemRootPath)
-                                    .resolveAsRoot(AzureStorageUri.encodeAndNormalizePath(remoteFile.getName())),
-                            remoteFile.isDirectory(),
-                            this))
-                    .doOnNext(file -> file.setParent(vf))
-                    .onErrorResumeNext(err -> {
-                                String errorMessage = "Failed to list folders and files with error " + err.getMessage() + ". ";
-                                if (err instanceof ForbiddenHttpErrorStatus) {
-                                    errorMessage += ADLSGen2Deploy.getForbiddenErrorHints(vf.toString());
-                                }
-                                return Observable.error(new IOException(errorMessage));
+        if (!vf.isDirectory()) {
+            return VirtualFile.EMPTY_ARRAY;
+        }
+
+        final DirectoryListing listing = listings.computeIfAbsent(vf.getUrl(), url -> startListing(vf));
+        if (listing.startRevalidating(System.currentTimeMillis())) {
+            revalidate(vf, listing);
+        }
+
+        try {
+            listing.firstPage.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw Exceptions.propagate(new IOException("Listing folders and files is interrupted", ex));
+        } catch (ExecutionException ex) {
+            listings.remove(vf.getUrl(), listing);
+            final Throwable err = ex.getCause();
+            String errorMessage = "Failed to list folders and files with error " + err.getMessage() + ". ";
+            if (err instanceof ForbiddenHttpErrorStatus) {
+                errorMessage += ADLSGen2Deploy.getForbiddenErrorHints(vf.toString());
+            }
+
+            // the message is shown as the root cause, e.g. by AzureStorageVirtualFile.getListChildrenErrorMessage()
+            throw Exceptions.propagate(new IOException(errorMessage));
+        }
+
+        return listing.children;
+    }
+
+    /**
+     * @return Observable: the directories whose children are appended by the pages listed in background, or
+     * replaced by listing again
+     */
+    @NotNull
+    public Observable<AdlsGen2VirtualFile> getChildrenUpdated() {
+        return childrenUpdated.asObservable();
+    }
+
+    /**
+     * Expire the cached children of the directory and its sub directories, they are listed again in background when
+     * requested
+     */
+    public void invalidate(@NotNull VirtualFile vf) {
+        final String url = StringUtils.stripEnd(vf.getUrl(), "/");
+        listings.forEach((listingUrl, listing) -> {
+            if (StringUtils.equals(StringUtils.stripEnd(listingUrl, "/"), url) || listingUrl.startsWith(url + "/")) {
+                listing.expire();
+            }
+        });
+    }
+
+    @NotNull
+    private DirectoryListing startListing(@NotNull AdlsGen2VirtualFile vf) {
+        final DirectoryListing listing = new DirectoryListing();
+        listPages(vf, Collections.emptyMap())
+                .subscribe(
+                        files -> {
+                            listing.append(files);
+
+                            // the first page is returned by listFiles(), the following ones are notified
+                            if (!listing.firstPage.complete(null)) {
+                                childrenUpdated.onNext(vf);
+                            }
+                        },
+                        err -> {
+                            if (!listing.firstPage.completeExceptionally(err)) {
+                                // the listed children are incomplete, list them again at the next time
+                                log().warn("Failed to list the rest folders and files of " + vf, err);
+                                listings.remove(vf.getUrl(), listing);
                             }
-                    )
-                    .toList().toBlocking().lastOrDefault(new ArrayList<>());
+                        },
+                        () -> {
+                            listing.complete(System.currentTimeMillis());
+                            listing.firstPage.complete(null);
+                        });
+
+        return listing;
+    }
+
+    /**
+     * List all pages of the directory again, the cached children are kept until the listing completes
+     */
+    private void revalidate(@NotNull AdlsGen2VirtualFile vf, @NotNull DirectoryListing listing) {
+        final Map<String, VirtualFile> cachedFiles = new HashMap<>();
+        for (final VirtualFile file : listing.children) {
+            cachedFiles.put(file.getUrl(), file);
         }
 
-        return childrenList.toArray(new VirtualFile[0]);
+        final List<VirtualFile> relisted = new ArrayList<>();
+        listPages(vf, cachedFiles)
+                .subscribe(
+                        relisted::addAll,
+                        err -> {
+                            // keep the cached children, and list again after the TTL
+                            log().warn("Failed to list folders and files of " + vf + " again", err);
+                            listing.complete(System.currentTimeMillis());
+                        },
+                        () -> {
+                            listing.replace(relisted.toArray(VirtualFile.EMPTY_ARRAY), System.currentTimeMillis());
+                            childrenUpdated.onNext(vf);
+                        });
+    }
+
+    /**
+     * @param cachedFiles the files listed before by URL, which are reused if still listed
+     */
+    @NotNull
+    private Observable<List<VirtualFile>> listPages(@NotNull AdlsGen2VirtualFile vf,
+                                                    @NotNull Map<String, VirtualFile> cachedFiles) {
+        // sample fileSystemRootPath: https://accountName.dfs.core.windows.net/fileSystem/
+        final String fileSystemRootPath = rootPathUri.resolve("/").getUrl().toString();
+        // sample directoryParam: sub/path/to
+        final String directoryParam = vf.getAbfsUri().getDirectoryParam();
+
+        return this.op.listPages(fileSystemRootPath, directoryParam)
+                .subscribeOn(Schedulers.io())
+                .map(remoteFiles -> {
+                    final List<VirtualFile> files = new ArrayList<>(remoteFiles.size());
+                    for (final RemoteFile remoteFile : remoteFiles) {
+                        // sample remoteFile.getName(): sub/path/to/SparkSubmission
+                        final AbfsUri fileUri = (AbfsUri) AbfsUri.parse(fileSystemRootPath)
+                                .resolveAsRoot(AzureStorageUri.encodeAndNormalizePath(remoteFile.getName()));
+                        final VirtualFile cached = cachedFiles.get(fileUri.getUrl().toString());
+                        if (cached != null && cached.isDirectory() == remoteFile.isDirectory()) {
+                            files.add(cached);
+                            continue;
+                        }
+
+                        final AdlsGen2VirtualFile file = new AdlsGen2VirtualFile(fileUri, remoteFile.isDirectory(), this);
+                        file.setParent(vf);
+                        files.add(file);
+                    }
+
+                    return files;
+                });
     }
 
     @Nullable
@@ -80,7 +224,7 @@ public class ADLSGen2FileSystem extends AzureStorageVirtualFileSystem {
 
     @Override
     public void refresh(boolean asynchronous) {
-
+        listings.values().forEach(DirectoryListing::expire);
     }
 
     @Nullable
@@ -142,4 +286,52 @@ public class ADLSGen2FileSystem extends AzureStorageVirtualFileSystem {
     public boolean isReadOnly() {
         return false;
     }
+
+    private static class DirectoryListing {
+        // replaced as a whole when appended, so the callers can share it
+        private volatile VirtualFile[] children = VirtualFile.EMPTY_ARRAY;
+        private final CompletableFuture<Void> firstPage = new CompletableFuture<>();
+        private boolean isCompleted = false;
+        private boolean isRevalidating = false;
+        private long completedAtMillis;
+
+        synchronized void append(@NotNull List<? extends VirtualFile> files) {
+            final VirtualFile[] appended = Arrays.copyOf(children, children.length + files.size());
+            for (int i = 0; i < files.size(); i++) {
+                appended[children.length + i] = files.get(i);
+            }
+
+            children = appended;
+        }
+
+        synchronized void replace(@NotNull VirtualFile[] files, long nowMillis) {
+            children = files;
+            complete(nowMillis);
+        }
+
+        synchronized void complete(long nowMillis) {
+            isCompleted = true;
+            isRevalidating = false;
+            completedAtMillis = nowMillis;
+        }
+
+        /**
+         * @return whether the completed listing is expired and no other caller is listing it again
+         */
+        synchronized boolean startRevalidating(long nowMillis) {
+            if (!isCompleted || isRevalidating || nowMillis - completedAtMillis <= LISTING_TTL.toMillis()) {
+                return false;
+            }
+
+            isRevalidating = true;
+            return true;
+        }
+
+        /**
+         * Expire the completed listing, the listing in progress isn't affected since it's listing the latest
+         */
+        synchronized void expire() {
+            completedAtMillis = Long.MIN_VALUE / 2;
+        }
+    }
 }
@@ -9,21 +9,49 @@ import com.intellij.openapi.fileChooser.FileChooserDescriptor;
 import com.intellij.openapi.fileChooser.ex.FileChooserDialogImpl;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.microsoft.azure.toolkit.lib.common.task.AzureTask;
+import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
 import com.microsoft.azuretools.telemetry.TelemetryConstants;
 import com.microsoft.azuretools.telemetrywrapper.EventType;
 import com.microsoft.azuretools.telemetrywrapper.EventUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import rx.Observable;
+import rx.Subscription;
+import rx.subscriptions.CompositeSubscription;
 
 import java.awt.*;
+import java.util.concurrent.TimeUnit;
 
 public class StorageChooserDialogImpl extends FileChooserDialogImpl {
+    // the tree is updated at most once in the interval while the pages of large directories are listed
+    private static final long TREE_UPDATE_INTERVAL_MILLIS = 300;
     private FileChooserDescriptor myChooserDescriptor;
     private VirtualFile[] myChosenFiles = VirtualFile.EMPTY_ARRAY;
+    private final CompositeSubscription childrenUpdatedSubscriptions = new CompositeSubscription();
 
     public StorageChooserDialogImpl(@NotNull FileChooserDescriptor descriptor, @NotNull Component parent, @Nullable Project project) {
         super(descriptor, parent, project);
         this.myChooserDescriptor = descriptor;
+        descriptor.getRoots().stream()
+                .map(VirtualFile::getFileSystem)
+                .filter(ADLSGen2FileSystem.class::isInstance)
+                .map(ADLSGen2FileSystem.class::cast)
+                .distinct()
+                .map(this::subscribeChildrenUpdated)
+                .forEach(childrenUpdatedSubscriptions::add);
+    }
+
+    @NotNull
+    private Subscription subscribeChildrenUpdated(@NotNull ADLSGen2FileSystem fileSystem) {
+        return fileSystem.getChildrenUpdated()
+                .throttleLast(TREE_UPDATE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)
+                .onErrorResumeNext(Observable.empty())
+                .subscribe(dir -> AzureTaskManager.getInstance().runLater(() -> {
+                    if (!isDisposed()) {
+                        myFileSystemTree.updateTree();
+                    }
+                }, AzureTask.Modality.ANY));
     }
 
     @Override
@@ -56,6 +84,12 @@ public class StorageChooserDialogImpl extends FileChooserDialogImpl {
         return myChosenFiles;
     }
 
+    @Override
+    protected void dispose() {
+        childrenUpdatedSubscriptions.unsubscribe();
+        super.dispose();
+    }
+
     private boolean isTextFieldActive() {
         return myPathTextField.getField().getRootPane() != null;
     }
@@ -109,8 +109,12 @@ class SparkConsoleExecuteAction() : AzureAnAction(), DumbAware, ILogger {
             val codeHint = normalizedCodes.split("\n").first()
 
             Observable.fromCallable {
-                outputStream.write(normalizedCodes.toByteArray(UTF_8))
-                outputStream.flush()
+                // Write and flush as a whole against the other codes blocks being sent, the Livy console only waits
+                // for the statement submitted in flush(), so the following blocks are sent before its output is got
+                synchronized(outputStream) {
+                    outputStream.write(normalizedCodes.toByteArray(UTF_8))
+                    outputStream.flush()
+                }
 
                 normalizedCodes
             }
@@ -23,67 +23,74 @@
 package com.microsoft.azure.hdinsight.spark.console
 
 import com.microsoft.azure.hdinsight.common.logger.ILogger
-import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.Session
-import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.Statement
+import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.StatementQueue
 import com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.StatementOutput
+import rx.Subscription
 import java.io.InputStream
 import java.nio.charset.StandardCharsets.UTF_8
-import java.util.*
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.TimeUnit
 
-abstract class SparkLivySessionInputStream(val session: Session) : InputStream(), ILogger {
+/**
+ * The outputs of the statements done in the queue, which are read in the submitted order. The outputs are pushed
+ * once the statements are done, a reader waiting in [available] gets them at once instead of polling the statements.
+ */
+abstract class SparkLivySessionInputStream(val statementQueue: StatementQueue) : InputStream(), ILogger {
+    companion object {
+        // The max time to wait for the next output in available(), to check the stream closed in the interval
+        const val MAX_OUTPUT_WAIT_MILLIS = 1000L
+    }
+
+    @Volatile
     private var isClosed: Boolean = false
-    private var nextStatementId = 0
-    private var statementOutputQueue: ArrayDeque<Byte>? = null
+    private val statementOutputQueue = LinkedBlockingQueue<ByteArray>()
+    private var currentOutput: ByteArray? = null
+    private var currentOffset = 0
+    private val resultsSubscription: Subscription = statementQueue.results.subscribe(
+            { statement ->
+                statement.output
+                        ?.let { createStatementBytesQueue(it) }
+                        ?.let {
+                            log().debug("Statement ${statement.id} result $it")
+                            statementOutputQueue.put("$it\n".toByteArray(UTF_8))
+                        }
+            },
+            { err -> log().warn("Can't get the statement outputs of session ${statementQueue.session.name}", err) })
 
     override fun read(): Int {
-        if (isClosed) {
+        if (isClosed || !hasCurrentOutput()) {
             return -1
         }
 
-        return statementOutputQueue?.pollFirst()?.toInt() ?: -1
+        return currentOutput!![currentOffset++].toInt() and 0xFF
     }
 
     override fun close() {
         this.isClosed = true
+        resultsSubscription.unsubscribe()
     }
 
     override fun available(): Int {
-        if (this.isClosed || session.isStop) {
-            return 0;
+        if (this.isClosed || statementQueue.session.isStop) {
+            return 0
         }
 
-        if (isOutputEmpty()) {
-            fetchNextStatementOutput()
-
-            if (isOutputEmpty()) {
-                Thread.sleep(1000)
-            }
+        if (!hasCurrentOutput()) {
+            currentOutput = statementOutputQueue.poll(MAX_OUTPUT_WAIT_MILLIS, TimeUnit.MILLISECONDS)
+            currentOffset = 0
         }
 
-        return statementOutputQueue?.size ?: 0
+        return (currentOutput?.size ?: 0) - currentOffset
     }
 
     abstract fun createStatementBytesQueue(output: StatementOutput): String?
 
-    private fun fetchNextStatementOutput() {
-        val statement = Statement(session, nextStatementId)
-
-        try {
-            statementOutputQueue = statement.get()
-                    .map { stm ->
-                        createStatementBytesQueue(stm.output)?.let {
-                            log().debug("Statement $nextStatementId result $it")
-                            ArrayDeque("$it\n".toByteArray(UTF_8).toList())
-                        }
-                    }
-                    .toBlocking()
-                    .singleOrDefault(null)
-
-            nextStatementId++
-        } catch (err: Exception) {
-            log().debug("Can't get the $nextStatementId output", err)
+    private fun hasCurrentOutput(): Boolean {
+        if (currentOutput == null || currentOffset >= currentOutput!!.size) {
+            currentOutput = statementOutputQueue.poll()
+            currentOffset = 0
         }
-    }
 
-    private fun isOutputEmpty(): Boolean = (statementOutputQueue?.isEmpty() ?: true)
-}
\ No newline at end of file
+        return currentOutput != null
+    }
+}
@@ -22,41 +22,37 @@
 
 package com.microsoft.azure.hdinsight.spark.console
 
-import com.fasterxml.jackson.databind.ObjectMapper
 import com.microsoft.azure.hdinsight.common.logger.ILogger
-import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.Session
-import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.exceptions.StatementExecutionError
+import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.StatementQueue
 import org.apache.commons.io.output.ByteArrayOutputStream
 import java.nio.charset.Charset
 
-class SparkLivySessionOutputStream(val session: Session) : ByteArrayOutputStream(), ILogger {
+class SparkLivySessionOutputStream(val statementQueue: StatementQueue) : ByteArrayOutputStream(), ILogger {
+    @Synchronized
     override fun flush() {
         // Send the buffered statements into Livy services
-        if (!session.isStarted) {
-            throw SparkConsoleExceptions.LivyNotConnected("The Livy session to ${session.name} is not connected")
+        if (!statementQueue.session.isStarted) {
+            throw SparkConsoleExceptions.LivyNotConnected("The Livy session to ${statementQueue.session.name} is not connected")
         }
 
         val codes = toString(Charset.defaultCharset())
+        reset()
         log().debug("Send those codes to Livy: $codes")
 
-        session.runCodes(codes)
-                .doOnEach { reset() }
+        // Only wait for the statement posted, the outputs are read from the statement queue results in order
+        statementQueue.submit(codes)
                 .toBlocking()
                 .subscribe(
-                        { result ->
-                            log().debug("Livy running results: ${ObjectMapper().writeValueAsString(result)}")
-                        },
-                        { err -> when (err.cause) {
-                            is StatementExecutionError -> log().debug(err.message)
-                            else -> throw SparkConsoleExceptions.LivySessionExecuteError(
+                        { statement -> log().debug("Livy statement ${statement.id} is submitted") },
+                        { err -> throw SparkConsoleExceptions.LivySessionExecuteError(
                                 "Got the code `${
                                     codes.split(
                                         "\n"
                                     ).first()
                                 }` execution error:",
-                                err.cause ?: err
+                                err
                             )
-                        }}
+                        }
                 )
     }
-}
\ No newline at end of file
+}
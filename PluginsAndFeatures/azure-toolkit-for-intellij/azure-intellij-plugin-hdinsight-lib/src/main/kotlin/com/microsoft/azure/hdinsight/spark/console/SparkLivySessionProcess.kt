@@ -27,6 +27,7 @@ import com.intellij.remote.RemoteProcess
 import com.microsoft.azure.hdinsight.common.logger.ILogger
 import com.microsoft.azure.hdinsight.common.mvc.IdeSchedulers
 import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.Session
+import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.StatementQueue
 import rx.Observable
 import java.io.InputStream
 import java.io.OutputStream
@@ -41,13 +42,17 @@ class SparkLivySessionProcess(
 
     override fun killProcessTree(): Boolean = true
 
-    private val stdOutStream: InputStream = SparkLivySessionStdOutStream(session)
-    private val stdErrStream: InputStream = SparkLivySessionStdErrStream(session)
-    private val stdInStream: OutputStream = SparkLivySessionOutputStream(session)
+    // The codes written are submitted into the queue, and the outputs are read from the queue results
+    val statementQueue = StatementQueue(session)
+
+    private val stdOutStream: InputStream = SparkLivySessionStdOutStream(statementQueue)
+    private val stdErrStream: InputStream = SparkLivySessionStdErrStream(statementQueue)
+    private val stdInStream: OutputStream = SparkLivySessionOutputStream(statementQueue)
 
     override fun waitFor(): Int = 0
 
     override fun destroy() {
+        statementQueue.close()
         session.close()
         outputStream.close()
         errorStream.close()
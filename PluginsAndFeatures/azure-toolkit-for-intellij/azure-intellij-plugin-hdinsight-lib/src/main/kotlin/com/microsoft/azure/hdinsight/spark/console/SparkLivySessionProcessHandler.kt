@@ -27,12 +27,17 @@ import com.intellij.execution.process.ProcessOutputTypes.*
 import com.intellij.openapi.util.Key
 import com.microsoft.azure.hdinsight.common.logger.ILogger
 import com.microsoft.azure.hdinsight.spark.run.SparkSimpleLogStreamReader
+import rx.Subscription
 import rx.subjects.PublishSubject
 import java.io.OutputStream
 import java.nio.charset.StandardCharsets.UTF_8
+import java.util.concurrent.ConcurrentHashMap
 
 class SparkLivySessionProcessHandler(val process: SparkLivySessionProcess)
         : ProcessHandler(), AnsiEscapeDecoder.ColoredTextAcceptor, ILogger {
+    companion object {
+        const val PROGRESS_STEP_PERCENT = 10
+    }
 
     private val myAnsiEscapeDecoder = AnsiEscapeDecoder()
     private val sessionEventsSubject = PublishSubject.create<String>()
@@ -68,18 +73,39 @@ class SparkLivySessionProcessHandler(val process: SparkLivySessionProcess)
         super.notifyProcessTerminated(if (error == null) 0 else -1)
     }
 
+    /**
+     * Print the progress of the running statements, at most once per [PROGRESS_STEP_PERCENT] for a statement
+     */
+    private fun subscribeStatementsProgress(): Subscription {
+        val lastPrintedSteps = ConcurrentHashMap<Int, Int>()
+
+        return process.statementQueue.progress
+                .subscribe(
+                        { statement ->
+                            val percent = (statement.progress * 100).toInt()
+                            val step = percent / PROGRESS_STEP_PERCENT
+                            if (step > 0 && step > (lastPrintedSteps.put(statement.id, step) ?: 0)) {
+                                notifyTextAvailable("Statement ${statement.id} is running: $percent%\n", SYSTEM)
+                            }
+                        },
+                        { err -> log().warn("Spark Livy Session statements progress error", err) })
+    }
+
     override fun startNotify() {
         notifyTextAvailable("Start Apache Spark Livy Interactive Session Console in cluster ${process.session.baseUrl.host}...\n", SYSTEM)
         addProcessListener(object : ProcessAdapter() {
             override fun startNotified(event: ProcessEvent) {
                 val stdoutReader = SparkSimpleLogStreamReader(this@SparkLivySessionProcessHandler, process.inputStream, STDOUT)
                 val stderrReader = SparkSimpleLogStreamReader(this@SparkLivySessionProcessHandler, process.errorStream, STDERR)
+                val progressSubscription = subscribeStatementsProgress()
 
                 sessionEventsSubject.subscribe(
                         {},
                         { err -> log().warn("Spark Livy Session event error", err) },
                         {
                             try {
+                                progressSubscription.unsubscribe()
+
                                 // Stop readers when the process is finished
                                 stderrReader.stop()
                                 stdoutReader.stop()
@@ -22,10 +22,10 @@
 
 package com.microsoft.azure.hdinsight.spark.console
 
-import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.Session
+import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.StatementQueue
 import com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.StatementOutput
 
-class SparkLivySessionStdOutStream(session: Session) : SparkLivySessionInputStream(session) {
+class SparkLivySessionStdOutStream(statementQueue: StatementQueue) : SparkLivySessionInputStream(statementQueue) {
     override fun createStatementBytesQueue(output: StatementOutput): String? = when (output.status.toLowerCase()) {
         "ok" -> output.data["text/plain"]
         else -> null
@@ -53,10 +53,20 @@ object SparkClustersServices {
                     .map { it.accounts.asIterable().toList() }
                     .share()
 
+    // The clusters saved in catalog, loaded in background to fill the cluster list before refreshed
+    val hdinsightSparkClustersCached: Observable<List<IClusterDetail>>
+        get() = ClusterManagerEx.getInstance().loadCachedClusters()
+                .map { clusters -> clusters.asSequence()
+                        .filter { ClusterManagerEx.getInstance().hdInsightClusterFilterPredicate.test(it) }
+                        .toList()
+                }
+
+    // Emit the clusters saved in catalog first, then again each time the clusters of a subscription are refreshed
     val hdinsightSparkClustersRefreshed: Observable<List<IClusterDetail>>
-        get() = fromCallable {
-            ClusterManagerEx.getInstance().clusterDetails.asSequence()
-                    .filter { ClusterManagerEx.getInstance().hdInsightClusterFilterPredicate.test(it) }
-                    .toList()
-        }.share()
+        get() = ClusterManagerEx.getInstance().refreshClusterDetails()
+                .map { clusters -> clusters.asSequence()
+                        .filter { ClusterManagerEx.getInstance().hdInsightClusterFilterPredicate.test(it) }
+                        .toList()
+                }
+                .share()
 }
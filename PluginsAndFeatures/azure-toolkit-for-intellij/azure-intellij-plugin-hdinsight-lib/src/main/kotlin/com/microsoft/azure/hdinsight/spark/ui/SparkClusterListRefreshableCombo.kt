@@ -37,6 +37,7 @@ import com.microsoft.azure.hdinsight.spark.service.SparkClustersServices.arcadia
 import com.microsoft.azure.hdinsight.spark.service.SparkClustersServices.arisSparkClustersRefreshed
 import com.microsoft.azure.hdinsight.spark.service.SparkClustersServices.cosmosServerlessSparkAccountsRefreshed
 import com.microsoft.azure.hdinsight.spark.service.SparkClustersServices.cosmosSparkClustersRefreshed
+import com.microsoft.azure.hdinsight.spark.service.SparkClustersServices.hdinsightSparkClustersCached
 import com.microsoft.azure.hdinsight.spark.service.SparkClustersServices.hdinsightSparkClustersRefreshed
 import com.microsoft.azure.projectarcadia.common.ArcadiaSparkComputeManager
 import com.microsoft.azure.sqlbigdata.sdk.cluster.SqlBigDataLivyLinkClusterDetail
@@ -112,7 +113,8 @@ open class SparkClusterListRefreshableCombo: ILogger, Disposable {
     }
 
     open inner class ViewModel(private val initClusters: Array<IClusterDetail>,
-                               val clusterIdMapper: (IClusterDetail?) -> String? = { cluster -> cluster?.clusterIdForConfiguration })
+                               val clusterIdMapper: (IClusterDetail?) -> String? = { cluster -> cluster?.clusterIdForConfiguration },
+                               private val cachedClustersLoader: Observable<out List<IClusterDetail>> = empty())
         : DisposableObservers() {
 
         val clusterListModelBehavior: BehaviorSubject<ImmutableComboBoxModel<IClusterDetail>> = disposableSubjectOf {
@@ -178,6 +180,16 @@ open class SparkClusterListRefreshableCombo: ILogger, Disposable {
                             { log().warn("Refresh cluster failure", it) }
                     )
 
+            // Fill the empty cluster list with the cached clusters loaded in background, unless refreshed already
+            if (initClusters.isEmpty()) {
+                cachedClustersLoader
+                        .observeOn(myIdeaSchedulers.dispatchUIThread())
+                        .filter { clusterListModelBehavior.value.size == 0 }
+                        .subscribe(
+                                { clusterListModelBehavior.onNext(ImmutableComboBoxModel(it.toTypedArray())) },
+                                { log().warn("Load cached clusters failure", it) }
+                        )
+            }
         }
 
         open fun findClusterById(clustersModel: ComboBoxModel<IClusterDetail>, id: Any?): IClusterDetail? {
@@ -187,7 +199,8 @@ open class SparkClusterListRefreshableCombo: ILogger, Disposable {
 
     open val viewModel: ViewModel = ViewModel(ClusterManagerEx.getInstance().cachedClusters
             .filter { ClusterManagerEx.getInstance().hdInsightClusterFilterPredicate.test(it) }
-            .toTypedArray()).apply { Disposer.register(this@SparkClusterListRefreshableCombo, this@apply) }
+            .toTypedArray(), cachedClustersLoader = hdinsightSparkClustersCached)
+            .apply { Disposer.register(this@SparkClusterListRefreshableCombo, this@apply) }
 
     override fun dispose() {
     }
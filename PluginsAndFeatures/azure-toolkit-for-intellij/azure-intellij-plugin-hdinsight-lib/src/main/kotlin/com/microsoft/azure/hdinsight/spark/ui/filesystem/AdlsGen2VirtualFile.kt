@@ -47,14 +47,16 @@ open class AdlsGen2VirtualFile(val abfsUri: AbfsUri, private val myIsDirectory:
         this.parent = parent
     }
 
-    override fun getChildren(): Array<VirtualFile>? = myLazyChildren
+    // the children are cached by the file system, which lists them again when expired or invalidated
+    override fun getChildren(): Array<VirtualFile>? = (myFileSystem as? ADLSGen2FileSystem)?.listFiles(this)
 
     override fun getUrl(): String {
         return abfsUri.url.toString()
     }
 
-    private val myLazyChildren: Array<VirtualFile>? by lazy {
-        (myFileSystem as? ADLSGen2FileSystem)?.listFiles(this)
+    override fun refresh(asynchronous: Boolean, recursive: Boolean, postRunnable: Runnable?) {
+        (myFileSystem as? ADLSGen2FileSystem)?.invalidate(this)
+        postRunnable?.run()
     }
 
     override fun toString(): String {
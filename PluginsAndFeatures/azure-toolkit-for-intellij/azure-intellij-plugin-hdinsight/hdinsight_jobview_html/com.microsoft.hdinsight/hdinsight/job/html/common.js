@@ -79,6 +79,93 @@ function getMessageAsync(url, type, callback, appId) {
     xmlHttp.send(null);
 }
 
+/*
+ * Get a JSON array response written with the chunked transfer encoding, and hand over the elements parsed so far
+ * each time more of the response arrives, rather than waiting for the whole array.
+ * The array elements should be JSON objects or arrays.
+ */
+function getJsonArrayElementsAsync(url, type, onElements, appId) {
+    var queries = {
+        'http-type' : type || 'spark',
+        'cluster-name' : spark.clusterName || '0',
+        'appId' : appId || '0'
+    };
+    var queryString = serializeQuery(queries);
+
+    // The incremental scanning state of the response text
+    var scanPos = 0;
+    var elementStart = -1;
+    var depth = 0;
+    var isInString = false;
+    var isEscaped = false;
+
+    function consumeElements() {
+        var text = xmlHttp.responseText;
+        var elements = [];
+
+        for (; scanPos < text.length; ++scanPos) {
+            var ch = text.charAt(scanPos);
+
+            if (isInString) {
+                if (isEscaped) {
+                    isEscaped = false;
+                } else if (ch === '\\') {
+                    isEscaped = true;
+                } else if (ch === '"') {
+                    isInString = false;
+                }
+            } else if (ch === '"') {
+                isInString = true;
+            } else if (ch === '{' || ch === '[') {
+                if (depth === 1) {
+                    elementStart = scanPos;
+                }
+                ++depth;
+            } else if (ch === '}' || ch === ']') {
+                --depth;
+                if (depth === 1 && elementStart >= 0) {
+                    elements.push(JSON.parse(text.substring(elementStart, scanPos + 1)));
+                    elementStart = -1;
+                }
+            }
+        }
+
+        if (elements.length > 0 && onElements) {
+            onElements(elements);
+        }
+    }
+
+    var xmlHttp = new XMLHttpRequest();
+    xmlHttp.timeout = 60 * 1000;
+    xmlHttp.ontimeout = function () {
+        if (--asyncMessageCounter === 0) {
+            $('body').css("cursor", "default");
+        }
+    };
+    ++asyncMessageCounter;
+    $('body').css("cursor", "progress");
+
+    xmlHttp.onprogress = function () {
+        if (xmlHttp.status === 200) {
+            consumeElements();
+        }
+    };
+
+    xmlHttp.onreadystatechange = function () {
+        if (xmlHttp.readyState === 4) {
+            if (--asyncMessageCounter === 0) {
+                $('body').css("cursor", "default");
+            }
+            if (xmlHttp.status === 200) {
+                consumeElements();
+            }
+        }
+    };
+
+    xmlHttp.open('GET', spark.localhost + url + '?' + queryString, true);
+    xmlHttp.send(null);
+}
+
 function sendActionSingle(url) {
     getMessageAsync(url, null, null, spark.appId)
 }
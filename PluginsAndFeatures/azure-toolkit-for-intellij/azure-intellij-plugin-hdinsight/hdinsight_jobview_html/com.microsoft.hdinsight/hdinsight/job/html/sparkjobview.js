@@ -351,8 +351,12 @@ function renderStageDetails() {
 }
 
 function renderTaskDetails() {
-    getMessageAsync('/applications/tasks_summary','spark', function(s){
-        var tasks = JSON.parse(s);
+    var tasks = [];
+    d3.select('#taskSummaryTbody').selectAll('tr').remove();
+
+    // The tasks are streamed stage by stage, render the rows of each stage once it arrives
+    getJsonArrayElementsAsync('/applications/tasks_summary', 'spark', function (stageTasks) {
+        tasks = tasks.concat(stageTasks);
         renderTaskSummary(tasks);
     }, spark.appId);
 }
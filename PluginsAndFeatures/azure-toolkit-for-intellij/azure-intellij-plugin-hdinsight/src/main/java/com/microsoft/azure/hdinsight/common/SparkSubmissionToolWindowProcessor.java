@@ -8,9 +8,11 @@ package com.microsoft.azure.hdinsight.common;
 import com.intellij.ide.ui.UISettings;
 import com.intellij.ide.ui.UISettingsListener;
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
 import com.intellij.openapi.wm.ToolWindow;
 import com.intellij.ui.components.JBScrollPane;
 import com.intellij.util.ui.JBUI;
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
 import com.microsoft.azure.hdinsight.sdk.cluster.EmulatorClusterDetail;
 import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
 import com.microsoft.azure.hdinsight.sdk.cluster.LivyCluster;
@@ -26,6 +28,12 @@ import com.microsoft.tooling.msservices.components.DefaultLoader;
 
 import javax.swing.*;
 import javax.swing.event.HyperlinkEvent;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Element;
+import javax.swing.text.StyleConstants;
+import javax.swing.text.html.HTML;
+import javax.swing.text.html.HTMLDocument;
+import javax.swing.text.html.StyleSheet;
 import java.awt.*;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
@@ -34,12 +42,15 @@ import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.net.URI;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
 
 import static com.microsoft.azuretools.telemetry.TelemetryConstants.HDINSIGHT;
 
-public class SparkSubmissionToolWindowProcessor implements IToolWindowProcessor {
+public class SparkSubmissionToolWindowProcessor implements IToolWindowProcessor, ILogger {
 
     private static final String yarnRunningUIUrlFormat = "%s/yarnui/hn/proxy/%s/";
     private static final String yarnRunningUIEmulatorUrlFormat = "%s/api/v1/applications/%s/";
@@ -48,9 +59,33 @@ public class SparkSubmissionToolWindowProcessor implements IToolWindowProcessor
     private JButton stopButton;
     private JButton openSparkUIButton;
 
+    // The retained log elements are limited, the oldest ones are removed from the view
+    private static final int MAX_RETAINED_ELEMENTS = 10000;
+
+    // The maximum elements appended to the view in one EDT event, to keep the IDE responsive for long logs
+    private static final int MAX_ELEMENTS_PER_FLUSH = 500;
+
     private String fontFace;
-    private final List<IHtmlElement> cachedInfo = new ArrayList<>();
-    private String toolWindowText;
+
+    // The retained elements, in the showing order
+    private final Deque<IHtmlElement> cachedInfo = new ArrayDeque<>();
+
+    // The elements added but not appended to the view yet
+    private final Deque<IHtmlElement> pendingElements = new ArrayDeque<>();
+
+    // The IDs of the cleaned elements to remove from the view
+    private final Set<String> pendingRemovedIds = new HashSet<>();
+
+    private boolean isClearPending = false;
+    private boolean isFlushScheduled = false;
+    private long elementCounter = 0;
+
+    // The element batches appended to the view, only accessed in EDT
+    private final Deque<RenderedBatch> renderedBatches = new ArrayDeque<>();
+    private long batchCounter = 0;
+
+    // The theme rules linked to the document style sheet, which are replaced as a whole on the theme changes
+    private StyleSheet themeStyleSheet;
 
     private PropertyChangeSupport changeSupport;
     private final ToolWindow toolWindow;
@@ -69,14 +104,7 @@ public class SparkSubmissionToolWindowProcessor implements IToolWindowProcessor
         UISettings.getInstance().addUISettingsListener(new UISettingsListener() {
             @Override
             public void uiSettingsChanged(final UISettings uiSettings) {
-                synchronized (this) {
-                    for (final IHtmlElement htmlElement : cachedInfo) {
-                        htmlElement.changeTheme();
-                    }
-
-                    setToolWindowText(parserHtmlElementList(cachedInfo));
-                }
-
+                applyThemeStyles();
             }
         }, ApplicationManager.getApplication());
 
@@ -176,6 +204,7 @@ public class SparkSubmissionToolWindowProcessor implements IToolWindowProcessor
         jEditorPanel.setEditable(false);
         jEditorPanel.setOpaque(false);
         jEditorPanel.setEditorKit(JEditorPane.createEditorKitForContentType("text/html"));
+        applyThemeStyles();
 
         jEditorPanel.addHyperlinkListener(e -> {
             if (e.getEventType() == HyperlinkEvent.EventType.ACTIVATED) {
@@ -216,9 +245,7 @@ public class SparkSubmissionToolWindowProcessor implements IToolWindowProcessor
             }
 
             private void changeSupportHandler(final PropertyChangeEvent evt) {
-                if ("toolWindowText".equals(evt.getPropertyName())) {
-                    jEditorPanel.setText(evt.getNewValue().toString());
-                } else if ("isStopButtonEnable".equals(evt.getPropertyName())) {
+                if ("isStopButtonEnable".equals(evt.getPropertyName())) {
                     stopButton.setEnabled(Boolean.parseBoolean(evt.getNewValue().toString()));
                 } else if ("isBrowserButtonEnable".equals(evt.getPropertyName())) {
                     openSparkUIButton.setEnabled(Boolean.parseBoolean(evt.getNewValue().toString()));
@@ -243,63 +270,35 @@ public class SparkSubmissionToolWindowProcessor implements IToolWindowProcessor
     }
 
     public synchronized void setHyperlink(final String hyperlinkUrl, final String anchorText) {
-        cachedInfo.add(new HyperLinkElement(fontFace,
-                                            DarkThemeManager.getInstance().getInfoColor(),
-                                            DarkThemeManager.getInstance().getHyperLinkColor(),
-                                            "",
-                                            hyperlinkUrl,
-                                            anchorText));
-        setToolWindowText(parserHtmlElementList(cachedInfo));
+        addElement(new HyperLinkElement(nextElementSequence(), "", hyperlinkUrl, anchorText));
     }
 
     public synchronized void setHyperLinkWithText(final String text,
                                                   final String hyperlinkUrl,
                                                   final String anchorText) {
-        cachedInfo.add(new HyperLinkElement(fontFace,
-                                            DarkThemeManager.getInstance().getInfoColor(),
-                                            DarkThemeManager.getInstance().getHyperLinkColor(),
-                                            text,
-                                            hyperlinkUrl,
-                                            anchorText));
-        setToolWindowText(parserHtmlElementList(cachedInfo));
+        addElement(new HyperLinkElement(nextElementSequence(), text, hyperlinkUrl, anchorText));
     }
 
     public synchronized void setError(final String errorInfo) {
-        cachedInfo.add(new TextElement(fontFace,
-                                       DarkThemeManager.getInstance().getErrorColor(),
-                                       errorInfo,
-                                       MessageInfoType.Error));
-        setToolWindowText(parserHtmlElementList(cachedInfo));
+        addElement(new TextElement(nextElementSequence(), errorInfo, MessageInfoType.Error));
     }
 
     public synchronized void setWarning(final String warningInfo) {
-        cachedInfo.add(new TextElement(fontFace,
-                                       DarkThemeManager.getInstance().getWarningColor(),
-                                       warningInfo,
-                                       MessageInfoType.Warning));
-        setToolWindowText(parserHtmlElementList(cachedInfo));
+        addElement(new TextElement(nextElementSequence(), warningInfo, MessageInfoType.Warning));
     }
 
     public synchronized void setInfo(final String info, final boolean isCleanable) {
 
         final TextElement element = isCleanable
-                                    ? new CleanableTextElement(fontFace,
-                                                               DarkThemeManager.getInstance().getInfoColor(),
-                                                               info,
-                                                               MessageInfoType.Info)
-                                    : new TextElement(fontFace,
-                                                      DarkThemeManager.getInstance().getInfoColor(),
-                                                      info,
-                                                      MessageInfoType.Info);
+                                    ? new CleanableTextElement(nextElementSequence(), info, MessageInfoType.Info)
+                                    : new TextElement(nextElementSequence(), info, MessageInfoType.Info);
 
         if (isCleanable) {
             ++cleanableMessageCounter;
             adjustCleanableMessage();
         }
 
-        cachedInfo.add(element);
-
-        setToolWindowText(parserHtmlElementList(cachedInfo));
+        addElement(element);
     }
 
     public void setInfo(final String info) {
@@ -312,15 +311,15 @@ public class SparkSubmissionToolWindowProcessor implements IToolWindowProcessor
 
     private void adjustCleanableMessage() {
         if (cleanableMessageCounter >= MAX_CLEANABLE_SIZE) {
-            int i = 0;
             int deleteMessageCounter = 0;
-            while (deleteMessageCounter < DELETE_SIZE && i < cachedInfo.size()) {
-                if (cachedInfo.get(i) instanceof CleanableTextElement) {
-                    cachedInfo.remove(i);
+            final Iterator<IHtmlElement> iterator = cachedInfo.iterator();
+            while (deleteMessageCounter < DELETE_SIZE && iterator.hasNext()) {
+                final IHtmlElement element = iterator.next();
+                if (element instanceof CleanableTextElement) {
+                    iterator.remove();
+                    removeFromView(element);
                     ++deleteMessageCounter;
                     --cleanableMessageCounter;
-                } else {
-                    ++i;
                 }
             }
         }
@@ -328,12 +327,171 @@ public class SparkSubmissionToolWindowProcessor implements IToolWindowProcessor
 
     public synchronized void clearAll() {
         cachedInfo.clear();
+        pendingElements.clear();
+        pendingRemovedIds.clear();
         cleanableMessageCounter = 0;
+        isClearPending = true;
+        scheduleFlush();
+    }
+
+    private long nextElementSequence() {
+        return elementCounter++;
+    }
+
+    private void addElement(final IHtmlElement element) {
+        cachedInfo.addLast(element);
+        pendingElements.addLast(element);
+
+        while (cachedInfo.size() > MAX_RETAINED_ELEMENTS) {
+            final IHtmlElement oldest = cachedInfo.removeFirst();
+            if (oldest instanceof CleanableTextElement) {
+                --cleanableMessageCounter;
+            }
+
+            // The pending elements are in the same order as the retained ones, and the appended ones are removed
+            // from the view with their whole batch
+            if (pendingElements.peekFirst() == oldest) {
+                pendingElements.removeFirst();
+            }
+        }
+
+        scheduleFlush();
     }
 
-    private void setToolWindowText(final String toolWindowText) {
-        changeSupport.firePropertyChange("toolWindowText", this.toolWindowText, toolWindowText);
-        this.toolWindowText = toolWindowText;
+    private void removeFromView(final IHtmlElement element) {
+        if (!pendingElements.remove(element)) {
+            pendingRemovedIds.add(element.getId());
+        }
+    }
+
+    private void scheduleFlush() {
+        if (!isFlushScheduled) {
+            isFlushScheduled = true;
+            // Not to block the log reading thread, the lines added before the EDT runs are appended in one batch
+            ApplicationManager.getApplication().invokeLater(this::flushPendingElements, ModalityState.any());
+        }
+    }
+
+    /**
+     * Apply the added and removed elements to the view incrementally, only the new elements are parsed and appended
+     * to the document.
+     */
+    private void flushPendingElements() {
+        if (!(jEditorPanel.getDocument() instanceof HTMLDocument)) {
+            // Not initialized yet, flush again with the next element added
+            synchronized (this) {
+                isFlushScheduled = false;
+            }
+
+            return;
+        }
+
+        final boolean isClearing;
+        final Set<String> removedIds;
+        final long oldestRetainedSequence;
+        final String renderedBatchId = "batch" + (batchCounter++);
+        final StringBuilder appendedHtml = new StringBuilder();
+        long lastAppendedSequence = -1;
+
+        synchronized (this) {
+            isFlushScheduled = false;
+            isClearing = isClearPending;
+            isClearPending = false;
+            removedIds = new HashSet<>(pendingRemovedIds);
+            pendingRemovedIds.clear();
+            oldestRetainedSequence = cachedInfo.isEmpty() ? elementCounter : cachedInfo.peekFirst().getSequence();
+
+            for (int i = 0; i < MAX_ELEMENTS_PER_FLUSH && !pendingElements.isEmpty(); i++) {
+                final IHtmlElement element = pendingElements.removeFirst();
+                appendedHtml.append(element.getHtmlString());
+                lastAppendedSequence = element.getSequence();
+            }
+
+            if (!pendingElements.isEmpty()) {
+                scheduleFlush();
+            }
+        }
+
+        if (isClearing) {
+            jEditorPanel.setText("");
+            renderedBatches.clear();
+        }
+
+        final HTMLDocument document = (HTMLDocument) jEditorPanel.getDocument();
+        final Element body = document.getElement(document.getDefaultRootElement(),
+                                                 StyleConstants.NameAttribute,
+                                                 HTML.Tag.BODY);
+        if (body == null) {
+            return;
+        }
+
+        try {
+            // Remove the batches of the elements out of the retained history, one by one removing is too slow
+            while (!renderedBatches.isEmpty()
+                    && renderedBatches.peekFirst().getLastSequence() < oldestRetainedSequence) {
+                final Element batch = document.getElement(renderedBatches.removeFirst().getId());
+                if (batch != null) {
+                    document.removeElement(batch);
+                }
+            }
+
+            if (!removedIds.isEmpty()) {
+                for (int i = body.getElementCount() - 1; i >= 0; i--) {
+                    final Element batch = body.getElement(i);
+                    for (int j = batch.getElementCount() - 1; j >= 0; j--) {
+                        final Element child = batch.getElement(j);
+                        if (removedIds.contains(child.getAttributes().getAttribute(HTML.Attribute.ID))) {
+                            document.removeElement(child);
+                        }
+                    }
+                }
+            }
+
+            if (appendedHtml.length() > 0) {
+                document.insertBeforeEnd(body,
+                                         String.format("<div id=\"%s\">%s</div>", renderedBatchId, appendedHtml));
+                renderedBatches.addLast(new RenderedBatch(renderedBatchId, lastAppendedSequence));
+            }
+        } catch (final BadLocationException | IOException ex) {
+            log().warn("Failed to update the Spark submission tool window", ex);
+        }
+    }
+
+    /**
+     * Style the log elements by the theme colors with the document style sheet, the view is re-created from the
+     * document model without parsing the HTML again.
+     */
+    void applyThemeStyles() {
+        if (!(jEditorPanel.getDocument() instanceof HTMLDocument)) {
+            return;
+        }
+
+        final HTMLDocument document = (HTMLDocument) jEditorPanel.getDocument();
+        final DarkThemeManager themeManager = DarkThemeManager.getInstance();
+        final StyleSheet newThemeStyleSheet = new StyleSheet();
+
+        newThemeStyleSheet.addRule(String.format("body { font-family: %s; }", fontFace));
+        newThemeStyleSheet.addRule("div { margin: 0; }");
+        newThemeStyleSheet.addRule(String.format(".%s { color: %s; }", MessageInfoType.Info, themeManager.getInfoColor()));
+        newThemeStyleSheet.addRule(String.format(".%s { color: %s; }", MessageInfoType.Error, themeManager.getErrorColor()));
+        newThemeStyleSheet.addRule(String.format(".%s { color: %s; }", MessageInfoType.Warning, themeManager.getWarningColor()));
+        newThemeStyleSheet.addRule(String.format("a { color: %s; }", themeManager.getHyperLinkColor()));
+
+        // Replace the rules of the last theme rather than adding more rules to the document style sheet
+        if (themeStyleSheet != null) {
+            document.getStyleSheet().removeStyleSheet(themeStyleSheet);
+        }
+
+        themeStyleSheet = newThemeStyleSheet;
+        document.getStyleSheet().addStyleSheet(themeStyleSheet);
+
+        // Re-create the views for the changed styles
+        jEditorPanel.setDocument(jEditorPanel.getEditorKit().createDefaultDocument());
+        jEditorPanel.setDocument(document);
+    }
+
+    JEditorPane getEditorPane() {
+        return jEditorPanel;
     }
 
     public synchronized void setStopButtonState(final Boolean newState) {
@@ -346,102 +504,98 @@ public class SparkSubmissionToolWindowProcessor implements IToolWindowProcessor
         changeSupport.firePropertyChange("isBrowserButtonEnable", oldState, newState);
     }
 
-    private String parserHtmlElementList(final List<? extends IHtmlElement> htmlElements) {
-        final StringBuilder builder = new StringBuilder();
-        for (final IHtmlElement e : htmlElements) {
-            builder.append(e.getHtmlString());
-        }
+    interface IHtmlElement {
+        long getSequence();
 
-        return builder.toString();
-    }
+        default String getId() {
+            return "log" + getSequence();
+        }
 
-    interface IHtmlElement {
         String getHtmlString();
-
-        void changeTheme();
     }
 
     static class TextElement implements IHtmlElement {
-        private final String fontFace;
-        private String fontColor;
+        private final long sequence;
         private final MessageInfoType messageInfoType;
         private final String text;
 
-        public TextElement(final String fontFace,
-                           final String fontColor,
+        public TextElement(final long sequence,
                            final String text,
                            final MessageInfoType messageInfoType) {
-            this.fontFace = fontFace;
-            this.fontColor = fontColor;
+            this.sequence = sequence;
             this.text = text;
             this.messageInfoType = messageInfoType;
         }
 
         @Override
-        public String getHtmlString() {
-            return String.format("<font color=\"%s\" face=\"%s\">%s</font><br />", fontColor, fontFace, text);
+        public long getSequence() {
+            return sequence;
         }
 
         @Override
-        public void changeTheme() {
-            if (messageInfoType == MessageInfoType.Info) {
-                this.fontColor = DarkThemeManager.getInstance().getInfoColor();
-            } else if (messageInfoType == MessageInfoType.Error) {
-                this.fontColor = DarkThemeManager.getInstance().getErrorColor();
-            } else if (messageInfoType == MessageInfoType.Warning) {
-                this.fontColor = DarkThemeManager.getInstance().getWarningColor();
-            }
+        public String getHtmlString() {
+            return String.format("<div id=\"%s\" class=\"%s\">%s</div>", getId(), messageInfoType, text);
         }
     }
 
     static class CleanableTextElement extends TextElement {
-        public CleanableTextElement(final String fontFace,
-                                    final String fontColor,
+        public CleanableTextElement(final long sequence,
                                     final String text,
                                     final MessageInfoType messageInfoType) {
-            super(fontFace, fontColor, text, messageInfoType);
+            super(sequence, text, messageInfoType);
         }
     }
 
     static class HyperLinkElement implements IHtmlElement {
-        private final String fontFace;
-        private final String fontColor;
-        private String hyperLinkColor;
+        private final long sequence;
         private final String text;
         private final String hyperlinkUrl;
         private final String anchorText;
 
-        public HyperLinkElement(final String fontFace,
-                                final String fontColor,
-                                final String hyperLinkColor,
+        public HyperLinkElement(final long sequence,
                                 final String text,
                                 final String hyperlinkUrl,
                                 final String anchorText) {
-            this.fontFace = fontFace;
-            this.fontColor = fontColor;
-            this.hyperLinkColor = hyperLinkColor;
+            this.sequence = sequence;
             this.text = text;
             this.hyperlinkUrl = hyperlinkUrl;
             this.anchorText = anchorText;
         }
 
         @Override
-        public String getHtmlString() {
-            return String.format(
-                    "<font color=\"%s\" face=\"%s\">%s</font><a href=\"%s\">"
-                            + "<font color=\"%s\" face=\"%s\">%s</font></a><br />",
-                    fontColor,
-                    fontFace,
-                    text,
-                    hyperlinkUrl,
-                    hyperLinkColor,
-                    fontFace,
-                    anchorText);
+        public long getSequence() {
+            return sequence;
         }
 
         @Override
-        public void changeTheme() {
-            this.hyperLinkColor = DarkThemeManager.getInstance().getHyperLinkColor();
+        public String getHtmlString() {
+            return String.format("<div id=\"%s\" class=\"%s\">%s<a href=\"%s\">%s</a></div>",
+                                 getId(),
+                                 MessageInfoType.Info,
+                                 text,
+                                 hyperlinkUrl,
+                                 anchorText);
+        }
+    }
+
+    /**
+     * The elements appended to the view in one flush, which are in a `div` block to remove them together
+     */
+    private static class RenderedBatch {
+        private final String id;
+        private final long lastSequence;
+
+        RenderedBatch(final String id, final long lastSequence) {
+            this.id = id;
+            this.lastSequence = lastSequence;
+        }
+
+        String getId() {
+            return id;
+        }
+
+        long getLastSequence() {
+            return lastSequence;
         }
     }
 }
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.common;
+
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.testFramework.LightPlatformTestCase;
+import com.intellij.testFramework.PlatformTestUtil;
+
+import javax.swing.*;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Element;
+import javax.swing.text.html.HTML;
+import javax.swing.text.html.HTMLDocument;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class SparkSubmissionToolWindowProcessorTest extends LightPlatformTestCase {
+    private static final int MAX_RETAINED_ELEMENTS = 10000;
+
+    private SparkSubmissionToolWindowProcessor processor;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        // Only the component of the tool window is used by the processor
+        final JPanel toolWindowComponent = new JPanel();
+        final ToolWindow toolWindow = (ToolWindow) Proxy.newProxyInstance(
+                ToolWindow.class.getClassLoader(),
+                new Class[]{ToolWindow.class},
+                (proxy, method, args) -> "getComponent".equals(method.getName()) ? toolWindowComponent : null);
+
+        processor = new SparkSubmissionToolWindowProcessor(toolWindow);
+        processor.initialize();
+    }
+
+    public void testAppendLines() {
+        processor.setInfo("first line");
+        processor.setError("second line");
+        processor.setHyperLinkWithText("see ", "https://example.invalid/logs", "logs");
+        flush();
+
+        assertEquals(Arrays.asList("log0", "log1", "log2"), getLogElementIds());
+        assertTrue(getText().contains("first line"));
+        assertTrue(getText().contains("second line"));
+        assertTrue(getText().contains("see logs"));
+    }
+
+    public void testClearAllEmptiesDocument() {
+        for (int i = 0; i < 1000; i++) {
+            processor.setInfo("line " + i);
+        }
+        flush();
+        assertEquals(1000, getLogElementIds().size());
+
+        processor.clearAll();
+        flush();
+
+        assertTrue(getLogElementIds().isEmpty());
+        assertTrue(getText().trim().isEmpty());
+
+        // The view keeps working after cleared
+        processor.setInfo("after clear");
+        flush();
+
+        assertEquals(1, getLogElementIds().size());
+        assertEquals("after clear", getText().trim());
+    }
+
+    public void testRemoveCleanedProgressLines() {
+        for (int i = 0; i < 400; i++) {
+            processor.setInfo("progress " + i, true);
+        }
+        processor.setInfo("done");
+        flush();
+
+        // The oldest 100 progress lines are cleaned when 400 ones are added
+        final List<String> ids = getLogElementIds();
+        assertEquals(301, ids.size());
+        assertEquals("log100", ids.get(0));
+        assertFalse(ids.contains("log99"));
+        assertTrue(getText().contains("done"));
+    }
+
+    public void testThemeChangeReplacesRules() {
+        final HTMLDocument document = (HTMLDocument) processor.getEditorPane().getDocument();
+
+        processor.applyThemeStyles();
+        processor.applyThemeStyles();
+        processor.applyThemeStyles();
+
+        // One linked theme style sheet, instead of the rules added again and again
+        assertEquals(1, document.getStyleSheet().getStyleSheets().length);
+    }
+
+    /**
+     * Append 100k lines in bursts as the Spark job output does, the history retained is bounded and every flush only
+     * parses the new lines. The time is printed as a reference, not asserted.
+     */
+    public void testAppend100kLines() {
+        final int lines = 100_000;
+        final int burst = 1000;
+        long maxFlushNanos = 0;
+        final long startNanos = System.nanoTime();
+
+        for (int i = 0; i < lines; i += burst) {
+            for (int j = i; j < i + burst; j++) {
+                processor.setInfo("INFO Executor: Finished task " + j + " in stage 0.0 (TID " + j + ")");
+            }
+
+            final long flushStartNanos = System.nanoTime();
+            flush();
+            maxFlushNanos = Math.max(maxFlushNanos, System.nanoTime() - flushStartNanos);
+        }
+
+        System.out.printf("Appended %d lines in %d ms, the max flush of %d lines took %d ms%n",
+                          lines, (System.nanoTime() - startNanos) / 1_000_000, burst, maxFlushNanos / 1_000_000);
+
+        final List<String> ids = getLogElementIds();
+        assertTrue(ids.size() <= MAX_RETAINED_ELEMENTS + burst);
+        assertEquals("log" + (lines - 1), ids.get(ids.size() - 1));
+        assertFalse(ids.contains("log0"));
+    }
+
+    private void flush() {
+        PlatformTestUtil.dispatchAllInvocationEventsInIdeEventQueue();
+    }
+
+    private String getText() {
+        final HTMLDocument document = (HTMLDocument) processor.getEditorPane().getDocument();
+
+        try {
+            return document.getText(0, document.getLength());
+        } catch (BadLocationException ex) {
+            throw new AssertionError(ex);
+        }
+    }
+
+    private List<String> getLogElementIds() {
+        final HTMLDocument document = (HTMLDocument) processor.getEditorPane().getDocument();
+        final List<String> ids = new ArrayList<>();
+
+        collectLogElementIds(document.getDefaultRootElement(), ids);
+
+        return ids;
+    }
+
+    private static void collectLogElementIds(Element element, List<String> ids) {
+        final Object id = element.getAttributes().getAttribute(HTML.Attribute.ID);
+        if (id != null && id.toString().startsWith("log")) {
+            ids.add(id.toString());
+        }
+
+        for (int i = 0; i < element.getElementCount(); i++) {
+            collectLogElementIds(element.getElement(i), ids);
+        }
+    }
+}
@@ -29,9 +29,10 @@ public class HighLightedCellRenderer extends ColoredTableCellRenderer {
             this.append(labelText);
             return;
         }
+        final String lowerCaseText = labelText.toLowerCase();
         int beginIndex = 0, endIndex;
         while (beginIndex < labelText.length()) {
-            endIndex = labelText.toLowerCase().indexOf(textToMatch, beginIndex);
+            endIndex = lowerCaseText.indexOf(textToMatch, beginIndex);
             endIndex = endIndex < 0 ? labelText.length() : endIndex;
             this.append(labelText.substring(beginIndex, endIndex));
             if (endIndex != labelText.length()) {
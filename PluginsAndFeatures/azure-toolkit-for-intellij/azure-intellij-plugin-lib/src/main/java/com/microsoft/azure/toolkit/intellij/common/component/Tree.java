@@ -5,7 +5,6 @@
 
 package com.microsoft.azure.toolkit.intellij.common.component;
 
-import com.google.common.collect.Sets;
 import com.intellij.openapi.actionSystem.DataProvider;
 import com.intellij.ui.LoadingNode;
 import com.intellij.ui.TreeUIHelper;
@@ -27,7 +26,6 @@ import javax.swing.*;
 import javax.swing.tree.*;
 import java.util.*;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 import static com.intellij.ui.AnimatedIcon.ANIMATION_IN_RENDERER_ALLOWED;
 
@@ -193,29 +191,51 @@ public class Tree extends SimpleTree implements DataProvider {
             });
         }
 
-        private void updateChildren(List<Node<?>> children) {
+        /**
+         * diff the children by their nodes: existing tree nodes are reused (with their children and expansion) and
+         * reordered, new ones are created and missing ones are removed, all applied by one structure change event.
+         */
+        void updateChildren(List<Node<?>> children) {
             AzureTaskManager.getInstance().runLater(() -> {
-                final Map<Node<?>, TreeNode<?>> oldChildren = IntStream.range(0, this.getChildCount() - 1).mapToObj(this::getChildAt)
-                    .filter(n -> n instanceof TreeNode<?>).map(n -> ((TreeNode<?>) n))
-                    .collect(Collectors.toMap(n -> n.inner, n -> n));
-
-                final Set<Node<?>> newChildrenNodes = new HashSet<>(children);
-                final Set<Node<?>> oldChildrenNodes = oldChildren.keySet();
-                Sets.difference(oldChildrenNodes, newChildrenNodes).forEach(o -> oldChildren.get(o).removeFromParent());
-
-                for (int i = 0; i < children.size(); i++) {
-                    final Node<?> node = children.get(i);
-                    if (!oldChildrenNodes.contains(node)) {
-                        this.insert(new TreeNode<>(node, this.tree), i);
-                    } else { // discarded nodes should be disposed manually to unregister listeners.
-                        node.dispose();
+                final List<javax.swing.tree.TreeNode> oldChildren = Collections.list(this.children());
+                final Map<Node<?>, TreeNode<?>> reusable = new HashMap<>();
+                oldChildren.stream().filter(n -> n instanceof TreeNode<?>).map(n -> ((TreeNode<?>) n))
+                    .forEach(n -> reusable.putIfAbsent(n.inner, n));
+                final List<TreePath> expandedPaths = Optional.ofNullable(this.tree.getExpandedDescendants(new TreePath(this.getPath())))
+                    .<List<TreePath>>map(Collections::list).orElseGet(Collections::emptyList);
+
+                final Vector<javax.swing.tree.TreeNode> newChildren = new Vector<>(children.size() + 1);
+                for (final Node<?> node : new LinkedHashSet<>(children)) {
+                    final TreeNode<?> old = reusable.remove(node);
+                    if (Objects.nonNull(old)) {
+                        if (old.inner != node) { // discarded nodes should be disposed manually to unregister listeners.
+                            node.dispose();
+                        }
+                        newChildren.add(old);
+                    } else {
+                        final TreeNode<?> created = new TreeNode<>(node, this.tree);
+                        created.setParent(this);
+                        newChildren.add(created);
                     }
                 }
-
-                this.removeLoadingNode();
-                this.addLoadMoreNode();
-                this.doUpdateChildren();
+                if (this.inner.hasMoreChildren()) {
+                    final LoadMoreNode loadMore = new LoadMoreNode();
+                    loadMore.setParent(this);
+                    newChildren.add(loadMore);
+                }
+                final Set<javax.swing.tree.TreeNode> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+                kept.addAll(newChildren);
+                oldChildren.stream().filter(o -> !kept.contains(o)).forEach(o -> ((MutableTreeNode) o).setParent(null));
+                this.children = newChildren;
                 this.loaded = true;
+
+                final DefaultTreeModel model = (DefaultTreeModel) this.tree.getModel();
+                if (Objects.nonNull(model) && (Objects.nonNull(this.getParent()) || Objects.equals(model.getRoot(), this))) {
+                    model.nodeStructureChanged(this);
+                    expandedPaths.stream()
+                        .filter(p -> ((DefaultMutableTreeNode) p.getLastPathComponent()).getRoot() == model.getRoot())
+                        .forEach(this.tree::expandPath);
+                }
             });
         }
 
@@ -1,40 +1,93 @@
 package com.microsoft.azure.toolkit.intellij.common.streaminglog;
 
+import com.intellij.execution.impl.ConsoleBuffer;
 import com.intellij.execution.impl.ConsoleViewImpl;
 import com.intellij.execution.ui.ConsoleViewContentType;
+import com.intellij.openapi.editor.impl.DocumentImpl;
 import com.intellij.openapi.project.Project;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.util.ui.JBUI;
+import com.intellij.util.ui.UIUtil;
+import com.microsoft.azure.toolkit.lib.common.task.AzureTask;
+import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
 import org.jetbrains.annotations.NotNull;
 import reactor.core.Disposable;
+import reactor.core.publisher.BufferOverflowStrategy;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
+import javax.swing.*;
+import java.awt.*;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
 import static com.intellij.execution.ui.ConsoleViewContentType.NORMAL_OUTPUT;
 import static com.intellij.execution.ui.ConsoleViewContentType.SYSTEM_OUTPUT;
 import static com.microsoft.azure.toolkit.intellij.common.AzureBundle.message;
 
+/**
+ * Console of streaming logs. The lines are printed in batches of up to {@link #MAX_BATCH_LINES} lines or every
+ * {@link #FLUSH_INTERVAL}, the next batch is printed after the EDT handled the last one. The batches waiting for the
+ * EDT are bounded, the oldest ones are dropped if the log is faster than the console. The rate of received lines and
+ * the dropped lines are shown below the console every {@link #STATUS_INTERVAL_MILLIS}.
+ */
 public class StreamingLogsConsoleView extends ConsoleViewImpl {
     private static final String SEPARATOR = System.getProperty("line.separator");
+    private static final int MAX_BATCH_LINES = 1000;
+    private static final Duration FLUSH_INTERVAL = Duration.ofMillis(100);
+    private static final int MAX_PENDING_BATCHES = 50;
+    private static final int MAX_SCROLLBACK_CHARS = 4 * 1024 * 1024;
+    private static final int STATUS_INTERVAL_MILLIS = 1000;
     private boolean isDisposed;
     private Disposable subscription;
+    private final AtomicLong receivedLines = new AtomicLong();
+    private final AtomicLong droppedLines = new AtomicLong();
+    // accessed on EDT only
+    private long lastStatusReceivedLines;
+    private long lastStatusMillis;
+    private boolean isScrollbackLimited;
+    private final JBLabel statusLabel;
+    private final Timer statusTimer;
 
     public StreamingLogsConsoleView(@NotNull Project project) {
         super(project, true);
         this.isDisposed = false;
         this.setUpdateFoldingsEnabled(false);
+        this.statusLabel = new JBLabel();
+        this.statusLabel.setFontColor(UIUtil.FontColor.BRIGHTER);
+        this.statusLabel.setBorder(JBUI.Borders.empty(2, 5));
+        this.statusLabel.setVisible(false);
+        this.add(statusLabel, BorderLayout.SOUTH);
+        // update the rate even if no lines arrive
+        this.statusTimer = new Timer(STATUS_INTERVAL_MILLIS, e -> updateStatus());
     }
 
     public void startStreamingLog(Flux<String> logStreaming) {
         if (!isActive()) {
             printlnToConsole(message("app.logStreaming.hint.connect"), SYSTEM_OUTPUT);
+            this.receivedLines.set(0);
+            this.droppedLines.set(0);
+            AzureTaskManager.getInstance().runLater(this::startStatus, AzureTask.Modality.ANY);
             subscription = logStreaming.subscribeOn(Schedulers.boundedElastic())
-                    .doAfterTerminate(() -> printlnToConsole(message("appService.logStreaming.hint.disconnected"), SYSTEM_OUTPUT))
-                    .subscribe((log) -> printlnToConsole(log, NORMAL_OUTPUT));
+                    .doOnNext(log -> receivedLines.incrementAndGet())
+                    .bufferTimeout(MAX_BATCH_LINES, FLUSH_INTERVAL)
+                    .onBackpressureBuffer(MAX_PENDING_BATCHES, batch -> droppedLines.addAndGet(batch.size()),
+                            BufferOverflowStrategy.DROP_OLDEST)
+                    .concatMap(this::printBatch, 1)
+                    .doAfterTerminate(() -> {
+                        printlnToConsole(message("appService.logStreaming.hint.disconnected"), SYSTEM_OUTPUT);
+                        AzureTaskManager.getInstance().runLater(statusTimer::stop, AzureTask.Modality.ANY);
+                    })
+                    .subscribe();
         }
     }
 
     public void closeStreamingLog() {
         if (isActive()) {
             subscription.dispose();
+            AzureTaskManager.getInstance().runLater(statusTimer::stop, AzureTask.Modality.ANY);
             printlnToConsole(message("appService.logStreaming.hint.disconnected"), SYSTEM_OUTPUT);
         }
     }
@@ -47,6 +100,54 @@ public class StreamingLogsConsoleView extends ConsoleViewImpl {
         return this.isDisposed;
     }
 
+    @NotNull
+    @Override
+    public JComponent getComponent() {
+        final JComponent component = super.getComponent();
+        // the editor is created by the first call
+        if (!isScrollbackLimited && getEditor() != null && getEditor().getDocument() instanceof DocumentImpl) {
+            isScrollbackLimited = true;
+            // retain the latest lines only, the document is trimmed from the head. The console cycle buffer of the IDE
+            // settings is kept if it's smaller, the streaming log is never unlimited even if the cycle buffer is off.
+            final int size = ConsoleBuffer.useCycleBuffer() ? Math.min(ConsoleBuffer.getCycleBufferSize(), MAX_SCROLLBACK_CHARS) : MAX_SCROLLBACK_CHARS;
+            ((DocumentImpl) getEditor().getDocument()).setCyclicBufferSize(size);
+        }
+        return component;
+    }
+
+    /**
+     * Print the lines with one insert, the returned mono completes after the EDT handled it.
+     */
+    private Mono<Void> printBatch(List<String> lines) {
+        return Mono.create(sink -> {
+            if (!lines.isEmpty()) {
+                final StringBuilder text = new StringBuilder();
+                lines.forEach(line -> text.append(line).append(SEPARATOR));
+                this.print(text.toString(), NORMAL_OUTPUT);
+            }
+            AzureTaskManager.getInstance().runLater(sink::success, AzureTask.Modality.ANY);
+        });
+    }
+
+    private void startStatus() {
+        this.lastStatusReceivedLines = 0;
+        this.lastStatusMillis = System.currentTimeMillis();
+        this.statusTimer.restart();
+    }
+
+    private void updateStatus() {
+        final long now = System.currentTimeMillis();
+        if (now <= lastStatusMillis) {
+            return;
+        }
+        final long received = receivedLines.get();
+        final long rate = (received - lastStatusReceivedLines) * 1000 / (now - lastStatusMillis);
+        statusLabel.setText(message("app.logStreaming.hint.status", rate, droppedLines.get()));
+        statusLabel.setVisible(true);
+        this.lastStatusReceivedLines = received;
+        this.lastStatusMillis = now;
+    }
+
     private void printlnToConsole(String message, ConsoleViewContentType consoleViewContentType) {
         this.print(message + SEPARATOR, consoleViewContentType);
     }
@@ -55,6 +156,7 @@ public class StreamingLogsConsoleView extends ConsoleViewImpl {
     public void dispose() {
         super.dispose();
         this.isDisposed = true;
+        this.statusTimer.stop();
         closeStreamingLog();
     }
 }
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.common.component;
+
+import com.intellij.testFramework.LightPlatformTestCase;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.microsoft.azure.toolkit.ide.common.component.Node;
+import com.microsoft.azure.toolkit.intellij.common.task.IntellijAzureTaskManager;
+import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
+
+import javax.swing.tree.TreeNode;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class TreeTest extends LightPlatformTestCase {
+    private Tree.TreeNode<?> root;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        AzureTaskManager.register(new IntellijAzureTaskManager());
+
+        final Node<String> rootNode = new Node<>("root").addChildren(d -> Collections.emptyList());
+        final Tree tree = new Tree(rootNode);
+        root = (Tree.TreeNode<?>) tree.getModel().getRoot();
+    }
+
+    public void testKeepChildrenOrder() {
+        update("a", "b", "c");
+        assertEquals(Arrays.asList("a", "b", "c"), getChildValues());
+
+        update("c", "a", "b");
+        assertEquals(Arrays.asList("c", "a", "b"), getChildValues());
+    }
+
+    public void testReuseTreeNodesOfEqualNodes() {
+        update("a", "b", "c");
+        final TreeNode a = root.getChildAt(0);
+        final TreeNode b = root.getChildAt(1);
+        final TreeNode c = root.getChildAt(2);
+
+        // the nodes built again are equal to the old ones by value, but not the same instances
+        update("c", "a", "d");
+
+        assertEquals(Arrays.asList("c", "a", "d"), getChildValues());
+        assertSame(c, root.getChildAt(0));
+        assertSame(a, root.getChildAt(1));
+        assertNull(b.getParent());
+        assertSame(root, root.getChildAt(2).getParent());
+    }
+
+    public void testKeepNodesPassedBack() {
+        update("a", "b");
+        final Tree.TreeNode<?> a = (Tree.TreeNode<?>) root.getChildAt(0);
+
+        root.updateChildren(Arrays.asList(a.getInner(), new Node<>("c")));
+        flush();
+
+        assertSame(a, root.getChildAt(0));
+        assertEquals(Arrays.asList("a", "c"), getChildValues());
+    }
+
+    private void update(String... values) {
+        root.updateChildren(Arrays.stream(values).<Node<?>>map(Node::new).collect(Collectors.toList()));
+        flush();
+    }
+
+    private List<Object> getChildValues() {
+        return Collections.list(root.children()).stream()
+            .map(n -> ((Tree.TreeNode<?>) n).getUserObject())
+            .collect(Collectors.toList());
+    }
+
+    private void flush() {
+        PlatformTestUtil.dispatchAllInvocationEventsInIdeEventQueue();
+    }
+}
@@ -32,6 +32,7 @@ import com.microsoft.azure.toolkit.intellij.monitor.view.right.filter.KustoFilte
 import com.microsoft.azure.toolkit.intellij.monitor.view.right.filter.TimeRangeFilterComboBox;
 import com.microsoft.azure.toolkit.intellij.monitor.view.right.table.LogTable;
 import com.microsoft.azure.toolkit.intellij.monitor.view.right.table.LogTableModel;
+import com.microsoft.azure.toolkit.intellij.monitor.view.right.table.LogTablePage;
 import com.microsoft.azure.toolkit.lib.Azure;
 import com.microsoft.azure.toolkit.lib.common.action.Action;
 import com.microsoft.azure.toolkit.lib.common.action.AzureActionManager;
@@ -126,15 +127,22 @@ public class MonitorLogTablePanel implements Disposable {
         AzureTaskManager.getInstance().runInBackground("load Azure Monitor data", () -> {
             try {
                 final LogsTable result = selectedWorkspace.executeQuery(queryString);
+                if (Objects.isNull(result) || result.getRows().isEmpty()) {
+                    return;
+                }
+                final List<LogsTableRow> rows = result.getRows();
+                final LogTableModel tableModel = new LogTableModel(rows.get(0));
                 AzureTaskManager.getInstance().runLater(() -> {
-                    if (Objects.isNull(result)) {
-                        return;
-                    }
-                    if (result.getAllTableCells().size() > 0) {
-                        this.exportAction.setEnabled(true);
-                        this.logTable.setModel(result.getRows());
-                    }
+                    this.exportAction.setEnabled(true);
+                    this.logTable.setModel(tableModel);
+                    this.logTable.filter(searchField.getText());
                 }, AzureTask.Modality.ANY);
+                // convert and show the rows page by page, the first page is shown before the others are converted
+                for (int from = 0; from < rows.size(); from += LogTableModel.PAGE_SIZE) {
+                    final int to = Math.min(rows.size(), from + LogTableModel.PAGE_SIZE);
+                    final LogTablePage page = tableModel.createPage(rows.subList(from, to));
+                    AzureTaskManager.getInstance().runLater(() -> tableModel.appendPage(page), AzureTask.Modality.ANY);
+                }
             } catch (final Exception e) {
                 throw new AzureToolkitRuntimeException(e);
             } finally {
@@ -297,8 +305,14 @@ public class MonitorLogTablePanel implements Disposable {
             }
             final CSVPrinter csvPrinter = new CSVPrinter(new FileWriter(target),
                     CSVFormat.Builder.create().setHeader(tableModel.getColumnNames().toArray(new String[0])).build());
-            for (final LogsTableRow row : tableModel.getLogsTableRows()) {
-                csvPrinter.printRecord(row.getRow().stream().map(LogsTableCell::getValueAsString).toList());
+            final int columnCount = tableModel.getColumnCount();
+            final List<String> record = new ArrayList<>(columnCount);
+            for (int rowIndex = 0; rowIndex < tableModel.getRowCount(); rowIndex++) {
+                record.clear();
+                for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
+                    record.add(tableModel.getRawValueAt(rowIndex, columnIndex));
+                }
+                csvPrinter.printRecord(record);
             }
             csvPrinter.close();
             AzureMessager.getMessager().success(message("azure.monitor.export.succeed.message", target.getAbsolutePath()),
@@ -5,7 +5,6 @@
 
 package com.microsoft.azure.toolkit.intellij.monitor.view.right.table;
 
-import com.azure.monitor.query.models.LogsTableRow;
 import com.intellij.ui.table.JBTable;
 import com.microsoft.azure.toolkit.intellij.common.CommonConst;
 import lombok.Getter;
@@ -15,9 +14,7 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.swing.*;
 import javax.swing.table.TableModel;
-import javax.swing.table.TableRowSorter;
 import java.awt.*;
-import java.util.List;
 import java.util.Optional;
 
 public class LogTable extends JBTable {
@@ -31,7 +28,6 @@ public class LogTable extends JBTable {
         this.setAutoscrolls(true);
         this.setAutoResizeMode(JBTable.AUTO_RESIZE_OFF);
         this.setPreferredScrollableViewportSize(null);
-        this.setAutoCreateRowSorter(true);
     }
 
     @Override
@@ -46,15 +42,20 @@ public class LogTable extends JBTable {
         return isValidRowIndex(row) && isValidColumnIndex(column) ? super.getValueAt(row, column) : null;
     }
 
-    public void setModel(List<LogsTableRow> logsTableRows) {
-        logTableModel = new LogTableModel(logsTableRows);
-        this.setModel(logTableModel);
+    /**
+     * Show the model, whose rows could be appended page by page after
+     */
+    public void setModel(LogTableModel logTableModel) {
+        this.logTableModel = logTableModel;
+        this.setModel((TableModel) logTableModel);
+        this.setRowSorter(new LogTableRowSorter(logTableModel));
         this.setColumnWidth();
     }
 
     public void clearModel() {
         this.logTableModel = new LogTableModel();
-        this.setModel(logTableModel);
+        this.setModel((TableModel) logTableModel);
+        this.setRowSorter(new LogTableRowSorter(logTableModel));
     }
 
     public void setLoading(boolean isLoading) {
@@ -67,14 +68,8 @@ public class LogTable extends JBTable {
     }
 
     public void filter(String stringToFilter) {
-        final RowFilter<TableModel, Object> rf;
-        try {
-            rf = RowFilter.regexFilter("(?i)" + stringToFilter);
-        } catch (final java.util.regex.PatternSyntaxException e) {
-            return;
-        }
-        if (this.getRowSorter() instanceof TableRowSorter<? extends TableModel>) {
-            ((TableRowSorter<? extends TableModel>) this.getRowSorter()).setRowFilter(rf);
+        if (this.getRowSorter() instanceof LogTableRowSorter) {
+            ((LogTableRowSorter) this.getRowSorter()).setFilterText(stringToFilter);
         }
     }
 
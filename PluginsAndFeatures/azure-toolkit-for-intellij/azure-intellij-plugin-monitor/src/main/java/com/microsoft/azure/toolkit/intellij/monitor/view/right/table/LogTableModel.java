@@ -8,45 +8,69 @@ package com.microsoft.azure.toolkit.intellij.monitor.view.right.table;
 import com.azure.monitor.query.models.LogsColumnType;
 import com.azure.monitor.query.models.LogsTableCell;
 import com.azure.monitor.query.models.LogsTableRow;
-import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
 import lombok.Getter;
-import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.Nls;
 
+import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import javax.swing.event.TableModelEvent;
-import javax.swing.event.TableModelListener;
-import javax.swing.table.TableModel;
-import java.time.OffsetDateTime;
-import java.time.format.DateTimeFormatter;
+import javax.swing.table.AbstractTableModel;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
 
-import static com.microsoft.azure.toolkit.intellij.common.AzureBundle.message;
-
-public class LogTableModel implements TableModel {
+/**
+ * The query result stored by columns in pages of {@link #PAGE_SIZE} rows. The pages are built off the EDT by
+ * {@link #createPage(List)} and appended on the EDT by {@link #appendPage(LogTablePage)}, the rows could be read
+ * from any thread, e.g. to sort, filter or export them.
+ */
+public class LogTableModel extends AbstractTableModel {
+    public static final int PAGE_SIZE = 5000;
     @Getter
     private final List<String> columnNames = new ArrayList<>();
     private final List<LogsColumnType> columnClasses = new ArrayList<>();
-    @Getter
-    private final List<LogsTableRow> logsTableRows = new ArrayList<>();
-    private final List<TableModelListener> tableModelListenerList = new ArrayList<>();
-
+    private final List<LogTablePage> pages = new CopyOnWriteArrayList<>();
+    private volatile int rowCount = 0;
 
     public LogTableModel() {
     }
 
-    public LogTableModel(List<LogsTableRow> logsTableRows ) {
-        this.columnClasses.addAll(logsTableRows.get(0).getRow().stream().map(LogsTableCell::getColumnType).toList());
-        this.columnNames.addAll(logsTableRows.get(0).getRow().stream().map(LogsTableCell::getColumnName).toList());
-        this.logsTableRows.addAll(logsTableRows);
+    /**
+     * @param header a row of the query result to take the column names and types from
+     */
+    public LogTableModel(@Nonnull LogsTableRow header) {
+        this.columnClasses.addAll(header.getRow().stream().map(LogsTableCell::getColumnType).toList());
+        this.columnNames.addAll(header.getRow().stream().map(LogsTableCell::getColumnName).toList());
+    }
+
+    @Nonnull
+    public LogTablePage createPage(@Nonnull List<LogsTableRow> rows) {
+        if (rows.size() > PAGE_SIZE) {
+            throw new IllegalArgumentException(String.format("a page has at most %s rows", PAGE_SIZE));
+        }
+        return new LogTablePage(this.columnClasses, rows);
+    }
+
+    /**
+     * Append the page to the end of the table, it should be called on the EDT
+     */
+    public void appendPage(@Nonnull LogTablePage page) {
+        if (rowCount % PAGE_SIZE != 0) {
+            throw new IllegalStateException("the last page is not full");
+        }
+        if (page.getRowCount() == 0) {
+            return;
+        }
+        final int firstRow = rowCount;
+        this.pages.add(page);
+        this.rowCount = firstRow + page.getRowCount();
+        fireTableRowsInserted(firstRow, rowCount - 1);
     }
 
     @Override
     public int getRowCount() {
-        return this.logsTableRows.size();
+        return this.rowCount;
     }
 
     @Override
@@ -90,60 +114,47 @@ public class LogTableModel implements TableModel {
         if (isRowInvalid(rowIndex)) {
             return null;
         }
-        final LogsColumnType type = this.columnClasses.get(columnIndex);
-        if (LogsColumnType.BOOL.equals(type)) {
-            return this.logsTableRows.get(rowIndex).getRow().get(columnIndex).getValueAsBoolean();
-        }
-        if (LogsColumnType.INT.equals(type)) {
-            return this.logsTableRows.get(rowIndex).getRow().get(columnIndex).getValueAsInteger();
-        }
-        if (LogsColumnType.LONG.equals(type)) {
-            return this.logsTableRows.get(rowIndex).getRow().get(columnIndex).getValueAsLong();
-        }
-        if (LogsColumnType.DATETIME.equals(type)) {
-            final OffsetDateTime dateTime = this.logsTableRows.get(rowIndex).getRow().get(columnIndex).getValueAsDateTime();
-            final DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.n a");
-            return Optional.ofNullable(dateTime).map(d -> dateTime.format(dateTimeFormatter)).orElse(StringUtils.EMPTY);
-        }
-        return this.logsTableRows.get(rowIndex).getRow().get(columnIndex).getValueAsString();
+        return this.pages.get(rowIndex / PAGE_SIZE).getValueAt(rowIndex % PAGE_SIZE, columnIndex);
     }
 
-    @Override
-    public void setValueAt(Object value, int rowIndex, int columnIndex) {
-        if (value != null && !(value instanceof String)) {
-            throw new IllegalArgumentException(message("function.appSettings.validate.illegalType"));
-        }
-        while (rowIndex >= this.logsTableRows.size()) {
-            final LogsTableCell newCell = new LogsTableCell(columnNames.get(columnIndex), LogsColumnType.STRING, columnIndex, rowIndex, value);
-            final LogsTableRow newRow = new LogsTableRow(rowIndex, List.of(newCell));
-            this.logsTableRows.add(newRow);
+    /**
+     * @return the cell value as returned by the query, which is exported
+     */
+    @Nullable
+    public String getRawValueAt(int rowIndex, int columnIndex) {
+        if (isRowInvalid(rowIndex)) {
+            return null;
         }
-        this.logsTableRows.get(rowIndex).getRow().add(columnIndex, new LogsTableCell(columnNames.get(columnIndex), LogsColumnType.STRING, columnIndex, rowIndex, value));
-        fireTableChanged();
+        return this.pages.get(rowIndex / PAGE_SIZE).getRawTextAt(rowIndex % PAGE_SIZE, columnIndex);
     }
 
-    @Override
-    public void addTableModelListener(TableModelListener l) {
-        tableModelListenerList.add(l);
+    /**
+     * @return whether any cell of the row displays a text found by the matcher
+     */
+    boolean matches(int rowIndex, @Nonnull Matcher matcher) {
+        final LogTablePage page = this.pages.get(rowIndex / PAGE_SIZE);
+        for (int columnIndex = 0; columnIndex < getColumnCount(); columnIndex++) {
+            if (matcher.reset(page.getTextAt(rowIndex % PAGE_SIZE, columnIndex)).find()) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    @Override
-    public void removeTableModelListener(TableModelListener l) {
-        tableModelListenerList.remove(l);
+    int compare(int rowIndex, int otherRowIndex, int columnIndex) {
+        return LogTablePage.compare(this.pages.get(rowIndex / PAGE_SIZE), rowIndex % PAGE_SIZE,
+                this.pages.get(otherRowIndex / PAGE_SIZE), otherRowIndex % PAGE_SIZE, columnIndex);
     }
 
     public void clear() {
         this.columnNames.clear();
-        this.logsTableRows.clear();
-        fireTableChanged();
-    }
-
-    private void fireTableChanged() {
-        tableModelListenerList.forEach(listener ->
-                AzureTaskManager.getInstance().runLater(() -> listener.tableChanged(new TableModelEvent(this))));
+        this.columnClasses.clear();
+        this.pages.clear();
+        this.rowCount = 0;
+        fireTableStructureChanged();
     }
 
     private boolean isRowInvalid(int row) {
-        return row < 0 || row >= this.logsTableRows.size();
+        return row < 0 || row >= this.rowCount;
     }
 }
@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.monitor.view.right.table;
+
+import com.azure.monitor.query.models.LogsColumnType;
+import com.azure.monitor.query.models.LogsTableCell;
+import com.azure.monitor.query.models.LogsTableRow;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A page of query result rows stored by columns. The bool, int, long and datetime cells are kept in primitive arrays
+ * instead of the {@link LogsTableCell} objects, and the datetime cells are formatted when first displayed.
+ * A page is built off the EDT and immutable after, except the memoized formatted datetime strings.
+ */
+public class LogTablePage {
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.n a");
+    private final int rowCount;
+    private final Column[] columns;
+
+    LogTablePage(@Nonnull List<LogsColumnType> columnTypes, @Nonnull List<LogsTableRow> rows) {
+        this.rowCount = rows.size();
+        this.columns = new Column[columnTypes.size()];
+        for (int columnIndex = 0; columnIndex < columns.length; columnIndex++) {
+            final LogsColumnType type = columnTypes.get(columnIndex);
+            if (LogsColumnType.BOOL.equals(type) || LogsColumnType.INT.equals(type) || LogsColumnType.LONG.equals(type)) {
+                columns[columnIndex] = new NumberColumn(type, rowCount);
+            } else if (LogsColumnType.DATETIME.equals(type)) {
+                columns[columnIndex] = new DateTimeColumn(rowCount);
+            } else {
+                columns[columnIndex] = new StringColumn(rowCount);
+            }
+        }
+        for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+            final List<LogsTableCell> cells = rows.get(rowIndex).getRow();
+            for (int columnIndex = 0; columnIndex < columns.length; columnIndex++) {
+                columns[columnIndex].set(rowIndex, cells.get(columnIndex));
+            }
+        }
+    }
+
+    int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @return the boxed value of bool, int and long cells, or the display string of the others
+     */
+    @Nullable
+    Object getValueAt(int rowIndex, int columnIndex) {
+        return columns[columnIndex].getValue(rowIndex);
+    }
+
+    /**
+     * @return the display string to search in, empty for null cells
+     */
+    @Nonnull
+    String getTextAt(int rowIndex, int columnIndex) {
+        return columns[columnIndex].isNull(rowIndex) ? StringUtils.EMPTY : String.valueOf(columns[columnIndex].getValue(rowIndex));
+    }
+
+    /**
+     * @return the string value as returned by the query
+     */
+    @Nullable
+    String getRawTextAt(int rowIndex, int columnIndex) {
+        return columns[columnIndex].getRawText(rowIndex);
+    }
+
+    static int compare(@Nonnull LogTablePage page, int rowIndex, @Nonnull LogTablePage otherPage, int otherRowIndex, int columnIndex) {
+        final Column column = page.columns[columnIndex];
+        final Column otherColumn = otherPage.columns[columnIndex];
+        final boolean isNull = column.isNull(rowIndex);
+        final boolean isOtherNull = otherColumn.isNull(otherRowIndex);
+        if (isNull || isOtherNull) {
+            return Boolean.compare(!isNull, !isOtherNull);
+        }
+        return column.compare(rowIndex, otherColumn, otherRowIndex);
+    }
+
+    private abstract static class Column {
+        abstract void set(int row, @Nonnull LogsTableCell cell);
+
+        abstract boolean isNull(int row);
+
+        @Nullable
+        abstract Object getValue(int row);
+
+        @Nullable
+        abstract String getRawText(int row);
+
+        abstract int compare(int row, @Nonnull Column other, int otherRow);
+    }
+
+    private static class NumberColumn extends Column {
+        private final LogsColumnType type;
+        private final long[] values;
+        private final BitSet nulls = new BitSet();
+
+        NumberColumn(LogsColumnType type, int rowCount) {
+            this.type = type;
+            this.values = new long[rowCount];
+        }
+
+        @Override
+        void set(int row, @Nonnull LogsTableCell cell) {
+            final Object value;
+            if (LogsColumnType.BOOL.equals(type)) {
+                value = cell.getValueAsBoolean();
+                values[row] = Boolean.TRUE.equals(value) ? 1 : 0;
+            } else if (LogsColumnType.INT.equals(type)) {
+                value = cell.getValueAsInteger();
+                values[row] = Objects.isNull(value) ? 0 : (Integer) value;
+            } else {
+                value = cell.getValueAsLong();
+                values[row] = Objects.isNull(value) ? 0 : (Long) value;
+            }
+            nulls.set(row, Objects.isNull(value));
+        }
+
+        @Override
+        boolean isNull(int row) {
+            return nulls.get(row);
+        }
+
+        @Nullable
+        @Override
+        Object getValue(int row) {
+            if (isNull(row)) {
+                return null;
+            }
+            if (LogsColumnType.BOOL.equals(type)) {
+                return values[row] != 0;
+            }
+            return LogsColumnType.INT.equals(type) ? (Object) (int) values[row] : (Object) values[row];
+        }
+
+        @Nullable
+        @Override
+        String getRawText(int row) {
+            return Objects.toString(getValue(row), null);
+        }
+
+        @Override
+        int compare(int row, @Nonnull Column other, int otherRow) {
+            return Long.compare(values[row], ((NumberColumn) other).values[otherRow]);
+        }
+    }
+
+    private static class DateTimeColumn extends Column {
+        private final long[] epochSeconds;
+        private final int[] nanos;
+        private final BitSet nulls = new BitSet();
+        // the strings returned by the query, which are exported as they are
+        private final String[] rawTexts;
+        // formatted when displayed, a string formatted twice by concurrent readers is the same
+        private final String[] formatted;
+
+        DateTimeColumn(int rowCount) {
+            this.epochSeconds = new long[rowCount];
+            this.nanos = new int[rowCount];
+            this.rawTexts = new String[rowCount];
+            this.formatted = new String[rowCount];
+        }
+
+        @Override
+        void set(int row, @Nonnull LogsTableCell cell) {
+            rawTexts[row] = cell.getValueAsString();
+            final OffsetDateTime dateTime = cell.getValueAsDateTime();
+            if (Objects.isNull(dateTime)) {
+                nulls.set(row);
+                return;
+            }
+            epochSeconds[row] = dateTime.toEpochSecond();
+            nanos[row] = dateTime.getNano();
+        }
+
+        @Override
+        boolean isNull(int row) {
+            return nulls.get(row);
+        }
+
+        @Nonnull
+        @Override
+        Object getValue(int row) {
+            if (isNull(row)) {
+                return StringUtils.EMPTY;
+            }
+            String result = formatted[row];
+            if (Objects.isNull(result)) {
+                result = toDateTime(row).format(DATE_TIME_FORMATTER);
+                formatted[row] = result;
+            }
+            return result;
+        }
+
+        @Nullable
+        @Override
+        String getRawText(int row) {
+            return rawTexts[row];
+        }
+
+        @Override
+        int compare(int row, @Nonnull Column other, int otherRow) {
+            final DateTimeColumn column = (DateTimeColumn) other;
+            final int result = Long.compare(epochSeconds[row], column.epochSeconds[otherRow]);
+            return result != 0 ? result : Integer.compare(nanos[row], column.nanos[otherRow]);
+        }
+
+        private OffsetDateTime toDateTime(int row) {
+            return OffsetDateTime.ofInstant(Instant.ofEpochSecond(epochSeconds[row], nanos[row]), ZoneOffset.UTC);
+        }
+    }
+
+    private static class StringColumn extends Column {
+        private final String[] values;
+
+        StringColumn(int rowCount) {
+            this.values = new String[rowCount];
+        }
+
+        @Override
+        void set(int row, @Nonnull LogsTableCell cell) {
+            values[row] = cell.getValueAsString();
+        }
+
+        @Override
+        boolean isNull(int row) {
+            return Objects.isNull(values[row]);
+        }
+
+        @Nullable
+        @Override
+        Object getValue(int row) {
+            return values[row];
+        }
+
+        @Nullable
+        @Override
+        String getRawText(int row) {
+            return values[row];
+        }
+
+        @Override
+        int compare(int row, @Nonnull Column other, int otherRow) {
+            return String.CASE_INSENSITIVE_ORDER.compare(values[row], ((StringColumn) other).values[otherRow]);
+        }
+    }
+}
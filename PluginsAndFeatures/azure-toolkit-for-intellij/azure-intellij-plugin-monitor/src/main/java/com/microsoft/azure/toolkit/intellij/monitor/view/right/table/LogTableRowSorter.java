@@ -0,0 +1,306 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.monitor.view.right.table;
+
+import com.microsoft.azure.toolkit.lib.common.task.AzureTask;
+import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.IntStream;
+
+/**
+ * Sort and filter the rows of {@link LogTableModel} on a pooled thread. The sort keys are shown at once, and the rows
+ * keep the last order until the new one is computed, the computations outdated by newer sort keys, filters or rows
+ * are dropped. The appended rows are sorted and filtered alone, then merged into the last order.
+ */
+public class LogTableRowSorter extends RowSorter<LogTableModel> {
+    private static final int MAX_SORT_KEYS = 3;
+    private final LogTableModel model;
+    private final AtomicInteger generation = new AtomicInteger();
+    private List<SortKey> sortKeys = Collections.emptyList();
+    @Nullable
+    private Pattern filter;
+    // both are null if the rows are neither sorted nor filtered
+    @Nullable
+    private int[] viewToModel;
+    @Nullable
+    private int[] modelToView;
+    // the sort keys, filter and model rows which the current order is computed with
+    private List<SortKey> appliedSortKeys = Collections.emptyList();
+    @Nullable
+    private Pattern appliedFilter;
+    private int appliedRowCount = 0;
+    // whether all the rows are being sorted and filtered, which the appended rows are left to
+    private boolean refreshing = false;
+
+    public LogTableRowSorter(@Nonnull LogTableModel model) {
+        super();
+        this.model = model;
+    }
+
+    @Override
+    public LogTableModel getModel() {
+        return this.model;
+    }
+
+    @Override
+    public void toggleSortOrder(int column) {
+        final List<SortKey> keys = new ArrayList<>(this.sortKeys);
+        final SortOrder order = !keys.isEmpty() && keys.get(0).getColumn() == column &&
+                keys.get(0).getSortOrder() == SortOrder.ASCENDING ? SortOrder.DESCENDING : SortOrder.ASCENDING;
+        keys.removeIf(key -> key.getColumn() == column);
+        keys.add(0, new SortKey(column, order));
+        setSortKeys(keys.subList(0, Math.min(keys.size(), MAX_SORT_KEYS)));
+    }
+
+    @Override
+    public void setSortKeys(@Nullable List<? extends SortKey> keys) {
+        this.sortKeys = keys == null ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(keys));
+        fireSortOrderChanged();
+        refresh();
+    }
+
+    @Override
+    public List<? extends SortKey> getSortKeys() {
+        return this.sortKeys;
+    }
+
+    /**
+     * Show only the rows with a cell containing the text, ignoring case
+     *
+     * @param text the regular expression to find, the filter is kept if it's invalid
+     */
+    public void setFilterText(@Nullable String text) {
+        try {
+            this.filter = StringUtils.isEmpty(text) ? null : Pattern.compile("(?i)" + text);
+        } catch (final PatternSyntaxException e) {
+            return;
+        }
+        refresh();
+    }
+
+    @Override
+    public int convertRowIndexToModel(int index) {
+        if (this.viewToModel == null) {
+            checkIndex(index, getModelRowCount());
+            return index;
+        }
+        checkIndex(index, this.viewToModel.length);
+        return this.viewToModel[index];
+    }
+
+    @Override
+    public int convertRowIndexToView(int index) {
+        checkIndex(index, getModelRowCount());
+        if (this.modelToView == null) {
+            return index;
+        }
+        // the rows appended after computed are not shown yet
+        return index < this.modelToView.length ? this.modelToView[index] : -1;
+    }
+
+    @Override
+    public int getViewRowCount() {
+        return this.viewToModel == null ? getModelRowCount() : this.viewToModel.length;
+    }
+
+    @Override
+    public int getModelRowCount() {
+        return this.model.getRowCount();
+    }
+
+    @Override
+    public void modelStructureChanged() {
+        this.sortKeys = Collections.emptyList();
+        apply(null, Collections.emptyList(), null, 0);
+        refresh();
+    }
+
+    @Override
+    public void allRowsChanged() {
+        refresh();
+    }
+
+    @Override
+    public void rowsInserted(int firstRow, int endRow) {
+        if (this.viewToModel == null) {
+            return;
+        }
+        if (!this.refreshing && getEffectiveSortKeys().equals(this.appliedSortKeys) && this.filter == this.appliedFilter) {
+            mergeInsertedRows();
+        } else {
+            refresh();
+        }
+    }
+
+    @Override
+    public void rowsDeleted(int firstRow, int endRow) {
+        refresh();
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow) {
+        refresh();
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow, int column) {
+        refresh();
+    }
+
+    @Nonnull
+    private List<SortKey> getEffectiveSortKeys() {
+        return this.sortKeys.stream().filter(k -> k.getSortOrder() != SortOrder.UNSORTED).toList();
+    }
+
+    private void refresh() {
+        final int current = this.generation.incrementAndGet();
+        final List<SortKey> keys = getEffectiveSortKeys();
+        final Pattern pattern = this.filter;
+        if (keys.isEmpty() && pattern == null) {
+            apply(null, keys, null, 0);
+            return;
+        }
+        final int rowCount = getModelRowCount();
+        this.refreshing = true;
+        AzureTaskManager.getInstance().runOnPooledThread(() -> {
+            final int[] result = sortAndFilter(0, rowCount, keys, pattern, current);
+            applyLater(result, keys, pattern, rowCount, current);
+        });
+    }
+
+    /**
+     * Sort and filter the rows appended since the current order is computed, and merge them into it, rather than
+     * sorting all the rows again for each appended page
+     */
+    private void mergeInsertedRows() {
+        final int current = this.generation.incrementAndGet();
+        final List<SortKey> keys = this.appliedSortKeys;
+        final Pattern pattern = this.appliedFilter;
+        final int[] base = Objects.requireNonNull(this.viewToModel);
+        final int from = this.appliedRowCount;
+        final int to = getModelRowCount();
+        AzureTaskManager.getInstance().runOnPooledThread(() -> {
+            final int[] inserted = sortAndFilter(from, to, keys, pattern, current);
+            final int[] result = inserted == null ? null : merge(base, inserted, keys);
+            applyLater(result, keys, pattern, to, current);
+        });
+    }
+
+    private void applyLater(@Nullable int[] result, @Nonnull List<SortKey> keys, @Nullable Pattern pattern, int rowCount, int current) {
+        AzureTaskManager.getInstance().runLater(() -> {
+            if (result == null || this.generation.get() != current) {
+                return;
+            }
+            apply(result, keys, pattern, rowCount);
+            // the rows appended while computing
+            if (rowCount < getModelRowCount()) {
+                mergeInsertedRows();
+            }
+        }, AzureTask.Modality.ANY);
+    }
+
+    @Nonnull
+    private int[] merge(@Nonnull int[] base, @Nonnull int[] inserted, @Nonnull List<SortKey> keys) {
+        final int[] result = new int[base.length + inserted.length];
+        if (keys.isEmpty()) {
+            // filtered only, the inserted rows are after all the others
+            System.arraycopy(base, 0, result, 0, base.length);
+            System.arraycopy(inserted, 0, result, base.length, inserted.length);
+            return result;
+        }
+        final Comparator<Integer> comparator = getComparator(keys);
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < base.length && j < inserted.length) {
+            // the earlier rows go first for equal keys, as the stable sort of all rows does
+            result[k++] = comparator.compare(base[i], inserted[j]) <= 0 ? base[i++] : inserted[j++];
+        }
+        while (i < base.length) {
+            result[k++] = base[i++];
+        }
+        while (j < inserted.length) {
+            result[k++] = inserted[j++];
+        }
+        return result;
+    }
+
+    @Nullable
+    private int[] sortAndFilter(int fromRow, int toRow, @Nonnull List<SortKey> keys, @Nullable Pattern pattern, int current) {
+        IntStream rows = IntStream.range(fromRow, toRow);
+        if (pattern != null) {
+            final Matcher matcher = pattern.matcher(StringUtils.EMPTY);
+            rows = rows.filter(row -> model.matches(row, matcher));
+        }
+        if (keys.isEmpty()) {
+            return rows.toArray();
+        }
+        final Integer[] sorted = rows.boxed().toArray(Integer[]::new);
+        if (this.generation.get() != current) {
+            return null;
+        }
+        // the sort is stable, the rows of equal keys keep the query result order
+        Arrays.sort(sorted, getComparator(keys));
+        return Arrays.stream(sorted).mapToInt(Integer::intValue).toArray();
+    }
+
+    @Nonnull
+    private Comparator<Integer> getComparator(@Nonnull List<SortKey> keys) {
+        return (row, otherRow) -> {
+            for (final SortKey key : keys) {
+                final int result = this.model.compare(row, otherRow, key.getColumn());
+                if (result != 0) {
+                    return key.getSortOrder() == SortOrder.DESCENDING ? -result : result;
+                }
+            }
+            return 0;
+        };
+    }
+
+    private void apply(@Nullable int[] newViewToModel, @Nonnull List<SortKey> keys, @Nullable Pattern pattern, int rowCount) {
+        this.appliedSortKeys = keys;
+        this.appliedFilter = pattern;
+        this.appliedRowCount = rowCount;
+        this.refreshing = false;
+        if (this.viewToModel == null && newViewToModel == null) {
+            return;
+        }
+        final int[] lastViewToModel = this.viewToModel != null ? this.viewToModel : IntStream.range(0, getModelRowCount()).toArray();
+        this.viewToModel = newViewToModel;
+        if (newViewToModel == null) {
+            this.modelToView = null;
+        } else {
+            this.modelToView = new int[getModelRowCount()];
+            Arrays.fill(this.modelToView, -1);
+            for (int viewIndex = 0; viewIndex < newViewToModel.length; viewIndex++) {
+                if (newViewToModel[viewIndex] < this.modelToView.length) {
+                    this.modelToView[newViewToModel[viewIndex]] = viewIndex;
+                }
+            }
+        }
+        fireRowSorterChanged(lastViewToModel);
+    }
+
+    private static void checkIndex(int index, int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(String.format("Invalid index %s, size is %s", index, size));
+        }
+    }
+}
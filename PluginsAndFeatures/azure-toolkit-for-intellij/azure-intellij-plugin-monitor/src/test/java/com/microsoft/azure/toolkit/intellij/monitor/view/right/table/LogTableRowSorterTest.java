@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.monitor.view.right.table;
+
+import com.azure.monitor.query.models.LogsColumnType;
+import com.azure.monitor.query.models.LogsTableCell;
+import com.azure.monitor.query.models.LogsTableRow;
+import com.microsoft.azure.toolkit.lib.common.task.AzureTask;
+import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.annotation.Nullable;
+import javax.swing.*;
+import javax.swing.event.TableModelEvent;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static com.microsoft.azure.toolkit.intellij.monitor.view.right.table.LogTableModel.PAGE_SIZE;
+
+/**
+ * The sorter is driven without the EDT, the pooled and the later tasks are queued and run by the tests, so that the
+ * pages could be appended at any step of a sort.
+ */
+public class LogTableRowSorterTest {
+    private static final String[] COLUMN_NAMES = {"Level", "Count", "Message"};
+    private static final LogsColumnType[] COLUMN_TYPES = {LogsColumnType.STRING, LogsColumnType.INT, LogsColumnType.STRING};
+    private static final int LEVEL = 0;
+    private static final int COUNT = 1;
+    // few distinct values for many equal keys, which the stable sort keeps in the query result order
+    private static final String[] LEVELS = {"Info", "INFO", "Warning", "error", null};
+    private static final int COUNTS = 4;
+    private static final List<RowSorter.SortKey> SORT_KEYS = List.of(new RowSorter.SortKey(LEVEL, SortOrder.ASCENDING),
+            new RowSorter.SortKey(COUNT, SortOrder.DESCENDING));
+    private static final Comparator<Object[]> SORT_ORDER = Comparator
+            .comparing((Object[] cells) -> (String) cells[LEVEL], Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER))
+            .thenComparing(cells -> (Integer) cells[COUNT], Comparator.reverseOrder());
+    private static final ManualTaskManager TASKS = new ManualTaskManager();
+
+    private final Random random = new Random(0);
+    // the cells of the appended rows, in the query result order
+    private final List<Object[]> rows = new ArrayList<>();
+    private LogTableModel model;
+    private LogTableRowSorter sorter;
+
+    @BeforeClass
+    public static void registerTaskManager() {
+        AzureTaskManager.register(TASKS);
+    }
+
+    @Before
+    public void setUp() {
+        TASKS.clear();
+        model = new LogTableModel(toRow(0, new Object[]{"", 0, ""}));
+        sorter = new LogTableRowSorter(model);
+        // as JTable forwards the model events to its sorter
+        model.addTableModelListener(e -> {
+            if (e.getType() == TableModelEvent.INSERT) {
+                sorter.rowsInserted(e.getFirstRow(), e.getLastRow());
+            }
+        });
+    }
+
+    @Test
+    public void testMergeAppendedPagesAsFullStableSort() {
+        appendPage(PAGE_SIZE);
+        sorter.setSortKeys(SORT_KEYS);
+        TASKS.runAll();
+        assertView(expectedView(null, SORT_ORDER));
+
+        appendPage(PAGE_SIZE);
+        TASKS.runAll();
+        assertView(expectedView(null, SORT_ORDER));
+
+        appendPage(PAGE_SIZE / 3);
+        TASKS.runAll();
+        assertView(expectedView(null, SORT_ORDER));
+    }
+
+    @Test
+    public void testAppendPagesFilteredOnly() {
+        appendPage(PAGE_SIZE);
+        sorter.setFilterText("warn");
+        TASKS.runAll();
+        final int[] filtered = expectedView("warn", null);
+        assertView(filtered);
+
+        appendPage(PAGE_SIZE);
+        appendPage(PAGE_SIZE / 3);
+        TASKS.runAll();
+        final int[] appended = expectedView("warn", null);
+        assertView(appended);
+        // the rows of the last order are kept in front, the appended ones are after them
+        Assert.assertArrayEquals(filtered, Arrays.copyOf(appended, filtered.length));
+    }
+
+    @Test
+    public void testAppendPagesDuringSort() {
+        appendPage(PAGE_SIZE);
+        sorter.setSortKeys(SORT_KEYS);
+        // appended before the first order is computed
+        appendPage(PAGE_SIZE);
+        Assert.assertEquals(rows.size(), sorter.getViewRowCount());
+        TASKS.runPooled();
+        // appended after the first order is computed, but before it's applied
+        appendPage(PAGE_SIZE);
+        TASKS.runAll();
+        assertView(expectedView(null, SORT_ORDER));
+
+        // appended while merging the appended rows, the outdated merge is dropped
+        appendPage(PAGE_SIZE);
+        TASKS.runPooled();
+        final int[] shown = IntStream.range(0, sorter.getViewRowCount()).map(sorter::convertRowIndexToModel).toArray();
+        appendPage(PAGE_SIZE);
+        Assert.assertEquals(-1, sorter.convertRowIndexToView(rows.size() - 1));
+        TASKS.runLater();
+        // the last order is kept until the new one is computed
+        Assert.assertArrayEquals(shown, IntStream.range(0, sorter.getViewRowCount()).map(sorter::convertRowIndexToModel).toArray());
+        TASKS.runAll();
+        assertView(expectedView(null, SORT_ORDER));
+
+        // appended while sorting all the rows by the new sort keys
+        sorter.toggleSortOrder(COUNT);
+        appendPage(PAGE_SIZE / 3);
+        TASKS.runAll();
+        assertView(expectedView(null, Comparator.comparing((Object[] cells) -> (Integer) cells[COUNT])
+                .thenComparing(cells -> (String) cells[LEVEL], Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER))));
+    }
+
+    private void appendPage(int rowCount) {
+        final List<LogsTableRow> page = new ArrayList<>();
+        for (int i = 0; i < rowCount; i++) {
+            final int rowIndex = rows.size();
+            final Object[] cells = {LEVELS[random.nextInt(LEVELS.length)], random.nextInt(COUNTS), "message " + rowIndex};
+            rows.add(cells);
+            page.add(toRow(rowIndex, cells));
+        }
+        model.appendPage(model.createPage(page));
+    }
+
+    /**
+     * @return the model rows in the view order, filtered by the text and sorted stably by the order of all the rows
+     */
+    private int[] expectedView(@Nullable String filterText, @Nullable Comparator<Object[]> order) {
+        IntStream view = IntStream.range(0, rows.size());
+        if (filterText != null) {
+            view = view.filter(row -> Arrays.stream(rows.get(row))
+                    .anyMatch(cell -> StringUtils.containsIgnoreCase(Objects.toString(cell, StringUtils.EMPTY), filterText)));
+        }
+        if (order == null) {
+            return view.toArray();
+        }
+        return view.boxed().sorted(Comparator.comparing(rows::get, order)).mapToInt(Integer::intValue).toArray();
+    }
+
+    private void assertView(int[] expected) {
+        Assert.assertEquals(expected.length, sorter.getViewRowCount());
+        Assert.assertArrayEquals(expected, IntStream.range(0, expected.length).map(sorter::convertRowIndexToModel).toArray());
+        final int[] modelToView = new int[rows.size()];
+        Arrays.fill(modelToView, -1);
+        for (int viewIndex = 0; viewIndex < expected.length; viewIndex++) {
+            modelToView[expected[viewIndex]] = viewIndex;
+        }
+        Assert.assertArrayEquals(modelToView, IntStream.range(0, rows.size()).map(sorter::convertRowIndexToView).toArray());
+    }
+
+    private static LogsTableRow toRow(int rowIndex, Object[] values) {
+        final List<LogsTableCell> cells = new ArrayList<>();
+        for (int columnIndex = 0; columnIndex < values.length; columnIndex++) {
+            cells.add(new LogsTableCell(COLUMN_NAMES[columnIndex], COLUMN_TYPES[columnIndex], columnIndex, rowIndex, values[columnIndex]));
+        }
+        return new LogsTableRow(rowIndex, cells);
+    }
+
+    /**
+     * Queue the pooled and the later tasks, which are run only when the test asks
+     */
+    private static class ManualTaskManager extends AzureTaskManager {
+        private final Queue<Runnable> pooled = new ArrayDeque<>();
+        private final Queue<Runnable> later = new ArrayDeque<>();
+
+        void clear() {
+            pooled.clear();
+            later.clear();
+        }
+
+        /**
+         * Run the queued pooled tasks, but not the ones they queue
+         */
+        void runPooled() {
+            for (int i = pooled.size(); i > 0; i--) {
+                pooled.remove().run();
+            }
+        }
+
+        /**
+         * Run the queued later tasks, but not the ones they queue
+         */
+        void runLater() {
+            for (int i = later.size(); i > 0; i--) {
+                later.remove().run();
+            }
+        }
+
+        void runAll() {
+            while (!pooled.isEmpty() || !later.isEmpty()) {
+                runPooled();
+                runLater();
+            }
+        }
+
+        @Override
+        protected void doRead(Runnable runnable, AzureTask<?> task) {
+            runnable.run();
+        }
+
+        @Override
+        protected void doWrite(Runnable runnable, AzureTask<?> task) {
+            runnable.run();
+        }
+
+        @Override
+        protected void doRunOnPooledThread(Runnable runnable, AzureTask<?> task) {
+            pooled.add(runnable);
+        }
+
+        @Override
+        protected void doRunLater(Runnable runnable, AzureTask<?> task) {
+            later.add(runnable);
+        }
+
+        @Override
+        protected void doRunAndWait(Runnable runnable, AzureTask<?> task) {
+            runnable.run();
+        }
+
+        @Override
+        protected void doRunInBackground(Runnable runnable, AzureTask<?> task) {
+            pooled.add(runnable);
+        }
+
+        @Override
+        protected void doRunInModal(Runnable runnable, AzureTask<?> task) {
+            pooled.add(runnable);
+        }
+    }
+}
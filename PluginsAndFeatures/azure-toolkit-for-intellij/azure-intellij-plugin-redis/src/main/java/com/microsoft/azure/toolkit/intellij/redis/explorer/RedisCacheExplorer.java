@@ -32,6 +32,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 import static redis.clients.jedis.ScanParams.SCAN_POINTER_START;
@@ -42,6 +44,10 @@ public class RedisCacheExplorer extends AzResourcePropertiesEditor<RedisCache> {
     public static final String ID = "com.microsoft.intellij.helpers.rediscache.RedisCacheExplorer";
     public static final String INSIGHT_NAME = "AzurePlugin.IntelliJ.Editor.RedisCacheExplorer";
     private final RedisCache redis;
+    // the scanned key information, shown as the tooltip of the key
+    private final Map<String, RedisKeyScanner.KeyInfo> keyInfos = new ConcurrentHashMap<>();
+    // the running scan stops when the generation changes
+    private final AtomicInteger scanGeneration = new AtomicInteger();
 
     private String currentCursor;
     private String lastChosenKey;
@@ -55,7 +61,9 @@ public class RedisCacheExplorer extends AzResourcePropertiesEditor<RedisCache> {
     private static final int TABLE_HEADER_FONT_SIZE = 16;
     private static final int SPLIT_PANE_DIVIDER_SIZE = 2;
     private static final double SPLIT_PANE_WEIGHT = 0.4;
-    private static final int DEFAULT_KEY_COUNT = 50;
+    private static final int MAX_STREAMED_KEY_COUNT = 10000;
+    // the SCAN commands of a scan, since the pages could be empty for the sparse matched pattern
+    private static final int MAX_SCAN_ITERATIONS = 100;
     private static final int DEFAULT_REDIS_DB_NUMBER = 16;
     private static final int MAX_DATABASE_NUMBER = 64;
     private static final long DEFAULT_RANGE_START = 0;
@@ -103,6 +111,7 @@ public class RedisCacheExplorer extends AzResourcePropertiesEditor<RedisCache> {
             .getDefaultRenderer();
         cellRenderer.setHorizontalAlignment(JLabel.LEFT);
         pnlInnerValue.setBackground(lstKey.getBackground());
+        lstKey.setCellRenderer(new KeyCellRenderer());
 
         progressBar.setIndeterminate(true);
 
@@ -141,11 +150,7 @@ public class RedisCacheExplorer extends AzResourcePropertiesEditor<RedisCache> {
                 .withIdParam(this.redis.getName())
                 .withHandler(ignore -> {
                     RedisCacheExplorer.this.setWidgetEnableStatus(false);
-                    manager.runOnPooledThread(() -> {
-                        final ScanResult<String> r = doWithRedis(jedis -> jedis.scan(currentCursor, new ScanParams()
-                                .match(txtKeyPattern.getText()).count(DEFAULT_KEY_COUNT)));
-                        manager.runLater(() -> RedisCacheExplorer.this.showScanResult(r));
-                    });
+                    scanKeys(currentCursor, txtKeyPattern.getText());
                 });
         btnScanMore.setAction(scanMoreAction);
 
@@ -167,7 +172,7 @@ public class RedisCacheExplorer extends AzResourcePropertiesEditor<RedisCache> {
     }
 
     private <T> T doWithRedis(Function<Jedis, T> func) {
-        try (final Jedis jedis = this.redis.getJedisPool().getResource()) {
+        try (final Jedis jedis = RedisConnectionPools.getInstance().getPool(this.redis).getResource()) {
             return func.apply(jedis);
         }
     }
@@ -258,14 +263,54 @@ public class RedisCacheExplorer extends AzResourcePropertiesEditor<RedisCache> {
     }
 
     private void onDataBaseSelect() {
+        scanKeys(SCAN_POINTER_START, DEFAULT_SCAN_PATTERN);
+    }
+
+    /**
+     * Scan the keys in background and stream the pages into the key list, until all keys or
+     * {@link #MAX_STREAMED_KEY_COUNT} keys are scanned, or {@link #MAX_SCAN_ITERATIONS} SCAN commands are sent, the rest
+     * can be scanned with "Scan More". The running scan is cancelled when another scan starts.
+     */
+    private void scanKeys(final String cursor, final String pattern) {
+        final int generation = scanGeneration.incrementAndGet();
+        final int db = cbDatabase.getSelectedIndex();
         final AzureTaskManager manager = AzureTaskManager.getInstance();
-        manager.runOnPooledThread(() -> {
-            final ScanResult<String> r = doWithRedis(jedis -> {
-                jedis.select(cbDatabase.getSelectedIndex());
-                return jedis.scan(SCAN_POINTER_START, new ScanParams().match(DEFAULT_SCAN_PATTERN).count(DEFAULT_KEY_COUNT));
-            });
-            manager.runLater(() -> RedisCacheExplorer.this.showScanResult(r));
-        });
+        manager.runOnPooledThread(() -> doWithRedis(jedis -> {
+            jedis.select(db);
+            final RedisKeyScanner scanner = new RedisKeyScanner(jedis, cursor, pattern);
+            int streamed = 0;
+            boolean firstPage = true;
+            while (scanner.hasNext() && streamed < MAX_STREAMED_KEY_COUNT && scanner.getScanIterations() < MAX_SCAN_ITERATIONS
+                && generation == scanGeneration.get()) {
+                final RedisKeyScanner.Page page = scanner.nextPage();
+                final boolean replacing = firstPage;
+                manager.runLater(() -> this.showKeyPage(generation, page, replacing));
+                streamed += page.getKeys().size();
+                firstPage = false;
+            }
+            return null;
+        }));
+    }
+
+    private void showKeyPage(final int generation, final RedisKeyScanner.Page page, final boolean firstPage) {
+        if (generation != scanGeneration.get()) {
+            return;
+        }
+        final List<String> keys = new ArrayList<>(page.getKeys().size());
+        for (final RedisKeyScanner.KeyInfo info : page.getKeys()) {
+            keys.add(info.getKey());
+        }
+        if (firstPage) {
+            keyInfos.clear();
+            page.getKeys().forEach(info -> keyInfos.put(info.getKey(), info));
+            showScanResult(new ScanResult<>(page.getNextCursor(), keys));
+        } else {
+            page.getKeys().forEach(info -> keyInfos.put(info.getKey(), info));
+            final DefaultListModel<String> listModel = (DefaultListModel<String>) lstKey.getModel();
+            Collections.sort(keys);
+            keys.forEach(listModel::addElement);
+            currentCursor = page.getNextCursor();
+        }
     }
 
     private void setWidgetEnableStatus(boolean enabled) {
@@ -297,6 +342,7 @@ public class RedisCacheExplorer extends AzResourcePropertiesEditor<RedisCache> {
         final String actionType = (String) cbActionType.getSelectedItem();
         final String key = txtKeyPattern.getText();
         if (Objects.equals(actionType, ACTION_GET)) {
+            scanGeneration.incrementAndGet();
             final AzureTaskManager manager = AzureTaskManager.getInstance();
             manager.runOnPooledThread(() -> {
                 final Pair<String, ArrayList<String[]>> result = doWithRedis(jedis ->
@@ -305,11 +351,7 @@ public class RedisCacheExplorer extends AzResourcePropertiesEditor<RedisCache> {
                 this.showContent(result);
             });
         } else if (Objects.equals(actionType, ACTION_SCAN)) {
-            final AzureTaskManager manager = AzureTaskManager.getInstance();
-            manager.runOnPooledThread(() -> {
-                final ScanResult<String> r = doWithRedis(jedis -> jedis.scan(SCAN_POINTER_START, new ScanParams().match(key).count(DEFAULT_KEY_COUNT)));
-                manager.runLater(() -> RedisCacheExplorer.this.showScanResult(r));
-            });
+            scanKeys(SCAN_POINTER_START, key);
             currentCursor = SCAN_POINTER_START;
         }
         lastChosenKey = "";
@@ -320,6 +362,27 @@ public class RedisCacheExplorer extends AzResourcePropertiesEditor<RedisCache> {
 
     }
 
+    @Override
+    public void dispose() {
+        scanGeneration.incrementAndGet();
+        super.dispose();
+    }
+
+    private class KeyCellRenderer extends DefaultListCellRenderer {
+        @Override
+        public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected,
+                                                      boolean cellHasFocus) {
+            final JLabel label = (JLabel) super.getListCellRendererComponent(list, value, index, isSelected,
+                cellHasFocus);
+            final RedisKeyScanner.KeyInfo info = value == null ? null : keyInfos.get(value.toString());
+            label.setToolTipText(info == null ? null : String.format("Type: %s, TTL: %s, Memory usage: %s",
+                info.getType(),
+                info.getTtlMillis() < 0 ? "none" : info.getTtlMillis() + " ms",
+                info.getMemoryUsage() == null ? "unknown" : info.getMemoryUsage() + " bytes"));
+            return label;
+        }
+    }
+
     private static class ReadOnlyTableModel extends DefaultTableModel {
         ReadOnlyTableModel(Object[][] data, String[] columnNames) {
             super(data, columnNames);
@@ -365,6 +428,7 @@ public class RedisCacheExplorer extends AzResourcePropertiesEditor<RedisCache> {
     @Nullable
     private Pair<String, ArrayList<String[]>> getValueByKey(Jedis jedis, String key) {
         jedis.select(cbDatabase.getSelectedIndex());
+        // the key could be deleted or recreated with another type since it's scanned
         final String type = jedis.type(key).toUpperCase();
         final ArrayList<String[]> columnData = new ArrayList<>();
         switch (type) {
@@ -407,6 +471,7 @@ public class RedisCacheExplorer extends AzResourcePropertiesEditor<RedisCache> {
 
     @Override
     protected void onResourceDeleted() {
+        RedisConnectionPools.getInstance().releasePool(this.redis.getId());
         this.manager.closeEditor(this.redis, project);
         final String message = String.format("Close redis cache explorer of \"%s\" because the resource is deleted.", this.redis.getName());
         AzureMessager.getMessager().warning(message);
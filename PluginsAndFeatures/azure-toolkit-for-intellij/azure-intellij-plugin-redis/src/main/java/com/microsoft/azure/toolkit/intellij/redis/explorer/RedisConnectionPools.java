@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.redis.explorer;
+
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.microsoft.azure.toolkit.redis.RedisCache;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.Protocol;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * The connection pools of the opened Redis caches, keyed by resource id, so the explorers of several caches keep
+ * their connections rather than reconnecting (TLS handshake included) when switching between them.
+ * A pool is closed when it's not used for the idle timeout, or when it's the least recently used one beyond the max
+ * pools. The limits can be tuned by the system properties {@link #MAX_POOLS_PROPERTY},
+ * {@link #MAX_CONNECTIONS_PER_POOL_PROPERTY} and {@link #IDLE_TIMEOUT_SECONDS_PROPERTY}.
+ */
+@Slf4j
+public class RedisConnectionPools {
+    public static final String MAX_POOLS_PROPERTY = "azure.toolkit.redis.maxPools";
+    public static final String MAX_CONNECTIONS_PER_POOL_PROPERTY = "azure.toolkit.redis.maxConnectionsPerPool";
+    public static final String IDLE_TIMEOUT_SECONDS_PROPERTY = "azure.toolkit.redis.poolIdleTimeoutSeconds";
+    public static final int DEFAULT_MAX_POOLS = 8;
+    // Below the 10 minutes the Azure Redis server closes the idle connections after
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(5);
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_POOL = 4;
+    private static final Duration SWEEP_INTERVAL = Duration.ofMinutes(1);
+
+    private final Map<String, PoolEntry> pools = new ConcurrentHashMap<>();
+    private final int maxPools;
+    private final long idleTimeoutNanos;
+    private final int maxConnectionsPerPool;
+    private final LongSupplier nanoClock;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong createCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    private static final class Holder {
+        private static final RedisConnectionPools INSTANCE = new RedisConnectionPools();
+
+        static {
+            final long interval = SWEEP_INTERVAL.toMillis();
+            AppExecutorUtil.getAppScheduledExecutorService()
+                .scheduleWithFixedDelay(INSTANCE::evictIdlePools, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public static RedisConnectionPools getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private RedisConnectionPools() {
+        this(getPositiveProperty(MAX_POOLS_PROPERTY, DEFAULT_MAX_POOLS),
+            Duration.ofSeconds(getPositiveProperty(IDLE_TIMEOUT_SECONDS_PROPERTY, DEFAULT_IDLE_TIMEOUT.getSeconds())),
+            getPositiveProperty(MAX_CONNECTIONS_PER_POOL_PROPERTY, DEFAULT_MAX_CONNECTIONS_PER_POOL),
+            System::nanoTime);
+    }
+
+    RedisConnectionPools(int maxPools, @Nonnull Duration idleTimeout, int maxConnectionsPerPool, @Nonnull LongSupplier nanoClock) {
+        if (maxPools <= 0 || maxConnectionsPerPool <= 0) {
+            throw new IllegalArgumentException(String.format("The max pools (%d) and the max connections per pool (%d) should be positive",
+                maxPools, maxConnectionsPerPool));
+        }
+        this.maxPools = maxPools;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.maxConnectionsPerPool = maxConnectionsPerPool;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Get the connection pool of the Redis cache, the pool is created at the first time and reused until it's evicted.
+     */
+    @Nonnull
+    public JedisPool getPool(@Nonnull RedisCache redis) {
+        return getPool(redis.getId(), config -> new JedisPool(config, redis.getHostName(), redis.getSSLPort(),
+            Protocol.DEFAULT_TIMEOUT, redis.getPrimaryKey(), true));
+    }
+
+    @Nonnull
+    JedisPool getPool(@Nonnull String id, @Nonnull Function<JedisPoolConfig, JedisPool> factory) {
+        final long now = nanoClock.getAsLong();
+        final PoolEntry entry = pools.compute(id, (key, existing) -> {
+            if (existing != null && !existing.pool.isClosed()) {
+                existing.lastAccessNanos = now;
+                hitCount.incrementAndGet();
+                return existing;
+            }
+            // The pool connects lazily, it's cheap to create in the map
+            createCount.incrementAndGet();
+            return new PoolEntry(factory.apply(createPoolConfig()), now);
+        });
+        if (pools.size() > maxPools) {
+            evictLeastRecentlyUsed(id);
+        }
+        return entry.pool;
+    }
+
+    /**
+     * Close the pool of the resource, e.g. for the resource deleted.
+     */
+    public void releasePool(@Nonnull String id) {
+        final PoolEntry entry = pools.remove(id);
+        if (entry != null) {
+            entry.pool.close();
+        }
+    }
+
+    int getPoolCount() {
+        return pools.size();
+    }
+
+    /**
+     * Get the metrics of the open pools.
+     *
+     * @return the pool metrics by the resource id of Redis cache
+     */
+    @Nonnull
+    public Map<String, PoolMetrics> getPoolMetrics() {
+        final Map<String, PoolMetrics> metrics = new LinkedHashMap<>();
+        pools.forEach((id, entry) -> metrics.put(id, new PoolMetrics(entry.pool)));
+        return Collections.unmodifiableMap(metrics);
+    }
+
+    /**
+     * @return count of the pools got from the registry rather than created
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getCreateCount() {
+        return createCount.get();
+    }
+
+    /**
+     * @return count of the pools closed by the idle sweep or the least recently used eviction, the released ones excluded
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * Close the pools not used for the idle timeout, the pools with borrowed connections are kept.
+     */
+    void evictIdlePools() {
+        final long now = nanoClock.getAsLong();
+        pools.keySet().forEach(id -> evictIf(id, entry -> now - entry.lastAccessNanos >= idleTimeoutNanos));
+    }
+
+    private void evictLeastRecentlyUsed(@Nonnull String accessedId) {
+        while (pools.size() > maxPools) {
+            final String eldest = pools.entrySet().stream()
+                .filter(e -> !e.getKey().equals(accessedId) && e.getValue().pool.getNumActive() <= 0)
+                .min(Comparator.comparingLong(e -> e.getValue().lastAccessNanos))
+                .map(Map.Entry::getKey)
+                .orElse(null);
+            if (eldest == null || !evictIf(eldest, entry -> true)) {
+                // All the other pools are in use, they are evicted by the next access or sweep
+                return;
+            }
+        }
+    }
+
+    private boolean evictIf(@Nonnull String id, @Nonnull Predicate<PoolEntry> condition) {
+        final PoolEntry[] evicted = new PoolEntry[1];
+        pools.computeIfPresent(id, (key, entry) -> {
+            if (entry.pool.getNumActive() <= 0 && condition.test(entry)) {
+                evicted[0] = entry;
+                return null;
+            }
+            return entry;
+        });
+        if (evicted[0] != null) {
+            evicted[0].pool.close();
+            evictionCount.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    @Nonnull
+    private JedisPoolConfig createPoolConfig() {
+        final JedisPoolConfig config = new JedisPoolConfig();
+        config.setMaxTotal(maxConnectionsPerPool);
+        config.setMaxIdle(maxConnectionsPerPool);
+        config.setMinIdle(0);
+        // The idle connections are kept until the pool is evicted, the pool sweep closes them together
+        config.setTimeBetweenEvictionRunsMillis(-1);
+        return config;
+    }
+
+    private static long getPositiveProperty(@Nonnull String name, long defaultValue) {
+        final Long value = Long.getLong(name);
+        if (value != null && value <= 0) {
+            log.warn("ignore the non-positive value {} of system property {}, use {} instead", value, name, defaultValue);
+            return defaultValue;
+        }
+        return value == null ? defaultValue : value;
+    }
+
+    static int getPositiveProperty(@Nonnull String name, int defaultValue) {
+        return (int) Math.min(Integer.MAX_VALUE, getPositiveProperty(name, (long) defaultValue));
+    }
+
+    /**
+     * The connections of a Jedis pool.
+     */
+    @Getter
+    public static class PoolMetrics {
+        private final int numActive;
+        private final int numIdle;
+        private final int numWaiters;
+
+        PoolMetrics(@Nonnull JedisPool pool) {
+            this.numActive = pool.getNumActive();
+            this.numIdle = pool.getNumIdle();
+            this.numWaiters = pool.getNumWaiters();
+        }
+    }
+
+    private static class PoolEntry {
+        private final JedisPool pool;
+        private volatile long lastAccessNanos;
+
+        PoolEntry(@Nonnull JedisPool pool, long lastAccessNanos) {
+            this.pool = pool;
+            this.lastAccessNanos = lastAccessNanos;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.redis.explorer;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.util.SafeEncoder;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static redis.clients.jedis.ScanParams.SCAN_POINTER_START;
+
+/**
+ * Scan the keys page by page with the type, TTL and memory usage of each key. The TYPE, PTTL and MEMORY USAGE
+ * commands of a page are pipelined with the SCAN command of the next page, so each page takes one round trip, and
+ * the SCAN COUNT is adjusted by the round trip time.
+ */
+class RedisKeyScanner {
+    static final int MIN_SCAN_COUNT = 100;
+    static final int MAX_SCAN_COUNT = 10000;
+    private static final long TARGET_ROUND_TRIP_MILLIS = 200;
+    private static final String TYPE_NONE = "none";
+    private static final String MEMORY_USAGE = "USAGE";
+
+    private final Jedis jedis;
+    private final String cursor;
+    private final String pattern;
+
+    private int scanCount = MIN_SCAN_COUNT;
+    private boolean memoryUsageSupported = true;
+    @Nullable
+    private ScanResult<String> scanned;
+    private boolean finished = false;
+    private int scanIterations = 0;
+
+    @Getter
+    @RequiredArgsConstructor
+    static class KeyInfo {
+        private final String key;
+        private final String type;
+        private final long ttlMillis;
+        @Nullable
+        private final Long memoryUsage;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    static class Page {
+        private final List<KeyInfo> keys;
+        private final String nextCursor;
+    }
+
+    /**
+     * @param jedis the connection with the database selected, which is used exclusively until the scan ends
+     */
+    RedisKeyScanner(@Nonnull final Jedis jedis, @Nonnull final String cursor, @Nonnull final String pattern) {
+        this.jedis = jedis;
+        this.cursor = cursor;
+        this.pattern = pattern;
+    }
+
+    boolean hasNext() {
+        return !finished;
+    }
+
+    /**
+     * @return the SCAN commands sent, the pages could be empty for the sparse matched pattern
+     */
+    int getScanIterations() {
+        return scanIterations;
+    }
+
+    @Nonnull
+    Page nextPage() {
+        if (finished) {
+            throw new NoSuchElementException("The scan is finished");
+        }
+        if (scanned == null) {
+            final long start = System.currentTimeMillis();
+            scanned = jedis.scan(cursor, new ScanParams().match(pattern).count(scanCount));
+            scanIterations++;
+            adjustScanCount(System.currentTimeMillis() - start);
+        }
+
+        final List<String> keys = scanned.getResult();
+        final String nextCursor = scanned.getCursor();
+        final boolean lastPage = SCAN_POINTER_START.equals(nextCursor);
+
+        final Pipeline pipeline = jedis.pipelined();
+        final List<Response<String>> types = new ArrayList<>(keys.size());
+        final List<Response<Long>> ttls = new ArrayList<>(keys.size());
+        final List<Response<Object>> memoryUsages = new ArrayList<>(keys.size());
+        for (final String key : keys) {
+            types.add(pipeline.type(key));
+            ttls.add(pipeline.pttl(key));
+            if (memoryUsageSupported) {
+                memoryUsages.add(pipeline.sendCommand(Protocol.Command.MEMORY, MEMORY_USAGE, key));
+            }
+        }
+        final Response<Object> nextScanned = lastPage ? null : pipeline.sendCommand(Protocol.Command.SCAN,
+            nextCursor, Protocol.Keyword.MATCH.name(), pattern, Protocol.Keyword.COUNT.name(), String.valueOf(scanCount));
+        if (!lastPage) {
+            scanIterations++;
+        }
+
+        final long start = System.currentTimeMillis();
+        pipeline.sync();
+        adjustScanCount(System.currentTimeMillis() - start);
+
+        final List<KeyInfo> infos = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            final String type = types.get(i).get();
+            if (TYPE_NONE.equals(type)) { // deleted after scanned
+                continue;
+            }
+            infos.add(new KeyInfo(keys.get(i), type, ttls.get(i).get(),
+                memoryUsages.isEmpty() ? null : getMemoryUsage(memoryUsages.get(i))));
+        }
+
+        finished = lastPage;
+        scanned = lastPage ? null : toScanResult(nextScanned.get());
+        return new Page(infos, nextCursor);
+    }
+
+    private void adjustScanCount(long roundTripMillis) {
+        if (roundTripMillis < TARGET_ROUND_TRIP_MILLIS / 2) {
+            scanCount = Math.min(MAX_SCAN_COUNT, scanCount * 2);
+        } else if (roundTripMillis > TARGET_ROUND_TRIP_MILLIS * 2) {
+            scanCount = Math.max(MIN_SCAN_COUNT, scanCount / 2);
+        }
+    }
+
+    @Nullable
+    private Long getMemoryUsage(@Nonnull final Response<Object> response) {
+        try {
+            final Object usage = response.get();
+            return usage instanceof Long ? (Long) usage : null;
+        } catch (final JedisDataException e) {
+            // the MEMORY command could be disabled, not to ask it again for the following pages
+            memoryUsageSupported = false;
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    private static ScanResult<String> toScanResult(@Nonnull final Object reply) {
+        final List<Object> result = (List<Object>) reply;
+        final List<String> keys = new ArrayList<>();
+        for (final Object key : (List<Object>) result.get(1)) {
+            keys.add(SafeEncoder.encode((byte[]) key));
+        }
+        return new ScanResult<>(SafeEncoder.encode((byte[]) result.get(0)), keys);
+    }
+}
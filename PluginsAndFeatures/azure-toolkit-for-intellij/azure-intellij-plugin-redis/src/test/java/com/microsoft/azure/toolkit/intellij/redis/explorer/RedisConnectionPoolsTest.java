@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.redis.explorer;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+public class RedisConnectionPoolsTest {
+    private static final Duration IDLE_TIMEOUT = Duration.ofMinutes(5);
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger created = new AtomicInteger();
+    private RedisConnectionPools pools;
+
+    @Before
+    public void setUp() {
+        pools = new RedisConnectionPools(2, IDLE_TIMEOUT, 3, clock::get);
+    }
+
+    @Test
+    public void reusePoolOfSameResource() {
+        final JedisPool first = pools.getPool("cache1", factory(new AtomicInteger()));
+        final JedisPool second = pools.getPool("cache1", factory(new AtomicInteger()));
+
+        Assert.assertSame(first, second);
+        Assert.assertEquals(1, created.get());
+    }
+
+    @Test
+    public void createPoolWithConnectionLimit() {
+        final JedisPoolConfig[] config = new JedisPoolConfig[1];
+        pools.getPool("cache1", c -> {
+            config[0] = c;
+            return new JedisPool(c, "localhost", 6379);
+        });
+
+        Assert.assertEquals(3, config[0].getMaxTotal());
+        Assert.assertEquals(3, config[0].getMaxIdle());
+    }
+
+    @Test
+    public void evictLeastRecentlyUsedPoolBeyondLimit() {
+        final JedisPool pool1 = pools.getPool("cache1", factory(new AtomicInteger()));
+        clock.addAndGet(1);
+        final JedisPool pool2 = pools.getPool("cache2", factory(new AtomicInteger()));
+        clock.addAndGet(1);
+        // cache1 becomes the most recently used one
+        pools.getPool("cache1", factory(new AtomicInteger()));
+        clock.addAndGet(1);
+        final JedisPool pool3 = pools.getPool("cache3", factory(new AtomicInteger()));
+
+        Assert.assertEquals(2, pools.getPoolCount());
+        Assert.assertFalse(pool1.isClosed());
+        Assert.assertTrue(pool2.isClosed());
+        Assert.assertFalse(pool3.isClosed());
+    }
+
+    @Test
+    public void keepPoolInUseBeyondLimit() {
+        final AtomicInteger active = new AtomicInteger(1);
+        final JedisPool pool1 = pools.getPool("cache1", factory(active));
+        clock.addAndGet(1);
+        final JedisPool pool2 = pools.getPool("cache2", factory(new AtomicInteger()));
+        clock.addAndGet(1);
+        pools.getPool("cache3", factory(new AtomicInteger()));
+
+        Assert.assertFalse(pool1.isClosed());
+        Assert.assertTrue(pool2.isClosed());
+    }
+
+    @Test
+    public void sweepIdlePools() {
+        final JedisPool pool1 = pools.getPool("cache1", factory(new AtomicInteger()));
+        clock.addAndGet(IDLE_TIMEOUT.toNanos() / 2);
+        final JedisPool pool2 = pools.getPool("cache2", factory(new AtomicInteger()));
+        clock.addAndGet(IDLE_TIMEOUT.toNanos() / 2);
+
+        pools.evictIdlePools();
+
+        Assert.assertTrue(pool1.isClosed());
+        Assert.assertFalse(pool2.isClosed());
+        Assert.assertEquals(1, pools.getPoolCount());
+    }
+
+    @Test
+    public void sweepKeepsPoolInUse() {
+        final AtomicInteger active = new AtomicInteger(1);
+        final JedisPool pool = pools.getPool("cache1", factory(active));
+        clock.addAndGet(IDLE_TIMEOUT.toNanos() * 2);
+
+        pools.evictIdlePools();
+        Assert.assertFalse(pool.isClosed());
+
+        active.set(0);
+        pools.evictIdlePools();
+        Assert.assertTrue(pool.isClosed());
+    }
+
+    @Test
+    public void recreatePoolAfterRelease() {
+        final JedisPool first = pools.getPool("cache1", factory(new AtomicInteger()));
+        pools.releasePool("cache1");
+        final JedisPool second = pools.getPool("cache1", factory(new AtomicInteger()));
+
+        Assert.assertTrue(first.isClosed());
+        Assert.assertNotSame(first, second);
+        Assert.assertEquals(2, created.get());
+    }
+
+    @Test
+    public void countHitsCreationsAndEvictions() {
+        pools.getPool("cache1", factory(new AtomicInteger()));
+        pools.getPool("cache1", factory(new AtomicInteger()));
+        clock.addAndGet(1);
+        pools.getPool("cache2", factory(new AtomicInteger()));
+        clock.addAndGet(1);
+        pools.getPool("cache3", factory(new AtomicInteger()));
+        pools.releasePool("cache3");
+
+        Assert.assertEquals(1, pools.getHitCount());
+        Assert.assertEquals(3, pools.getCreateCount());
+        // the released pool isn't an evicted one
+        Assert.assertEquals(1, pools.getEvictionCount());
+    }
+
+    @Test
+    public void exposePoolMetrics() {
+        pools.getPool("cache1", factory(new AtomicInteger(2)));
+
+        final Map<String, RedisConnectionPools.PoolMetrics> metrics = pools.getPoolMetrics();
+        Assert.assertEquals(1, metrics.size());
+        Assert.assertEquals(2, metrics.get("cache1").getNumActive());
+        Assert.assertEquals(0, metrics.get("cache1").getNumIdle());
+        Assert.assertEquals(0, metrics.get("cache1").getNumWaiters());
+    }
+
+    @Test
+    public void readLimitFromSystemProperty() {
+        final String name = "azure.toolkit.redis.test.limit";
+        try {
+            Assert.assertEquals(3, RedisConnectionPools.getPositiveProperty(name, 3));
+            System.setProperty(name, "16");
+            Assert.assertEquals(16, RedisConnectionPools.getPositiveProperty(name, 3));
+            System.setProperty(name, "0");
+            Assert.assertEquals(3, RedisConnectionPools.getPositiveProperty(name, 3));
+        } finally {
+            System.clearProperty(name);
+        }
+    }
+
+    private Function<JedisPoolConfig, JedisPool> factory(final AtomicInteger active) {
+        return config -> {
+            created.incrementAndGet();
+            // The pool connects lazily, no Redis server is needed until a connection is borrowed
+            return new JedisPool(config, "localhost", 6379) {
+                @Override
+                public int getNumActive() {
+                    return isClosed() ? -1 : active.get();
+                }
+            };
+        };
+    }
+}
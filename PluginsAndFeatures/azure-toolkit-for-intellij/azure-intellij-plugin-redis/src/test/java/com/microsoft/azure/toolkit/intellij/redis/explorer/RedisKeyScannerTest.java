@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.redis.explorer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import redis.clients.jedis.Jedis;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static redis.clients.jedis.ScanParams.SCAN_POINTER_START;
+
+public class RedisKeyScannerTest {
+
+    private static final int KEY_COUNT = 5000;
+
+    private RedisStandIn server;
+    private Jedis jedis;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new RedisStandIn(KEY_COUNT);
+        jedis = new Jedis(InetAddress.getLoopbackAddress().getHostAddress(), server.getPort());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        jedis.close();
+        server.close();
+    }
+
+    @Test
+    public void testScanAllKeysWithInfo() {
+        RedisKeyScanner scanner = new RedisKeyScanner(jedis, SCAN_POINTER_START, "*");
+        Set<String> keys = new HashSet<>();
+        int pages = 0;
+
+        while (scanner.hasNext()) {
+            RedisKeyScanner.Page page = scanner.nextPage();
+            pages++;
+
+            for (RedisKeyScanner.KeyInfo info : page.getKeys()) {
+                int index = Integer.parseInt(info.getKey().substring("key:".length()));
+                assertEquals(index % 2 == 0 ? "string" : "hash", info.getType());
+                assertEquals(index % 3 == 0 ? 5000L : -1L, info.getTtlMillis());
+                assertEquals(Long.valueOf(index + 50L), info.getMemoryUsage());
+                assertTrue(keys.add(info.getKey()));
+            }
+
+            assertEquals(!scanner.hasNext(), SCAN_POINTER_START.equals(page.getNextCursor()));
+        }
+
+        assertEquals(KEY_COUNT, keys.size());
+
+        // The local round trips are fast, the SCAN COUNT grows from the minimum one
+        assertEquals(RedisKeyScanner.MIN_SCAN_COUNT, (int) server.scanCounts.get(0));
+        assertTrue(server.scanCounts.get(server.scanCounts.size() - 1) > RedisKeyScanner.MIN_SCAN_COUNT);
+        assertTrue(pages < KEY_COUNT / RedisKeyScanner.MIN_SCAN_COUNT);
+    }
+
+    @Test
+    public void testScanWithoutMemoryCommand() {
+        server.isMemoryDisabled = true;
+        RedisKeyScanner scanner = new RedisKeyScanner(jedis, SCAN_POINTER_START, "*");
+        int keys = 0;
+
+        while (scanner.hasNext()) {
+            for (RedisKeyScanner.KeyInfo info : scanner.nextPage().getKeys()) {
+                assertNull(info.getMemoryUsage());
+                keys++;
+            }
+        }
+
+        assertEquals(KEY_COUNT, keys);
+        // Only the first page asks the memory usage
+        assertEquals(RedisKeyScanner.MIN_SCAN_COUNT, server.memoryCommandCount);
+    }
+
+    @Test
+    public void testStopScanBetweenPages() {
+        RedisKeyScanner scanner = new RedisKeyScanner(jedis, SCAN_POINTER_START, "*");
+
+        scanner.nextPage();
+
+        assertTrue(scanner.hasNext());
+        // The next page is scanned with the first page information, and nothing is sent until asked
+        assertEquals(2, server.scanCounts.size());
+    }
+
+    @Test
+    public void testScanFromCursor() {
+        RedisKeyScanner scanner = new RedisKeyScanner(jedis, String.valueOf(KEY_COUNT - 10), "*");
+        RedisKeyScanner.Page page = scanner.nextPage();
+
+        assertEquals(10, page.getKeys().size());
+        assertEquals(SCAN_POINTER_START, page.getNextCursor());
+        assertFalse(scanner.hasNext());
+    }
+
+    @Test
+    public void testCountScanIterationsOfSparseMatches() {
+        RedisKeyScanner scanner = new RedisKeyScanner(jedis, SCAN_POINTER_START, "missing:*");
+        int pages = 0;
+
+        while (scanner.hasNext()) {
+            assertTrue(scanner.nextPage().getKeys().isEmpty());
+            pages++;
+            // The SCAN of the next page is pipelined with the current page
+            assertEquals(scanner.hasNext() ? pages + 1 : pages, scanner.getScanIterations());
+        }
+
+        assertEquals(server.scanCounts.size(), scanner.getScanIterations());
+    }
+
+    /**
+     * A minimum Redis server stand-in for the SCAN, TYPE, PTTL and MEMORY USAGE commands, which serves one
+     * connection with the keys `key:0` to `key:{count - 1}`.
+     * The SCAN command matches the patterns of a prefix followed by `*`.
+     */
+    private static class RedisStandIn implements AutoCloseable {
+        private final ServerSocket serverSocket;
+        private final int keyCount;
+        private final List<Integer> scanCounts = new CopyOnWriteArrayList<>();
+        private volatile boolean isMemoryDisabled = false;
+        private volatile int memoryCommandCount = 0;
+
+        RedisStandIn(int keyCount) throws IOException {
+            this.keyCount = keyCount;
+            this.serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+
+            Thread thread = new Thread(this::serve, "redis-stand-in");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+        }
+
+        private void serve() {
+            try (Socket socket = serverSocket.accept();
+                 InputStream in = new BufferedInputStream(socket.getInputStream());
+                 OutputStream out = new BufferedOutputStream(socket.getOutputStream())) {
+                List<String> command;
+
+                while ((command = readCommand(in)) != null) {
+                    out.write(reply(command).getBytes(StandardCharsets.UTF_8));
+
+                    // Flush when the pipelined commands are all read
+                    if (in.available() == 0) {
+                        out.flush();
+                    }
+                }
+            } catch (IOException ignored) {
+                // Closed
+            }
+        }
+
+        private String reply(List<String> command) {
+            switch (command.get(0).toUpperCase()) {
+                case "SCAN":
+                    return scan(Integer.parseInt(command.get(1)), command.get(3), Integer.parseInt(command.get(5)));
+                case "TYPE":
+                    return getIndex(command.get(1)) % 2 == 0 ? "+string\r\n" : "+hash\r\n";
+                case "PTTL":
+                    return getIndex(command.get(1)) % 3 == 0 ? ":5000\r\n" : ":-1\r\n";
+                case "MEMORY":
+                    memoryCommandCount++;
+                    return isMemoryDisabled
+                            ? "-ERR unknown command 'MEMORY'\r\n"
+                            : ":" + (getIndex(command.get(2)) + 50) + "\r\n";
+                default:
+                    return "+OK\r\n";
+            }
+        }
+
+        private String scan(int cursor, String pattern, int count) {
+            scanCounts.add(count);
+
+            // Only the prefix patterns are matched
+            String prefix = pattern.substring(0, pattern.length() - 1);
+            int end = Math.min(keyCount, cursor + count);
+            List<String> keys = new ArrayList<>();
+            for (int i = cursor; i < end; i++) {
+                if (("key:" + i).startsWith(prefix)) {
+                    keys.add("key:" + i);
+                }
+            }
+
+            StringBuilder reply = new StringBuilder("*2\r\n");
+            appendBulk(reply, String.valueOf(end == keyCount ? 0 : end));
+            reply.append('*').append(keys.size()).append("\r\n");
+            keys.forEach(key -> appendBulk(reply, key));
+
+            return reply.toString();
+        }
+
+        private static int getIndex(String key) {
+            return Integer.parseInt(key.substring("key:".length()));
+        }
+
+        private static void appendBulk(StringBuilder reply, String value) {
+            reply.append('$').append(value.length()).append("\r\n").append(value).append("\r\n");
+        }
+
+        private static List<String> readCommand(InputStream in) throws IOException {
+            String header = readLine(in);
+            if (header == null) {
+                return null;
+            }
+
+            int argc = Integer.parseInt(header.substring(1));
+            List<String> args = new ArrayList<>(argc);
+
+            for (int i = 0; i < argc; i++) {
+                int length = Integer.parseInt(readLine(in).substring(1));
+                byte[] arg = new byte[length];
+                int read = 0;
+
+                while (read < length) {
+                    read += in.read(arg, read, length - read);
+                }
+
+                args.add(new String(arg, StandardCharsets.UTF_8));
+                readLine(in);
+            }
+
+            return args;
+        }
+
+        private static String readLine(InputStream in) throws IOException {
+            StringBuilder line = new StringBuilder();
+            int c;
+
+            while ((c = in.read()) != '\n') {
+                if (c < 0) {
+                    return null;
+                }
+
+                if (c != '\r') {
+                    line.append((char) c);
+                }
+            }
+
+            return line.toString();
+        }
+    }
+}
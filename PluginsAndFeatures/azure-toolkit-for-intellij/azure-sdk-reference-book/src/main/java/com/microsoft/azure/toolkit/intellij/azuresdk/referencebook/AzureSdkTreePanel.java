@@ -29,6 +29,7 @@ import com.microsoft.azure.toolkit.intellij.azuresdk.model.AzureSdkFeatureEntity
 import com.microsoft.azure.toolkit.intellij.azuresdk.model.AzureSdkServiceEntity;
 import com.microsoft.azure.toolkit.intellij.azuresdk.service.AzureSdkCategoryService;
 import com.microsoft.azure.toolkit.intellij.azuresdk.service.AzureSdkLibraryService;
+import com.microsoft.azure.toolkit.intellij.azuresdk.service.AzureSdkSearchIndex;
 import com.microsoft.azure.toolkit.intellij.common.TextDocumentListenerAdapter;
 import com.microsoft.azure.toolkit.lib.common.event.AzureEventBus;
 import com.microsoft.azure.toolkit.lib.common.operation.AzureOperation;
@@ -48,7 +49,6 @@ import javax.annotation.Nullable;
 import javax.swing.*;
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.DefaultTreeModel;
-import javax.swing.tree.MutableTreeNode;
 import javax.swing.tree.TreeNode;
 import javax.swing.tree.TreePath;
 import javax.swing.tree.TreeSelectionModel;
@@ -59,6 +59,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
@@ -76,6 +77,8 @@ public class AzureSdkTreePanel implements TextDocumentListenerAdapter {
     private DefaultTreeModel model;
     private List<? extends AzureSdkServiceEntity> services;
     private Map<String, List<AzureSdkCategoryEntity>> categories;
+    // built on a pooled thread, read by the filter on the EDT
+    private volatile AzureSdkSearchIndex index;
     private TreePath lastNodePath;
 
     public AzureSdkTreePanel() {
@@ -134,8 +137,17 @@ public class AzureSdkTreePanel implements TextDocumentListenerAdapter {
     }
 
     private void filter(final String text) {
-        final String[] filters = Arrays.stream(text.split("\\s+")).filter(StringUtils::isNoneBlank).map(String::toLowerCase).toArray(String[]::new);
-        AzureTaskManager.getInstance().runLater(() -> this.loadData(this.categories, this.services, filters));
+        final Set<AzureSdkFeatureEntity> matched = this.search(text);
+        AzureTaskManager.getInstance().runLater(() -> this.loadData(this.categories, this.services, matched));
+    }
+
+    /**
+     * @return the features matching the filter text, null if there's no filter.
+     */
+    @Nullable
+    private Set<AzureSdkFeatureEntity> search(final String text) {
+        final String[] filters = Arrays.stream(StringUtils.defaultString(text).split("\\s+")).filter(StringUtils::isNoneBlank).toArray(String[]::new);
+        return Optional.ofNullable(this.index).map(i -> i.search(filters)).orElse(null);
     }
 
     public synchronized void refresh(boolean... force) {
@@ -146,7 +158,9 @@ public class AzureSdkTreePanel implements TextDocumentListenerAdapter {
             this.services = AzureSdkLibraryService.loadAzureSdkServices();
             this.categories = AzureSdkCategoryService.loadAzureSDKCategories();
             this.fillDescriptionFromCategoryIfMissing(this.categories, this.services);
-            AzureTaskManager.getInstance().runAndWait(() -> this.loadData(this.categories, this.services, this.searchBox.getText()), AzureTask.Modality.ANY);
+            this.index = AzureSdkSearchIndex.build(this.categories, this.services);
+            final Set<AzureSdkFeatureEntity> matched = this.search(this.searchBox.getText());
+            AzureTaskManager.getInstance().runAndWait(() -> this.loadData(this.categories, this.services, matched), AzureTask.Modality.ANY);
             Optional.ofNullable(this.lastNodePath).ifPresent(p -> AzureTaskManager.getInstance().runAndWait(() -> TreeUtil.selectPath(this.tree, p)));
             AzureEventBus.emit("reference.refresh");
         } catch (final IOException e) {
@@ -167,34 +181,35 @@ public class AzureSdkTreePanel implements TextDocumentListenerAdapter {
             })));
     }
 
-    private void loadData(final Map<String, List<AzureSdkCategoryEntity>> categoryToServiceMap, final List<? extends AzureSdkServiceEntity> services, String... filters) {
+    /**
+     * rebuild the tree with the matched features and their services/categories, the nodes are added detached from
+     * the model and reloaded once.
+     *
+     * @param matched the features matching the filter, null if there's no filter.
+     */
+    private void loadData(final Map<String, List<AzureSdkCategoryEntity>> categoryToServiceMap, final List<? extends AzureSdkServiceEntity> services,
+                          @Nullable final Set<AzureSdkFeatureEntity> matched) {
         final DefaultMutableTreeNode root = (DefaultMutableTreeNode) this.model.getRoot();
         root.removeAllChildren();
         final Map<String, AzureSdkServiceEntity> serviceMap = services.stream().collect(Collectors.toMap(e -> getServiceKeyByName(e.getName()), e -> e));
         final List<String> categories = categoryToServiceMap.keySet().stream().filter(StringUtils::isNotBlank).sorted(
                 (s1, s2) -> StringUtils.contains(s1, "Others") ? 1 : StringUtils.contains(s2, "Others") ? -1 : s1.compareTo(s2)).collect(Collectors.toList());
         for (final String category : categories) {
-            // no feature found for current category
-            if (CollectionUtils.isEmpty(categoryToServiceMap.get(category)) ||
-                categoryToServiceMap.get(category).stream().allMatch(e -> Objects.isNull(serviceMap.get(getServiceKeyByName(e.getServiceName()))) ||
-                    CollectionUtils.isEmpty(serviceMap.get(getServiceKeyByName(e.getServiceName())).getContent()))) {
-                continue;
-            }
             // add features for current category
-            final MutableTreeNode categoryNode = new DefaultMutableTreeNode(category);
-            final boolean categoryMatched = this.isMatchedFilters(category, filters);
+            final DefaultMutableTreeNode categoryNode = new DefaultMutableTreeNode(category);
             categoryToServiceMap.get(category)
                 .stream().sorted(Comparator.comparing(AzureSdkCategoryEntity::getServiceName))
                 .forEach(categoryService -> {
                     final AzureSdkServiceEntity service = serviceMap.get(getServiceKeyByName(categoryService.getServiceName()));
-                    AzureTaskManager.getInstance().runAndWait(() -> this.loadServiceData(service, categoryService, categoryNode, filters));
+                    this.loadServiceData(service, categoryNode, matched);
                 });
-            if (ArrayUtils.isEmpty(filters) || categoryMatched || categoryNode.getChildCount() > 0) {
-                this.model.insertNodeInto(categoryNode, root, root.getChildCount());
+            // no feature found for current category
+            if (categoryNode.getChildCount() > 0) {
+                root.add(categoryNode);
             }
         }
         this.model.reload();
-        if (ArrayUtils.isNotEmpty(filters)) {
+        if (Objects.nonNull(matched)) {
             TreeUtil.expandAll(this.tree);
         }
         try {
@@ -205,41 +220,31 @@ public class AzureSdkTreePanel implements TextDocumentListenerAdapter {
     }
 
     private String getServiceKeyByName(final String name) {
-        return StringUtils.lowerCase(StringUtils.trim(name));
+        return AzureSdkSearchIndex.getServiceKeyByName(name);
     }
 
-    private void loadServiceData(AzureSdkServiceEntity service, AzureSdkCategoryEntity categoryService, MutableTreeNode categoryNode, String... filters) {
+    private void loadServiceData(AzureSdkServiceEntity service, DefaultMutableTreeNode categoryNode, @Nullable Set<AzureSdkFeatureEntity> matched) {
         if (Objects.isNull(service) || CollectionUtils.isEmpty(service.getContent())) {
             return;
         }
-        final boolean categoryMatched = this.isMatchedFilters(categoryService.getCategory(), filters);
         if (CollectionUtils.size(service.getContent()) == 1 && StringUtils.equals(service.getName(), service.getContent().get(0).getName())) {
             final AzureSdkFeatureEntity feature = service.getContent().get(0);
-            final boolean featureMatched = this.isMatchedFilters(feature.getName(), filters);
-            if (ArrayUtils.isEmpty(filters) || categoryMatched || featureMatched) {
-                final DefaultMutableTreeNode featureNode = new DefaultMutableTreeNode(feature);
-                this.model.insertNodeInto(featureNode, categoryNode, categoryNode.getChildCount());
+            if (Objects.isNull(matched) || matched.contains(feature)) {
+                categoryNode.add(new DefaultMutableTreeNode(feature));
             }
             return;
         }
-        final MutableTreeNode serviceNode = new DefaultMutableTreeNode(service);
-        final boolean serviceMatched = this.isMatchedFilters(service.getName(), filters);
+        final DefaultMutableTreeNode serviceNode = new DefaultMutableTreeNode(service);
         for (final AzureSdkFeatureEntity feature : service.getContent()) {
-            final boolean featureMatched = this.isMatchedFilters(feature.getName(), filters);
-            if (ArrayUtils.isEmpty(filters) || categoryMatched || serviceMatched || featureMatched) {
-                final DefaultMutableTreeNode featureNode = new DefaultMutableTreeNode(feature);
-                this.model.insertNodeInto(featureNode, serviceNode, serviceNode.getChildCount());
+            if (Objects.isNull(matched) || matched.contains(feature)) {
+                serviceNode.add(new DefaultMutableTreeNode(feature));
             }
         }
-        if (ArrayUtils.isEmpty(filters) || categoryMatched || serviceMatched || serviceNode.getChildCount() > 0) {
-            this.model.insertNodeInto(serviceNode, categoryNode, categoryNode.getChildCount());
+        if (serviceNode.getChildCount() > 0) {
+            categoryNode.add(serviceNode);
         }
     }
 
-    private boolean isMatchedFilters(String content, String... filters) {
-        return Arrays.stream(filters).allMatch(f -> StringUtils.containsIgnoreCase(content, f));
-    }
-
     private ActionToolbarImpl initToolbar() {
         final DefaultTreeExpander expander = new DefaultTreeExpander(this.tree);
         final DefaultActionGroup group = new DefaultActionGroup();
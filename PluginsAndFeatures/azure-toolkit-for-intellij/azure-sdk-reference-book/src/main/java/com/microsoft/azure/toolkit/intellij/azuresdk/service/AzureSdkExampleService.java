@@ -30,6 +30,7 @@ import java.nio.charset.Charset;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -43,7 +44,9 @@ public class AzureSdkExampleService {
     @AzureOperation(name = "boundary/sdk.load_artifact_example.url", params = "entity.getRawUrl()")
     public static String loadArtifactExample(@Nonnull final AzureJavaSdkArtifactExampleEntity entity) {
         try {
-            return IOUtils.toString(new URL(entity.getRawUrl()), Charset.defaultCharset());
+            // no bundled snapshot of examples, it's fetched at the first load and served from disk cache since then.
+            final URL cached = AzureSdkMetadataCache.getInstance().get(entity.getRawUrl(), null);
+            return Objects.isNull(cached) ? null : IOUtils.toString(cached, Charset.defaultCharset());
         } catch (IOException e) {
             log.warn("failed to load Azure SDK example", e);
             return null;
@@ -23,20 +23,19 @@ import com.microsoft.azure.toolkit.lib.common.cache.CacheManager;
 import com.microsoft.azure.toolkit.lib.common.cache.Cacheable;
 import com.microsoft.azure.toolkit.lib.common.cache.Preload;
 import com.microsoft.azure.toolkit.lib.common.operation.AzureOperation;
-import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 
 import javax.annotation.Nonnull;
 import java.io.IOException;
-import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
@@ -173,26 +172,28 @@ public class AzureSdkLibraryService {
                 .collect(Collectors.toList());
     }
 
-    @SneakyThrows(MalformedURLException.class)
     @Cacheable("sdk/packages/spring")
     @AzureOperation(name = "boundary/sdk.load_spring_libs_metadata")
     private static List<AzureSdkServiceEntity> loadSpringSDKEntities() {
-        final List<AzureSdkServiceEntity> remote = loadSpringSDKEntities(new URL(SPRING_SDK_METADATA_URL));
-        if (CollectionUtils.isEmpty(remote)) {
+        // served from disk cache (or the bundled snapshot), which is revalidated with remote in background
+        final URL cached = AzureSdkMetadataCache.getInstance().get(SPRING_SDK_METADATA_URL, SDK_SPRING_SERVICES_BACKUP);
+        final List<AzureSdkServiceEntity> entities = Objects.isNull(cached) ? Collections.emptyList() : loadSpringSDKEntities(cached);
+        if (CollectionUtils.isEmpty(entities)) {
             return loadSpringSDKEntities(AzureSdkLibraryService.class.getResource(SDK_SPRING_SERVICES_BACKUP));
         }
-        return remote;
+        return entities;
     }
 
-    @SneakyThrows(MalformedURLException.class)
     @Cacheable("sdk/packages")
     @AzureOperation(name = "boundary/sdk.load_java_libs_meta_data")
     public static List<AzureJavaSdkEntity> loadAzureSDKEntities() {
-        final List<AzureJavaSdkEntity> remote = loadAzureSDKEntities(new URL(CLIENT_MGMT_SDK_METADATA_URL));
-        if (CollectionUtils.isEmpty(remote)) {
+        // served from disk cache (or the bundled snapshot), which is revalidated with remote in background
+        final URL cached = AzureSdkMetadataCache.getInstance().get(CLIENT_MGMT_SDK_METADATA_URL, SDK_JAVA_PACKAGES_BACKUP);
+        final List<AzureJavaSdkEntity> entities = Objects.isNull(cached) ? Collections.emptyList() : loadAzureSDKEntities(cached);
+        if (CollectionUtils.isEmpty(entities)) {
             return loadAzureSDKEntities(AzureSdkLibraryService.class.getResource(SDK_JAVA_PACKAGES_BACKUP));
         }
-        return remote;
+        return entities;
     }
 
     public static List<AzureSdkServiceEntity> loadSpringSDKEntities(final URL destination) {
@@ -236,7 +237,12 @@ public class AzureSdkLibraryService {
         return Collections.emptySet();
     }
 
+    /**
+     * revalidate the disk cache with remote synchronously and evict the loaded metadata.
+     */
     public static void refresh() {
+        AzureSdkMetadataCache.getInstance().revalidate(SPRING_SDK_METADATA_URL);
+        AzureSdkMetadataCache.getInstance().revalidate(CLIENT_MGMT_SDK_METADATA_URL);
         try {
             CacheManager.evictCache("sdk/services", CacheEvict.ALL);
             CacheManager.evictCache("sdk/packages", CacheEvict.ALL);
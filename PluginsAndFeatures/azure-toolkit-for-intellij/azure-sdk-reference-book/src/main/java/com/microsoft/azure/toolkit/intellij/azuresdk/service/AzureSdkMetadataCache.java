@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.azuresdk.service;
+
+import com.intellij.openapi.application.PathManager;
+import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Disk cache of the Azure SDK metadata and examples fetched from GitHub. A cached copy (or the bundled snapshot if
+ * nothing is cached yet) is served at once, and revalidated in background by a conditional request with its
+ * ETag/Last-Modified at most every {@link #REVALIDATE_INTERVAL}, the updated copy is served since the next load.
+ */
+@Slf4j
+public class AzureSdkMetadataCache {
+    // bump it if the format of the cached files changes, the caches of other versions are ignored.
+    private static final String VERSION = "v1";
+    private static final Duration REVALIDATE_INTERVAL = Duration.ofHours(6);
+    private static final int TIMEOUT_MILLIS = 10000;
+    private static final String ETAG = "etag";
+    private static final String LAST_MODIFIED = "lastModified";
+    private static final String CHECKED_AT = "checkedAt";
+
+    private final Path directory;
+    private final boolean online;
+    private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param online false to serve the cached copies and bundled snapshots only, e.g. in tests
+     */
+    public AzureSdkMetadataCache(@Nonnull Path directory, boolean online) {
+        this.directory = directory.resolve(VERSION);
+        this.online = online;
+    }
+
+    private static final class Holder {
+        private static final AzureSdkMetadataCache INSTANCE =
+            new AzureSdkMetadataCache(Paths.get(PathManager.getSystemPath(), "azure-sdk-reference-book"), true);
+    }
+
+    public static AzureSdkMetadataCache getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * @param url            url of the remote metadata
+     * @param bundledSnapshot resource path of the bundled snapshot, served if nothing is cached yet
+     * @return url of the cached copy or the bundled snapshot, null only if neither exists and the remote is unavailable.
+     */
+    @Nullable
+    public URL get(@Nonnull final String url, @Nullable final String bundledSnapshot) {
+        final Path data = this.getDataFile(url);
+        final URL bundled = StringUtils.isBlank(bundledSnapshot) ? null : AzureSdkMetadataCache.class.getResource(bundledSnapshot);
+        if (Files.isRegularFile(data)) {
+            if (this.isStale(url)) {
+                this.revalidateLater(url);
+            }
+            return toURL(data);
+        } else if (Objects.nonNull(bundled)) {
+            this.revalidateLater(url);
+            return bundled;
+        }
+        this.revalidate(url);
+        return Files.isRegularFile(data) ? toURL(data) : null;
+    }
+
+    /**
+     * revalidate the cached copy of the remote metadata synchronously, e.g. when refreshed by users.
+     */
+    public void revalidate(@Nonnull final String url) {
+        if (!this.online) {
+            return;
+        }
+        final Path data = this.getDataFile(url);
+        final Properties meta = this.loadMeta(url);
+        try {
+            final HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+            connection.setConnectTimeout(TIMEOUT_MILLIS);
+            connection.setReadTimeout(TIMEOUT_MILLIS);
+            if (Files.isRegularFile(data)) {
+                Optional.ofNullable(meta.getProperty(ETAG)).ifPresent(v -> connection.setRequestProperty("If-None-Match", v));
+                Optional.ofNullable(meta.getProperty(LAST_MODIFIED)).ifPresent(v -> connection.setRequestProperty("If-Modified-Since", v));
+            }
+            final int code = connection.getResponseCode();
+            if (code == HttpURLConnection.HTTP_OK) {
+                Files.createDirectories(this.directory);
+                final Path temp = Files.createTempFile(this.directory, "download", ".tmp");
+                try (final InputStream input = connection.getInputStream()) {
+                    Files.copy(input, temp, StandardCopyOption.REPLACE_EXISTING);
+                }
+                Files.move(temp, data, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                meta.clear();
+                Optional.ofNullable(connection.getHeaderField("ETag")).ifPresent(v -> meta.setProperty(ETAG, v));
+                Optional.ofNullable(connection.getHeaderField("Last-Modified")).ifPresent(v -> meta.setProperty(LAST_MODIFIED, v));
+            } else if (code != HttpURLConnection.HTTP_NOT_MODIFIED) {
+                log.warn(String.format("failed to revalidate Azure SDK metadata \"%s\": %s", url, code));
+                return;
+            }
+            meta.setProperty(CHECKED_AT, String.valueOf(System.currentTimeMillis()));
+            this.saveMeta(url, meta);
+        } catch (final IOException e) {
+            log.warn(String.format("failed to revalidate Azure SDK metadata \"%s\"", url), e);
+        }
+    }
+
+    private void revalidateLater(@Nonnull final String url) {
+        if (this.online && this.revalidating.add(url)) {
+            AzureTaskManager.getInstance().runOnPooledThread(() -> {
+                try {
+                    this.revalidate(url);
+                } finally {
+                    this.revalidating.remove(url);
+                }
+            });
+        }
+    }
+
+    private boolean isStale(@Nonnull final String url) {
+        final String checkedAt = this.loadMeta(url).getProperty(CHECKED_AT);
+        return !StringUtils.isNumeric(checkedAt) || System.currentTimeMillis() - Long.parseLong(checkedAt) > REVALIDATE_INTERVAL.toMillis();
+    }
+
+    @Nonnull
+    private Properties loadMeta(@Nonnull final String url) {
+        final Properties meta = new Properties();
+        final Path file = this.getMetaFile(url);
+        if (Files.isRegularFile(file)) {
+            try (final InputStream input = Files.newInputStream(file)) {
+                meta.load(input);
+            } catch (final IOException e) {
+                log.warn(String.format("failed to load Azure SDK metadata cache \"%s\"", file), e);
+            }
+        }
+        return meta;
+    }
+
+    private void saveMeta(@Nonnull final String url, @Nonnull final Properties meta) throws IOException {
+        final Path temp = Files.createTempFile(this.directory, "meta", ".tmp");
+        try (final OutputStream output = Files.newOutputStream(temp)) {
+            meta.store(output, url);
+        }
+        Files.move(temp, this.getMetaFile(url), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path getDataFile(@Nonnull final String url) {
+        return this.directory.resolve(getKey(url) + ".data");
+    }
+
+    private Path getMetaFile(@Nonnull final String url) {
+        return this.directory.resolve(getKey(url) + ".properties");
+    }
+
+    private static String getKey(@Nonnull final String url) {
+        return UUID.nameUUIDFromBytes(url.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    private static URL toURL(@Nonnull final Path file) {
+        try {
+            return file.toUri().toURL();
+        } catch (final MalformedURLException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.azuresdk.service;
+
+import com.microsoft.azure.toolkit.intellij.azuresdk.model.AzureSdkArtifactEntity;
+import com.microsoft.azure.toolkit.intellij.azuresdk.model.AzureSdkCategoryEntity;
+import com.microsoft.azure.toolkit.intellij.azuresdk.model.AzureSdkFeatureEntity;
+import com.microsoft.azure.toolkit.intellij.azuresdk.model.AzureSdkServiceEntity;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Inverted index of the Azure SDK features by the tokens of their categories, service, name, description and artifact
+ * ids. A feature matches a filter if every word of the filter is contained in some token of the feature, the matched
+ * features of a word are computed once by scanning the vocabulary and reused by the following filters.
+ */
+public class AzureSdkSearchIndex {
+    private static final Pattern DELIMITER = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private final List<AzureSdkFeatureEntity> features = new ArrayList<>();
+    private final Map<String, BitSet> postings = new HashMap<>();
+    private final Map<String, BitSet> matchesByWord = new ConcurrentHashMap<>();
+
+    @Nonnull
+    public static AzureSdkSearchIndex build(@Nonnull final Map<String, List<AzureSdkCategoryEntity>> categoryToServiceMap,
+                                            @Nonnull final List<? extends AzureSdkServiceEntity> services) {
+        final Map<String, List<String>> serviceCategories = new HashMap<>();
+        categoryToServiceMap.forEach((category, categoryServices) -> categoryServices.forEach(s ->
+            serviceCategories.computeIfAbsent(getServiceKeyByName(s.getServiceName()), k -> new ArrayList<>()).add(category)));
+        final AzureSdkSearchIndex index = new AzureSdkSearchIndex();
+        for (final AzureSdkServiceEntity service : services) {
+            final List<String> categories = serviceCategories.getOrDefault(getServiceKeyByName(service.getName()), Collections.emptyList());
+            for (final AzureSdkFeatureEntity feature : service.getContent()) {
+                final List<String> texts = new ArrayList<>(categories);
+                texts.add(service.getName());
+                texts.add(feature.getName());
+                texts.add(feature.getDescription());
+                feature.getArtifacts().stream().map(AzureSdkArtifactEntity::getArtifactId).forEach(texts::add);
+                index.add(feature, texts);
+            }
+        }
+        return index;
+    }
+
+    public static String getServiceKeyByName(final String name) {
+        return StringUtils.lowerCase(StringUtils.trim(name));
+    }
+
+    public void add(@Nonnull final AzureSdkFeatureEntity feature, @Nonnull final Collection<String> texts) {
+        final int doc = this.features.size();
+        this.features.add(feature);
+        texts.stream().filter(Objects::nonNull).flatMap(AzureSdkSearchIndex::tokenize)
+            .forEach(token -> this.postings.computeIfAbsent(token, t -> new BitSet()).set(doc));
+        this.matchesByWord.clear();
+    }
+
+    /**
+     * @param filters words split by whitespaces
+     * @return the features matching all the filters, null if there's no filter.
+     */
+    @Nullable
+    public Set<AzureSdkFeatureEntity> search(@Nonnull final String... filters) {
+        final List<String> words = Arrays.stream(filters).filter(Objects::nonNull).flatMap(AzureSdkSearchIndex::tokenize).collect(Collectors.toList());
+        if (words.isEmpty()) {
+            return null;
+        }
+        final BitSet matched = (BitSet) this.getMatches(words.get(0)).clone();
+        words.stream().skip(1).forEach(word -> matched.and(this.getMatches(word)));
+        return matched.stream().mapToObj(this.features::get).collect(Collectors.toCollection(HashSet::new));
+    }
+
+    private BitSet getMatches(@Nonnull final String word) {
+        return this.matchesByWord.computeIfAbsent(word, w -> {
+            final BitSet matches = new BitSet(this.features.size());
+            this.postings.forEach((token, docs) -> {
+                if (token.contains(w)) {
+                    matches.or(docs);
+                }
+            });
+            return matches;
+        });
+    }
+
+    private static Stream<String> tokenize(@Nonnull final String text) {
+        return DELIMITER.splitAsStream(text.toLowerCase()).filter(StringUtils::isNotEmpty);
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.intellij.azuresdk.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.microsoft.azure.toolkit.intellij.azuresdk.model.AzureJavaSdkEntity;
+import com.microsoft.azure.toolkit.intellij.azuresdk.model.AzureSdkArtifactEntity;
+import com.microsoft.azure.toolkit.intellij.azuresdk.model.AzureSdkCategoryEntity;
+import com.microsoft.azure.toolkit.intellij.azuresdk.model.AzureSdkFeatureEntity;
+import com.microsoft.azure.toolkit.intellij.azuresdk.model.AzureSdkServiceEntity;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class AzureSdkSearchIndexTest {
+    private static final String SPRING_URL = "https://example.invalid/spring-reference.yml";
+    private static final String PACKAGES_URL = "https://example.invalid/java-packages.csv";
+    private static final String[] QUERIES = {"storage", "blob", "key vault", "servicebus", "spring cosmos", "event hubs",
+        "messaging", "resourcemanager", "azure identity", "notexisting"};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Map<String, List<AzureSdkCategoryEntity>> categories;
+    /**
+     * the categories by service key, built once as the index does, so that scanning is compared by filtering only.
+     */
+    private Map<String, List<String>> serviceCategories;
+    private List<AzureSdkServiceEntity> services;
+
+    @Before
+    public void setUp() throws IOException {
+        final ObjectReader reader = new CsvMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .readerFor(AzureSdkCategoryEntity.class).with(CsvSchema.emptySchema().withHeader());
+        this.categories = reader.<AzureSdkCategoryEntity>readValues(AzureSdkSearchIndexTest.class.getResource("/service-category.csv")).readAll()
+            .stream().filter(c -> StringUtils.isNoneBlank(c.getServiceName(), c.getCategory()))
+            .collect(Collectors.groupingBy(AzureSdkCategoryEntity::getCategory));
+        this.serviceCategories = new HashMap<>();
+        this.categories.forEach((category, entities) -> entities.forEach(e ->
+            this.serviceCategories.computeIfAbsent(AzureSdkSearchIndex.getServiceKeyByName(e.getServiceName()), k -> new ArrayList<>()).add(category)));
+    }
+
+    @Test
+    public void testColdStartFromBundledSnapshot() {
+        // nothing cached and offline, the bundled snapshots are served.
+        final AzureSdkMetadataCache cache = new AzureSdkMetadataCache(this.folder.getRoot().toPath(), false);
+        final URL spring = cache.get(SPRING_URL, "/spring-reference.yml");
+        final URL packages = cache.get(PACKAGES_URL, "/java-packages.csv");
+        Assert.assertEquals(AzureSdkSearchIndexTest.class.getResource("/spring-reference.yml"), spring);
+        Assert.assertEquals(AzureSdkSearchIndexTest.class.getResource("/java-packages.csv"), packages);
+
+        this.services = buildServices(AzureSdkLibraryService.loadSpringSDKEntities(spring), AzureSdkLibraryService.loadAzureSDKEntities(packages));
+        final AzureSdkSearchIndex index = AzureSdkSearchIndex.build(this.categories, this.services);
+
+        Assert.assertFalse(this.services.isEmpty());
+        Assert.assertNotNull(index.search("storage"));
+    }
+
+    @Test
+    public void testSearchMatchesSubstringOfTexts() {
+        this.services = this.loadBundledServices();
+        final AzureSdkSearchIndex index = AzureSdkSearchIndex.build(this.categories, this.services);
+
+        Assert.assertNull(index.search());
+        Assert.assertNull(index.search(" ", ""));
+        for (final String query : QUERIES) {
+            final String[] filters = query.split("\\s+");
+            Assert.assertEquals(query, this.searchByScanning(filters), index.search(filters));
+        }
+        Assert.assertTrue(index.search("notexisting").isEmpty());
+    }
+
+    @Test
+    public void testFilterLatency() {
+        this.services = this.loadBundledServices();
+        final AzureSdkSearchIndex index = AzureSdkSearchIndex.build(this.categories, this.services);
+        // typing "storage blob" keystroke by keystroke, the first round scans the vocabulary for the new words
+        final List<String[]> keystrokes = new ArrayList<>();
+        final String typed = "storage blob";
+        for (int i = 1; i <= typed.length(); i++) {
+            keystrokes.add(typed.substring(0, i).split("\\s+"));
+        }
+        keystrokes.forEach(index::search);
+
+        keystrokes.forEach(this::searchByScanning);
+
+        final int rounds = 20;
+        final double indexMillis = averageMillis(rounds, () -> keystrokes.forEach(index::search)) / keystrokes.size();
+        final double scanMillis = averageMillis(rounds, () -> keystrokes.forEach(this::searchByScanning)) / keystrokes.size();
+        // relative to scanning on the same machine rather than a wall-clock bound
+        Assert.assertTrue(String.format("filtering by index (%.3f ms) is not faster than scanning (%.3f ms)", indexMillis, scanMillis),
+            indexMillis < scanMillis);
+    }
+
+    private static double averageMillis(int rounds, Runnable round) {
+        final long start = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            round.run();
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / rounds;
+    }
+
+    private List<AzureSdkServiceEntity> loadBundledServices() {
+        final AzureSdkMetadataCache cache = new AzureSdkMetadataCache(this.folder.getRoot().toPath(), false);
+        return buildServices(AzureSdkLibraryService.loadSpringSDKEntities(cache.get(SPRING_URL, "/spring-reference.yml")),
+            AzureSdkLibraryService.loadAzureSDKEntities(cache.get(PACKAGES_URL, "/java-packages.csv")));
+    }
+
+    private Set<AzureSdkFeatureEntity> searchByScanning(String... filters) {
+        return this.services.stream().flatMap(service -> service.getContent().stream().filter(feature -> {
+            final List<String> texts = new ArrayList<>(this.serviceCategories.getOrDefault(AzureSdkSearchIndex.getServiceKeyByName(service.getName()), Collections.emptyList()));
+            texts.add(service.getName());
+            texts.add(feature.getName());
+            texts.add(feature.getDescription());
+            feature.getArtifacts().forEach(a -> texts.add(a.getArtifactId()));
+            return Arrays.stream(filters).allMatch(f -> texts.stream().anyMatch(t -> StringUtils.containsIgnoreCase(t, f)));
+        })).collect(Collectors.toSet());
+    }
+
+    /**
+     * the spring services, and a feature of each artifact grouped by service.
+     */
+    private static List<AzureSdkServiceEntity> buildServices(List<AzureSdkServiceEntity> spring, List<AzureJavaSdkEntity> packages) {
+        final Map<String, List<AzureSdkFeatureEntity>> features = packages.stream().collect(Collectors.groupingBy(AzureJavaSdkEntity::getServiceName,
+            Collectors.mapping(p -> {
+                final AzureSdkArtifactEntity artifact = new AzureSdkArtifactEntity();
+                artifact.setGroupId(p.getGroupId());
+                artifact.setArtifactId(p.getArtifactId());
+                return AzureSdkFeatureEntity.builder().name(p.getDisplayName()).artifacts(new ArrayList<>(List.of(artifact))).build();
+            }, Collectors.toList())));
+        return Stream.concat(spring.stream(), features.entrySet().stream().map(e -> AzureSdkServiceEntity.builder().name(e.getKey()).content(e.getValue()).build()))
+            .collect(Collectors.toList());
+    }
+}
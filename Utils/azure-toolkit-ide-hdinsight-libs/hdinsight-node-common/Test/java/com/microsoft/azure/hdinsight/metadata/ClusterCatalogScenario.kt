@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.metadata
+
+import com.google.gson.Gson
+import com.microsoft.azure.hdinsight.sdk.cluster.ClusterRawInfo
+import com.microsoft.azure.hdinsight.sdk.cluster.HDInsightNewAPI.HDInsightUserRoleType
+import com.microsoft.tooling.msservices.components.DefaultLoader
+import com.microsoft.tooling.msservices.helpers.IDEHelper
+import io.cucumber.java.Before
+import io.cucumber.java.en.Given
+import io.cucumber.java.en.Then
+import io.cucumber.java.en.When
+import org.assertj.core.api.Assertions.assertThat
+import org.mockito.ArgumentMatchers.anyString
+import org.mockito.Mockito.doAnswer
+import org.mockito.Mockito.mock
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+
+class ClusterCatalogScenario {
+    private val millis = AtomicLong(1_000_000)
+    private val applicationProperties = mutableMapOf<String, String>()
+    private var catalog = ClusterCatalog { millis.get() }
+
+    @Before
+    fun setUp() {
+        val ideHelper = mock(IDEHelper::class.java)
+        doAnswer { applicationProperties[it.getArgument(0)] }.`when`(ideHelper).getApplicationProperty(anyString())
+        doAnswer { applicationProperties[it.getArgument(0)] = it.getArgument(1) }
+                .`when`(ideHelper).setApplicationProperty(anyString(), anyString())
+
+        DefaultLoader.setIdeHelper(ideHelper)
+    }
+
+    private fun rawInfo(clusterId: String, etag: String): ClusterRawInfo =
+            Gson().fromJson("{\"id\": \"$clusterId\", \"name\": \"$clusterId\", \"etag\": \"$etag\"}", ClusterRawInfo::class.java)
+
+    @Given("^the cluster '(.+)' with etag '(.+)' of subscription '(.+)' is probed (successfully|unsuccessfully)$")
+    fun probeCluster(clusterId: String, etag: String, subscriptionId: String, result: String) {
+        val probeResult = if (result == "successfully") {
+            ClusterCatalog.ProbeResult(true, HDInsightUserRoleType.OWNER, false, millis.get())
+        } else {
+            ClusterCatalog.ProbeResult(false, null, false, millis.get())
+        }
+
+        catalog.updateClusters(subscriptionId, listOf(ClusterCatalog.CatalogCluster(rawInfo(clusterId, etag), probeResult)))
+    }
+
+    @When("^(\\d+) (minutes|hours) passed since probed$")
+    fun passTime(duration: Long, unit: String) {
+        millis.addAndGet(if (unit == "hours") TimeUnit.HOURS.toMillis(duration) else TimeUnit.MINUTES.toMillis(duration))
+    }
+
+    @When("^the catalog is loaded again$")
+    fun reloadCatalog() {
+        catalog = ClusterCatalog { millis.get() }
+    }
+
+    @When("^only the subscription '(.+)' is selected$")
+    fun retainSubscription(subscriptionId: String) {
+        catalog.retainSubscriptions(listOf(subscriptionId))
+    }
+
+    @Then("^check the probe result of the cluster '(.+)' with etag '(.+)' of subscription '(.+)' should (be|not be) reused$")
+    fun checkProbeResult(clusterId: String, etag: String, subscriptionId: String, expect: String) {
+        assertThat(catalog.getProbeResult(subscriptionId, rawInfo(clusterId, etag)).isPresent).isEqualTo(expect == "be")
+    }
+
+    @Then("^check the subscription '(.+)' should have (\\d+) clusters? in catalog$")
+    fun checkClusterCount(subscriptionId: String, expect: Int) {
+        assertThat(catalog.getClusters(subscriptionId)).hasSize(expect)
+    }
+}
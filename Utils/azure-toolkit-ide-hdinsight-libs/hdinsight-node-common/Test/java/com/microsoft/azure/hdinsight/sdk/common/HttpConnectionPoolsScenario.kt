@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.common
+
+import com.github.tomakehurst.wiremock.client.WireMock
+import com.microsoft.azure.hdinsight.spark.common.MockHttpService
+import io.cucumber.java.After
+import io.cucumber.java.Before
+import io.cucumber.java.en.And
+import io.cucumber.java.en.Given
+import io.cucumber.java.en.Then
+import org.apache.http.client.config.RequestConfig
+import org.apache.http.client.methods.CloseableHttpResponse
+import org.apache.http.client.methods.HttpGet
+import org.apache.http.conn.ConnectionPoolTimeoutException
+import org.apache.http.util.EntityUtils
+import org.assertj.core.api.Assertions.assertThat
+import rx.schedulers.Schedulers
+import java.net.UnknownServiceException
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class HttpConnectionPoolsScenario {
+    private var httpServerMock: MockHttpService? = null
+    private val http = HttpObservable()
+    private val leakedResponses = mutableListOf<CloseableHttpResponse>()
+    private var slowRequestsDone: CountDownLatch? = null
+
+    @Before
+    fun setUp() {
+        httpServerMock = MockHttpService()
+    }
+
+    @After
+    fun cleanUp() {
+        leakedResponses.forEach { it.close() }
+        slowRequestsDone?.await(30, TimeUnit.SECONDS)
+        httpServerMock?.livyServerMock?.stop()
+    }
+
+    private fun createGet(uri: String, connectionRequestTimeoutMs: Int): HttpGet =
+            HttpGet(httpServerMock!!.completeUrl(uri)).apply {
+                config = RequestConfig.copy(http.defaultRequestConfig)
+                        .setConnectionRequestTimeout(connectionRequestTimeoutMs)
+                        .build()
+            }
+
+    private fun getRootCause(err: Throwable): Throwable = err.cause?.let { getRootCause(it) } ?: err
+
+    @Given("^mock HTTP service to respond '(.+)' with status (\\d+)$")
+    fun mockHttpService(uri: String, statusCode: Int) {
+        httpServerMock!!.stub("GET", uri, statusCode, "{}")
+    }
+
+    @And("^mock HTTP service to respond '(.+)' after (\\d+) milliseconds$")
+    fun mockSlowHttpService(uri: String, delayMs: Int) {
+        WireMock.configureFor(httpServerMock!!.port)
+        WireMock.stubFor(WireMock.get(WireMock.urlEqualTo(uri))
+                .willReturn(WireMock.aResponse().withStatus(200).withBody("{}").withFixedDelay(delayMs)))
+    }
+
+    @Then("^check the default request config should limit the wait for a pooled connection$")
+    fun checkDefaultConnectionRequestTimeout() {
+        assertThat(http.defaultRequestConfig.connectionRequestTimeout)
+                .isEqualTo(HttpConnectionPools.CONNECTION_REQUEST_TIMEOUT_MS)
+                .isPositive()
+    }
+
+    @Then("^leak the responses of as many requests to '(.+)' as the max connections per route$")
+    fun leakResponses(uri: String) {
+        repeat(HttpConnectionPools.DEFAULT_MAX_PER_ROUTE) {
+            leakedResponses.add(http.request(createGet(uri, 1000), null, null, null).toBlocking().single())
+        }
+    }
+
+    @Then("^send as many requests to '(.+)' as the max connections per route in background$")
+    fun sendSlowRequests(uri: String) {
+        slowRequestsDone = CountDownLatch(HttpConnectionPools.DEFAULT_MAX_PER_ROUTE)
+
+        repeat(HttpConnectionPools.DEFAULT_MAX_PER_ROUTE) {
+            http.requestWithHttpResponse(createGet(uri, 1000), null, null, null)
+                    .subscribeOn(Schedulers.io())
+                    .doAfterTerminate { slowRequestsDone!!.countDown() }
+                    .subscribe({ }, { })
+        }
+
+        // Wait for all pooled connections leased by the slow requests
+        Thread.sleep(1000)
+    }
+
+    @Then("^send (\\d+) requests to '(.+)' expecting status (\\d+) and all should fail$")
+    fun sendUnexpectedStatusRequests(count: Int, uri: String, expectedStatus: Int) {
+        repeat(count) {
+            val isUnexpectedStatusFailure = http.executeReqAndCheckStatus(createGet(uri, 1000), null, null, null, expectedStatus)
+                    .map { resp -> resp.close(); false }
+                    .onErrorReturn { getRootCause(it) is UnknownServiceException }
+                    .toBlocking()
+                    .single()
+
+            assertThat(isUnexpectedStatusFailure).isTrue()
+        }
+    }
+
+    @Then("^a request to '(.+)' waiting (\\d+) milliseconds for a connection should time out$")
+    fun checkPoolTimeout(uri: String, connectionRequestTimeoutMs: Int) {
+        val start = System.currentTimeMillis()
+        val err = http.request(createGet(uri, connectionRequestTimeoutMs), null, null, null)
+                .map<Throwable?> { resp -> resp.close(); null }
+                .onErrorReturn { getRootCause(it) }
+                .toBlocking()
+                .single()
+
+        assertThat(err).isInstanceOf(ConnectionPoolTimeoutException::class.java)
+        assertThat(System.currentTimeMillis() - start).isLessThan(10L * connectionRequestTimeoutMs)
+    }
+
+    @Then("^hold the responses of (\\d+) requests to '(.+)'$")
+    fun holdResponses(count: Int, uri: String) {
+        repeat(count) {
+            leakedResponses.add(http.request(createGet(uri, 1000), null, null, null).toBlocking().single())
+        }
+    }
+
+    @And("^close the leaked responses$")
+    fun closeLeakedResponses() {
+        // Consume the entities to release the connections back to the pool rather than closing them
+        leakedResponses.forEach { EntityUtils.consume(it.entity); it.close() }
+        leakedResponses.clear()
+    }
+
+    @Then("^the route to the mock HTTP service should have (\\d+) leased and (\\d+) available connections$")
+    fun checkRouteStats(leased: Int, available: Int) {
+        val routeStats = HttpConnectionPools.getInstance().routeStats
+                .filterKeys { it.endsWith("://localhost:${httpServerMock!!.port}") }
+                .values
+
+        assertThat(routeStats).isNotEmpty()
+        assertThat(routeStats.sumOf { it.leased }).isEqualTo(leased)
+        assertThat(routeStats.sumOf { it.available }).isEqualTo(available)
+        assertThat(routeStats.sumOf { it.pending }).isZero()
+        assertThat(HttpConnectionPools.getInstance().totalStats.values.sumOf { it.leased }).isGreaterThanOrEqualTo(leased)
+    }
+
+    @And("^wait for the background requests done$")
+    fun waitForSlowRequests() {
+        assertThat(slowRequestsDone!!.await(30, TimeUnit.SECONDS)).isTrue()
+    }
+
+    @Then("^a request to '(.+)' waiting (\\d+) milliseconds for a connection should get status (\\d+)$")
+    fun checkRequestSuccess(uri: String, connectionRequestTimeoutMs: Int, statusCode: Int) {
+        http.request(createGet(uri, connectionRequestTimeoutMs), null, null, null)
+                .toBlocking()
+                .single()
+                .use { resp ->
+                    assertThat(resp.statusLine.statusCode).isEqualTo(statusCode)
+                    EntityUtils.consume(resp.entity)
+                }
+    }
+}
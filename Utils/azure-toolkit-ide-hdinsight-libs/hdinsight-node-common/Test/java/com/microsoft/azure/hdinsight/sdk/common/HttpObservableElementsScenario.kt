@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.common
+
+import com.fasterxml.jackson.core.JsonParseException
+import com.fasterxml.jackson.databind.JsonNode
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.microsoft.azure.hdinsight.spark.common.MockHttpService
+import io.cucumber.java.After
+import io.cucumber.java.Before
+import io.cucumber.java.en.Given
+import io.cucumber.java.en.Then
+import org.assertj.core.api.Assertions.assertThat
+
+class HttpObservableElementsScenario {
+    private var httpServerMock: MockHttpService? = null
+    private val mapper = ObjectMapper()
+    private var elements: List<JsonNode> = emptyList()
+    private var error: Throwable? = null
+
+    @Before
+    fun setUp() {
+        httpServerMock = MockHttpService()
+    }
+
+    @After
+    fun cleanUp() {
+        httpServerMock?.livyServerMock?.stop()
+    }
+
+    @Given("^mock HTTP service to respond '(.+)' with JSON:$")
+    fun mockJsonResponse(uri: String, response: String) {
+        httpServerMock!!.stub("GET", uri, 200, response)
+    }
+
+    @Then("^get the elements at '(.*)' from '(.+)'$")
+    fun getElements(arrayPointer: String, uri: String) {
+        try {
+            elements = HttpObservable()
+                    .getElements(httpServerMock!!.completeUrl(uri), null, null, arrayPointer, JsonNode::class.java)
+                    .toList()
+                    .toBlocking()
+                    .single()
+        } catch (err: RuntimeException) {
+            error = err
+        }
+    }
+
+    @Then("^check the elements should be:$")
+    fun checkElements(expect: List<String>) {
+        assertThat(error).isNull()
+        assertThat(elements).containsExactlyElementsOf(expect.map { mapper.readTree(it) })
+    }
+
+    @Then("^check no element should be got$")
+    fun checkEmptyElements() {
+        assertThat(error).isNull()
+        assertThat(elements).isEmpty()
+    }
+
+    @Then("^check getting the elements should fail for no JSON array$")
+    fun checkNoArrayError() {
+        var cause = error
+        while (cause != null && cause !is JsonParseException) {
+            cause = cause.cause
+        }
+
+        assertThat(cause).isInstanceOf(JsonParseException::class.java)
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.common.livy.interactive
+
+import com.github.tomakehurst.wiremock.client.WireMock
+import com.github.tomakehurst.wiremock.http.RequestMethod
+import com.github.tomakehurst.wiremock.stubbing.Scenario
+import com.microsoft.azure.hdinsight.spark.common.MockHttpService
+import io.cucumber.java.After
+import io.cucumber.java.Before
+import io.cucumber.java.en.And
+import io.cucumber.java.en.Given
+import io.cucumber.java.en.Then
+import org.assertj.core.api.Assertions.assertThat
+import java.net.URI
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class StatementQueueScenario {
+    private var httpServerMock: MockHttpService? = null
+    private var queue: StatementQueue? = null
+    private var codes: List<String> = emptyList()
+    private val postedAtNanos = ConcurrentHashMap<Int, Long>()
+    private val resultAtNanos = ConcurrentHashMap<Int, Long>()
+    private val results = CopyOnWriteArrayList<String>()
+    private val progress = CopyOnWriteArrayList<Pair<Int, Double>>()
+
+    @Before
+    fun setUp() {
+        httpServerMock = MockHttpService()
+    }
+
+    @After
+    fun cleanUp() {
+        queue?.close()
+        httpServerMock?.livyServerMock?.stop()
+    }
+
+    @Given("^mock livy interactive session (\\d+) to run the statements one by one in the listing order$")
+    fun mockStatements(sessionId: Int, codesAndOutputs: List<List<String>>) {
+        WireMock.configureFor(httpServerMock!!.port)
+        codes = codesAndOutputs.map { it[0] }
+
+        codesAndOutputs.forEachIndexed { id, (code, _) ->
+            WireMock.stubFor(WireMock.post(WireMock.urlEqualTo("/sessions/$sessionId/statements"))
+                    .withRequestBody(WireMock.matchingJsonPath("$.code", WireMock.equalTo(code)))
+                    .willReturn(WireMock.aResponse()
+                            .withStatus(200)
+                            .withBody("""{"id":$id,"state":"waiting","progress":0.0,"output":null}""")))
+        }
+
+        // The statement N is running at the list N, and available since the list N + 1
+        (0..codesAndOutputs.size).forEach { list ->
+            val statements = codesAndOutputs.mapIndexed { id, (_, output) -> when {
+                id < list -> """{"id":$id,"state":"available","progress":1.0,"output":{"status":"ok","execution_count":$id,"data":{"text/plain":"$output"}}}"""
+                id == list -> """{"id":$id,"state":"running","progress":0.5,"output":null}"""
+                else -> """{"id":$id,"state":"waiting","progress":0.0,"output":null}"""
+            }}
+
+            WireMock.stubFor(WireMock.get(WireMock.urlPathEqualTo("/sessions/$sessionId/statements"))
+                    .inScenario("statements")
+                    .whenScenarioStateIs(if (list == 0) Scenario.STARTED else "list-$list")
+                    .willSetStateTo("list-${minOf(list + 1, codesAndOutputs.size)}")
+                    .willReturn(WireMock.aResponse()
+                            .withStatus(200)
+                            .withBody("""{"total_statements":${codesAndOutputs.size},"statements":[${statements.joinToString(",")}]}""")))
+        }
+    }
+
+    @Then("^submit the statements to session (\\d+) queue with at most (\\d+) in flight$")
+    fun submitStatements(sessionId: Int, maxInFlight: Int) {
+        val session = SparkSession("testStatementQueue", URI.create(httpServerMock!!.completeUrl("/")))
+        session.id = sessionId
+
+        val done = CountDownLatch(codes.size)
+        queue = StatementQueue(session, maxInFlight)
+        queue!!.results.subscribe { statement ->
+            resultAtNanos[statement.id] = System.nanoTime()
+            results.add(statement.output!!.data["text/plain"]!!)
+            done.countDown()
+        }
+        queue!!.progress.subscribe { statement -> progress.add(Pair(statement.id, statement.progress)) }
+
+        codes.forEach { code ->
+            queue!!.submit(code).subscribe { statement -> postedAtNanos[statement.id] = System.nanoTime() }
+        }
+
+        assertThat(done.await(30, TimeUnit.SECONDS)).isTrue
+    }
+
+    @And("^check the statement queue results should be in the submitted order$")
+    fun checkResults(expect: List<String>) {
+        assertThat(results).containsExactlyElementsOf(expect)
+    }
+
+    @And("^check all the statements should be posted before the first statement result$")
+    fun checkPostedBeforeFirstResult() {
+        assertThat(postedAtNanos).hasSize(codes.size)
+        assertThat(postedAtNanos.values.maxOrNull()).isLessThan(resultAtNanos[0])
+    }
+
+    @And("^check each statement should be posted after the previous statement result$")
+    fun checkPostedAfterPreviousResult() {
+        (1 until codes.size).forEach { id ->
+            assertThat(postedAtNanos[id]).isGreaterThan(resultAtNanos[id - 1])
+        }
+    }
+
+    @And("^check the statements of session (\\d+) should be polled by the list requests only$")
+    fun checkPolledByList(sessionId: Int) {
+        val gets = httpServerMock!!.livyServerMock.allServeEvents
+                .map { it.request }
+                .filter { it.method == RequestMethod.GET }
+
+        assertThat(gets).isNotEmpty
+        assertThat(gets).allMatch { it.url.startsWith("/sessions/$sessionId/statements?") }
+    }
+
+    @And("^check the statement queue progress should be emitted for the statements$")
+    fun checkProgress(expect: List<List<String>>) {
+        assertThat(progress).containsExactlyElementsOf(expect.map { Pair(it[0].toInt(), it[1].toDouble()) })
+    }
+}
@@ -24,42 +24,92 @@ package com.microsoft.azure.hdinsight.sdk.io.spark
 
 import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.Session
 import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.SparkSession
-import io.cucumber.java.Before
+import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.Statement
 import io.cucumber.java.en.And
 import io.cucumber.java.en.Given
 import io.cucumber.java.en.Then
 import org.apache.commons.io.IOUtils
 import org.assertj.core.api.Assertions.assertThat
-import org.mockito.ArgumentCaptor
-import org.mockito.ArgumentMatchers
+import org.assertj.core.api.Assertions.assertThatThrownBy
+import org.mockito.ArgumentMatchers.any
+import org.mockito.ArgumentMatchers.anyString
 import org.mockito.Mockito.*
 import rx.Observable
 import java.io.ByteArrayInputStream
+import java.io.IOException
 import java.net.URI
 
 class ClusterFileBase64BufferedOutputStreamScenario {
     var clusterFileBase64OutputStream: ClusterFileBase64BufferedOutputStream? = null
     var sessionMock: Session? = null
-    var runCodesArg: ArgumentCaptor<String>? = null
 
-    @Before
-    fun setUp() {
-        runCodesArg = ArgumentCaptor.forClass(String::class.java)
+    // The codes run or submitted to the session, in order
+    private val codesSent = mutableListOf<String>()
+
+    // The session calls in order, such as `submit 1`, `await 1` and `run`
+    private val sessionCalls = mutableListOf<String>()
+    private var submittedCount = 0
+    private var awaitedCount = 0
+    private var maxInflightCount = 0
+    private var failedStatementId = -1
+    private var uploadError: Throwable? = null
+
+    private fun uploadBase64(base64Code: String) {
+        try {
+            clusterFileBase64OutputStream.use {   // autoclose resource
+                IOUtils.copy(ByteArrayInputStream(base64Code.toByteArray(Charsets.UTF_8)), it)
+            }
+        } catch (ex: IOException) {
+            uploadError = ex
+        }
     }
 
     @Then("^uploading the following BASE64 string$")
     fun uploadFileToCluster(encodes: List<String>) {
-        val base64Code = encodes.joinToString("")
-        clusterFileBase64OutputStream.use {   // autoclose resource
-            IOUtils.copy(ByteArrayInputStream(base64Code.toByteArray(Charsets.UTF_8)), it)
-        }
+        uploadBase64(encodes.joinToString(""))
+    }
+
+    @Then("^uploading (\\d+) BASE64 chars$")
+    fun uploadGeneratedBase64(length: Int) {
+        val alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/"
+
+        uploadBase64(String(CharArray(length) { alphabet[it % alphabet.length] }))
     }
 
     @Given("^create a mocked Livy session for ClusterFileBase64KBBufferedOutputStream$")
     fun mockLivySessionForClusterFileBase64OutputStream() {
         sessionMock = mock(SparkSession::class.java)
-        doReturn(Observable.just(hashMapOf("text/plain" to ""))).`when`(sessionMock!!)
-                .runCodes(runCodesArg!!.capture())
+
+        doAnswer {
+            codesSent.add(it.getArgument(0))
+            sessionCalls.add("run")
+            Observable.just(hashMapOf("text/plain" to ""))
+        }.`when`(sessionMock!!).runCodes(anyString())
+
+        doAnswer {
+            codesSent.add(it.getArgument(0))
+            submittedCount++
+            maxInflightCount = maxOf(maxInflightCount, submittedCount - awaitedCount)
+            sessionCalls.add("submit $submittedCount")
+            Observable.just(Statement(sessionMock!!, submittedCount))
+        }.`when`(sessionMock!!).submitCodes(anyString())
+
+        doAnswer {
+            val statement = it.getArgument<Statement>(0)
+            awaitedCount++
+            sessionCalls.add("await ${statement.id}")
+
+            if (statement.id == failedStatementId) {
+                Observable.error<Map<String, String>>(IllegalStateException("Statement ${statement.id} failed"))
+            } else {
+                Observable.just(mapOf("text/plain" to ""))
+            }
+        }.`when`(sessionMock!!).awaitStatementResult(any(Statement::class.java))
+    }
+
+    @And("^the page writing statement (\\d+) fails$")
+    fun failStatement(statementId: Int) {
+        failedStatementId = statementId
     }
 
     @And("^create a Spark cluster file BASE64 output stream '(.+)' with page size (\\d+)KB$")
@@ -67,11 +117,62 @@ class ClusterFileBase64BufferedOutputStreamScenario {
         clusterFileBase64OutputStream = ClusterFileBase64BufferedOutputStream(sessionMock, URI.create(dest), pageSize)
     }
 
+    @And("^create a Spark cluster file BASE64 output stream '(.+)' with page size (\\d+)KB and (\\d+) statements in flight$")
+    fun createClusterFileBase64OutputStream(dest: String, pageSize: Int, maxInflight: Int) {
+        clusterFileBase64OutputStream = ClusterFileBase64BufferedOutputStream(
+                sessionMock, URI.create(dest), pageSize, maxInflight)
+    }
+
+    @Then("^check creating a Spark cluster file BASE64 output stream with page size (\\d+)KB should be rejected$")
+    fun checkRejectPageSize(pageSize: Int) {
+        assertThatThrownBy { ClusterFileBase64BufferedOutputStream(sessionMock, URI.create("/tmp/test.jar"), pageSize, 1) }
+                .isInstanceOf(IllegalArgumentException::class.java)
+    }
+
     @Then("^check the statements send to Livy session should be:$")
     fun checkStetementsOutput(codesExpect: String) {
         val codeLinesExpect = codesExpect.split("###__CMD_END__###\r?\n?".toRegex()).dropLastWhile { it.isEmpty() }
-        codeLinesExpect.zip(runCodesArg!!.allValues).forEach { assertThat(it.second).isEqualToNormalizingNewlines(it.first) }
 
-        verify(sessionMock!!, times(codeLinesExpect.size)).runCodes(ArgumentMatchers.anyString())
+        assertThat(codesSent).hasSameSizeAs(codeLinesExpect)
+        codeLinesExpect.zip(codesSent).forEach { assertThat(it.second).isEqualToNormalizingNewlines(it.first) }
+    }
+
+    @Then("^check the page writing statements should be (\\d+) with the literal lines:$")
+    fun checkPageStatements(count: Int, literalLengths: List<String>) {
+        // The first codes are the pre-loaded ones, and the last ones close the output
+        val pageCodes = codesSent.drop(1).dropLast(1)
+
+        assertThat(pageCodes).hasSize(count)
+        assertThat(pageCodes.map { codes -> codes.split("\n").joinToString(", ") { line ->
+            assertThat(line).matches("writePage\\(\"[A-Za-z0-9+/=]*\"\\)")
+
+            (line.length - "writePage(\"\")".length).toString()
+        }}).containsExactlyElementsOf(literalLengths)
+        assertThat(pageCodes.flatMap { it.split("\n") }.map { it.length - "writePage(\"\")".length })
+                .allSatisfy { assertThat(it).isLessThanOrEqualTo(ClusterFileBase64BufferedOutputStream.MAX_LITERAL_SIZE) }
+    }
+
+    @Then("^check the max page writing statements in flight should be (\\d+)$")
+    fun checkMaxInflight(expect: Int) {
+        assertThat(maxInflightCount).isEqualTo(expect)
+    }
+
+    @Then("^check the session calls should be:$")
+    fun checkSessionCalls(expect: List<String>) {
+        assertThat(sessionCalls).containsExactlyElementsOf(expect)
+    }
+
+    @Then("^check the upload should (succeed|fail)$")
+    fun checkUploadResult(result: String) {
+        if (result == "succeed") {
+            assertThat(uploadError).isNull()
+        } else {
+            assertThat(uploadError).isInstanceOf(IOException::class.java)
+        }
+    }
+
+    @Then("^check the session should be closed$")
+    fun checkSessionClosed() {
+        verify(sessionMock!!).close()
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.storage
+
+import com.azure.storage.blob.BlobContainerClient
+import com.azure.storage.blob.models.BlockListType
+import com.microsoft.azuretools.azurecommons.helpers.AzureCmdException
+import com.microsoft.tooling.msservices.helpers.CallableSingleArg
+import io.cucumber.java.After
+import io.cucumber.java.en.Given
+import io.cucumber.java.en.Then
+import org.assertj.core.api.Assertions.assertThat
+import org.assertj.core.api.Assertions.assertThatThrownBy
+import org.junit.Assume.assumeTrue
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.IOException
+import java.net.InetSocketAddress
+import java.net.Socket
+import java.net.URI
+import java.util.Collections
+import java.util.GregorianCalendar
+import java.util.UUID
+import kotlin.random.Random
+
+/**
+ * The scenarios run against Azurite, they are skipped if Azurite isn't listening. Start it by
+ * `azurite-blob --blobHost 127.0.0.1 --blobPort 10000`, or set the system property `azurite.connectionString` for
+ * another one.
+ */
+class StorageClientSDKManagerScenario {
+    // The well-known development storage account of Azurite
+    private val connectionString = System.getProperty("azurite.connectionString",
+            "DefaultEndpointsProtocol=http;AccountName=devstoreaccount1;" +
+                    "AccountKey=Eby8vdM02xNOcqFlqUwJPLlmEtlCDXJ1OUzFT50uSRZ6IFsuFq2UVErCz4I6tq/K1SZFPTOtr/KBHBeksoGMGw==;" +
+                    "BlobEndpoint=http://127.0.0.1:10000/devstoreaccount1;")
+
+    private var containerClient: BlobContainerClient? = null
+    private var content: ByteArray = ByteArray(0)
+    private val progresses = Collections.synchronizedList(mutableListOf<Long>())
+
+    @After
+    fun cleanUp() {
+        containerClient?.delete()
+    }
+
+    private fun isAzuriteListening(): Boolean {
+        val blobEndpoint = StorageClientSDKManager.getCloudBlobClient(connectionString).accountUrl
+        val uri = URI.create(blobEndpoint)
+
+        return try {
+            Socket().use { it.connect(InetSocketAddress(uri.host, uri.port), 1000) }
+            true
+        } catch (ex: IOException) {
+            false
+        }
+    }
+
+    @Given("^an Azurite Blob container$")
+    fun createContainer() {
+        assumeTrue("Azurite isn't listening, skip the scenario", isAzuriteListening())
+
+        containerClient = StorageClientSDKManager.getCloudBlobClient(connectionString)
+                .createBlobContainer("upload-" + UUID.randomUUID())
+    }
+
+    private fun upload(blobPath: String, blockSize: Long) {
+        val container = BlobContainer(containerClient!!.blobContainerName, containerClient!!.blobContainerUrl, "",
+                                      GregorianCalendar(), "")
+
+        StorageClientSDKManager.getManager().uploadBlobFileContent(
+                connectionString,
+                container,
+                blobPath,
+                ByteArrayInputStream(content),
+                CallableSingleArg<Void, Long> { uploaded -> progresses.add(uploaded); null },
+                blockSize,
+                content.size.toLong())
+    }
+
+    @Then("^upload (\\d+) bytes to the blob '(.+)' with the block size (\\d+)$")
+    fun uploadBlob(size: Int, blobPath: String, blockSize: Long) {
+        content = Random(size).nextBytes(size)
+        progresses.clear()
+
+        upload(blobPath, blockSize)
+    }
+
+    @Then("^check the blob '(.+)' content should be the uploaded one$")
+    fun checkBlobContent(blobPath: String) {
+        val downloaded = ByteArrayOutputStream()
+        containerClient!!.getBlobClient(blobPath).downloadStream(downloaded)
+
+        assertThat(downloaded.toByteArray()).isEqualTo(content)
+    }
+
+    @Then("^check the blob '(.+)' committed blocks count should be (\\d+)$")
+    fun checkCommittedBlocks(blobPath: String, expect: Int) {
+        val blocks = containerClient!!.getBlobClient(blobPath).blockBlobClient.listBlocks(BlockListType.COMMITTED)
+
+        assertThat(blocks.committedBlocks).hasSize(expect)
+    }
+
+    @Then("^check the last upload progress should be the content length$")
+    fun checkProgress() {
+        assertThat(progresses).isNotEmpty
+        assertThat(progresses.maxOrNull()).isEqualTo(content.size.toLong())
+    }
+
+    @Then("^check uploading to the existing blob '(.+)' should fail$")
+    fun checkUploadExisting(blobPath: String) {
+        assertThatThrownBy { upload(blobPath, 1024 * 1024) }.isInstanceOf(AzureCmdException::class.java)
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.storage.adlsgen2
+
+import com.github.tomakehurst.wiremock.client.WireMock
+import com.github.tomakehurst.wiremock.http.RequestMethod
+import com.github.tomakehurst.wiremock.stubbing.Scenario
+import com.github.tomakehurst.wiremock.verification.LoggedRequest
+import com.microsoft.azure.hdinsight.sdk.common.HttpObservable
+import com.microsoft.azure.hdinsight.spark.common.MockHttpService
+import io.cucumber.java.After
+import io.cucumber.java.Before
+import io.cucumber.java.en.And
+import io.cucumber.java.en.Given
+import io.cucumber.java.en.Then
+import org.assertj.core.api.Assertions.assertThat
+import java.io.File
+import java.net.URI
+import java.util.concurrent.atomic.AtomicLong
+import kotlin.random.Random
+
+class ADLSGen2FSOperationScenario {
+    private var httpServerMock: MockHttpService? = null
+    private var artifact: File? = null
+    private var pageEmittedTimes: List<Long> = emptyList()
+    private val progress = AtomicLong(0)
+
+    @Before
+    fun setUp() {
+        httpServerMock = MockHttpService()
+    }
+
+    @After
+    fun cleanUp() {
+        httpServerMock?.livyServerMock?.stop()
+        artifact?.delete()
+    }
+
+    @Given("^mock ADLS Gen2 service to accept append and flush requests for '(.+)'$")
+    fun mockAppendAndFlush(path: String) {
+        WireMock.configureFor(httpServerMock!!.port)
+        WireMock.stubFor(WireMock.patch(WireMock.urlPathEqualTo(path))
+                .withQueryParam("action", WireMock.equalTo("append"))
+                .willReturn(WireMock.aResponse().withStatus(202)))
+        WireMock.stubFor(WireMock.patch(WireMock.urlPathEqualTo(path))
+                .withQueryParam("action", WireMock.equalTo("flush"))
+                .willReturn(WireMock.aResponse().withStatus(200)))
+    }
+
+    @And("^prepare a local artifact with (\\d+) random bytes$")
+    fun prepareArtifact(size: Int) {
+        artifact = File.createTempFile("artifact", ".jar").apply {
+            writeBytes(Random(0).nextBytes(size))
+            deleteOnExit()
+        }
+    }
+
+    @Then("^upload the artifact to '(.+)' with block size (\\d+) and parallelism (\\d+)$")
+    fun uploadArtifact(path: String, blockSize: Int, parallelism: Int) {
+        val op = ADLSGen2FSOperation(HttpObservable())
+                .setUploadBlockSize(blockSize)
+                .setUploadParallelism(parallelism)
+
+        val result = op.uploadData(httpServerMock!!.completeUrl(path), artifact) { progress.addAndGet(it) }
+                .toBlocking()
+                .single()
+
+        assertThat(result).isTrue()
+    }
+
+    @And("^mock the first append request to '(.+)' at position (\\d+) failed$")
+    fun mockAppendFailed(path: String, position: Long) {
+        WireMock.stubFor(WireMock.patch(WireMock.urlPathEqualTo(path))
+                .withQueryParam("action", WireMock.equalTo("append"))
+                .withQueryParam("position", WireMock.equalTo(position.toString()))
+                .inScenario("append-$position")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willSetStateTo("failed")
+                .willReturn(WireMock.aResponse().withStatus(500)))
+    }
+
+    @Then("^check the append request positions to '(.+)' should be$")
+    fun checkAppendPositions(path: String, positionsExpect: List<Long>) {
+        val positions = findRequests(path, "append").map { it.queryParameter("position").firstValue().toLong() }
+
+        assertThat(positions).containsExactlyInAnyOrderElementsOf(positionsExpect)
+    }
+
+    @Then("^check the flush request position to '(.+)' should be (\\d+)$")
+    fun checkFlushPosition(path: String, positionExpect: Long) {
+        val flushes = findRequests(path, "flush")
+
+        assertThat(flushes).hasSize(1)
+        assertThat(flushes[0].queryParameter("position").firstValue().toLong()).isEqualTo(positionExpect)
+    }
+
+    @Then("^check the appended blocks to '(.+)' should compose the local artifact$")
+    fun checkAppendedBlocks(path: String) {
+        val expect = artifact!!.readBytes()
+        val uploaded = ByteArray(expect.size)
+
+        findRequests(path, "append").forEach {
+            it.body.copyInto(uploaded, it.queryParameter("position").firstValue().toInt())
+        }
+
+        assertThat(uploaded).isEqualTo(expect)
+    }
+
+    @Then("^check the upload progress should be (\\d+) bytes$")
+    fun checkProgress(bytesExpect: Long) {
+        assertThat(progress.get()).isEqualTo(bytesExpect)
+    }
+
+    @Then("^check the content type of '(.+)' requests to '(.+)' should be '(.+)'$")
+    fun checkContentType(action: String, path: String, contentTypeExpect: String) {
+        val requests = findRequests(path, action)
+
+        assertThat(requests).isNotEmpty
+        assertThat(requests).allMatch { it.getHeader("Content-Type").startsWith(contentTypeExpect) }
+    }
+
+    @Given("^mock ADLS Gen2 service to list (\\d+) files under '(.+)' of '(.+)' in pages of (\\d+)$")
+    fun mockListPages(fileCount: Int, directory: String, path: String, pageSize: Int) {
+        WireMock.configureFor(httpServerMock!!.port)
+        val pageCount = maxOf(1, (fileCount + pageSize - 1) / pageSize)
+        (0 until pageCount).forEach { page ->
+            val paths = (page * pageSize until minOf(fileCount, (page + 1) * pageSize))
+                    .joinToString(",") { """{"name":"$directory/file-$it","isDirectory":"false"}""" }
+            val response = WireMock.aResponse()
+                    .withStatus(200)
+                    .withHeader("Content-Type", "application/json")
+                    .withBody("""{"paths":[$paths]}""")
+            if (page < pageCount - 1) {
+                response.withHeader(ADLSGen2FSOperation.CONTINUATION_HEADER, "page-${page + 1}")
+            }
+
+            WireMock.stubFor(WireMock.get(WireMock.urlPathEqualTo(path))
+                    .withQueryParam("resource", WireMock.equalTo("filesystem"))
+                    .withQueryParam("directory", WireMock.equalTo(directory))
+                    .withQueryParam("continuation",
+                            if (page == 0) WireMock.absent() else WireMock.equalTo("page-$page"))
+                    .willReturn(response))
+        }
+    }
+
+    @Then("^list '(.+)' of '(.+)' with page size (\\d+) should get (\\d+) files in (\\d+) pages$")
+    fun checkListPages(directory: String, path: String, pageSize: Int, fileCountExpect: Int, pageCountExpect: Int) {
+        val op = ADLSGen2FSOperation(HttpObservable()).setListPageSize(pageSize)
+        val emittedTimes = mutableListOf<Long>()
+
+        val pages = op.listPages(httpServerMock!!.completeUrl(path), directory)
+                .doOnNext { emittedTimes.add(System.currentTimeMillis()) }
+                .toList()
+                .toBlocking()
+                .single()
+        pageEmittedTimes = emittedTimes
+
+        assertThat(pages).hasSize(pageCountExpect)
+        assertThat(pages.flatten().map { it.name })
+                .containsExactlyElementsOf((0 until fileCountExpect).map { "$directory/file-$it" })
+        assertThat(pages.flatten()).allMatch { !it.isDirectory }
+    }
+
+    @Then("^check the list requests to '(.+)' should follow the continuations$")
+    fun checkListContinuations(path: String, continuationsExpect: List<String>) {
+        val continuations = findListRequests(path).map {
+            it.queryParameter("continuation").takeIf { param -> param.isPresent }?.firstValue() ?: "(none)"
+        }
+
+        assertThat(continuations).containsExactlyElementsOf(continuationsExpect)
+    }
+
+    @Then("^check each page should be emitted before the next page is requested$")
+    fun checkPagesStreamed() {
+        val requestedTimes = findListRequests(null).map { it.loggedDate.time }
+
+        assertThat(pageEmittedTimes).hasSize(requestedTimes.size)
+        (1 until requestedTimes.size).forEach {
+            assertThat(pageEmittedTimes[it - 1]).isLessThanOrEqualTo(requestedTimes[it])
+        }
+    }
+
+    private fun findListRequests(path: String?): List<LoggedRequest> =
+            httpServerMock!!.livyServerMock.allServeEvents
+                    .map { it.request }
+                    .filter { it.method == RequestMethod.GET
+                            && (path == null || URI.create(it.url).path == path)
+                            && it.queryParameter("resource").firstValue() == "filesystem" }
+                    // The serve events are in reverse order of receiving
+                    .reversed()
+
+    private fun findRequests(path: String, action: String): List<LoggedRequest> =
+            httpServerMock!!.livyServerMock.allServeEvents
+                    .map { it.request }
+                    .filter { it.method == RequestMethod.PATCH
+                            && URI.create(it.url).path == path
+                            && it.queryParameter("action").firstValue() == action }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.storage.webhdfs
+
+import com.github.tomakehurst.wiremock.client.WireMock
+import com.github.tomakehurst.wiremock.http.Fault
+import com.github.tomakehurst.wiremock.http.RequestMethod
+import com.github.tomakehurst.wiremock.stubbing.Scenario
+import com.github.tomakehurst.wiremock.verification.LoggedRequest
+import com.microsoft.azure.hdinsight.sdk.common.HttpObservable
+import com.microsoft.azure.hdinsight.spark.common.MockHttpService
+import io.cucumber.java.After
+import io.cucumber.java.Before
+import io.cucumber.java.en.And
+import io.cucumber.java.en.Given
+import io.cucumber.java.en.Then
+import org.assertj.core.api.Assertions.assertThat
+import java.io.File
+import java.net.URI
+import java.util.concurrent.atomic.AtomicLong
+import kotlin.random.Random
+
+class WebHdfsUploaderScenario {
+    private var httpServerMock: MockHttpService? = null
+    private var artifact: File? = null
+    private val progress = AtomicLong(0)
+
+    @Before
+    fun setUp() {
+        httpServerMock = MockHttpService()
+    }
+
+    @After
+    fun cleanUp() {
+        httpServerMock?.livyServerMock?.stop()
+        artifact?.delete()
+    }
+
+    @Given("^prepare a local artifact with (\\d+) random bytes to upload via WebHDFS$")
+    fun prepareArtifact(size: Int) {
+        artifact = File.createTempFile("artifact", ".jar").apply {
+            writeBytes(Random(0).nextBytes(size))
+            deleteOnExit()
+        }
+    }
+
+    @And("^mock WebHDFS service with a stale file of the same size at '(.+)'$")
+    fun mockWebHdfs(path: String) {
+        WireMock.configureFor(httpServerMock!!.port)
+        val tempPath = WireMock.urlPathMatching("${Regex.escape(path)}\\..+${Regex.escape(WebHdfsUploader.TEMP_FILE_SUFFIX)}")
+
+        WireMock.stubFor(WireMock.put(tempPath)
+                .withQueryParam("op", WireMock.equalTo("CREATE"))
+                .willReturn(WireMock.aResponse()
+                        .withStatus(307)
+                        .withHeader("Location", httpServerMock!!.completeUrl("/datanode/create"))))
+        WireMock.stubFor(WireMock.put(WireMock.urlPathEqualTo("/datanode/create"))
+                .willReturn(WireMock.aResponse().withStatus(201)))
+        WireMock.stubFor(WireMock.post(tempPath)
+                .withQueryParam("op", WireMock.equalTo("APPEND"))
+                .willReturn(WireMock.aResponse()
+                        .withStatus(307)
+                        .withHeader("Location", httpServerMock!!.completeUrl("/datanode/append"))))
+        WireMock.stubFor(WireMock.post(WireMock.urlPathEqualTo("/datanode/append"))
+                .willReturn(WireMock.aResponse().withStatus(200)))
+        WireMock.stubFor(WireMock.put(tempPath)
+                .withQueryParam("op", WireMock.equalTo("RENAME"))
+                .willReturn(WireMock.aResponse().withStatus(200).withBody("""{"boolean":true}""")))
+        WireMock.stubFor(WireMock.delete(WireMock.urlPathEqualTo(path))
+                .withQueryParam("op", WireMock.equalTo("DELETE"))
+                .willReturn(WireMock.aResponse().withStatus(200).withBody("""{"boolean":true}""")))
+
+        // The stale file has the same length as the artifact
+        WireMock.stubFor(WireMock.get(WireMock.urlPathEqualTo(path))
+                .withQueryParam("op", WireMock.equalTo("GETFILESTATUS"))
+                .willReturn(WireMock.aResponse()
+                        .withStatus(200)
+                        .withBody("""{"FileStatus":{"length":${artifact!!.length()},"type":"FILE"}}""")))
+    }
+
+    @And("^mock the first transfer to the DataNode broken after (\\d+) bytes are written$")
+    fun mockTransferBroken(written: Long) {
+        WireMock.stubFor(WireMock.put(WireMock.urlPathEqualTo("/datanode/create"))
+                .inScenario("transfer")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willSetStateTo("broken")
+                .willReturn(WireMock.aResponse().withFault(Fault.CONNECTION_RESET_BY_PEER)))
+
+        // The written length of the broken transfer, then the whole length once the rest is appended
+        val fileStatus = WireMock.get(WireMock.urlPathMatching(".+${Regex.escape(WebHdfsUploader.TEMP_FILE_SUFFIX)}"))
+                .withQueryParam("op", WireMock.equalTo("GETFILESTATUS"))
+        WireMock.stubFor(fileStatus
+                .inScenario("status")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willSetStateTo("resumed")
+                .willReturn(WireMock.aResponse()
+                        .withStatus(200)
+                        .withBody("""{"FileStatus":{"length":$written,"type":"FILE"}}""")))
+        WireMock.stubFor(fileStatus
+                .inScenario("status")
+                .whenScenarioStateIs("resumed")
+                .willReturn(WireMock.aResponse()
+                        .withStatus(200)
+                        .withBody("""{"FileStatus":{"length":${artifact!!.length()},"type":"FILE"}}""")))
+    }
+
+    @And("^mock the first APPEND request to the NameNode rejected for the lease not recovered$")
+    fun mockAppendRejected() {
+        WireMock.stubFor(WireMock.post(WireMock.urlPathMatching(".+${Regex.escape(WebHdfsUploader.TEMP_FILE_SUFFIX)}"))
+                .withQueryParam("op", WireMock.equalTo("APPEND"))
+                .inScenario("append")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willSetStateTo("rejected")
+                .willReturn(WireMock.aResponse()
+                        .withStatus(403)
+                        .withBody("""{"RemoteException":{"exception":"AlreadyBeingCreatedException",""" +
+                                  """"javaClassName":"org.apache.hadoop.hdfs.protocol.AlreadyBeingCreatedException",""" +
+                                  """"message":"Failed to APPEND_FILE, the lease is held by another client"}}""")))
+        WireMock.stubFor(WireMock.delete(WireMock.urlPathMatching(".+${Regex.escape(WebHdfsUploader.TEMP_FILE_SUFFIX)}"))
+                .withQueryParam("op", WireMock.equalTo("DELETE"))
+                .willReturn(WireMock.aResponse().withStatus(200).withBody("""{"boolean":true}""")))
+    }
+
+    @And("^mock the first CREATE request to the NameNode broken$")
+    fun mockCreateBroken() {
+        WireMock.stubFor(WireMock.put(WireMock.urlPathMatching(".+${Regex.escape(WebHdfsUploader.TEMP_FILE_SUFFIX)}"))
+                .withQueryParam("op", WireMock.equalTo("CREATE"))
+                .inScenario("create")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willSetStateTo("broken")
+                .willReturn(WireMock.aResponse().withFault(Fault.CONNECTION_RESET_BY_PEER)))
+    }
+
+    @Then("^upload the artifact to '(.+)' via WebHDFS$")
+    fun uploadArtifact(path: String) {
+        WebHdfsUploader(HttpObservable())
+                .upload(artifact!!, httpServerMock!!.completeUrl(path)) { progress.addAndGet(it) }
+    }
+
+    @And("^check the content sent to '(.+)' should be the artifact from byte (\\d+)$")
+    fun checkContentSent(dataNodePath: String, offset: Int) {
+        val requests = findRequests { URI.create(it.url).path == dataNodePath }
+        val expect = artifact!!.readBytes()
+
+        assertThat(requests).isNotEmpty
+        assertThat(requests.last().body).isEqualTo(expect.copyOfRange(offset, expect.size))
+    }
+
+    @And("^check no request should be sent to '(.+)'$")
+    fun checkNoRequest(dataNodePath: String) {
+        assertThat(findRequests { URI.create(it.url).path == dataNodePath }).isEmpty()
+    }
+
+    @And("^check the operations on the temporary file should be$")
+    fun checkTempFileOperations(operationsExpect: List<String>) {
+        val operations = findRequests { URI.create(it.url).path.endsWith(WebHdfsUploader.TEMP_FILE_SUFFIX) }
+        val tempPaths = operations.map { URI.create(it.url).path }.distinct()
+
+        assertThat(tempPaths).hasSize(1)
+        assertThat(operations.map { it.queryParameter("op").firstValue() }).containsExactlyElementsOf(operationsExpect)
+    }
+
+    @And("^check the operations on the temporary files should be$")
+    fun checkTempFilesOperations(operationsExpect: List<List<String>>) {
+        val operations = findRequests { URI.create(it.url).path.endsWith(WebHdfsUploader.TEMP_FILE_SUFFIX) }
+        val tempPaths = operations.map { URI.create(it.url).path }.distinct()
+
+        // The temporary files are numbered in the order of their first operation
+        assertThat(operations.map { listOf((tempPaths.indexOf(URI.create(it.url).path) + 1).toString(),
+                                           it.queryParameter("op").firstValue()) })
+                .containsExactlyElementsOf(operationsExpect)
+    }
+
+    @And("^check the temporary file should be renamed to '(.+)' after '(.+)' is deleted$")
+    fun checkRenamed(hdfsPath: String, path: String) {
+        val delete = findRequests { it.method == RequestMethod.DELETE && URI.create(it.url).path == path }
+        val rename = findRequests { it.queryParameter("op").let { op -> op.isPresent && op.firstValue() == "RENAME" } }
+
+        assertThat(delete).hasSize(1)
+        assertThat(rename).hasSize(1)
+        assertThat(rename[0].queryParameter("destination").firstValue()).isEqualTo(hdfsPath)
+        assertThat(rename[0].loggedDate).isAfterOrEqualTo(delete[0].loggedDate)
+    }
+
+    @And("^check the status of the destination '(.+)' should never be requested$")
+    fun checkDestinationStatusNotRequested(path: String) {
+        assertThat(findRequests { it.method == RequestMethod.GET && URI.create(it.url).path == path }).isEmpty()
+    }
+
+    @And("^check the upload progress should be (\\d+) bytes$")
+    fun checkProgress(bytesExpect: Long) {
+        assertThat(progress.get()).isEqualTo(bytesExpect)
+    }
+
+    private fun findRequests(predicate: (LoggedRequest) -> Boolean): List<LoggedRequest> =
+            httpServerMock!!.livyServerMock.allServeEvents
+                    .map { it.request }
+                    .filter(predicate)
+                    // The serve events are in reverse order of receiving
+                    .reversed()
+}
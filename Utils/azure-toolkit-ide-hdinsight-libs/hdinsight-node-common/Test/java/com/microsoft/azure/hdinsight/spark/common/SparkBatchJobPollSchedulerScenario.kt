@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.common
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import io.cucumber.java.en.And
+import io.cucumber.java.en.Given
+import io.cucumber.java.en.Then
+import org.assertj.core.api.Assertions.assertThat
+import rx.Observable
+import java.util.UUID
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class SparkBatchJobPollSchedulerScenario {
+    // The scheduler is shared in the process, isolate the batch keys of scenarios
+    private val keyPrefix = UUID.randomUUID().toString()
+    private val requestCounts = ConcurrentHashMap<String, AtomicInteger>()
+    private val statusRequests = ConcurrentHashMap<String, () -> Observable<SparkSubmitResponse>>()
+    private var statesGot: List<String> = emptyList()
+    private var interval: SparkBatchJobPollScheduler.AdaptiveInterval? = null
+
+    private fun getStatus(batch: String): Observable<SparkSubmitResponse> =
+            SparkBatchJobPollScheduler.getInstance().getStatus("$keyPrefix#$batch") {
+                requestCounts.computeIfAbsent(batch) { AtomicInteger() }.incrementAndGet()
+                statusRequests[batch]!!()
+            }
+
+    @Given("^the status request of batch '(.+)' responds state '(.+)' after (\\d+) milliseconds$")
+    fun mockStatusRequest(batch: String, state: String, delayMs: Long) {
+        val status = ObjectMapper().readValue("""{"id": 0, "state": "$state"}""", SparkSubmitResponse::class.java)
+
+        statusRequests[batch] = { Observable.just(status).delay(delayMs, TimeUnit.MILLISECONDS) }
+    }
+
+    @Given("^the status request of batch '(.+)' fails$")
+    fun mockFailedStatusRequest(batch: String) {
+        statusRequests[batch] = { Observable.error(SparkJobException("Can't get the batch status")) }
+    }
+
+    @Then("^get the status of batch '(.+)' by (\\d+) polls at the same time$")
+    fun getStatusConcurrently(batch: String, pollCount: Int) {
+        statesGot = Observable.merge((1..pollCount).map { getStatus(batch) })
+                .map { it.state }
+                .toList()
+                .toBlocking()
+                .single()
+    }
+
+    @Then("^get the status of batch '(.+)' ignoring errors$")
+    fun getStatusIgnoringErrors(batch: String) {
+        statesGot = getStatus(batch)
+                .map { it.state }
+                .onErrorResumeNext(Observable.empty())
+                .toList()
+                .toBlocking()
+                .single()
+    }
+
+    @And("^wait for (\\d+) milliseconds$")
+    fun waitFor(millis: Long) {
+        Thread.sleep(millis)
+    }
+
+    @Then("^check the states got should be (\\d+) '(.+)'$")
+    fun checkStatesGot(count: Int, state: String) {
+        assertThat(statesGot).hasSize(count).containsOnly(state)
+    }
+
+    @Then("^check the status request of batch '(.+)' should be sent (\\d+) times?$")
+    fun checkRequestCount(batch: String, count: Int) {
+        assertThat(requestCounts[batch]?.get() ?: 0).isEqualTo(count)
+    }
+
+    @Given("^an adaptive poll interval from (\\d+) to (\\d+) milliseconds$")
+    fun createInterval(minMillis: Long, maxMillis: Long) {
+        interval = SparkBatchJobPollScheduler.AdaptiveInterval(minMillis, maxMillis)
+    }
+
+    @And("^the poll is idle for (\\d+) times$")
+    fun markIdle(times: Int) {
+        repeat(times) { interval!!.onIdle() }
+    }
+
+    @And("^the poll gets activity$")
+    fun markActivity() {
+        interval!!.onActivity()
+    }
+
+    @And("^the poll gets a backlog$")
+    fun markBacklog() {
+        interval!!.onBacklog()
+    }
+
+    @Then("^check the next poll delays should be between (\\d+) and (\\d+) milliseconds$")
+    fun checkNextDelay(lowerMillis: Long, upperMillis: Long) {
+        // The jitter is random, check it in a bunch of draws
+        repeat(100) {
+            assertThat(interval!!.nextDelayMillis()).isBetween(lowerMillis, upperMillis)
+        }
+    }
+}
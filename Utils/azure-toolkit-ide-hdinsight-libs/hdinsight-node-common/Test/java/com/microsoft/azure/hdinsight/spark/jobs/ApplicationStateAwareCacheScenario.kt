@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs
+
+import com.fasterxml.jackson.databind.type.TypeFactory
+import com.google.common.base.Ticker
+import com.google.common.cache.CacheLoader
+import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail
+import io.cucumber.java.After
+import io.cucumber.java.Before
+import io.cucumber.java.en.Given
+import io.cucumber.java.en.Then
+import io.cucumber.java.en.When
+import org.apache.commons.io.FileUtils
+import org.assertj.core.api.Assertions.assertThat
+import org.mockito.Mockito.doReturn
+import org.mockito.Mockito.mock
+import java.io.File
+import java.nio.file.Files
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+
+class ApplicationStateAwareCacheScenario {
+    private val nanos = AtomicLong()
+    private val ticker = object : Ticker() {
+        override fun read(): Long = nanos.get()
+    }
+
+    private val cluster = mock(IClusterDetail::class.java)
+    private val finishedApps = ConcurrentHashMap.newKeySet<String>()
+    private val loadedValues = ConcurrentHashMap<String, String>()
+    private val loadCounts = ConcurrentHashMap<String, AtomicInteger>()
+    private var spillRootDir: File? = null
+    private var cache: ApplicationStateAwareCache<String>? = null
+
+    @Before
+    fun setUp() {
+        doReturn("https://cache-test.azurehdinsight.net").`when`(cluster).connectionUrl
+        doReturn("cache-test").`when`(cluster).name
+    }
+
+    @After
+    fun cleanUp() {
+        spillRootDir?.let { FileUtils.deleteQuietly(it) }
+    }
+
+    private fun key(appId: String) = ApplicationKey(cluster, appId)
+
+    private fun createCache(maxFinishedWeight: Long, spillRootDir: File?) {
+        cache = ApplicationStateAwareCache(
+                "test",
+                object : CacheLoader<ApplicationKey, String>() {
+                    override fun load(key: ApplicationKey): String {
+                        loadCounts.computeIfAbsent(key.appId) { AtomicInteger() }.incrementAndGet()
+
+                        return loadedValues[key.appId]!!
+                    }
+                },
+                { key -> finishedApps.contains(key.appId) },
+                // Weigh the value by its length
+                { _, value -> value.length },
+                maxFinishedWeight,
+                TypeFactory.defaultInstance().constructType(String::class.java),
+                spillRootDir,
+                ticker)
+    }
+
+    @Given("^an application state aware cache$")
+    fun createCache() {
+        createCache(1024, null)
+    }
+
+    @Given("^an application state aware cache with the max finished weight (\\d+) and spilling$")
+    fun createSpillingCache(maxFinishedWeight: Long) {
+        spillRootDir = Files.createTempDirectory("jobViewCache").toFile()
+        createCache(maxFinishedWeight, spillRootDir)
+    }
+
+    @Given("^the application '(.+)' is (running|finished)$")
+    fun setApplicationState(appId: String, state: String) {
+        if (state == "finished") {
+            finishedApps.add(appId)
+        } else {
+            finishedApps.remove(appId)
+        }
+    }
+
+    @Given("^the loaded value of '(.+)' is '(.*)'$")
+    fun setLoadedValue(appId: String, value: String) {
+        loadedValues[appId] = value
+    }
+
+    @When("^(\\d+) (seconds|minutes) passed$")
+    fun passTime(duration: Long, unit: String) {
+        nanos.addAndGet(if (unit == "minutes") TimeUnit.MINUTES.toNanos(duration) else TimeUnit.SECONDS.toNanos(duration))
+    }
+
+    @Then("^check getting '(.+)' should be '(.*)'$")
+    fun checkGet(appId: String, expect: String) {
+        assertThat(cache!!.get(key(appId))).isEqualTo(expect)
+    }
+
+    @Then("^check getting '(.+)' should be '(.*)' after the background refresh$")
+    fun checkGetAfterRefresh(appId: String, expect: String) {
+        // The value is reloaded asynchronously after the refresh triggered by a get, wait for it
+        val deadline = System.currentTimeMillis() + 10_000
+        var actual = cache!!.get(key(appId))
+
+        while (actual != expect && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20)
+            actual = cache!!.get(key(appId))
+        }
+
+        assertThat(actual).isEqualTo(expect)
+    }
+
+    @Then("^check the value of '(.+)' should be loaded (\\d+) times?$")
+    fun checkLoadCount(appId: String, expect: Int) {
+        assertThat(loadCounts[appId]?.get() ?: 0).isEqualTo(expect)
+    }
+
+    @Then("^check the (running|finished|combined) statistics should be (\\d+) hits, (\\d+) misses and (\\d+) loads$")
+    fun checkStats(kind: String, hits: Long, misses: Long, loads: Long) {
+        val stats = when (kind) {
+            "running" -> cache!!.runningStats
+            "finished" -> cache!!.finishedStats
+            else -> cache!!.stats
+        }
+
+        assertThat(stats.hitCount()).isEqualTo(hits)
+        assertThat(stats.missCount()).isEqualTo(misses)
+        assertThat(stats.loadCount()).isEqualTo(loads)
+    }
+
+    @Then("^check the value of '(.+)' should (be|not be) spilled$")
+    fun checkSpilled(appId: String, expect: String) {
+        val spillFile = File(File(spillRootDir, "test"), "cache-test_$appId.json")
+
+        assertThat(spillFile.isFile).isEqualTo(expect == "be")
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs
+
+import com.microsoft.azure.hdinsight.sdk.rest.spark.event.JobStartEventLog
+import io.cucumber.java.en.Given
+import io.cucumber.java.en.Then
+import org.assertj.core.api.Assertions.assertThat
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.InputStream
+import java.nio.charset.StandardCharsets
+import java.util.zip.ZipEntry
+import java.util.zip.ZipOutputStream
+
+class SparkEventLogReaderScenario {
+    private var eventLogLines: List<String> = emptyList()
+    private var eventLogs: Map<String, List<String>> = emptyMap()
+    private var events: List<JobStartEventLog>? = null
+
+    // The stream returns at most the chunk size bytes per read, to split lines and characters across reads
+    private class ChunkedInputStream(bytes: ByteArray, private val chunkSize: Int) : InputStream() {
+        private val source = ByteArrayInputStream(bytes)
+
+        override fun read(): Int = source.read()
+
+        override fun read(b: ByteArray, off: Int, len: Int): Int = source.read(b, off, minOf(len, chunkSize))
+    }
+
+    private fun jobStartEvent(jobId: Int, jobName: String, padding: Int = 0): String =
+            """{"Event":"SparkListenerJobStart","Job ID":$jobId,"Submission Time":1500000000000,""" +
+                    """"Stage Infos":[],"Stage IDs":[$jobId],""" +
+                    """"Properties":{"spark.job.description":"$jobName","padding":"${"x".repeat(padding)}"}}"""
+
+    private fun taskEndEvent(stageId: Int): String =
+            """{"Event":"SparkListenerTaskEnd","Stage ID":$stageId,"Task Type":"ResultTask"}"""
+
+    @Given("^an event log with the lines:$")
+    fun prepareEventLog(lines: List<String>) {
+        eventLogLines = lines.map { line ->
+            Regex("""^job start (\d+) '(.*)'(?: padded (\d+))?$""").matchEntire(line)
+                    ?.let { jobStartEvent(it.groupValues[1].toInt(), it.groupValues[2], it.groupValues[3].toIntOrNull() ?: 0) }
+                    ?: Regex("""^task end (\d+)$""").matchEntire(line)
+                            ?.let { taskEndEvent(it.groupValues[1].toInt()) }
+                    ?: line
+        }
+    }
+
+    @Given("^the event log of entry '(.+)' with job starts (.+)$")
+    fun prepareEventLogEntry(entryName: String, jobIds: String) {
+        eventLogs = eventLogs + (entryName to jobIds.split(",").map { jobStartEvent(it.trim().toInt(), "job") })
+    }
+
+    @Then("^read the event log ending lines with '(LF|CRLF)' (with|without) the last line ending in (\\d+) bytes? chunks$")
+    fun readEventLog(lineEnding: String, withLastEnding: String, chunkSize: Int) {
+        val separator = if (lineEnding == "CRLF") "\r\n" else "\n"
+        val content = eventLogLines.joinToString(separator) + if (withLastEnding == "with") separator else ""
+
+        events = SparkEventLogReader.readJobStartEvents(
+                ChunkedInputStream(content.toByteArray(StandardCharsets.UTF_8), chunkSize))
+    }
+
+    @Then("^read the job start events of the last attempt of app '(.+)'$")
+    fun readLastAttempt(appId: String) {
+        val zip = ByteArrayOutputStream()
+        ZipOutputStream(zip).use { zipStream ->
+            eventLogs.forEach { (entryName, lines) ->
+                zipStream.putNextEntry(ZipEntry(entryName))
+                zipStream.write(lines.joinToString("\n").toByteArray(StandardCharsets.UTF_8))
+                zipStream.closeEntry()
+            }
+        }
+
+        events = SparkEventLogReader.readLastAttemptJobStartEvents(ByteArrayInputStream(zip.toByteArray()), appId)
+                .orElse(null)
+    }
+
+    @Then("^check the job IDs read should be (.*)$")
+    fun checkJobIds(expect: String) {
+        val expectIds = expect.split(",").filter { it.isNotBlank() }.map { it.trim().toInt() }
+
+        assertThat(events).isNotNull
+        assertThat(events!!.map { it.jobId }).containsExactlyElementsOf(expectIds)
+    }
+
+    @Then("^check the job names read should be (.*)$")
+    fun checkJobNames(expect: String) {
+        val expectNames = expect.split(",").map { it.trim().removeSurrounding("'") }
+
+        assertThat(events!!.map { it.properties["spark.job.description"] }).containsExactlyElementsOf(expectNames)
+    }
+
+    @Then("^check the job (\\d+) padding length should be (\\d+)$")
+    fun checkPaddingLength(jobId: Int, expect: Int) {
+        assertThat(events!!.single { it.jobId == jobId }.properties["padding"]).hasSize(expect)
+    }
+
+    @Then("^check no event log found$")
+    fun checkNoEventLog() {
+        assertThat(events).isNull()
+    }
+}
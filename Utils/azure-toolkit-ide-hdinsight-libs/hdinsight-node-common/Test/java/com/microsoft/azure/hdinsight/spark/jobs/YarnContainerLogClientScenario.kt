@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs
+
+import com.microsoft.azure.hdinsight.spark.common.MockHttpService
+import io.cucumber.java.After
+import io.cucumber.java.Before
+import io.cucumber.java.en.Given
+import io.cucumber.java.en.Then
+import org.assertj.core.api.Assertions.assertThat
+import org.jsoup.Jsoup
+
+class YarnContainerLogClientScenario {
+    private var httpServerMock: MockHttpService? = null
+    private var page: String = ""
+
+    @Before
+    fun setUp() {
+        httpServerMock = MockHttpService()
+    }
+
+    @After
+    fun cleanUp() {
+        httpServerMock?.livyServerMock?.stop()
+    }
+
+    @Given("^a Yarn log page with the content cell:$")
+    fun prepareLogPage(contentCell: String) {
+        page = """<html><head><title>Logs</title></head><body><table id="layout"><tbody><tr>
+            |<td id="navcell"><div id="nav"><h3>NodeManager</h3><pre>navigation</pre></div></td>
+            |<td class="content">$contentCell</td>
+            |</tr></tbody></table></body></html>""".trimMargin()
+    }
+
+    @Given("^a Yarn log page without the navigation cell:$")
+    fun prepareLogPageWithoutNavCell(html: String) {
+        page = html
+    }
+
+    @Then("^check the extracted '(.+)' log should be '(.*)'$")
+    fun checkExtractedLog(type: String, expect: String) {
+        val actual = YarnContainerLogClient.extractLogFromHtml(Jsoup.parse(page), type)
+
+        assertThat(actual).isEqualTo(expect.replace("\\n", "\n"))
+    }
+
+    @Given("^mock Yarn log '(.+)' responding plain text '(.*)'$")
+    fun mockPlainTextLog(uri: String, logs: String) {
+        httpServerMock!!.stubWithHeader("GET", uri, 200, logs, mapOf("Content-Type" to "text/plain; charset=UTF-8"))
+    }
+
+    @Then("^check getting Yarn log '(.+)' from '(.+)' should be '(.*)'$")
+    fun checkGetLog(type: String, baseUri: String, expect: String) {
+        val actual = YarnContainerLogClient.getInstance().getLog(null, httpServerMock!!.completeUrl(baseUri), type, 0, -1)
+
+        assertThat(actual).isEqualTo(expect)
+    }
+}
@@ -0,0 +1,36 @@
+Feature: ClusterCatalog tests
+
+  Scenario: Reuse the probe result while the cluster etag is unchanged
+    Given the cluster 'cluster1' with etag 'etag1' of subscription 'sub1' is probed successfully
+    Then check the probe result of the cluster 'cluster1' with etag 'etag1' of subscription 'sub1' should be reused
+    And check the probe result of the cluster 'cluster1' with etag 'etag2' of subscription 'sub1' should not be reused
+    And check the probe result of the cluster 'cluster2' with etag 'etag1' of subscription 'sub1' should not be reused
+    And check the probe result of the cluster 'cluster1' with etag 'etag1' of subscription 'sub2' should not be reused
+
+  Scenario: Expire the successful probe result after 24 hours
+    Given the cluster 'cluster1' with etag 'etag1' of subscription 'sub1' is probed successfully
+    When 23 hours passed since probed
+    Then check the probe result of the cluster 'cluster1' with etag 'etag1' of subscription 'sub1' should be reused
+    When 2 hours passed since probed
+    Then check the probe result of the cluster 'cluster1' with etag 'etag1' of subscription 'sub1' should not be reused
+
+  Scenario: Expire the failed probe result after 1 hour
+    Given the cluster 'cluster1' with etag 'etag1' of subscription 'sub1' is probed unsuccessfully
+    When 50 minutes passed since probed
+    Then check the probe result of the cluster 'cluster1' with etag 'etag1' of subscription 'sub1' should be reused
+    When 20 minutes passed since probed
+    Then check the probe result of the cluster 'cluster1' with etag 'etag1' of subscription 'sub1' should not be reused
+
+  Scenario: Reuse the probe result saved in the application properties
+    Given the cluster 'cluster1' with etag 'etag1' of subscription 'sub1' is probed successfully
+    When the catalog is loaded again
+    Then check the subscription 'sub1' should have 1 cluster in catalog
+    And check the probe result of the cluster 'cluster1' with etag 'etag1' of subscription 'sub1' should be reused
+
+  Scenario: Remove the clusters of the subscriptions not selected
+    Given the cluster 'cluster1' with etag 'etag1' of subscription 'sub1' is probed successfully
+    And the cluster 'cluster2' with etag 'etag1' of subscription 'sub2' is probed successfully
+    When only the subscription 'sub2' is selected
+    And the catalog is loaded again
+    Then check the subscription 'sub1' should have 0 clusters in catalog
+    And check the subscription 'sub2' should have 1 cluster in catalog
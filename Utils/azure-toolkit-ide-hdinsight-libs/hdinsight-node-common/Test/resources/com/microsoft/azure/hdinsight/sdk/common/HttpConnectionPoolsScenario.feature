@@ -0,0 +1,33 @@
+Feature: HttpConnectionPools tests
+
+  Scenario: Wait for a pooled connection with a timeout by default
+    Then check the default request config should limit the wait for a pooled connection
+
+  Scenario: Leaked responses only time out the requests waiting for connections
+    Given mock HTTP service to respond '/leaked' with status 200
+    And mock HTTP service to respond '/ok' with status 200
+    Then leak the responses of as many requests to '/leaked' as the max connections per route
+    And a request to '/ok' waiting 500 milliseconds for a connection should time out
+    And close the leaked responses
+    And a request to '/ok' waiting 500 milliseconds for a connection should get status 200
+
+  Scenario: Slow responses only time out the requests waiting for connections
+    Given mock HTTP service to respond '/slow' after 3000 milliseconds
+    And mock HTTP service to respond '/ok' with status 200
+    Then send as many requests to '/slow' as the max connections per route in background
+    And a request to '/ok' waiting 500 milliseconds for a connection should time out
+    And wait for the background requests done
+    And a request to '/ok' waiting 500 milliseconds for a connection should get status 200
+
+  Scenario: Release the connections of responses with unexpected status
+    Given mock HTTP service to respond '/error' with status 500
+    And mock HTTP service to respond '/ok' with status 200
+    Then send 30 requests to '/error' expecting status 200 and all should fail
+    And a request to '/ok' waiting 500 milliseconds for a connection should get status 200
+
+  Scenario: Observe the leased connections going back to available after the requests
+    Given mock HTTP service to respond '/ok' with status 200
+    Then hold the responses of 2 requests to '/ok'
+    And the route to the mock HTTP service should have 2 leased and 0 available connections
+    And close the leaked responses
+    And the route to the mock HTTP service should have 0 leased and 2 available connections
@@ -0,0 +1,64 @@
+Feature: HttpObservable JSON array elements tests
+
+  Scenario: Get the elements of the root array
+    Given mock HTTP service to respond '/root' with JSON:
+      """
+      [{"id": 1}, {"id": 2}]
+      """
+    Then get the elements at '' from '/root'
+    And check the elements should be:
+      | {"id": 1} |
+      | {"id": 2} |
+
+  Scenario: Get the elements of the nested array after skipping the fields before it
+    Given mock HTTP service to respond '/apps' with JSON:
+      """
+      {"total": 2, "skipped": {"app": [{"id": "x"}], "matrix": [[1, 2], [3]]}, "apps": {"app": [{"id": "a", "tags": [[1], []]}, {"id": "b"}], "next": [0]}}
+      """
+    Then get the elements at '/apps/app' from '/apps'
+    And check the elements should be:
+      | {"id": "a", "tags": [[1], []]} |
+      | {"id": "b"}                    |
+
+  Scenario: Get the nested arrays as the elements
+    Given mock HTTP service to respond '/matrix' with JSON:
+      """
+      {"rows": [[1, 2], [], [3]]}
+      """
+    Then get the elements at '/rows' from '/matrix'
+    And check the elements should be:
+      | [1, 2] |
+      | []     |
+      | [3]    |
+
+  Scenario: Get nothing from an empty array
+    Given mock HTTP service to respond '/empty' with JSON:
+      """
+      {"apps": {"app": []}}
+      """
+    Then get the elements at '/apps/app' from '/empty'
+    And check no element should be got
+
+  Scenario: Get nothing if the JSON pointer is missing
+    Given mock HTTP service to respond '/missing' with JSON:
+      """
+      {"total": 0, "apps": {"others": [1]}}
+      """
+    Then get the elements at '/apps/app' from '/missing'
+    And check no element should be got
+
+  Scenario: Get nothing if the array is null
+    Given mock HTTP service to respond '/null' with JSON:
+      """
+      {"apps": {"app": null}}
+      """
+    Then get the elements at '/apps/app' from '/null'
+    And check no element should be got
+
+  Scenario: Fail if the JSON pointer doesn't address an array
+    Given mock HTTP service to respond '/object' with JSON:
+      """
+      {"apps": {"app": {"id": "a"}}}
+      """
+    Then get the elements at '/apps/app' from '/object'
+    And check getting the elements should fail for no JSON array
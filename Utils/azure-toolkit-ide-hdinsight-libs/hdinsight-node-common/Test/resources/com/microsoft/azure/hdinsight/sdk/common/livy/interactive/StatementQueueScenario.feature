@@ -0,0 +1,30 @@
+Feature: Livy Interactive Statement Queue Tests
+
+  Scenario: Statements are posted without waiting for the previous ones and got in order
+    Given mock livy interactive session 6 to run the statements one by one in the listing order
+      | println("first")  | first  |
+      | println("second") | second |
+      | println("third")  | third  |
+    Then submit the statements to session 6 queue with at most 4 in flight
+    And check the statement queue results should be in the submitted order
+      | first  |
+      | second |
+      | third  |
+    And check all the statements should be posted before the first statement result
+    And check the statements of session 6 should be polled by the list requests only
+    And check the statement queue progress should be emitted for the statements
+      | 0 | 0.5 |
+      | 1 | 0.5 |
+      | 2 | 0.5 |
+
+  Scenario: Statements more than the max in flight wait for the previous ones done
+    Given mock livy interactive session 6 to run the statements one by one in the listing order
+      | println("first")  | first  |
+      | println("second") | second |
+      | println("third")  | third  |
+    Then submit the statements to session 6 queue with at most 1 in flight
+    And check the statement queue results should be in the submitted order
+      | first  |
+      | second |
+      | third  |
+    And check each statement should be posted after the previous statement result
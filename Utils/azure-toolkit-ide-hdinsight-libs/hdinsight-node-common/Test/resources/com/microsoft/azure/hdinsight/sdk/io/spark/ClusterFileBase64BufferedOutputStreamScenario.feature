@@ -52,3 +52,69 @@ Feature: ClusterFileBase64KBBufferedOutputStream tests
       writePage("AAAAAAAACQAAAAAAAAAAAAAAAAAABQAATUVUQS1JTkYvUEsFBgAAAAAEAAQA+gAAACcFAAAAAA==")###__CMD_END__###
       out.close()###__CMD_END__###
       """
+
+  Scenario: Write the large page by the literal lines in one statement
+    Given create a mocked Livy session for ClusterFileBase64KBBufferedOutputStream
+    And create a Spark cluster file BASE64 output stream '/tmp/test.jar' with page size 64KB
+    Then uploading 70000 BASE64 chars
+    Then check the page writing statements should be 2 with the literal lines:
+      | 32768, 32768 |
+      | 4464         |
+    And check the upload should succeed
+
+  Scenario: Keep the page writing statements in flight up to the window
+    Given create a mocked Livy session for ClusterFileBase64KBBufferedOutputStream
+    And create a Spark cluster file BASE64 output stream '/tmp/test.jar' with page size 1KB and 2 statements in flight
+    Then uploading 5120 BASE64 chars
+    Then check the max page writing statements in flight should be 2
+    And check the session calls should be:
+      | run      |
+      | submit 1 |
+      | submit 2 |
+      | await 1  |
+      | submit 3 |
+      | await 2  |
+      | submit 4 |
+      | await 3  |
+      | submit 5 |
+      | await 4  |
+      | await 5  |
+      | run      |
+    And check the upload should succeed
+    And check the session should be closed
+
+  Scenario: Wait for each page writing statement without the window
+    Given create a mocked Livy session for ClusterFileBase64KBBufferedOutputStream
+    And create a Spark cluster file BASE64 output stream '/tmp/test.jar' with page size 1KB
+    Then uploading 2560 BASE64 chars
+    Then check the max page writing statements in flight should be 1
+    And check the session calls should be:
+      | run      |
+      | submit 1 |
+      | await 1  |
+      | submit 2 |
+      | await 2  |
+      | submit 3 |
+      | await 3  |
+      | run      |
+
+  Scenario: Fail the upload once a page writing statement fails
+    Given create a mocked Livy session for ClusterFileBase64KBBufferedOutputStream
+    And the page writing statement 2 fails
+    And create a Spark cluster file BASE64 output stream '/tmp/test.jar' with page size 1KB and 2 statements in flight
+    Then uploading 5120 BASE64 chars
+    Then check the upload should fail
+    And check the session calls should be:
+      | run      |
+      | submit 1 |
+      | submit 2 |
+      | await 1  |
+      | submit 3 |
+      | await 2  |
+      | run      |
+    And check the session should be closed
+
+  Scenario: Reject the page size over the limit
+    Given create a mocked Livy session for ClusterFileBase64KBBufferedOutputStream
+    Then check creating a Spark cluster file BASE64 output stream with page size 0KB should be rejected
+    And check creating a Spark cluster file BASE64 output stream with page size 1025KB should be rejected
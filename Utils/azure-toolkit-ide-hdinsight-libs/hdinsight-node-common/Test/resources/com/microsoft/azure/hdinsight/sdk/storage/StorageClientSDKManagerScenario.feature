@@ -0,0 +1,27 @@
+Feature: StorageClientSDKManager tests
+
+  Scenario: Upload the small content by a single put
+    Given an Azurite Blob container
+    Then upload 1048576 bytes to the blob 'SparkSubmission/small.jar' with the block size 1048576
+    Then check the blob 'SparkSubmission/small.jar' content should be the uploaded one
+    And check the blob 'SparkSubmission/small.jar' committed blocks count should be 0
+    And check the last upload progress should be the content length
+
+  Scenario: Upload the content up to the single put size by a single put, ignoring the block size
+    Given an Azurite Blob container
+    Then upload 8388608 bytes to the blob 'SparkSubmission/medium.jar' with the block size 1048576
+    Then check the blob 'SparkSubmission/medium.jar' content should be the uploaded one
+    And check the blob 'SparkSubmission/medium.jar' committed blocks count should be 0
+
+  Scenario: Stage the large content as blocks of the block size
+    Given an Azurite Blob container
+    Then upload 20971521 bytes to the blob 'SparkSubmission/large.jar' with the block size 1048576
+    Then check the blob 'SparkSubmission/large.jar' content should be the uploaded one
+    And check the blob 'SparkSubmission/large.jar' committed blocks count should be 21
+    And check the last upload progress should be the content length
+
+  Scenario: Don't overwrite the existing blob
+    Given an Azurite Blob container
+    Then upload 1024 bytes to the blob 'SparkSubmission/exists.jar' with the block size 1048576
+    Then check uploading to the existing blob 'SparkSubmission/exists.jar' should fail
+    And check the blob 'SparkSubmission/exists.jar' content should be the uploaded one
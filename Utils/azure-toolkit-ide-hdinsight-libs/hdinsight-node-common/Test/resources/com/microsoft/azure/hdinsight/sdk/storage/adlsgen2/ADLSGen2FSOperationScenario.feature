@@ -0,0 +1,47 @@
+Feature: ADLSGen2FSOperation tests
+
+  Scenario: Upload an artifact by appending blocks concurrently and flushing once
+    Given mock ADLS Gen2 service to accept append and flush requests for '/fs/SparkSubmission/artifact.jar'
+    And prepare a local artifact with 20000 random bytes
+    Then upload the artifact to '/fs/SparkSubmission/artifact.jar' with block size 8192 and parallelism 2
+    And check the append request positions to '/fs/SparkSubmission/artifact.jar' should be
+      | 0     |
+      | 8192  |
+      | 16384 |
+    And check the flush request position to '/fs/SparkSubmission/artifact.jar' should be 20000
+    And check the appended blocks to '/fs/SparkSubmission/artifact.jar' should compose the local artifact
+    And check the upload progress should be 20000 bytes
+    And check the content type of 'append' requests to '/fs/SparkSubmission/artifact.jar' should be 'application/octet-stream'
+    And check the content type of 'flush' requests to '/fs/SparkSubmission/artifact.jar' should be 'application/json'
+
+  Scenario: Retry a failed block and report its progress once
+    Given mock ADLS Gen2 service to accept append and flush requests for '/fs/SparkSubmission/retried.jar'
+    And mock the first append request to '/fs/SparkSubmission/retried.jar' at position 8192 failed
+    And prepare a local artifact with 20000 random bytes
+    Then upload the artifact to '/fs/SparkSubmission/retried.jar' with block size 8192 and parallelism 2
+    And check the append request positions to '/fs/SparkSubmission/retried.jar' should be
+      | 0     |
+      | 8192  |
+      | 8192  |
+      | 16384 |
+    And check the flush request position to '/fs/SparkSubmission/retried.jar' should be 20000
+    And check the upload progress should be 20000 bytes
+
+  Scenario: Upload an empty artifact with flushing only
+    Given mock ADLS Gen2 service to accept append and flush requests for '/fs/SparkSubmission/empty.jar'
+    And prepare a local artifact with 0 random bytes
+    Then upload the artifact to '/fs/SparkSubmission/empty.jar' with block size 8192 and parallelism 2
+    And check the flush request position to '/fs/SparkSubmission/empty.jar' should be 0
+
+  Scenario: List a directory of multiple pages by following the continuations
+    Given mock ADLS Gen2 service to list 12000 files under 'SparkSubmission' of '/fs' in pages of 5000
+    Then list 'SparkSubmission' of '/fs' with page size 5000 should get 12000 files in 3 pages
+    And check the list requests to '/fs' should follow the continuations
+      | (none) |
+      | page-1 |
+      | page-2 |
+    And check each page should be emitted before the next page is requested
+
+  Scenario: List an empty directory
+    Given mock ADLS Gen2 service to list 0 files under 'empty' of '/fs' in pages of 5000
+    Then list 'empty' of '/fs' with page size 5000 should get 0 files in 1 pages
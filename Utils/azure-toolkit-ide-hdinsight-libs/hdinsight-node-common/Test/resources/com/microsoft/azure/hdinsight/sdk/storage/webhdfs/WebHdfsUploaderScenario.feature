@@ -0,0 +1,61 @@
+Feature: WebHdfsUploader tests
+
+  Scenario: Upload an artifact into a temporary file and rename it to the destination
+    Given prepare a local artifact with 20000 random bytes to upload via WebHDFS
+    And mock WebHDFS service with a stale file of the same size at '/webhdfs/v1/SparkSubmission/artifact.jar'
+    Then upload the artifact to '/webhdfs/v1/SparkSubmission/artifact.jar' via WebHDFS
+    And check the content sent to '/datanode/create' should be the artifact from byte 0
+    And check no request should be sent to '/datanode/append'
+    And check the operations on the temporary file should be
+      | CREATE |
+      | RENAME |
+    And check the temporary file should be renamed to '/SparkSubmission/artifact.jar' after '/webhdfs/v1/SparkSubmission/artifact.jar' is deleted
+    And check the upload progress should be 20000 bytes
+
+  Scenario: Resume a broken transfer by appending to the temporary file only
+    Given prepare a local artifact with 20000 random bytes to upload via WebHDFS
+    And mock WebHDFS service with a stale file of the same size at '/webhdfs/v1/SparkSubmission/artifact.jar'
+    And mock the first transfer to the DataNode broken after 8192 bytes are written
+    Then upload the artifact to '/webhdfs/v1/SparkSubmission/artifact.jar' via WebHDFS
+    And check the content sent to '/datanode/append' should be the artifact from byte 8192
+    And check the operations on the temporary file should be
+      | CREATE        |
+      | GETFILESTATUS |
+      | APPEND        |
+      | GETFILESTATUS |
+      | RENAME        |
+    And check the status of the destination '/webhdfs/v1/SparkSubmission/artifact.jar' should never be requested
+    And check the temporary file should be renamed to '/SparkSubmission/artifact.jar' after '/webhdfs/v1/SparkSubmission/artifact.jar' is deleted
+    And check the upload progress should be 20000 bytes
+
+  Scenario: Restart the upload by CREATE if it's broken before the temporary file is created
+    Given prepare a local artifact with 20000 random bytes to upload via WebHDFS
+    And mock WebHDFS service with a stale file of the same size at '/webhdfs/v1/SparkSubmission/artifact.jar'
+    And mock the first CREATE request to the NameNode broken
+    Then upload the artifact to '/webhdfs/v1/SparkSubmission/artifact.jar' via WebHDFS
+    And check the content sent to '/datanode/create' should be the artifact from byte 0
+    And check no request should be sent to '/datanode/append'
+    And check the operations on the temporary file should be
+      | CREATE |
+      | CREATE |
+      | RENAME |
+    And check the status of the destination '/webhdfs/v1/SparkSubmission/artifact.jar' should never be requested
+    And check the upload progress should be 20000 bytes
+
+  Scenario: Restart the upload by CREATE of a new temporary file if the APPEND is rejected
+    Given prepare a local artifact with 20000 random bytes to upload via WebHDFS
+    And mock WebHDFS service with a stale file of the same size at '/webhdfs/v1/SparkSubmission/artifact.jar'
+    And mock the first transfer to the DataNode broken after 8192 bytes are written
+    And mock the first APPEND request to the NameNode rejected for the lease not recovered
+    Then upload the artifact to '/webhdfs/v1/SparkSubmission/artifact.jar' via WebHDFS
+    And check the content sent to '/datanode/create' should be the artifact from byte 0
+    And check no request should be sent to '/datanode/append'
+    And check the operations on the temporary files should be
+      | 1 | CREATE        |
+      | 1 | GETFILESTATUS |
+      | 1 | APPEND        |
+      | 1 | DELETE        |
+      | 2 | CREATE        |
+      | 2 | RENAME        |
+    And check the temporary file should be renamed to '/SparkSubmission/artifact.jar' after '/webhdfs/v1/SparkSubmission/artifact.jar' is deleted
+    And check the upload progress should be 20000 bytes
@@ -0,0 +1,60 @@
+Feature: SparkBatchJobPollScheduler tests
+
+  Scenario: Coalesce the status polls of the same batch into one request
+    Given the status request of batch 'livy#1' responds state 'running' after 200 milliseconds
+    Then get the status of batch 'livy#1' by 5 polls at the same time
+    And check the states got should be 5 'running'
+    And check the status request of batch 'livy#1' should be sent 1 time
+
+  Scenario: Share the just finished status request and send a new one after the freshness period
+    Given the status request of batch 'livy#1' responds state 'running' after 0 milliseconds
+    Then get the status of batch 'livy#1' by 1 polls at the same time
+    And get the status of batch 'livy#1' by 1 polls at the same time
+    And check the status request of batch 'livy#1' should be sent 1 time
+    And wait for 600 milliseconds
+    And get the status of batch 'livy#1' by 1 polls at the same time
+    And check the states got should be 1 'running'
+    And check the status request of batch 'livy#1' should be sent 2 times
+
+  Scenario: Don't coalesce the status polls of different batches
+    Given the status request of batch 'livy#1' responds state 'running' after 200 milliseconds
+    And the status request of batch 'livy#2' responds state 'success' after 200 milliseconds
+    Then get the status of batch 'livy#1' by 3 polls at the same time
+    And get the status of batch 'livy#2' by 3 polls at the same time
+    And check the states got should be 3 'success'
+    And check the status request of batch 'livy#1' should be sent 1 time
+    And check the status request of batch 'livy#2' should be sent 1 time
+
+  Scenario: Don't share the failed status request
+    Given the status request of batch 'livy#1' fails
+    Then get the status of batch 'livy#1' ignoring errors
+    And check the status request of batch 'livy#1' should be sent 1 time
+    Given the status request of batch 'livy#1' responds state 'running' after 0 milliseconds
+    Then get the status of batch 'livy#1' ignoring errors
+    And check the states got should be 1 'running'
+    And check the status request of batch 'livy#1' should be sent 2 times
+
+  Scenario: Start the adaptive poll interval from the minimum one with jitter
+    Given an adaptive poll interval from 1000 to 8000 milliseconds
+    Then check the next poll delays should be between 800 and 1200 milliseconds
+
+  Scenario: Back off the adaptive poll interval exponentially up to the maximum one when idle
+    Given an adaptive poll interval from 1000 to 8000 milliseconds
+    And the poll is idle for 2 times
+    Then check the next poll delays should be between 3200 and 4800 milliseconds
+    And the poll is idle for 10 times
+    Then check the next poll delays should be between 6400 and 9600 milliseconds
+
+  Scenario: Reset the adaptive poll interval to the minimum one for activity
+    Given an adaptive poll interval from 1000 to 8000 milliseconds
+    And the poll is idle for 3 times
+    And the poll gets activity
+    Then check the next poll delays should be between 800 and 1200 milliseconds
+
+  Scenario: Poll again without delay for a backlog until the next activity or idle poll
+    Given an adaptive poll interval from 1000 to 8000 milliseconds
+    And the poll is idle for 3 times
+    And the poll gets a backlog
+    Then check the next poll delays should be between 0 and 0 milliseconds
+    And the poll is idle for 1 times
+    Then check the next poll delays should be between 1600 and 2400 milliseconds
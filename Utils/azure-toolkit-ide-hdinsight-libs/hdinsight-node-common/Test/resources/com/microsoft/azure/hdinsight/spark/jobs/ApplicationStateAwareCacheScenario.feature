@@ -0,0 +1,86 @@
+Feature: ApplicationStateAwareCache tests
+
+  Scenario: Keep the value of the running application until the refresh interval
+    Given an application state aware cache
+    And the application 'app1' is running
+    And the loaded value of 'app1' is 'v1'
+    Then check getting 'app1' should be 'v1'
+    Given the loaded value of 'app1' is 'v2'
+    When 9 seconds passed
+    Then check getting 'app1' should be 'v1'
+    And check the value of 'app1' should be loaded 1 time
+
+  Scenario: Refresh the value of the running application in background
+    Given an application state aware cache
+    And the application 'app1' is running
+    And the loaded value of 'app1' is 'v1'
+    Then check getting 'app1' should be 'v1'
+    Given the loaded value of 'app1' is 'v2'
+    When 11 seconds passed
+    Then check getting 'app1' should be 'v1'
+    And check getting 'app1' should be 'v2' after the background refresh
+    And check the value of 'app1' should be loaded 2 times
+
+  Scenario: Expire the value of the running application not accessed
+    Given an application state aware cache
+    And the application 'app1' is running
+    And the loaded value of 'app1' is 'v1'
+    Then check getting 'app1' should be 'v1'
+    Given the loaded value of 'app1' is 'v2'
+    When 11 minutes passed
+    Then check getting 'app1' should be 'v2'
+    And check the value of 'app1' should be loaded 2 times
+
+  Scenario: Never refresh the value of the finished application
+    Given an application state aware cache
+    And the application 'app1' is finished
+    And the loaded value of 'app1' is 'v1'
+    Then check getting 'app1' should be 'v1'
+    Given the loaded value of 'app1' is 'v2'
+    When 11 seconds passed
+    Then check getting 'app1' should be 'v1'
+    When 60 minutes passed
+    Then check getting 'app1' should be 'v1'
+    And check the value of 'app1' should be loaded 1 time
+
+  Scenario: Load the value again once the application is finished
+    Given an application state aware cache
+    And the application 'app1' is running
+    And the loaded value of 'app1' is 'partial'
+    Then check getting 'app1' should be 'partial'
+    Given the loaded value of 'app1' is 'complete'
+    And the application 'app1' is finished
+    Then check getting 'app1' should be 'complete'
+    Given the loaded value of 'app1' is 'changed'
+    When 11 seconds passed
+    Then check getting 'app1' should be 'complete'
+    And check the value of 'app1' should be loaded 2 times
+
+  Scenario: Spill the finished application value evicted by weight and read it back
+    Given an application state aware cache with the max finished weight 10 and spilling
+    And the application 'app1' is finished
+    And the application 'app2' is finished
+    And the loaded value of 'app1' is 'aaaaaa'
+    And the loaded value of 'app2' is 'bbbbbb'
+    Then check getting 'app1' should be 'aaaaaa'
+    And check the value of 'app1' should not be spilled
+    Then check getting 'app2' should be 'bbbbbb'
+    And check the value of 'app1' should be spilled
+    Given the loaded value of 'app1' is 'changed'
+    Then check getting 'app1' should be 'aaaaaa'
+    And check the value of 'app1' should not be spilled
+    And check the value of 'app1' should be loaded 1 time
+
+  Scenario: Record the statistics of the running and finished applications values
+    Given an application state aware cache
+    And the application 'app1' is running
+    And the application 'app2' is finished
+    And the loaded value of 'app1' is 'v1'
+    And the loaded value of 'app2' is 'v2'
+    Then check getting 'app1' should be 'v1'
+    And check getting 'app1' should be 'v1'
+    And check getting 'app2' should be 'v2'
+    And check getting 'app2' should be 'v2'
+    And check the running statistics should be 1 hits, 1 misses and 1 loads
+    And check the finished statistics should be 1 hits, 1 misses and 1 loads
+    And check the combined statistics should be 2 hits, 2 misses and 2 loads
@@ -0,0 +1,95 @@
+Feature: SparkEventLogReader tests
+
+  Scenario: Read the job start events only
+    Given an event log with the lines:
+      | task end 0        |
+      | job start 0 'one' |
+      | task end 0        |
+      | job start 1 'two' |
+      | task end 1        |
+    Then read the event log ending lines with 'LF' with the last line ending in 65536 bytes chunks
+    And check the job IDs read should be 0, 1
+    And check the job names read should be 'one', 'two'
+
+  Scenario: Read the event log with CRLF line endings
+    Given an event log with the lines:
+      | job start 0 'one' |
+      | task end 0        |
+      | job start 1 'two' |
+    Then read the event log ending lines with 'CRLF' with the last line ending in 65536 bytes chunks
+    And check the job IDs read should be 0, 1
+    And check the job names read should be 'one', 'two'
+
+  Scenario: Read the CRLF line endings split across reads
+    Given an event log with the lines:
+      | job start 0 'one' |
+      | job start 1 'two' |
+    Then read the event log ending lines with 'CRLF' with the last line ending in 1 byte chunks
+    And check the job IDs read should be 0, 1
+
+  Scenario: Read the last line without the line ending
+    Given an event log with the lines:
+      | task end 0         |
+      | job start 0 'one'  |
+      | job start 1 'last' |
+    Then read the event log ending lines with 'LF' without the last line ending in 65536 bytes chunks
+    And check the job IDs read should be 0, 1
+    And check the job names read should be 'one', 'last'
+
+  Scenario: Read the last CRLF line without the line ending in small chunks
+    Given an event log with the lines:
+      | job start 0 'one'  |
+      | job start 1 'last' |
+    Then read the event log ending lines with 'CRLF' without the last line ending in 7 bytes chunks
+    And check the job IDs read should be 0, 1
+    And check the job names read should be 'one', 'last'
+
+  Scenario: Read the lines split across the read buffer boundaries
+    Given an event log with the lines:
+      | task end 0                          |
+      | job start 0 'short'                 |
+      | job start 1 'long' padded 200000    |
+      | task end 1                          |
+      | job start 2 'after long'            |
+    Then read the event log ending lines with 'LF' with the last line ending in 65536 bytes chunks
+    And check the job IDs read should be 0, 1, 2
+    And check the job 1 padding length should be 200000
+    And check the job names read should be 'short', 'long', 'after long'
+
+  Scenario: Read the lines split in the middle across uneven reads
+    Given an event log with the lines:
+      | job start 0 'one' padded 1000   |
+      | task end 0                      |
+      | job start 1 'two' padded 70000  |
+    Then read the event log ending lines with 'LF' without the last line ending in 4099 bytes chunks
+    And check the job IDs read should be 0, 1
+    And check the job 1 padding length should be 70000
+
+  Scenario: Read the multibyte UTF-8 characters split across reads
+    Given an event log with the lines:
+      | job start 0 '作业一 😀'    |
+      | task end 0                 |
+      | job start 1 'Überprüfung' |
+    Then read the event log ending lines with 'LF' with the last line ending in 1 byte chunks
+    And check the job names read should be '作业一 😀', 'Überprüfung'
+    Then read the event log ending lines with 'CRLF' without the last line ending in 2 bytes chunks
+    And check the job names read should be '作业一 😀', 'Überprüfung'
+
+  Scenario: Skip the broken lines
+    Given an event log with the lines:
+      | job start 0 'one'                                   |
+      | {"Event":"SparkListenerJobStart","Job ID":1,"Stage |
+    Then read the event log ending lines with 'LF' with the last line ending in 65536 bytes chunks
+    And check the job IDs read should be 0
+
+  Scenario: Read the last attempt of the application event logs zip
+    Given the event log of entry 'application_1_0001_1' with job starts 0, 1
+    And the event log of entry 'application_1_0001_2' with job starts 0, 1, 2
+    And the event log of entry 'application_1_0002_3' with job starts 9
+    Then read the job start events of the last attempt of app 'application_1_0001'
+    And check the job IDs read should be 0, 1, 2
+
+  Scenario: Read no event log of the application
+    Given the event log of entry 'application_1_0002_1' with job starts 0
+    Then read the job start events of the last attempt of app 'application_1_0001'
+    Then check no event log found
@@ -0,0 +1,51 @@
+Feature: YarnContainerLogClient tests
+
+  Scenario: Extract the only log block of the running container from NodeManager
+    Given a Yarn log page with the content cell:
+      """
+      <p>"some"</p><pre>runninglog</pre>
+      """
+    Then check the extracted 'stderr' log should be 'runninglog'
+
+  Scenario: Extract the log of the type from JobHistory server
+    Given a Yarn log page with the content cell:
+      """
+      <pre>\n\n</pre> <p> Log Type: stdout <pre>stdoutlog</pre> <p> Log Type: stderr <pre>stderrlog</pre> <p> Log Type: directory.info <pre>dirs</pre>
+      """
+    Then check the extracted 'stdout' log should be 'stdoutlog'
+    And check the extracted 'stderr' log should be 'stderrlog'
+    And check the extracted 'directory.info' log should be 'dirs'
+
+  Scenario: Extract the last log block if the type isn't in the page
+    Given a Yarn log page with the content cell:
+      """
+      <p> Log Type: stdout <pre>stdoutlog</pre> <pre>lastlog</pre>
+      """
+    Then check the extracted 'stderr' log should be 'lastlog'
+
+  Scenario: Decode the named and numeric HTML entities in the log
+    Given a Yarn log page with the content cell:
+      """
+      <p> Log Type: stderr <pre>List&lt;String&gt; &amp; &quot;Map&quot; &#39;&#x41;&#66;&#x1F600;&apos; &amp;lt; &unknown;</pre>
+      """
+    Then check the extracted 'stderr' log should be 'List<String> & "Map" 'AB😀' &lt; &unknown;'
+
+  Scenario: Keep the line breaks and the markup-like text in the log
+    Given a Yarn log page with the content cell:
+      """
+      <pre>line1
+      at Foo.bar(Foo.java:1) &lt;init&gt;
+      line3</pre>
+      """
+    Then check the extracted 'stderr' log should be 'line1\nat Foo.bar(Foo.java:1) <init>\nline3'
+
+  Scenario: Extract nothing from the page without the navigation cell
+    Given a Yarn log page without the navigation cell:
+      """
+      <html><body><p>Unable to locate 'stderr' log for container</p><pre>not a log</pre></body></html>
+      """
+    Then check the extracted 'stderr' log should be ''
+
+  Scenario: Take the plain text log response as is
+    Given mock Yarn log '/yarnui/10.0.0.15/node/containerlogs/container_e02_1492415936046_0015_01_000001/livy/stderr?start=0' responding plain text 'List&lt;String&gt; <pre>raw</pre>'
+    Then check getting Yarn log 'stderr' from '/yarnui/10.0.0.15/node/containerlogs/container_e02_1492415936046_0015_01_000001/livy' should be 'List&lt;String&gt; <pre>raw</pre>'
@@ -11,6 +11,7 @@ import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
 import com.google.gson.reflect.TypeToken;
 import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azure.hdinsight.metadata.ClusterCatalog;
 import com.microsoft.azure.hdinsight.metadata.ClusterMetaDataService;
 import com.microsoft.azure.hdinsight.sdk.cluster.*;
 import com.microsoft.azure.hdinsight.sdk.storage.implementation.HDStorageAccount;
@@ -27,10 +28,12 @@ import com.microsoft.tooling.msservices.components.DefaultLoader;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import rx.Observable;
+import rx.schedulers.Schedulers;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -40,6 +43,7 @@ import static java.util.Collections.emptyList;
 public class ClusterManagerEx implements ILogger {
 
     private static final String OSTYPE = "linux";
+    private static final int MAX_CONCURRENT_SUBSCRIPTIONS = 4;
 
     private static ClusterManagerEx instance = null;
 
@@ -56,6 +60,7 @@ public class ClusterManagerEx implements ILogger {
     private boolean isListAdditionalClusterSuccess = false;
     private boolean isListEmulatorClusterSuccess = false;
     private boolean isSelectedSubscriptionExist = false;
+    private final AtomicBoolean isCatalogLoaded = new AtomicBoolean(false);
 
     private ClusterManagerEx() {
     }
@@ -106,7 +111,7 @@ public class ClusterManagerEx implements ILogger {
 
     public ImmutableList<IClusterDetail> getClusterDetailsWithoutAsync(boolean isIgnoreErrorCluster) {
         final ImmutableList<IClusterDetail> cachedClusterDetails =
-                Optional.of(ClusterMetaDataService.getInstance().getCachedClusterDetails())
+                Optional.of(getCachedClusters())
                         .filter(clusters -> !clusters.isEmpty())
                         .orElseGet(this::getClusterDetails);
 
@@ -157,6 +162,19 @@ public class ClusterManagerEx implements ILogger {
         return ClusterMetaDataService.getInstance().getCachedClusterDetails();
     }
 
+    /**
+     * Load the linked clusters, emulator clusters and the clusters saved in {@link ClusterCatalog} to cache in IO
+     * thread, if nothing is cached yet. The catalog is loaded once only, the cache is updated by
+     * {@link #refreshClusterDetails()} after that.
+     * @return the observable of the cached cluster details, which emits once
+     */
+    public Observable<ImmutableList<IClusterDetail>> loadCachedClusters() {
+        return Observable.fromCallable(() -> getCachedClusters().isEmpty() && isCatalogLoaded.compareAndSet(false, true)
+                        ? setCatalogClusters(loadLocalClusters(), getSelectedSubscriptions())
+                        : getCachedClusters())
+                .subscribeOn(Schedulers.io());
+    }
+
     public Predicate<IClusterDetail> getHDInsightClusterFilterPredicate() {
         return clusterDetail -> clusterDetail instanceof ClusterDetail ||
                 clusterDetail instanceof HDInsightAdditionalClusterDetail ||
@@ -164,16 +182,6 @@ public class ClusterManagerEx implements ILogger {
                 clusterDetail instanceof EmulatorClusterDetail;
     }
 
-    synchronized Observable<List<ClusterDetail>> getSubscriptionHDInsightClustersOfType(List<Subscription> list) {
-        setSelectedSubscriptionExist(list.stream().anyMatch(Subscription::isSelected));
-        return ClusterManager.getInstance().getHDInsightClustersWithSpecificType(list, OSTYPE)
-                .doOnNext(clusters -> isListClusterSuccess = true)
-                .doOnError(err -> {
-                    log().warn("Error Refreshing HDInsight clusters. " + ExceptionUtils.getStackTrace(err));
-                    isListClusterSuccess = false;
-                });
-    }
-
     public List<IClusterDetail> getAdditionalClusterDetails() {
         return additionalClusterDetails;
     }
@@ -191,18 +199,18 @@ public class ClusterManagerEx implements ILogger {
     }
 
     @NotNull
-    List<ClusterDetail> getSubscriptionHDInsightClusters() {
+    List<Subscription> getSelectedSubscriptions() {
         final AzureAccount az = Azure.az(AzureAccount.class);
         if (!az.isLoggedIn()) {
-            return new ArrayList<>();
+            return emptyList();
         }
 
-        return Observable.fromCallable(() -> az.account().getSelectedSubscriptions())
-                .doOnError(err -> log().warn("Failed to list HDInsight Clusters: {}", err.getMessage()))
-                .flatMap(this::getSubscriptionHDInsightClustersOfType)
-                .onErrorResumeNext(Observable.just(new ArrayList<>()))
-                .toBlocking()
-                .singleOrDefault(new ArrayList<>());
+        try {
+            return az.account().getSelectedSubscriptions();
+        } catch (Exception err) {
+            log().warn("Failed to list HDInsight Clusters: {}", err.getMessage());
+            return emptyList();
+        }
     }
 
     /**
@@ -214,6 +222,48 @@ public class ClusterManagerEx implements ILogger {
      * @return all kinds of cluster details
      */
     public ImmutableList<IClusterDetail> getClusterDetails() {
+        return refreshClusterDetails().toBlocking().last();
+    }
+
+    /**
+     * Refresh all kinds of cluster details as {@link #getClusterDetails()}, without blocking. The cluster details
+     * saved in {@link ClusterCatalog} are emitted and set to cache at once, then the HDInsight clusters are listed for
+     * the selected subscriptions in parallel, and the merged cluster details are emitted and set to cache again each
+     * time a subscription is listed.
+     * @return the observable of all kinds of cluster details, which emits at least once
+     */
+    public Observable<ImmutableList<IClusterDetail>> refreshClusterDetails() {
+        return Observable.defer(() -> {
+            final List<IClusterDetail> localClusters = loadLocalClusters();
+            final List<Subscription> subscriptions = getSelectedSubscriptions();
+            setSelectedSubscriptionExist(subscriptions.stream().anyMatch(Subscription::isSelected));
+            if (!subscriptions.isEmpty()) {
+                ClusterCatalog.getInstance().retainSubscriptions(
+                        subscriptions.stream().map(Subscription::getId).collect(Collectors.toList()));
+            }
+
+            final AtomicBoolean isAllListed = new AtomicBoolean(true);
+            return Observable.from(subscriptions)
+                    .flatMap(subscription -> ClusterManager.getInstance()
+                                    .getHDInsightClustersWithSpecificType(subscription, OSTYPE)
+                                    .map(clusters -> setSubscriptionClusters(subscription, clusters))
+                                    .onErrorResumeNext(err -> {
+                                        log().warn("Error Refreshing HDInsight clusters of subscription " + subscription.getId()
+                                                + ". " + ExceptionUtils.getStackTrace(err));
+                                        isAllListed.set(false);
+                                        return Observable.empty();
+                                    }),
+                            MAX_CONCURRENT_SUBSCRIPTIONS)
+                    .startWith(Observable.fromCallable(() -> setCatalogClusters(localClusters, subscriptions)))
+                    .doOnCompleted(() -> isListClusterSuccess = isAllListed.get());
+        });
+    }
+
+    /**
+     * Load the linked clusters and emulator clusters, which are saved in IDE
+     */
+    @NotNull
+    private List<IClusterDetail> loadLocalClusters() {
         List<IClusterDetail> linkedClusters;
         if (!isListAdditionalClusterSuccess()) {
             try {
@@ -236,29 +286,65 @@ public class ClusterManagerEx implements ILogger {
             emulatorClusters = getEmulatorClusterDetails();
         }
 
-        // Get clusters from Subscription, an empty list for non-logged in user.
-        List<ClusterDetail> clusterDetailsFromSubscription = getSubscriptionHDInsightClusters();
-
-        // Sort the merged clusters before set it to cache, sorting algorithm is based on cluster name
-        ImmutableSortedSet<IClusterDetail> mergedClusters =
-                new ImmutableSortedSet.Builder<IClusterDetail>(ComparableCluster::compareTo)
-                        .addAll(linkedClusters)
-                        .addAll(emulatorClusters)
-                        .addAll(clusterDetailsFromSubscription)
-                        .build();
-
         synchronized (this) {
             setAdditionalClusterDetails(linkedClusters);
             isListAdditionalClusterSuccess = true;
 
             setEmulatorClusterDetails(emulatorClusters);
             isListEmulatorClusterSuccess = true;
+        }
 
-            setCachedClusters(mergedClusters.asList());
-            isListClusterSuccess = true;
+        final List<IClusterDetail> localClusters = new ArrayList<>(linkedClusters);
+        localClusters.addAll(emulatorClusters);
+        return localClusters;
+    }
 
-            return getCachedClusters();
+    /**
+     * Set the local clusters and the clusters of the selected subscriptions to cache. The clusters of a subscription
+     * already in cache are kept, otherwise the ones saved in {@link ClusterCatalog} are taken.
+     */
+    private synchronized ImmutableList<IClusterDetail> setCatalogClusters(@NotNull List<IClusterDetail> localClusters,
+                                                                         @NotNull List<Subscription> subscriptions) {
+        final List<IClusterDetail> clusters = new ArrayList<>(localClusters);
+        for (Subscription subscription : subscriptions) {
+            final List<IClusterDetail> cachedSubscriptionClusters = ClusterMetaDataService.getInstance().getCachedClusterDetails().stream()
+                    .filter(cluster -> isClusterOfSubscription(cluster, subscription))
+                    .collect(Collectors.toList());
+            clusters.addAll(cachedSubscriptionClusters.isEmpty()
+                    ? ClusterManager.getInstance().getCatalogHDInsightClusters(subscription)
+                    : cachedSubscriptionClusters);
         }
+
+        setCachedClusters(sortClusters(clusters));
+        return ClusterMetaDataService.getInstance().getCachedClusterDetails();
+    }
+
+    /**
+     * Replace the cached clusters of the subscription with the listed ones
+     */
+    private synchronized ImmutableList<IClusterDetail> setSubscriptionClusters(@NotNull Subscription subscription,
+                                                                              @NotNull List<ClusterDetail> subscriptionClusters) {
+        final List<IClusterDetail> clusters = ClusterMetaDataService.getInstance().getCachedClusterDetails().stream()
+                .filter(cluster -> !isClusterOfSubscription(cluster, subscription))
+                .collect(Collectors.toList());
+        clusters.addAll(subscriptionClusters);
+
+        setCachedClusters(sortClusters(clusters));
+        return ClusterMetaDataService.getInstance().getCachedClusterDetails();
+    }
+
+    private static boolean isClusterOfSubscription(@NotNull IClusterDetail cluster, @NotNull Subscription subscription) {
+        return cluster instanceof ClusterDetail && cluster.getSubscription() != null
+                && StringUtils.equals(cluster.getSubscription().getId(), subscription.getId());
+    }
+
+    // Sort the merged clusters before set it to cache, sorting algorithm is based on cluster name
+    @NotNull
+    private static List<IClusterDetail> sortClusters(@NotNull List<IClusterDetail> clusters) {
+        return new ImmutableSortedSet.Builder<IClusterDetail>(ComparableCluster::compareTo)
+                .addAll(clusters)
+                .build()
+                .asList();
     }
 
     public synchronized  void addEmulatorCluster(EmulatorClusterDetail emulatorClusterDetail) {
@@ -306,7 +392,7 @@ public class ClusterManagerEx implements ILogger {
     @Deprecated
     public int isHDInsightAdditionalStorageExist(String clusterName, String storageName) {
         final ImmutableList<IClusterDetail> cachedClusterDetails =
-                Optional.of(ClusterMetaDataService.getInstance().getCachedClusterDetails())
+                Optional.of(getCachedClusters())
                         .filter(clusters -> !clusters.isEmpty())
                         .orElseGet(this::getClusterDetails);
 
@@ -335,7 +421,7 @@ public class ClusterManagerEx implements ILogger {
 
     public boolean isEmulatorClusterExist(String clusterName) {
         final ImmutableList<IClusterDetail> cachedClusterDetails =
-                Optional.of(ClusterMetaDataService.getInstance().getCachedClusterDetails())
+                Optional.of(getCachedClusters())
                         .filter(clusters -> !clusters.isEmpty())
                         .orElseGet(this::getClusterDetails);
 
@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.metadata;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.reflect.TypeToken;
+import com.microsoft.azure.hdinsight.common.CommonConst;
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azure.hdinsight.sdk.cluster.ClusterRawInfo;
+import com.microsoft.azure.hdinsight.sdk.cluster.HDInsightNewAPI.HDInsightUserRoleType;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import com.microsoft.tooling.msservices.components.DefaultLoader;
+import org.apache.commons.lang3.StringUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * The HDInsight clusters listed by subscription, persisted in the application properties to be served at once when
+ * the IDE starts, before the subscriptions are listed again. The probe results of the clusters are kept with them,
+ * and reused until expired or the cluster is changed.
+ */
+public class ClusterCatalog implements ILogger {
+    public static final Duration PROBE_TTL = Duration.ofHours(24);
+    // a failed probe could be caused by a transient error, it's retried sooner
+    public static final Duration FAILED_PROBE_TTL = Duration.ofHours(1);
+
+    private static final ClusterCatalog instance = new ClusterCatalog(System::currentTimeMillis);
+
+    @NotNull
+    private final LongSupplier clockMillis;
+
+    // subscription id -> clusters of the subscription, loaded at the first access
+    @Nullable
+    private Map<String, List<CatalogCluster>> clustersBySubscription;
+
+    ClusterCatalog(@NotNull LongSupplier clockMillis) {
+        this.clockMillis = clockMillis;
+    }
+
+    public static ClusterCatalog getInstance() {
+        return instance;
+    }
+
+    @NotNull
+    public synchronized List<CatalogCluster> getClusters(@NotNull String subscriptionId) {
+        return getClustersBySubscription().getOrDefault(subscriptionId, emptyList());
+    }
+
+    /**
+     * @return the unexpired probe result of the cluster, if the cluster isn't changed since probed
+     */
+    public synchronized Optional<ProbeResult> getProbeResult(@NotNull String subscriptionId, @NotNull ClusterRawInfo rawInfo) {
+        final long now = clockMillis.getAsLong();
+        return getClusters(subscriptionId).stream()
+                .filter(cluster -> StringUtils.equals(cluster.getRawInfo().getId(), rawInfo.getId())
+                        && StringUtils.equals(cluster.getRawInfo().getEtag(), rawInfo.getEtag()))
+                .map(CatalogCluster::getProbeResult)
+                .filter(Objects::nonNull)
+                .filter(probeResult -> !probeResult.isExpired(now))
+                .findFirst();
+    }
+
+    public synchronized void updateClusters(@NotNull String subscriptionId, @NotNull List<CatalogCluster> clusters) {
+        getClustersBySubscription().put(subscriptionId, new ArrayList<>(clusters));
+        save();
+    }
+
+    /**
+     * Remove the clusters of the subscriptions not selected any more
+     */
+    public synchronized void retainSubscriptions(@NotNull Collection<String> subscriptionIds) {
+        if (getClustersBySubscription().keySet().retainAll(subscriptionIds)) {
+            save();
+        }
+    }
+
+    @NotNull
+    private Map<String, List<CatalogCluster>> getClustersBySubscription() {
+        if (clustersBySubscription == null) {
+            clustersBySubscription = load();
+        }
+
+        return clustersBySubscription;
+    }
+
+    @NotNull
+    private Map<String, List<CatalogCluster>> load() {
+        final String json = DefaultLoader.getIdeHelper().getApplicationProperty(CommonConst.HDINSIGHT_CLUSTER_CATALOG);
+        if (StringUtils.isBlank(json)) {
+            return new HashMap<>();
+        }
+
+        try {
+            final Map<String, List<CatalogCluster>> clusters = new Gson().fromJson(
+                    json, new TypeToken<HashMap<String, ArrayList<CatalogCluster>>>() { }.getType());
+
+            return clusters == null ? new HashMap<>() : clusters;
+        } catch (JsonSyntaxException e) {
+            // The catalog is a cache only, which is rebuilt when the subscriptions are listed
+            log().warn("Failed to load HDInsight cluster catalog, it's ignored.", e);
+
+            return new HashMap<>();
+        }
+    }
+
+    private void save() {
+        final String json = new Gson().toJson(getClustersBySubscription());
+        DefaultLoader.getIdeHelper().setApplicationProperty(CommonConst.HDINSIGHT_CLUSTER_CATALOG, json);
+    }
+
+    public static class CatalogCluster {
+        private ClusterRawInfo rawInfo;
+        @Nullable
+        private ProbeResult probeResult;
+
+        public CatalogCluster(@NotNull ClusterRawInfo rawInfo, @Nullable ProbeResult probeResult) {
+            this.rawInfo = rawInfo;
+            this.probeResult = probeResult;
+        }
+
+        @NotNull
+        public ClusterRawInfo getRawInfo() {
+            return rawInfo;
+        }
+
+        /**
+         * @return null if the cluster isn't probed, e.g. the HDInsight new SDK is disabled
+         */
+        @Nullable
+        public ProbeResult getProbeResult() {
+            return probeResult;
+        }
+    }
+
+    /**
+     * The result of probing the HDInsight new API and the authentication type of a cluster
+     */
+    public static class ProbeResult {
+        private boolean newApiSucceed;
+        @Nullable
+        private HDInsightUserRoleType roleType;
+        private boolean mfaEsp;
+        private long probedAtMillis;
+
+        public ProbeResult(boolean newApiSucceed, @Nullable HDInsightUserRoleType roleType, boolean mfaEsp) {
+            this(newApiSucceed, roleType, mfaEsp, System.currentTimeMillis());
+        }
+
+        public ProbeResult(boolean newApiSucceed, @Nullable HDInsightUserRoleType roleType, boolean mfaEsp, long probedAtMillis) {
+            this.newApiSucceed = newApiSucceed;
+            this.roleType = roleType;
+            this.mfaEsp = mfaEsp;
+            this.probedAtMillis = probedAtMillis;
+        }
+
+        public boolean isNewApiSucceed() {
+            return newApiSucceed;
+        }
+
+        /**
+         * @return the role type determined by the probe, null if the probe failed
+         */
+        @Nullable
+        public HDInsightUserRoleType getRoleType() {
+            return roleType;
+        }
+
+        public boolean isMfaEsp() {
+            return mfaEsp;
+        }
+
+        boolean isExpired(long nowMillis) {
+            final Duration ttl = newApiSucceed ? PROBE_TTL : FAILED_PROBE_TTL;
+
+            return nowMillis - probedAtMillis > ttl.toMillis();
+        }
+    }
+}
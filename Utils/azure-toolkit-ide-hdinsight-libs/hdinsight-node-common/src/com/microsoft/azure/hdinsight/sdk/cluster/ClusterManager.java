@@ -8,6 +8,7 @@ package com.microsoft.azure.hdinsight.sdk.cluster;
 import com.microsoft.azure.hdinsight.common.ClusterManagerEx;
 import com.microsoft.azure.hdinsight.common.CommonConst;
 import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azure.hdinsight.metadata.ClusterCatalog;
 import com.microsoft.azure.hdinsight.sdk.cluster.HDInsightNewAPI.ClusterOperationNewAPIImpl;
 import com.microsoft.azure.hdinsight.sdk.common.AuthType;
 import com.microsoft.azure.hdinsight.spark.common.SparkBatchSubmission;
@@ -20,8 +21,11 @@ import rx.schedulers.Schedulers;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.stream.Collectors;
 
 public class ClusterManager implements ILogger {
+    private static final int MAX_CONCURRENT_PROBES = 8;
+
     // Singleton Instance
     private static ClusterManager instance = null;
 
@@ -62,46 +66,106 @@ public class ClusterManager implements ILogger {
             List<Subscription> subscriptions,
             String osType) {
         return Observable.from(subscriptions)
-                .flatMap(subscriptionDetail ->
-                        Observable.fromCallable(() ->
-                                new ClusterOperationImpl().listCluster(subscriptionDetail))
-                                // Run time-consuming list clusters job in IO thread
-                                .subscribeOn(Schedulers.io())
-                                // Remove duplicate clusters that share the same cluster name
-                                .map(this::deduplicateClusters)
-                                .flatMap(Observable::from)
-                                // Extract RServer and Spark Cluster with required OS type we need
-                                .filter(clusterRawInfo -> {
-                                    ClusterType rawClusterType = ClusterDetail.getType(clusterRawInfo);
-                                    String rawOsType = ClusterDetail.getOSType(clusterRawInfo);
-                                    return (rawClusterType.equals(ClusterType.rserver)
-                                            || rawClusterType.equals(ClusterType.spark))
-                                                && StringUtils.equalsIgnoreCase(rawOsType, osType);
-                                })
-                                .flatMap(clusterRawInfo -> {
-                                    ClusterOperationNewAPIImpl probeClusterNewApiOperation = new ClusterOperationNewAPIImpl(subscriptionDetail);
-                                    if (isHDInsightNewSDKEnabled()) {
-                                        return isProbeNewApiSucceed(probeClusterNewApiOperation, clusterRawInfo)
-                                                // Run the time-consuming probe job concurrently in IO thread
-                                                .subscribeOn(Schedulers.io())
-                                                .map(isProbeSucceed -> isProbeSucceed
-                                                        ? (isMfaEspCluster(clusterRawInfo)
-                                                            ? new MfaClusterDetail(subscriptionDetail, clusterRawInfo, probeClusterNewApiOperation)
-                                                            : new ClusterDetail(subscriptionDetail, clusterRawInfo, probeClusterNewApiOperation))
-                                                        : new ClusterDetail(subscriptionDetail, clusterRawInfo, new ClusterOperationImpl()));
-                                    } else {
-                                        return Observable.just(new ClusterDetail(subscriptionDetail, clusterRawInfo, new ClusterOperationImpl()));
-                                    }
-                                })
-                )
-                .doOnNext(clusterDetail -> {
+                .flatMap(subscriptionDetail -> getHDInsightClustersWithSpecificType(subscriptionDetail, osType))
+                .flatMap(Observable::from)
+                .toList();
+    }
+
+    /**
+     * get hdinsight detailed cluster info list of the subscription with specific cluster type: Spark and RServer,
+     * the listed clusters and their probe results are saved to {@link ClusterCatalog}
+     *
+     * @param subscription
+     * @return detailed cluster info list with specific cluster type
+     */
+    public Observable<List<ClusterDetail>> getHDInsightClustersWithSpecificType(
+            Subscription subscription,
+            String osType) {
+        return Observable.fromCallable(() -> new ClusterOperationImpl().listCluster(subscription))
+                // Run time-consuming list clusters job in IO thread
+                .subscribeOn(Schedulers.io())
+                // Remove duplicate clusters that share the same cluster name
+                .map(this::deduplicateClusters)
+                .flatMap(Observable::from)
+                // Extract RServer and Spark Cluster with required OS type we need
+                .filter(clusterRawInfo -> {
+                    ClusterType rawClusterType = ClusterDetail.getType(clusterRawInfo);
+                    String rawOsType = ClusterDetail.getOSType(clusterRawInfo);
+                    return (rawClusterType.equals(ClusterType.rserver)
+                            || rawClusterType.equals(ClusterType.spark))
+                                && StringUtils.equalsIgnoreCase(rawOsType, osType);
+                })
+                .flatMap(clusterRawInfo -> probeCluster(subscription, clusterRawInfo)
+                        .map(probeResult -> new ClusterCatalog.CatalogCluster(clusterRawInfo, probeResult)),
+                        MAX_CONCURRENT_PROBES)
+                .toList()
+                .doOnNext(clusters -> ClusterCatalog.getInstance().updateClusters(subscription.getId(), clusters))
+                .map(clusters -> clusters.stream()
+                        .map(cluster -> createClusterDetail(subscription, cluster))
+                        .collect(Collectors.toList()))
+                .doOnNext(clusterDetails -> clusterDetails.forEach(clusterDetail -> {
                     String debugMsg = String.format("Thread: %s. Sub: %s. Cluster: %s",
                             Thread.currentThread().getName(),
                             clusterDetail.getSubscription().getName(),
                             clusterDetail.getName());
                     log().info(debugMsg);
-                })
-                .toList();
+                }));
+    }
+
+    /**
+     * get the hdinsight clusters of the subscription saved in {@link ClusterCatalog} when last listed, without
+     * requesting Azure
+     *
+     * @param subscription
+     * @return detailed cluster info list saved in catalog
+     */
+    @NotNull
+    public List<ClusterDetail> getCatalogHDInsightClusters(@NotNull Subscription subscription) {
+        return ClusterCatalog.getInstance().getClusters(subscription.getId()).stream()
+                .map(cluster -> createClusterDetail(subscription, cluster))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Probe the new API and authentication type of the cluster, the probe result saved in catalog is reused until
+     * expired
+     *
+     * @return the probe result, or null if the new SDK is disabled
+     */
+    private Observable<ClusterCatalog.ProbeResult> probeCluster(@NotNull Subscription subscription,
+                                                                @NotNull ClusterRawInfo clusterRawInfo) {
+        if (!isHDInsightNewSDKEnabled()) {
+            return Observable.just(null);
+        }
+
+        final Optional<ClusterCatalog.ProbeResult> cachedProbeResult =
+                ClusterCatalog.getInstance().getProbeResult(subscription.getId(), clusterRawInfo);
+        if (cachedProbeResult.isPresent()) {
+            return Observable.just(cachedProbeResult.get());
+        }
+
+        ClusterOperationNewAPIImpl probeClusterNewApiOperation = new ClusterOperationNewAPIImpl(subscription);
+        return isProbeNewApiSucceed(probeClusterNewApiOperation, clusterRawInfo)
+                // Run the time-consuming probe job concurrently in IO thread
+                .subscribeOn(Schedulers.io())
+                .map(isProbeSucceed -> isProbeSucceed
+                        ? new ClusterCatalog.ProbeResult(true, probeClusterNewApiOperation.getRoleType(), isMfaEspCluster(clusterRawInfo))
+                        : new ClusterCatalog.ProbeResult(false, null, false));
+    }
+
+    @NotNull
+    private ClusterDetail createClusterDetail(@NotNull Subscription subscription,
+                                              @NotNull ClusterCatalog.CatalogCluster cluster) {
+        final ClusterCatalog.ProbeResult probeResult = cluster.getProbeResult();
+        if (!isHDInsightNewSDKEnabled() || probeResult == null || !probeResult.isNewApiSucceed()) {
+            return new ClusterDetail(subscription, cluster.getRawInfo(), new ClusterOperationImpl());
+        }
+
+        ClusterOperationNewAPIImpl clusterNewApiOperation = new ClusterOperationNewAPIImpl(subscription);
+        clusterNewApiOperation.setRoleType(probeResult.getRoleType());
+        return probeResult.isMfaEsp()
+                ? new MfaClusterDetail(subscription, cluster.getRawInfo(), clusterNewApiOperation)
+                : new ClusterDetail(subscription, cluster.getRawInfo(), clusterNewApiOperation);
     }
 
     public boolean isHDInsightNewSDKEnabled() {
@@ -10,13 +10,9 @@ import com.microsoft.azuretools.authmanage.CommonSettings;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import org.apache.http.Header;
-import org.apache.http.HttpEntity;
-import org.apache.http.NameValuePair;
 import org.apache.http.client.methods.HttpRequestBase;
-import rx.Observable;
 
 import java.util.Arrays;
-import java.util.List;
 
 public class AzureDataLakeHttpObservable extends AzureHttpObservable {
     public AzureDataLakeHttpObservable(@NotNull String tenantId, @NotNull String apiVersion) {
@@ -31,22 +27,19 @@ public class AzureDataLakeHttpObservable extends AzureHttpObservable {
         return endpoint != null ? endpoint : "https://datalake.azure.net/";
     }
 
+    @NotNull
     @Override
-    public Observable<HttpResponse> requestWithHttpResponse(HttpRequestBase httpRequest, HttpEntity entity, List<NameValuePair> parameters, List<Header> addOrReplaceHeaders) {
-        return super.requestWithHttpResponse(httpRequest, entity, parameters, addOrReplaceHeaders)
-                .onErrorResumeNext(err -> {
-                    if (err instanceof HttpErrorStatus) {
-                        HttpErrorStatus status = (HttpErrorStatus) err;
-                        return Observable.error(
-                                new SparkAzureDataLakePoolServiceException(
-                                        status.getStatusCode(),
-                                        err.getMessage(),
-                                        getRequestIdFromHeaders(status.getHeaders()),
-                                        httpRequest.getURI()));
-                    } else {
-                        return Observable.error(err);
-                    }
-                });
+    protected Throwable convertHttpError(@NotNull HttpRequestBase httpRequest, @NotNull Throwable err) {
+        if (err instanceof HttpErrorStatus) {
+            HttpErrorStatus status = (HttpErrorStatus) err;
+            return new SparkAzureDataLakePoolServiceException(
+                    status.getStatusCode(),
+                    err.getMessage(),
+                    getRequestIdFromHeaders(status.getHeaders()),
+                    httpRequest.getURI());
+        }
+
+        return err;
     }
 
     @NotNull
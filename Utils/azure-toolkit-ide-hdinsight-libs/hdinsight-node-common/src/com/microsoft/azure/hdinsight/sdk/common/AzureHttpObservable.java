@@ -12,7 +12,6 @@ import com.microsoft.azuretools.authmanage.CommonSettings;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.azuretools.telemetry.AppInsightsClient;
 import org.apache.http.NameValuePair;
-import org.apache.http.impl.client.HttpClients;
 
 import java.io.IOException;
 import java.util.List;
@@ -41,11 +40,7 @@ public class AzureHttpObservable extends OAuthTokenHttpObservable {
         this.tenantId = tenantId;
         this.apiVersion = apiVersion;
 
-        setHttpClient(HttpClients.custom()
-                .useSystemProperties()
-                .setDefaultCookieStore(getCookieStore())
-                .setDefaultRequestConfig(getDefaultRequestConfig())
-                .build());
+        setHttpClient(createSharedPoolHttpClient(false));
 
         azureDefaultParameters = super.getDefaultParameters();
 
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.common;
+
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import com.microsoft.azuretools.service.ServiceManager;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.DefaultHostnameVerifier;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.IdleConnectionEvictor;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.ssl.SSLContextBuilder;
+import org.apache.http.ssl.TrustStrategy;
+
+import javax.net.ssl.SSLContext;
+import java.security.KeyManagementException;
+import java.security.KeyStoreException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The process-wide HTTP connection pools shared by all {@link HttpObservable} instances, to reuse the TCP/TLS
+ * connections to the same Livy, Ambari or Azure gateway across objects. Each {@link HttpObservable} still has its
+ * own client, cookie store and default headers.
+ */
+public class HttpConnectionPools implements ILogger {
+    static final int DEFAULT_MAX_PER_ROUTE = Integer.getInteger("http.maxConnections", 10);
+    private static final int DEFAULT_MAX_TOTAL = DEFAULT_MAX_PER_ROUTE * 10;
+    private static final int VALIDATE_AFTER_INACTIVITY_MS = 2000;
+    private static final long IDLE_EVICT_CHECK_SECONDS = 10;
+    private static final long MAX_IDLE_SECONDS = 60;
+    private static final long DEFAULT_KEEP_ALIVE_MS = 30 * 1000;
+
+    /**
+     * The max milliseconds to wait for a connection leased from the shared pool, so that the requests to a route whose
+     * connections are all held by slow or leaked responses fail instead of waiting forever
+     */
+    public static final int CONNECTION_REQUEST_TIMEOUT_MS =
+            Integer.getInteger("http.connectionRequestTimeout", 60 * 1000);
+
+    /**
+     * The kind of SSL socket factory a pool is built with, since a shared connection manager owns the socket factory
+     */
+    public enum SocketFactoryKind {
+        // The system default SSL socket factory
+        SYSTEM,
+        // The IDE trust strategy with the host name verification
+        IDE_TRUSTED,
+        // The IDE trust strategy without the host name verification
+        IDE_TRUSTED_NO_HOSTNAME_VERIFICATION
+    }
+
+    /**
+     * Keep connections alive as the server's Keep-Alive header says, or for 30 seconds by default
+     */
+    public static final ConnectionKeepAliveStrategy KEEP_ALIVE_STRATEGY = (response, context) -> {
+        final long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+
+        return keepAlive > 0 ? keepAlive : DEFAULT_KEEP_ALIVE_MS;
+    };
+
+    @NotNull
+    private final Map<SocketFactoryKind, PoolingHttpClientConnectionManager> pools = new ConcurrentHashMap<>();
+
+    private HttpConnectionPools() {
+    }
+
+    private static final class HttpConnectionPoolsHolder {
+        private static final HttpConnectionPools INSTANCE = new HttpConnectionPools();
+    }
+
+    public static HttpConnectionPools getInstance() {
+        return HttpConnectionPoolsHolder.INSTANCE;
+    }
+
+    /**
+     * Get the shared connection manager
+     *
+     * @param useIdeTrustStrategy true to use the IDE trust strategy to verify server certificates if it's provided,
+     *                            false to use the system default SSL socket factory
+     * @return the shared connection manager, which should be set with
+     *         {@code HttpClientBuilder.setConnectionManagerShared(true)}
+     */
+    @NotNull
+    public PoolingHttpClientConnectionManager getConnectionManager(boolean useIdeTrustStrategy) {
+        final TrustStrategy ts = useIdeTrustStrategy ? ServiceManager.getServiceProvider(TrustStrategy.class) : null;
+        final SocketFactoryKind kind = ts == null
+                ? SocketFactoryKind.SYSTEM
+                : (HttpObservable.isSSLCertificateValidationDisabled()
+                        ? SocketFactoryKind.IDE_TRUSTED_NO_HOSTNAME_VERIFICATION
+                        : SocketFactoryKind.IDE_TRUSTED);
+
+        return pools.computeIfAbsent(kind, k -> createConnectionManager(k, ts));
+    }
+
+    @NotNull
+    private PoolingHttpClientConnectionManager createConnectionManager(@NotNull SocketFactoryKind kind,
+                                                                       @Nullable TrustStrategy ts) {
+        SSLConnectionSocketFactory sslSocketFactory = kind == SocketFactoryKind.SYSTEM || ts == null
+                ? null
+                : createSSLSocketFactory(ts, kind == SocketFactoryKind.IDE_TRUSTED_NO_HOSTNAME_VERIFICATION);
+
+        if (sslSocketFactory == null) {
+            sslSocketFactory = SSLConnectionSocketFactory.getSystemSocketFactory();
+        }
+
+        final Registry<ConnectionSocketFactory> socketFactoryRegistry = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", sslSocketFactory)
+                .build();
+
+        final PoolingHttpClientConnectionManager manager = new PoolingHttpClientConnectionManager(socketFactoryRegistry);
+        manager.setDefaultMaxPerRoute(DEFAULT_MAX_PER_ROUTE);
+        manager.setMaxTotal(DEFAULT_MAX_TOTAL);
+        manager.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY_MS);
+
+        // The evictor thread is a daemon one, to close expired and long idle connections
+        new IdleConnectionEvictor(manager, IDLE_EVICT_CHECK_SECONDS, TimeUnit.SECONDS, MAX_IDLE_SECONDS, TimeUnit.SECONDS)
+                .start();
+
+        log().info("Created shared HTTP connection pool " + kind);
+
+        return manager;
+    }
+
+    @Nullable
+    private SSLConnectionSocketFactory createSSLSocketFactory(@NotNull TrustStrategy ts,
+                                                              boolean isHostnameVerificationDisabled) {
+        try {
+            final SSLContext sslContext = new SSLContextBuilder()
+                    .loadTrustMaterial(ts)
+                    .build();
+
+            return new SSLConnectionSocketFactory(
+                    sslContext,
+                    new String[] { "TLSv1.2", "TLSv1.3" },
+                    null,
+                    isHostnameVerificationDisabled ? NoopHostnameVerifier.INSTANCE : new DefaultHostnameVerifier());
+        } catch (NoSuchAlgorithmException | KeyManagementException | KeyStoreException e) {
+            log().error("Prepare SSL Context for HTTPS failure. " + ExceptionUtils.getStackTrace(e));
+        }
+
+        return null;
+    }
+
+    /**
+     * Get the leased, available and pending connections statistics of every route in the shared pools
+     *
+     * @return the map from "pool kind: route" to its statistics
+     */
+    @NotNull
+    public Map<String, PoolStats> getRouteStats() {
+        final Map<String, PoolStats> stats = new TreeMap<>();
+
+        pools.forEach((kind, manager) -> {
+            for (final HttpRoute route : manager.getRoutes()) {
+                stats.put(kind + ": " + route, manager.getStats(route));
+            }
+        });
+
+        return stats;
+    }
+
+    /**
+     * Get the total connections statistics of all shared pools
+     *
+     * @return the map from the pool kind to its total statistics
+     */
+    @NotNull
+    public Map<SocketFactoryKind, PoolStats> getTotalStats() {
+        final Map<SocketFactoryKind, PoolStats> stats = new TreeMap<>();
+
+        pools.forEach((kind, manager) -> stats.put(kind, manager.getTotalStats()));
+
+        return stats;
+    }
+}
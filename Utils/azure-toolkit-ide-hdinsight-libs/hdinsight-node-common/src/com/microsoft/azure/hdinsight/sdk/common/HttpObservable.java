@@ -5,6 +5,8 @@
 
 package com.microsoft.azure.hdinsight.sdk.common;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.microsoft.azure.hdinsight.common.CommonConst;
 import com.microsoft.azure.hdinsight.common.StreamUtil;
 import com.microsoft.azure.hdinsight.common.logger.ILogger;
@@ -12,11 +14,9 @@ import com.microsoft.azure.hdinsight.sdk.common.errorresponse.*;
 import com.microsoft.azure.hdinsight.sdk.rest.ObjectConvertUtils;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.azuretools.azurecommons.helpers.Nullable;
-import com.microsoft.azuretools.service.ServiceManager;
 import com.microsoft.tooling.msservices.components.DefaultLoader;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.http.*;
 import org.apache.http.client.CookieStore;
 import org.apache.http.client.config.AuthSchemes;
@@ -25,9 +25,6 @@ import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.*;
 import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.client.utils.URIBuilder;
-import org.apache.http.conn.ssl.DefaultHostnameVerifier;
-import org.apache.http.conn.ssl.NoopHostnameVerifier;
-import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.impl.client.BasicCookieStore;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
@@ -35,19 +32,14 @@ import org.apache.http.message.BasicHeader;
 import org.apache.http.message.HeaderGroup;
 import org.apache.http.protocol.BasicHttpContext;
 import org.apache.http.protocol.HttpContext;
-import org.apache.http.ssl.SSLContextBuilder;
-import org.apache.http.ssl.TrustStrategy;
 import org.apache.http.util.EntityUtils;
 import rx.Observable;
 import rx.exceptions.Exceptions;
 
-import javax.net.ssl.SSLContext;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.UnknownServiceException;
 import java.nio.charset.StandardCharsets;
-import java.security.KeyManagementException;
-import java.security.KeyStoreException;
-import java.security.NoSuchAlgorithmException;
 import java.util.*;
 
 import static rx.exceptions.Exceptions.propagate;
@@ -106,14 +98,10 @@ public class HttpObservable implements ILogger {
                 .setCookieSpec(CookieSpecs.DEFAULT)
                 .setTargetPreferredAuthSchemes(Arrays.asList(AuthSchemes.KERBEROS, AuthSchemes.DIGEST, AuthSchemes.BASIC))
                 .setProxyPreferredAuthSchemes(Collections.singletonList(AuthSchemes.BASIC))
+                .setConnectionRequestTimeout(HttpConnectionPools.CONNECTION_REQUEST_TIMEOUT_MS)
                 .build();
 
-        this.httpClient = HttpClients.custom()
-                .useSystemProperties()
-                .setDefaultCookieStore(getCookieStore())
-                .setDefaultRequestConfig(getDefaultRequestConfig())
-                .setSSLSocketFactory(createSSLSocketFactory())
-                .build();
+        this.httpClient = createSharedPoolHttpClient(true);
     }
 
     /**
@@ -132,12 +120,7 @@ public class HttpObservable implements ILogger {
                     HttpHeaders.AUTHORIZATION, String.format("%s %s", "Basic", new String(encodedAuth))));
         }
 
-        this.httpClient = HttpClients.custom()
-                .useSystemProperties()
-                .setDefaultCookieStore(getCookieStore())
-                .setDefaultRequestConfig(getDefaultRequestConfig())
-                .setSSLSocketFactory(createSSLSocketFactory())
-                .build();
+        this.httpClient = createSharedPoolHttpClient(true);
     }
 
     /*
@@ -243,29 +226,30 @@ public class HttpObservable implements ILogger {
         }
     }
 
-    private SSLConnectionSocketFactory createSSLSocketFactory() {
-        TrustStrategy ts = ServiceManager.getServiceProvider(TrustStrategy.class);
-        SSLConnectionSocketFactory sslSocketFactory = null;
-
-        if (ts != null) {
-            try {
-                SSLContext sslContext = new SSLContextBuilder()
-                        .loadTrustMaterial(ts)
+    /**
+     * Create a HTTP client with this instance's cookie store and default request config, whose connections are from
+     * the process-wide shared pool of {@link HttpConnectionPools}
+     *
+     * @param useIdeTrustStrategy true to verify server certificates with the IDE trust strategy
+     * @return the HTTP client, closing which won't shut down the shared pool
+     */
+    @NotNull
+    protected CloseableHttpClient createSharedPoolHttpClient(boolean useIdeTrustStrategy) {
+        // Never wait for a pooled connection forever, even if the subclass replaced the default request config
+        final RequestConfig requestConfig = getDefaultRequestConfig().getConnectionRequestTimeout() > 0
+                ? getDefaultRequestConfig()
+                : RequestConfig.copy(getDefaultRequestConfig())
+                        .setConnectionRequestTimeout(HttpConnectionPools.CONNECTION_REQUEST_TIMEOUT_MS)
                         .build();
 
-                sslSocketFactory = new SSLConnectionSocketFactory(
-                        sslContext,
-                        new String[] { "TLSv1.2", "TLSv1.3" },
-                        null,
-                        HttpObservable.isSSLCertificateValidationDisabled()
-                                ? NoopHostnameVerifier.INSTANCE
-                                : new DefaultHostnameVerifier());
-
-            } catch (NoSuchAlgorithmException | KeyManagementException | KeyStoreException e) {
-                log().error("Prepare SSL Context for HTTPS failure. " + ExceptionUtils.getStackTrace(e));
-            }
-        }
-        return sslSocketFactory;
+        return HttpClients.custom()
+                .useSystemProperties()
+                .setDefaultCookieStore(getCookieStore())
+                .setDefaultRequestConfig(requestConfig)
+                .setConnectionManager(HttpConnectionPools.getInstance().getConnectionManager(useIdeTrustStrategy))
+                .setConnectionManagerShared(true)
+                .setKeepAliveStrategy(HttpConnectionPools.KEEP_ALIVE_STRATEGY)
+                .build();
     }
 
     @NotNull
@@ -320,14 +304,116 @@ public class HttpObservable implements ILogger {
                     }
                 },
                 // Resource dispose
+                HttpObservable::closeQuietly);
+    }
+
+    /**
+     * Helper to deserialize the closeable stream good Http response (2xx) into the specified type directly from the
+     * entity content stream, without materializing it into a String.
+     * If the response is bad, propagate a HttpResponseException
+     *
+     * @param closeableHttpResponse the source closeable stream
+     * @param clazz the target type to convert
+     * @param <T> the target type
+     * @return the specified type class instance
+     */
+    public static <T> Observable<T> toObjectOnlyOkResponse(CloseableHttpResponse closeableHttpResponse,
+                                                           Class<T> clazz) {
+        return Observable.using(
+                // Resource factory
+                () -> closeableHttpResponse,
+                // Observable factory
                 streamResp -> {
                     try {
-                        streamResp.close();
-                    } catch (IOException ignore) {
-                        // The connection will be closed automatically after timeout,
-                        // the exception in closing can be ignored.
+                        StatusLine status = streamResp.getStatusLine();
+
+                        if (status.getStatusCode() >= 300) {
+                            return Observable.error(classifyHttpError(streamResp));
+                        }
+
+                        final HttpEntity entity = streamResp.getEntity();
+                        if (entity == null) {
+                            return Observable.error(new HDIException("Unknown HTTP server response: empty content"));
+                        }
+
+                        try (final InputStream content = entity.getContent()) {
+                            return ObjectConvertUtils.convertJsonStreamToObject(content, clazz)
+                                    .map(Observable::just)
+                                    .orElseGet(() -> Observable.error(
+                                            new HDIException("Unknown HTTP server response: null content")));
+                        }
+                    } catch (IOException e) {
+                        return Observable.error(e);
                     }
-                });
+                },
+                // Resource dispose
+                HttpObservable::closeQuietly);
+    }
+
+    /**
+     * Helper to emit the elements of a JSON array in the closeable stream good Http response (2xx) one by one, while
+     * reading the entity content stream. If the response is bad, propagate a HttpResponseException
+     *
+     * @param closeableHttpResponse the source closeable stream
+     * @param arrayPointer the JSON pointer of the array, such as `/apps/app`, null or empty for the root
+     * @param clazz the array element type
+     * @param <T> the array element type
+     * @return the array elements, or empty if the array is absent
+     */
+    public static <T> Observable<T> toArrayElementsOnlyOkResponse(CloseableHttpResponse closeableHttpResponse,
+                                                                  @Nullable String arrayPointer,
+                                                                  Class<T> clazz) {
+        return Observable.using(
+                // Resource factory
+                () -> closeableHttpResponse,
+                // Observable factory
+                streamResp -> {
+                    try {
+                        StatusLine status = streamResp.getStatusLine();
+
+                        if (status.getStatusCode() >= 300) {
+                            return Observable.error(classifyHttpError(streamResp));
+                        }
+                    } catch (IOException e) {
+                        return Observable.error(e);
+                    }
+
+                    return Observable.create(ob -> {
+                        final HttpEntity entity = streamResp.getEntity();
+                        if (entity == null) {
+                            ob.onCompleted();
+                            return;
+                        }
+
+                        try (final InputStream content = entity.getContent()) {
+                            final Optional<JsonParser> arrayParser =
+                                    ObjectConvertUtils.openJsonArray(content, arrayPointer);
+
+                            if (arrayParser.isPresent()) {
+                                try (final JsonParser parser = arrayParser.get()) {
+                                    while (!ob.isUnsubscribed() && parser.nextToken() != JsonToken.END_ARRAY) {
+                                        ob.onNext(parser.readValueAs(clazz));
+                                    }
+                                }
+                            }
+
+                            ob.onCompleted();
+                        } catch (IOException e) {
+                            ob.onError(e);
+                        }
+                    });
+                },
+                // Resource dispose
+                HttpObservable::closeQuietly);
+    }
+
+    private static void closeQuietly(@NotNull CloseableHttpResponse streamResp) {
+        try {
+            streamResp.close();
+        } catch (IOException ignore) {
+            // The connection will be closed automatically after timeout,
+            // the exception in closing can be ignored.
+        }
     }
 
     /**
@@ -393,7 +479,44 @@ public class HttpObservable implements ILogger {
                                                             final List<NameValuePair> parameters,
                                                             final List<Header> addOrReplaceHeaders) {
         return request(httpRequest, entity, parameters, addOrReplaceHeaders)
-                .flatMap(HttpObservable::toStringOnlyOkResponse);
+                .flatMap(HttpObservable::toStringOnlyOkResponse)
+                .onErrorResumeNext(err -> Observable.error(convertHttpError(httpRequest, err)));
+    }
+
+    /*
+     * RESTful API operations with the JSON response deserialized from the content stream
+     */
+    public <T> Observable<T> requestWithJsonObject(@NotNull final HttpRequestBase httpRequest,
+                                                   @Nullable final HttpEntity entity,
+                                                   final List<NameValuePair> parameters,
+                                                   final List<Header> addOrReplaceHeaders,
+                                                   @NotNull final Class<T> clazz) {
+        return request(httpRequest, entity, parameters, addOrReplaceHeaders)
+                .flatMap(resp -> toObjectOnlyOkResponse(resp, clazz))
+                .onErrorResumeNext(err -> Observable.error(convertHttpError(httpRequest, err)));
+    }
+
+    public <T> Observable<T> requestWithJsonArrayElements(@NotNull final HttpRequestBase httpRequest,
+                                                          @Nullable final HttpEntity entity,
+                                                          final List<NameValuePair> parameters,
+                                                          final List<Header> addOrReplaceHeaders,
+                                                          @Nullable final String arrayPointer,
+                                                          @NotNull final Class<T> clazz) {
+        return request(httpRequest, entity, parameters, addOrReplaceHeaders)
+                .flatMap(resp -> toArrayElementsOnlyOkResponse(resp, arrayPointer, clazz))
+                .onErrorResumeNext(err -> Observable.error(convertHttpError(httpRequest, err)));
+    }
+
+    /**
+     * Hook to convert the request error, such as the {@link HttpErrorStatus}, into a service specified one
+     *
+     * @param httpRequest the request failed
+     * @param err the error
+     * @return the converted error, the default is the error itself
+     */
+    @NotNull
+    protected Throwable convertHttpError(@NotNull final HttpRequestBase httpRequest, @NotNull final Throwable err) {
+        return err;
     }
 
     public Observable<HttpResponse> head(@NotNull final String uri,
@@ -406,8 +529,26 @@ public class HttpObservable implements ILogger {
                                  final List<NameValuePair> parameters,
                                  final List<Header> addOrReplaceHeaders,
                                  @NotNull final Class<T> clazz) {
-        return requestWithHttpResponse(new HttpGet(uri), null, parameters, addOrReplaceHeaders)
-                .map(resp -> this.convertJsonResponseToObject(resp, clazz));
+        return requestWithJsonObject(new HttpGet(uri), null, parameters, addOrReplaceHeaders, clazz);
+    }
+
+    /**
+     * GET a JSON array and emit its elements one by one while the response content is streaming in
+     *
+     * @param uri the URI to GET
+     * @param parameters the request parameters
+     * @param addOrReplaceHeaders the request headers to add or replace
+     * @param arrayPointer the JSON pointer of the array in the response, such as `/apps/app`, null for the root
+     * @param clazz the array element type
+     * @param <T> the array element type
+     * @return the array elements
+     */
+    public <T> Observable<T> getElements(@NotNull final String uri,
+                                         final List<NameValuePair> parameters,
+                                         final List<Header> addOrReplaceHeaders,
+                                         @Nullable final String arrayPointer,
+                                         @NotNull final Class<T> clazz) {
+        return requestWithJsonArrayElements(new HttpGet(uri), null, parameters, addOrReplaceHeaders, arrayPointer, clazz);
     }
 
     public <T> Observable<T> put(@NotNull final String uri,
@@ -415,8 +556,7 @@ public class HttpObservable implements ILogger {
                                  final List<NameValuePair> parameters,
                                  final List<Header> addOrReplaceHeaders,
                                  @NotNull final Class<T> clazz) {
-        return requestWithHttpResponse(new HttpPut(uri), entity, parameters, addOrReplaceHeaders)
-                .map(resp -> this.convertJsonResponseToObject(resp, clazz));
+        return requestWithJsonObject(new HttpPut(uri), entity, parameters, addOrReplaceHeaders, clazz);
     }
 
     public <T> Observable<T> post(@NotNull final String uri,
@@ -424,8 +564,7 @@ public class HttpObservable implements ILogger {
                                   final List<NameValuePair> parameters,
                                   final List<Header> addOrReplaceHeaders,
                                   @NotNull final Class<T> clazz) {
-        return requestWithHttpResponse(new HttpPost(uri), entity, parameters, addOrReplaceHeaders)
-                .map(resp -> this.convertJsonResponseToObject(resp, clazz));
+        return requestWithJsonObject(new HttpPost(uri), entity, parameters, addOrReplaceHeaders, clazz);
     }
 
     public Observable<HttpResponse> delete(@NotNull final String uri,
@@ -439,8 +578,7 @@ public class HttpObservable implements ILogger {
                                    final List<NameValuePair> parameters,
                                    final List<Header> addOrReplaceHeaders,
                                    @NotNull final Class<T> clazz) {
-        return requestWithHttpResponse(new HttpPatch(uri), entity, parameters, addOrReplaceHeaders)
-                .map(resp -> this.convertJsonResponseToObject(resp, clazz));
+        return requestWithJsonObject(new HttpPatch(uri), entity, parameters, addOrReplaceHeaders, clazz);
     }
 
     public Observable<CloseableHttpResponse> executeReqAndCheckStatus(HttpRequestBase httpRequest,
@@ -452,7 +590,9 @@ public class HttpObservable implements ILogger {
                 .doOnNext(resp -> {
                     int statusCode = resp.getStatusLine().getStatusCode();
                     if (statusCode != validStatueCode) {
-                        Exceptions.propagate(new UnknownServiceException(
+                        // The response isn't emitted to the caller, release its connection back to the shared pool
+                        closeQuietly(resp);
+                        throw Exceptions.propagate(new UnknownServiceException(
                                 String.format("Exceute request with unexpected code %s and resp %s", statusCode, resp)
                         ));
                     }
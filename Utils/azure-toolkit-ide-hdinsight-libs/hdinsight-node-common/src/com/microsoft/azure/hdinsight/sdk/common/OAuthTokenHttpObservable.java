@@ -10,7 +10,6 @@ import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import org.apache.http.Header;
 import org.apache.http.client.config.CookieSpecs;
 import org.apache.http.client.config.RequestConfig;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.message.BasicHeader;
 
 import java.io.IOException;
@@ -36,13 +35,10 @@ public class OAuthTokenHttpObservable extends HttpObservable {
 
         setDefaultRequestConfig(RequestConfig.custom()
                 .setCookieSpec(CookieSpecs.DEFAULT)
+                .setConnectionRequestTimeout(HttpConnectionPools.CONNECTION_REQUEST_TIMEOUT_MS)
                 .build());
 
-        setHttpClient(HttpClients.custom()
-                .useSystemProperties()
-                .setDefaultCookieStore(getCookieStore())
-                .setDefaultRequestConfig(getDefaultRequestConfig())
-                .build());
+        setHttpClient(createSharedPoolHttpClient(false));
     }
 
     @NotNull
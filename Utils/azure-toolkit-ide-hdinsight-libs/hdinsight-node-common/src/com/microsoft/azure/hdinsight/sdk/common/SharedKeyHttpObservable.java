@@ -21,6 +21,7 @@ import java.io.IOException;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.UUID;
@@ -61,7 +62,8 @@ public class SharedKeyHttpObservable extends HttpObservable {
                                                      @Nullable final HttpEntity entity,
                                                      final List<NameValuePair> parameters,
                                                      final List<Header> addOrReplaceHeaders) {
-        // We add necessary information to a temporary header group which is used to generate shared keys
+        // We add necessary information to a temporary header group which is used to generate shared keys. The
+        // headers are per request, since the requests could be sent concurrently, such as appending blocks.
         final HeaderGroup headerGroup = new HeaderGroup();
         headerGroup.setHeaders(getDefaultHeaderGroup().getAllHeaders());
         if (entity != null) {
@@ -70,12 +72,17 @@ public class SharedKeyHttpObservable extends HttpObservable {
             // cannot be added to default header group in case of duplication.
             headerGroup.addHeader(new BasicHeader("Content-Length", String.valueOf(entity.getContentLength())));
         }
-        ofNullable(addOrReplaceHeaders).orElse(emptyList()).forEach(headerGroup::addHeader);
+        ofNullable(addOrReplaceHeaders).orElse(emptyList()).forEach(headerGroup::updateHeader);
+        if (entity != null) {
+            // The content type is updated by entity when executing
+            ofNullable(entity.getContentType()).ifPresent(headerGroup::updateHeader);
+        }
         String key = cred.generateSharedKey(httpRequest, headerGroup, ofNullable(parameters).orElse(emptyList()));
 
-        getDefaultHeaderGroup().updateHeader(new BasicHeader("Authorization", key));
+        final List<Header> headers = new ArrayList<>(ofNullable(addOrReplaceHeaders).orElse(emptyList()));
+        headers.add(new BasicHeader("Authorization", key));
 
-        return super.request(httpRequest, entity, ofNullable(parameters).orElse(emptyList()), ofNullable(addOrReplaceHeaders).orElse(emptyList()));
+        return super.request(httpRequest, entity, ofNullable(parameters).orElse(emptyList()), headers);
     }
 
     @Override
@@ -17,7 +17,7 @@ import com.microsoft.azure.hdinsight.sdk.common.ODataParam;
 import com.microsoft.azure.hdinsight.sdk.rest.azure.datalake.analytics.accounts.models.DataLakeAnalyticsAccount;
 import com.microsoft.azure.hdinsight.sdk.rest.azure.datalake.analytics.accounts.models.DataLakeAnalyticsAccountBasic;
 import com.microsoft.azure.hdinsight.sdk.rest.azure.datalake.analytics.accounts.models.DataLakeStoreAccountInformation;
-import com.microsoft.azure.hdinsight.sdk.rest.azure.datalake.analytics.job.models.JobInfoListResult;
+import com.microsoft.azure.hdinsight.sdk.rest.azure.datalake.analytics.job.models.JobInformation;
 import com.microsoft.azure.hdinsight.sdk.rest.azure.datalake.analytics.job.models.JobState;
 import com.microsoft.azure.hdinsight.sdk.rest.azure.serverless.spark.models.*;
 import com.microsoft.azure.hdinsight.spark.common.SparkSubmitStorageType;
@@ -215,22 +215,26 @@ public class AzureSparkServerlessAccount implements IClusterDetail, ClusterConta
     }
 
     public Observable<Integer> getJobDegreeOfParallelism() {
-        return getJobs()
-                .flatMap(jobList -> Observable.from(jobList.value()))
+        return getRunningJobs()
                 .map(jobInfo -> jobInfo.degreeOfParallelism())
                 .defaultIfEmpty(0)
                 .reduce((a, b) -> a + b);
     }
 
+    /**
+     * Get the running jobs, which are emitted one by one while the job list response is being read
+     *
+     * @return the running jobs of the account
+     */
     // TODO: handle job list pagination
-    public Observable<JobInfoListResult> getJobs() {
+    public Observable<JobInformation> getRunningJobs() {
         URI url = getUri().resolve(REST_SEGMENT_JOB_LIST);
         List<NameValuePair> parameters = Collections.singletonList(
                 ODataParam.filter(String.format("state eq '%s'", JobState.RUNNING.toString())));
 
         return new AzureDataLakeHttpObservable(subscription.getTenantId(), VERSION)
                 .withUuidUserAgent()
-                .get(url.toString(), parameters, null, JobInfoListResult.class);
+                .getElements(url.toString(), parameters, null, "/value", JobInformation.class);
     }
 
     @NotNull
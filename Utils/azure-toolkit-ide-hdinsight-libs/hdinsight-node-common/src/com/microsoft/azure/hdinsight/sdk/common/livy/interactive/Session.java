@@ -17,6 +17,7 @@ import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.exceptions.Sess
 import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.exceptions.StatementExecutionError;
 import com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.SessionKind;
 import com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.SessionState;
+import com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.StatementOutput;
 import com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.api.PostSessions;
 import com.microsoft.azure.hdinsight.spark.common.Deployable;
 import com.microsoft.azure.hdinsight.spark.common.log.SparkLogLine;
@@ -600,14 +601,32 @@ public abstract class Session implements AutoCloseable, Closeable, ILogger {
         return awaitReady()
                 .flatMap(session -> statement
                         .run()
-                        .map(result -> {
-                            if (!"ok".equalsIgnoreCase(result.getStatus())) {
-                                throw propagate(new StatementExecutionError(
-                                        result.getEname(), result.getEvalue(), result.getTraceback()));
-                            }
-
-                            return result.getData();
-                        }));
+                        .map(Session::getStatementResultData));
+    }
+
+    /**
+     * Submit the codes to run in the ready session without waiting for the result, the statements are run in the
+     * submitted order. Get the result by {@link #awaitStatementResult(Statement)}.
+     *
+     * @param codes the codes to run
+     * @return the submitted statement
+     */
+    public Observable<Statement> submitCodes(final String codes) {
+        return new Statement(this, new ByteArrayInputStream(codes.getBytes(StandardCharsets.UTF_8))).submit();
+    }
+
+    public Observable<Map<String, String>> awaitStatementResult(final Statement statement) {
+        return statement.awaitOutput()
+                .map(Session::getStatementResultData);
+    }
+
+    private static Map<String, String> getStatementResultData(final StatementOutput result) {
+        if (!"ok".equalsIgnoreCase(result.getStatus())) {
+            throw propagate(new StatementExecutionError(
+                    result.getEname(), result.getEvalue(), result.getTraceback()));
+        }
+
+        return result.getData();
     }
 
     public Observable<Session> awaitReady(final @Nullable Scheduler scheduler) {
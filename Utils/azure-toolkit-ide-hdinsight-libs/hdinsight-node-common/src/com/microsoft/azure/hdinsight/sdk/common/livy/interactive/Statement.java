@@ -27,6 +27,10 @@ import java.util.concurrent.TimeUnit;
 public class Statement implements ILogger {
     public static final String REST_SEGMENT_STATEMENTS = "statements";
 
+    // Most statements are done in a short time, poll them quickly at first and back off to 1 second
+    private static final long POLL_MIN_INTERVAL_MS = 100;
+    private static final long POLL_MAX_INTERVAL_MS = 1000;
+
     @NotNull
     private Session session;            // Statement owner session
 
@@ -41,6 +45,8 @@ public class Statement implements ILogger {
     @Nullable
     private StatementState lastState;   // Last statement state gotten
 
+    private double progress;            // Last statement progress gotten, from 0 to 1
+
     public Statement(@NotNull Session session, int id) {
         this(session, null);
 
@@ -70,6 +76,10 @@ public class Statement implements ILogger {
         this.lastState = lastState;
     }
 
+    public double getProgress() {
+        return progress;
+    }
+
     @NotNull
     public URI getUri() throws StatementNotStartException, SessionNotStartException {
         return URI.create(getSession().getUri().toString() + "/" + REST_SEGMENT_STATEMENTS + "/" + String.valueOf(getId()));
@@ -116,17 +126,42 @@ public class Statement implements ILogger {
      */
 
     public Observable<StatementOutput> run() {
+        return submit()
+                .flatMap(Statement::awaitOutput);
+    }
+
+    /**
+     * Post the statement codes to run without waiting for the result. Livy runs the statements of a session in
+     * the posted order, so several statements can be submitted before awaiting their outputs.
+     *
+     * @return the submitted statement with the ID
+     */
+    public Observable<Statement> submit() {
         return runStatementRequest()
-                .map(this::updateWithResponse)
-                .flatMap(statement -> statement.get()                    // Get statement result
-                        .repeatWhen(ob -> ob.delay(1, TimeUnit.SECONDS)) // The unmet state won't trigger retries,
-                                                                         // which is handled by repeatWhen()
-                        .takeUntil(Statement::isDone)
-                        .filter(Statement::isDone)
-                )
+                .map(this::updateWithResponse);
+    }
+
+    /**
+     * Wait for the submitted statement done, polling with the interval from 100 milliseconds doubling up to
+     * 1 second
+     *
+     * @return the statement output
+     */
+    public Observable<StatementOutput> awaitOutput() {
+        return get()                                                     // Get statement result
+                .repeatWhen(ob -> ob                                     // The unmet state won't trigger retries,
+                        .zipWith(Observable.range(0, Integer.MAX_VALUE), // which is handled by repeatWhen()
+                                 (ignored, polls) -> polls)
+                        .concatMap(polls -> Observable.timer(getPollDelayMillis(polls), TimeUnit.MILLISECONDS)))
+                .takeUntil(Statement::isDone)
+                .filter(Statement::isDone)
                 .map(Statement::getOutput);
     }
 
+    static long getPollDelayMillis(int polls) {
+        return Math.min(POLL_MAX_INTERVAL_MS, POLL_MIN_INTERVAL_MS << Math.min(polls, 10));
+    }
+
     public boolean isDoneWithError()
     {
         return getLastState() == StatementState.ERROR || getLastState() == StatementState.CANCELLED;
@@ -144,10 +179,23 @@ public class Statement implements ILogger {
         this.setId(statementResp.getId());
         this.setLastState(statementResp.getState());
         this.setOutput(statementResp.getOutput());
+        this.progress = statementResp.getProgress();
 
         return this;
     }
 
+    /**
+     * Update the statement with the one listed from the session
+     *
+     * @return whether the state or the progress is changed
+     */
+    boolean update(com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.Statement statementResp) {
+        final boolean isChanged = getLastState() != statementResp.getState() || getProgress() != statementResp.getProgress();
+        updateWithResponse(statementResp);
+
+        return isChanged;
+    }
+
     private Observable<com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.Statement> runStatementRequest() {
         if (getCodeInputStream() == null) {
             assert false : "Shouldn't run statement without codes input stream";
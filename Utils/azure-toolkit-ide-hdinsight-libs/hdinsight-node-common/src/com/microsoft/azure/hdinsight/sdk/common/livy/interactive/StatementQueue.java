@@ -0,0 +1,341 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.common.livy.interactive;
+
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.exceptions.StatementNotStartException;
+import com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.StatementState;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import org.apache.http.NameValuePair;
+import org.apache.http.message.BasicNameValuePair;
+import rx.Observable;
+import rx.Scheduler;
+import rx.Subscription;
+import rx.schedulers.Schedulers;
+import rx.subjects.AsyncSubject;
+import rx.subjects.PublishSubject;
+import rx.subjects.SerializedSubject;
+import rx.subjects.Subject;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.microsoft.azure.hdinsight.sdk.common.livy.interactive.Statement.REST_SEGMENT_STATEMENTS;
+
+/**
+ * The statements submitted to a ready session, which are posted in the submitted order without waiting for the
+ * previous ones done, with up to {@link #getMaxInFlight()} statements waiting or running in Livy. The statements in
+ * flight are polled together by one statements list request, in the interval from 100 milliseconds doubling up to
+ * 1 second while none of them changes.
+ *
+ * The running statements are emitted by {@link #getProgress()} when their progress changes, and the done statements
+ * are emitted by {@link #getResults()} in the submitted order.
+ */
+public class StatementQueue implements ILogger {
+    public static final int DEFAULT_MAX_IN_FLIGHT = 4;
+
+    @NotNull
+    private final Session session;
+
+    private final int maxInFlight;
+
+    @NotNull
+    private final Scheduler.Worker worker = Schedulers.io().createWorker();
+
+    // The statements submitted but not posted yet
+    @NotNull
+    private final Queue<PendingStatement> pendingStatements = new ArrayDeque<>();
+
+    // The statements posted but not emitted as results yet, in the submitted order
+    @NotNull
+    private final Deque<Statement> postedStatements = new ArrayDeque<>();
+
+    @NotNull
+    private final Subject<Statement, Statement> results = new SerializedSubject<>(PublishSubject.create());
+
+    @NotNull
+    private final Subject<Statement, Statement> progress = new SerializedSubject<>(PublishSubject.create());
+
+    private boolean isPosting = false;
+
+    private boolean isClosed = false;
+
+    // The polls in a row without any statement changed, to back off the poll interval
+    private int idlePolls = 0;
+
+    @Nullable
+    private Subscription scheduledPoll;
+
+    private long scheduledPollAtMillis = Long.MAX_VALUE;
+
+    public StatementQueue(@NotNull Session session) {
+        this(session, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    public StatementQueue(@NotNull Session session, int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("The max statements in flight should be positive: " + maxInFlight);
+        }
+
+        this.session = session;
+        this.maxInFlight = maxInFlight;
+    }
+
+    @NotNull
+    public Session getSession() {
+        return session;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * @return Observable: the done statements in the submitted order
+     */
+    @NotNull
+    public Observable<Statement> getResults() {
+        return results.asObservable();
+    }
+
+    /**
+     * @return Observable: the running statements whose progress changes
+     */
+    @NotNull
+    public Observable<Statement> getProgress() {
+        return progress.asObservable();
+    }
+
+    /**
+     * Submit the codes to run after the statements submitted before
+     *
+     * @param codes the codes to run
+     * @return Observable: the statement posted, or the posting error
+     */
+    @NotNull
+    public Observable<Statement> submit(@NotNull String codes) {
+        final AsyncSubject<Statement> posted = AsyncSubject.create();
+
+        synchronized (this) {
+            if (isClosed) {
+                return Observable.error(new IllegalStateException("The statement queue of session " + session.getName() + " is closed"));
+            }
+
+            pendingStatements.add(new PendingStatement(
+                    new Statement(session, new ByteArrayInputStream(codes.getBytes(StandardCharsets.UTF_8))), posted));
+        }
+
+        postNext();
+
+        return posted.asObservable();
+    }
+
+    /**
+     * Stop posting and polling the statements, the results and progress observables are completed
+     */
+    public void close() {
+        final List<PendingStatement> notPosted;
+
+        synchronized (this) {
+            if (isClosed) {
+                return;
+            }
+
+            isClosed = true;
+            notPosted = new ArrayList<>(pendingStatements);
+            pendingStatements.clear();
+        }
+
+        worker.unsubscribe();
+        notPosted.forEach(pending -> pending.posted.onError(
+                new IllegalStateException("The statement queue of session " + session.getName() + " is closed")));
+        results.onCompleted();
+        progress.onCompleted();
+    }
+
+    private void postNext() {
+        final PendingStatement next;
+
+        synchronized (this) {
+            if (isClosed || isPosting || pendingStatements.isEmpty() || getInFlightCount() >= maxInFlight) {
+                return;
+            }
+
+            // Post one by one, since Livy takes the posting order as the running order
+            isPosting = true;
+            next = pendingStatements.poll();
+        }
+
+        next.statement.submit()
+                .subscribeOn(Schedulers.io())
+                .subscribe(
+                        statement -> {
+                            synchronized (this) {
+                                postedStatements.add(statement);
+                                idlePolls = 0;
+                            }
+
+                            schedulePoll(Statement.getPollDelayMillis(0));
+                        },
+                        err -> {
+                            synchronized (this) {
+                                isPosting = false;
+                            }
+
+                            next.posted.onError(err);
+                            postNext();
+                        },
+                        () -> {
+                            synchronized (this) {
+                                isPosting = false;
+                            }
+
+                            next.posted.onNext(next.statement);
+                            next.posted.onCompleted();
+                            postNext();
+                        });
+    }
+
+    private synchronized int getInFlightCount() {
+        return (int) postedStatements.stream().filter(statement -> !statement.isDone()).count();
+    }
+
+    private synchronized void schedulePoll(long delayMillis) {
+        final long pollAtMillis = System.currentTimeMillis() + delayMillis;
+        if (isClosed || pollAtMillis >= scheduledPollAtMillis) {
+            return;
+        }
+
+        // Reschedule the poll sooner, e.g. for a statement just posted
+        if (scheduledPoll != null) {
+            scheduledPoll.unsubscribe();
+        }
+
+        scheduledPollAtMillis = pollAtMillis;
+        scheduledPoll = worker.schedule(this::poll, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void poll() {
+        final List<Statement> inFlight;
+
+        synchronized (this) {
+            scheduledPoll = null;
+            scheduledPollAtMillis = Long.MAX_VALUE;
+            inFlight = postedStatements.stream().filter(statement -> !statement.isDone()).collect(Collectors.toList());
+        }
+
+        boolean isChanged = false;
+        if (!inFlight.isEmpty()) {
+            try {
+                isChanged = updateStatements(inFlight);
+            } catch (Exception ex) {
+                // Keep the statements to poll again, the Livy service could be unavailable for a while
+                log().warn("Failed to get the statements of session " + session.getName(), ex);
+            }
+        }
+
+        releaseDoneStatements();
+
+        synchronized (this) {
+            idlePolls = isChanged ? 0 : idlePolls + 1;
+        }
+
+        if (getInFlightCount() > 0) {
+            schedulePoll(Statement.getPollDelayMillis(idlePolls));
+        }
+
+        postNext();
+    }
+
+    /**
+     * Get the statements in flight by one list request, the statements missing in the list, e.g. the ones not at
+     * the index of their IDs for the statements discarded by Livy, are got one by one
+     *
+     * @return whether any statement is changed
+     */
+    private boolean updateStatements(@NotNull List<Statement> inFlight) throws StatementNotStartException {
+        final int from = inFlight.get(0).getId();
+        final int size = inFlight.get(inFlight.size() - 1).getId() - from + 1;
+        final List<NameValuePair> params = Arrays.asList(
+                new BasicNameValuePair("from", String.valueOf(from)),
+                new BasicNameValuePair("size", String.valueOf(size)));
+
+        final Map<Integer, com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.Statement> listed = new HashMap<>();
+        session.getHttp()
+                .setUserAgent(session.getUserAgent())
+                // The statements with their outputs are read one by one from the response stream
+                .getElements(session.getUri().toString() + "/" + REST_SEGMENT_STATEMENTS,
+                             params,
+                             null,
+                             "/statements",
+                             com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.Statement.class)
+                .toBlocking()
+                .subscribe(statementResp -> listed.put(statementResp.getId(), statementResp));
+
+        boolean isChanged = false;
+        for (final Statement statement : inFlight) {
+            final com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.Statement statementResp = listed.get(statement.getId());
+            final boolean isStatementChanged;
+
+            if (statementResp != null) {
+                isStatementChanged = statement.update(statementResp);
+            } else {
+                final StatementState lastState = statement.getLastState();
+                final double lastProgress = statement.getProgress();
+                statement.get().toBlocking().subscribe();
+                isStatementChanged = lastState != statement.getLastState() || lastProgress != statement.getProgress();
+            }
+
+            if (isStatementChanged && !statement.isDone()) {
+                progress.onNext(statement);
+            }
+
+            isChanged |= isStatementChanged;
+        }
+
+        return isChanged;
+    }
+
+    private void releaseDoneStatements() {
+        while (true) {
+            final Statement done;
+
+            synchronized (this) {
+                if (isClosed || postedStatements.isEmpty() || !postedStatements.peekFirst().isDone()) {
+                    return;
+                }
+
+                done = postedStatements.pollFirst();
+            }
+
+            results.onNext(done);
+        }
+    }
+
+    private static class PendingStatement {
+        @NotNull
+        private final Statement statement;
+
+        @NotNull
+        private final AsyncSubject<Statement> posted;
+
+        PendingStatement(@NotNull Statement statement, @NotNull AsyncSubject<Statement> posted) {
+            this.statement = statement;
+            this.posted = posted;
+        }
+    }
+}
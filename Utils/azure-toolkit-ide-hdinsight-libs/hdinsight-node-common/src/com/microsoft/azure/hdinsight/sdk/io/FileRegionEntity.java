@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.io;
+
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.function.LongConsumer;
+
+/**
+ * A repeatable HTTP entity which streams a region of a local file through a {@link FileChannel}
+ * with a fixed-size direct buffer, so the heap usage stays constant regardless of the file size.
+ */
+public class FileRegionEntity extends AbstractHttpEntity {
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;      // 64KB per read
+
+    private static final ThreadLocal<ByteBuffer> DIRECT_BUFFERS =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(DEFAULT_BUFFER_SIZE));
+
+    @NotNull
+    private final File file;
+
+    private final long offset;
+
+    private final long length;
+
+    @Nullable
+    private final LongConsumer progressListener;
+
+    /**
+     * Create an entity for the whole file
+     *
+     * @param file the local file to send
+     * @param progressListener the listener to receive the count of bytes just written, nullable
+     */
+    public FileRegionEntity(@NotNull File file, @Nullable LongConsumer progressListener) {
+        this(file, 0, file.length(), progressListener);
+    }
+
+    /**
+     * Create an entity for the region [offset, offset + length) of the file
+     *
+     * @param file the local file to send
+     * @param offset the start position in the file
+     * @param length the bytes count to send
+     * @param progressListener the listener to receive the count of bytes just written, nullable
+     */
+    public FileRegionEntity(@NotNull File file, long offset, long length, @Nullable LongConsumer progressListener) {
+        if (offset < 0 || length < 0) {
+            throw new IllegalArgumentException("Negative file region offset or length: " + offset + ", " + length);
+        }
+
+        this.file = file;
+        this.offset = offset;
+        this.length = length;
+        this.progressListener = progressListener;
+
+        setContentType(ContentType.APPLICATION_OCTET_STREAM.toString());
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public long getContentLength() {
+        return length;
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+        final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        channel.position(offset);
+
+        return new BoundedInputStream(Channels.newInputStream(channel), length);
+    }
+
+    @Override
+    public void writeTo(@NotNull OutputStream outStream) throws IOException {
+        final ByteBuffer buf = DIRECT_BUFFERS.get();
+        // Don't close the wrapped channel, which closes the connection output stream
+        final WritableByteChannel out = Channels.newChannel(outStream);
+
+        try (final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long position = offset;
+            long remaining = length;
+
+            while (remaining > 0) {
+                buf.clear();
+                if (remaining < buf.capacity()) {
+                    buf.limit((int) remaining);
+                }
+
+                final int read = channel.read(buf, position);
+                if (read < 0) {
+                    throw new EOFException(String.format("Unexpected end of file %s at %d", file, position));
+                }
+
+                buf.flip();
+                while (buf.hasRemaining()) {
+                    out.write(buf);
+                }
+
+                position += read;
+                remaining -= read;
+
+                if (progressListener != null) {
+                    progressListener.accept(read);
+                }
+            }
+        }
+
+        outStream.flush();
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+}
@@ -6,6 +6,7 @@
 package com.microsoft.azure.hdinsight.sdk.io.spark;
 
 import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.Session;
+import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.Statement;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import org.apache.commons.codec.binary.Base64;
 
@@ -13,16 +14,37 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URI;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
 
 public class ClusterFileBase64BufferedOutputStream extends OutputStream {
     private static final int DEFAULT_BLOCK_SIZE_KB = 32;      // 32KB block size
 
+    // The page larger than a literal is written by several `writePage("...")` lines of one statement. Livy REPL
+    // interprets the statement codes line by line, so each line is compiled alone as the 32KB page statement was,
+    // and keeps the Scala string literal under the 64KB class file constant limit.
+    static final int MAX_LITERAL_SIZE = 32 * 1024;
+
+    // Livy returns the codes in every statement polling response, and the REPL retains the last statements with
+    // codes in the driver memory (100 by `livy.rsc.retained-statements` by default), so the page is bounded to 1MB
+    static final int MAX_BLOCK_SIZE_KB = 1024;
+
     @NotNull
     private final Session session;
 
+    @NotNull
+    private final URI destination;
+
     @NotNull
     private final ByteBuffer buf;
 
+    private final int maxInflightStatements;
+
+    // The submitted page writing statements in order, which are run by Livy one by one
+    @NotNull
+    private final Deque<Statement> inflightStatements = new ArrayDeque<>();
+
     private final String preloadedCodes = String.join("\n",
             "import java.io._",
             "import java.util.Base64",
@@ -38,11 +60,29 @@ public class ClusterFileBase64BufferedOutputStream extends OutputStream {
             "    out.write(pageBytes, 0, pageBytes.size)",
             "}");
 
+    /**
+     * Create the output stream to write the BASE64 encoded content into the cluster file through the Livy
+     * interactive session
+     *
+     * @param session the Livy interactive session
+     * @param destination the cluster file path
+     * @param blockSizeKB the page size to write by one statement, up to {@value #MAX_BLOCK_SIZE_KB}KB
+     * @param maxInflightStatements the maximum page writing statements submitted without waiting for the result
+     */
+    public ClusterFileBase64BufferedOutputStream(@NotNull Session session,
+                                                 @NotNull URI destination,
+                                                 final int blockSizeKB,
+                                                 final int maxInflightStatements) {
+        if (blockSizeKB <= 0 || blockSizeKB > MAX_BLOCK_SIZE_KB) {
+            throw new IllegalArgumentException(String.format(
+                    "The block size should be from 1KB to %dKB: %dKB", MAX_BLOCK_SIZE_KB, blockSizeKB));
+        }
 
-    public ClusterFileBase64BufferedOutputStream(@NotNull Session session, @NotNull URI destination, final int blockSizeKB) {
         this.session = session;
+        this.destination = destination;
         this.buf = ByteBuffer.allocate(blockSizeKB * 1024); // Due to BASE64 requirement, the block size
                                                             // must be aligned to 4 bytes
+        this.maxInflightStatements = Math.max(1, maxInflightStatements);
 
         // Pre-load
         session.runCodes(String.format(preloadedCodes, destination.toString()))
@@ -50,6 +90,10 @@ public class ClusterFileBase64BufferedOutputStream extends OutputStream {
                 .singleOrDefault(null);
     }
 
+    public ClusterFileBase64BufferedOutputStream(@NotNull Session session, @NotNull URI destination, final int blockSizeKB) {
+        this(session, destination, blockSizeKB, 1);
+    }
+
     public ClusterFileBase64BufferedOutputStream(@NotNull Session session, @NotNull URI destination) {
         this(session, destination, DEFAULT_BLOCK_SIZE_KB);
     }
@@ -69,7 +113,7 @@ public class ClusterFileBase64BufferedOutputStream extends OutputStream {
     @Override
     public void write(int b) throws IOException {
         if (!buf.hasRemaining()) {
-            flush();
+            writePage();
         }
 
         if (Base64.isBase64((byte) b)) {
@@ -77,17 +121,80 @@ public class ClusterFileBase64BufferedOutputStream extends OutputStream {
         }
     }
 
+    @Override
+    public void write(@NotNull byte[] b, int off, int len) throws IOException {
+        for (int i = off; i < off + len; i++) {
+            write(b[i]);
+        }
+    }
+
     @Override
     public void flush() throws IOException {
-        if (buf.position() > 0) {
-            String codesPage = new String(buf.array(), 0, buf.position());
+        writePage();
 
-            buf.clear();
-            session.runCodes(String.format("writePage(\"%s\")", codesPage))
+        while (!inflightStatements.isEmpty()) {
+            awaitOldestStatement();
+        }
+
+        super.flush();
+    }
+
+    private void writePage() throws IOException {
+        if (buf.position() == 0) {
+            return;
+        }
+
+        final String codes = buildWritePageCodes(buf.array(), buf.position());
+        buf.clear();
+
+        while (inflightStatements.size() >= maxInflightStatements) {
+            awaitOldestStatement();
+        }
+
+        final Statement statement;
+        try {
+            statement = session.submitCodes(codes)
                     .toBlocking()
                     .singleOrDefault(null);
+        } catch (RuntimeException ex) {
+            throw new IOException("Failed to submit the page writing to " + destination, ex);
         }
 
-        super.flush();
+        if (statement == null) {
+            throw new IOException("Failed to submit the page writing to " + destination);
+        }
+
+        inflightStatements.addLast(statement);
+    }
+
+    private void awaitOldestStatement() throws IOException {
+        final Statement statement = inflightStatements.removeFirst();
+
+        try {
+            session.awaitStatementResult(statement)
+                    .toBlocking()
+                    .singleOrDefault(null);
+        } catch (RuntimeException ex) {
+            inflightStatements.clear();
+
+            throw new IOException("Failed to write the page to " + destination, ex);
+        }
+    }
+
+    @NotNull
+    static String buildWritePageCodes(@NotNull byte[] page, int length) {
+        final StringBuilder codes = new StringBuilder(length + (length / MAX_LITERAL_SIZE + 1) * 16);
+
+        for (int start = 0; start < length; start += MAX_LITERAL_SIZE) {
+            if (start > 0) {
+                codes.append('\n');
+            }
+
+            codes.append("writePage(\"")
+                 .append(new String(page, start, Math.min(MAX_LITERAL_SIZE, length - start), StandardCharsets.US_ASCII))
+                 .append("\")");
+        }
+
+        return codes.toString();
     }
 }
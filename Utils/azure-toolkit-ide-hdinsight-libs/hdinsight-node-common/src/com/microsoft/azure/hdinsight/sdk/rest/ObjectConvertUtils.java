@@ -6,16 +6,25 @@
 package com.microsoft.azure.hdinsight.sdk.rest;
 
 import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.type.TypeFactory;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.http.HttpEntity;
 import org.apache.http.util.EntityUtils;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -30,6 +39,73 @@ public final class ObjectConvertUtils {
         return Optional.ofNullable(objectMapper.readValue(jsonString, clazz));
     }
 
+    public static <T> Optional<T> convertJsonStreamToObject(@NotNull InputStream jsonStream, @NotNull Class<T> clazz) throws IOException {
+        return Optional.ofNullable(objectMapper.readValue(jsonStream, clazz));
+    }
+
+    public static <T> Optional<List<T>> convertJsonStreamToList(@NotNull InputStream jsonStream, @NotNull Class<T> clazz) throws IOException {
+        List<T> myLists = objectMapper.readValue(jsonStream, TypeFactory.defaultInstance().constructCollectionType(List.class, clazz));
+        return Optional.ofNullable(myLists);
+    }
+
+    /**
+     * Create a JSON parser positioned at the start of the array located by the JSON pointer, to read the array
+     * elements one by one with {@link JsonParser#readValueAs(Class)} until {@link JsonToken#END_ARRAY}
+     *
+     * @param jsonStream the JSON input stream, which is closed with the returned parser
+     * @param arrayPointer the JSON pointer of the array, such as `/apps/app`, null or empty for the root
+     * @return the parser at {@link JsonToken#START_ARRAY}, or empty if the array is absent or null
+     * @throws IOException for the JSON content reading or mismatching failures
+     */
+    public static Optional<JsonParser> openJsonArray(@NotNull InputStream jsonStream, @Nullable String arrayPointer) throws IOException {
+        final JsonParser parser = jsonFactory.createParser(jsonStream);
+
+        try {
+            JsonPointer rest = JsonPointer.compile(StringUtils.defaultString(arrayPointer));
+            JsonToken token = parser.nextToken();
+
+            while (!rest.matches() && token != JsonToken.VALUE_NULL) {
+                if (token != JsonToken.START_OBJECT) {
+                    throw new JsonParseException(parser, "Expect a JSON object to look up " + rest);
+                }
+
+                boolean isFound = false;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    final String fieldName = parser.getCurrentName();
+                    token = parser.nextToken();
+
+                    if (fieldName.equals(rest.getMatchingProperty())) {
+                        isFound = true;
+                        break;
+                    }
+
+                    parser.skipChildren();
+                }
+
+                if (!isFound) {
+                    parser.close();
+                    return Optional.empty();
+                }
+
+                rest = rest.tail();
+            }
+
+            if (token == null || token == JsonToken.VALUE_NULL) {
+                parser.close();
+                return Optional.empty();
+            }
+
+            if (token != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Expect a JSON array at " + arrayPointer);
+            }
+
+            return Optional.of(parser);
+        } catch (IOException ex) {
+            parser.close();
+            throw ex;
+        }
+    }
+
     public static <T> T convertToObjectQuietly(@NotNull String jsonString, @NotNull Class<T> clazz) {
         try {
             return objectMapper.readValue(jsonString, clazz);
@@ -48,7 +124,9 @@ public final class ObjectConvertUtils {
 
         switch (type) {
             case "application/json" :
-                return convertJsonToObject(EntityUtils.toString(entity), clazz);
+                try (final InputStream jsonStream = entity.getContent()) {
+                    return convertJsonStreamToObject(jsonStream, clazz);
+                }
             case "application/xml" :
                 return convertXmlToObject(EntityUtils.toString(entity), clazz);
             default:
@@ -65,7 +143,9 @@ public final class ObjectConvertUtils {
 
         switch (type) {
             case "application/json" :
-                return convertJsonToList(EntityUtils.toString(entity), clazz);
+                try (final InputStream jsonStream = entity.getContent()) {
+                    return convertJsonStreamToList(jsonStream, clazz);
+                }
             case "application/xml" :
                 return convertXmlToList(EntityUtils.toString(entity), clazz);
             default:
@@ -102,6 +182,18 @@ public final class ObjectConvertUtils {
         return Optional.empty();
     }
 
+    /**
+     * Create a JSON generator to write objects into the output stream one by one with
+     * {@link JsonGenerator#writeObject(Object)}
+     *
+     * @param out the output stream, which is closed with the returned generator
+     * @return the JSON generator
+     * @throws IOException for the generator creation failures
+     */
+    public static JsonGenerator createJsonGenerator(@NotNull OutputStream out) throws IOException {
+        return objectMapper.getFactory().createGenerator(out);
+    }
+
     public static <T> Optional<String> convertObjectToXmlString(@NotNull T obj) {
         try {
             return Optional.ofNullable(xmlMapper.writeValueAsString(obj));
@@ -5,6 +5,7 @@
 
 package com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.api.session;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.microsoft.azure.hdinsight.sdk.rest.IConvertible;
 import com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.Statement;
 
@@ -22,9 +23,11 @@ import java.util.List;
  *   GET
  *
  * Query Parameters Supported
- *   None
+ *   from: the start index of the statements to list, since v0.4.0
+ *   size: the number of the statements to list, since v0.4.0
  */
 
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class GetStatementsResponse implements IConvertible {
     private List<Statement> statements;     // statement list
 
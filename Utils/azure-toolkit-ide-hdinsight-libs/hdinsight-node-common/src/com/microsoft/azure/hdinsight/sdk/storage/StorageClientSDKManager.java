@@ -7,6 +7,8 @@ package com.microsoft.azure.hdinsight.sdk.storage;
 
 import com.azure.core.http.policy.HttpLogDetailLevel;
 import com.azure.core.http.policy.HttpLogOptions;
+import com.azure.core.util.BinaryData;
+import com.azure.core.util.Context;
 import com.azure.core.util.logging.ClientLogger;
 import com.azure.storage.blob.BlobClient;
 import com.azure.storage.blob.BlobContainerClient;
@@ -15,10 +17,17 @@ import com.azure.storage.blob.BlobServiceClientBuilder;
 import com.azure.storage.blob.models.BlobContainerAccessPolicies;
 import com.azure.storage.blob.models.BlobContainerItem;
 import com.azure.storage.blob.models.BlobContainerItemProperties;
+import com.azure.storage.blob.models.BlobRequestConditions;
+import com.azure.storage.blob.models.ParallelTransferOptions;
+import com.azure.storage.blob.options.BlobParallelUploadOptions;
 import com.azure.storage.common.implementation.connectionstring.StorageAuthenticationSettings;
 import com.azure.storage.common.implementation.connectionstring.StorageConnectionString;
 import com.azure.storage.common.implementation.connectionstring.StorageEndpoint;
 import com.google.common.base.Strings;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.microsoft.azuretools.azurecommons.helpers.AzureCmdException;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.azuretools.azurecommons.helpers.Nullable;
@@ -33,11 +42,23 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
 import java.util.stream.Stream;
 
 public class StorageClientSDKManager {
+    private static final String HTTP_LOG_BODY_PROPERTY = "hdinsight.storage.http.logBody";
+    private static final int UPLOAD_MAX_CONCURRENCY = 8;
+
+    // The content up to the size is uploaded by a single put, the larger one is staged as blocks in parallel
+    static final long UPLOAD_MAX_SINGLE_PUT_SIZE = 8 * 1024 * 1024;
+    private static final int MAX_CACHED_CLIENTS = 20;
+
     private static StorageClientSDKManager apiManager;
 
+    private static final Cache<String, BlobServiceClient> blobServiceClients = CacheBuilder.newBuilder()
+            .maximumSize(MAX_CACHED_CLIENTS)
+            .build();
+
     private StorageClientSDKManager() {
     }
 
@@ -132,11 +153,24 @@ public class StorageClientSDKManager {
 
     }
 
+    /**
+     * Upload the content as a block blob, the content larger than {@value #UPLOAD_MAX_SINGLE_PUT_SIZE} bytes is
+     * staged as blocks in parallel
+     *
+     * @param connectionString the storage account connection string
+     * @param blobContainer the container to upload into
+     * @param filePath the blob path
+     * @param content the content to upload
+     * @param processBlock the progress callback with the uploaded bytes count, null for no progress report
+     * @param maxBlockSize the block size, 0 or negative for the SDK default one
+     * @param length the content length
+     * @throws AzureCmdException for uploading failures, or the blob exists already
+     */
     public void uploadBlobFileContent(@NotNull String connectionString,
                                       @NotNull BlobContainer blobContainer,
                                       @NotNull String filePath,
                                       @NotNull InputStream content,
-                                      CallableSingleArg<Void, Long> processBlock,
+                                      @Nullable CallableSingleArg<Void, Long> processBlock,
                                       long maxBlockSize,
                                       long length)
             throws AzureCmdException {
@@ -146,7 +180,31 @@ public class StorageClientSDKManager {
 
             BlobContainerClient container = client.getBlobContainerClient(containerName);
             final BlobClient blob = container.getBlobClient(filePath);
-            blob.upload(content, length);
+
+            final ParallelTransferOptions transferOptions = new ParallelTransferOptions()
+                    .setMaxConcurrency(UPLOAD_MAX_CONCURRENCY)
+                    .setMaxSingleUploadSizeLong(UPLOAD_MAX_SINGLE_PUT_SIZE);
+
+            if (maxBlockSize > 0) {
+                transferOptions.setBlockSizeLong(maxBlockSize);
+            }
+
+            if (processBlock != null) {
+                transferOptions.setProgressListener(uploadedBytes -> {
+                    try {
+                        processBlock.call(uploadedBytes);
+                    } catch (Exception ignored) {
+                        // The progress report failure shouldn't break the uploading
+                    }
+                });
+            }
+
+            final BlobParallelUploadOptions uploadOptions = new BlobParallelUploadOptions(BinaryData.fromStream(content, length))
+                    .setParallelTransferOptions(transferOptions)
+                    // Don't overwrite the existing blob, the same as BlobClient.upload(InputStream, long)
+                    .setRequestConditions(new BlobRequestConditions().setIfNoneMatch("*"));
+
+            blob.uploadWithResponse(uploadOptions, null, Context.NONE);
         } catch (Throwable t) {
             throw new AzureCmdException("Error uploading the Blob File content", t);
         }
@@ -156,8 +214,27 @@ public class StorageClientSDKManager {
         return StorageAccoutUtils.getEndpointSuffix();
     }
 
+    /**
+     * Get the cached Blob service client of the connection string, the client is thread safe and shares the HTTP
+     * connections. The HTTP headers are logged, set the system property `hdinsight.storage.http.logBody` to true
+     * to log the bodies also.
+     *
+     * @param connectionString the storage account connection string
+     * @return the Blob service client
+     */
     @NotNull
     public static BlobServiceClient getCloudBlobClient(@NotNull String connectionString) {
-        return new BlobServiceClientBuilder().httpLogOptions(new HttpLogOptions().setLogLevel(HttpLogDetailLevel.BODY_AND_HEADERS)).connectionString(connectionString).buildClient();
+        try {
+            return blobServiceClients.get(connectionString, () -> new BlobServiceClientBuilder()
+                    .httpLogOptions(new HttpLogOptions().setLogLevel(Boolean.getBoolean(HTTP_LOG_BODY_PROPERTY)
+                                                                     ? HttpLogDetailLevel.BODY_AND_HEADERS
+                                                                     : HttpLogDetailLevel.HEADERS))
+                    .connectionString(connectionString)
+                    .buildClient());
+        } catch (ExecutionException | UncheckedExecutionException ex) {
+            // Keep the builder exceptions for the bad connection string as they were
+            Throwables.throwIfUnchecked(ex.getCause());
+            throw new IllegalStateException(ex.getCause());
+        }
     }
 }
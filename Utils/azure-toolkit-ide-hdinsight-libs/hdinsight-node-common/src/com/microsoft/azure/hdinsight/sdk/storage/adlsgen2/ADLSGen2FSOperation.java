@@ -7,32 +7,40 @@ package com.microsoft.azure.hdinsight.sdk.storage.adlsgen2;
 
 import com.google.common.collect.ImmutableList;
 import com.microsoft.azure.hdinsight.sdk.common.HttpObservable;
+import com.microsoft.azure.hdinsight.sdk.io.FileRegionEntity;
 import com.microsoft.azure.hdinsight.sdk.rest.azure.storageaccounts.RemoteFile;
 import com.microsoft.azure.hdinsight.sdk.rest.azure.storageaccounts.api.GetRemoteFilesResponse;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
 import org.apache.http.NameValuePair;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPatch;
 import org.apache.http.client.methods.HttpPut;
-import org.apache.http.entity.BufferedHttpEntity;
 import org.apache.http.entity.ContentType;
-import org.apache.http.entity.InputStreamEntity;
 import org.apache.http.message.BasicHeader;
 import rx.Observable;
+import rx.schedulers.Schedulers;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.LongConsumer;
 
 public class ADLSGen2FSOperation {
     public static final String DEFAULT_UMASK = "0000";
     public static final String PERMISSIONS_HEADER = "x-ms-permissions";
     public static final String UMASK_HEADER = "x-ms-umask";
+    public static final int DEFAULT_UPLOAD_BLOCK_SIZE = 8 * 1024 * 1024;    // 8MB per append
+    public static final int DEFAULT_UPLOAD_PARALLELISM = 4;
+    public static final int DEFAULT_LIST_PAGE_SIZE = 5000;
+    public static final String CONTINUATION_HEADER = "x-ms-continuation";
+    private static final int UPLOAD_BLOCK_MAX_RETRIES = 3;
 
     private HttpObservable http;
 
@@ -42,14 +50,11 @@ public class ADLSGen2FSOperation {
     @NotNull
     private List<NameValuePair> createFileReqParams;
 
-    @NotNull
-    private List<NameValuePair> appendReqParams;
+    private int uploadBlockSize = DEFAULT_UPLOAD_BLOCK_SIZE;
 
-    @NotNull
-    private ADLSGen2ParamsBuilder listReqBuilder;
+    private int uploadParallelism = DEFAULT_UPLOAD_PARALLELISM;
 
-    @NotNull
-    private ADLSGen2ParamsBuilder flushReqParamsBuilder;
+    private int listPageSize = DEFAULT_LIST_PAGE_SIZE;
 
     public ADLSGen2FSOperation(@NotNull HttpObservable http) {
         this.http = http;
@@ -60,14 +65,6 @@ public class ADLSGen2FSOperation {
         this.createFileReqParams = new ADLSGen2ParamsBuilder()
                 .setResource("file")
                 .build();
-
-        this.appendReqParams = new ADLSGen2ParamsBuilder()
-                .setAction("append")
-                .setPosition(0)
-                .build();
-
-        this.flushReqParamsBuilder = new ADLSGen2ParamsBuilder()
-                .setAction("flush");
     }
 
     public Observable<Boolean> createDir(String dirPath) {
@@ -87,7 +84,7 @@ public class ADLSGen2FSOperation {
                                                         new BasicHeader(UMASK_HEADER, uMask))
                                      : Collections.emptyList();
         return http.executeReqAndCheckStatus(req, null, this.createDirReqParams, headers, 201)
-                   .map(ignore -> true);
+                   .map(ADLSGen2FSOperation::closeResponse);
     }
 
     public Observable<Boolean> createFile(String filePath) {
@@ -107,54 +104,207 @@ public class ADLSGen2FSOperation {
                                                         new BasicHeader(UMASK_HEADER, uMask))
                                      : Collections.emptyList();
         return http.executeReqAndCheckStatus(req, null, this.createFileReqParams, headers, 201)
-                .map(ignore -> true);
+                .map(ADLSGen2FSOperation::closeResponse);
+    }
+
+    public int getUploadBlockSize() {
+        return uploadBlockSize;
+    }
+
+    public ADLSGen2FSOperation setUploadBlockSize(int uploadBlockSize) {
+        if (uploadBlockSize <= 0) {
+            throw new IllegalArgumentException("The upload block size should be positive: " + uploadBlockSize);
+        }
+
+        this.uploadBlockSize = uploadBlockSize;
+        return this;
+    }
+
+    public int getUploadParallelism() {
+        return uploadParallelism;
+    }
+
+    public ADLSGen2FSOperation setUploadParallelism(int uploadParallelism) {
+        if (uploadParallelism <= 0) {
+            throw new IllegalArgumentException("The upload parallelism should be positive: " + uploadParallelism);
+        }
+
+        this.uploadParallelism = uploadParallelism;
+        return this;
+    }
+
+    public int getListPageSize() {
+        return listPageSize;
+    }
+
+    public ADLSGen2FSOperation setListPageSize(int listPageSize) {
+        if (listPageSize <= 0) {
+            throw new IllegalArgumentException("The list page size should be positive: " + listPageSize);
+        }
+
+        this.listPageSize = listPageSize;
+        return this;
     }
 
     public Observable<Boolean> uploadData(String destFilePath, File src) {
-        return appendData(destFilePath, src)
+        return uploadData(destFilePath, src, null);
+    }
+
+    /**
+     * Upload the file by appending blocks concurrently, then flush once
+     *
+     * @param destFilePath the created destination file URI
+     * @param src the local file to upload
+     * @param progressListener the listener to receive the count of bytes just written, nullable
+     * @return Observable: true for success
+     */
+    public Observable<Boolean> uploadData(String destFilePath, File src, @Nullable LongConsumer progressListener) {
+        return appendData(destFilePath, src, progressListener)
                 .flatMap(len -> flushData(destFilePath, len));
     }
 
     public Observable<RemoteFile> list(String rootPath, String relativePath) {
-        this.listReqBuilder = new ADLSGen2ParamsBuilder()
+        return listPages(rootPath, relativePath)
+                .concatMap(Observable::from);
+    }
+
+    /**
+     * List the directory page by page, the next page is requested with the continuation of the last one after it's
+     * consumed, until the service returns no continuation
+     *
+     * @param rootPath the file system root URI
+     * @param relativePath the directory path relative to the file system root
+     * @return Observable: the files and directories of each page
+     */
+    public Observable<List<RemoteFile>> listPages(String rootPath, String relativePath) {
+        return listPages(rootPath, relativePath, null);
+    }
+
+    private Observable<List<RemoteFile>> listPages(String rootPath, String relativePath, @Nullable String continuation) {
+        return listPage(rootPath, relativePath, continuation)
+                .concatMap(page -> {
+                    final Observable<List<RemoteFile>> files = Observable.just(page.getRemoteFiles());
+
+                    return StringUtils.isEmpty(page.getContinuation())
+                           ? files
+                           : files.concatWith(Observable.defer(() ->
+                                    listPages(rootPath, relativePath, page.getContinuation())));
+                });
+    }
+
+    private Observable<ListPage> listPage(String rootPath, String relativePath, @Nullable String continuation) {
+        final ADLSGen2ParamsBuilder listReqBuilder = new ADLSGen2ParamsBuilder()
                 .enableRecursive(false)
-                .setResource("filesystem");
+                .setResource("filesystem")
+                .setMaxResults(listPageSize)
+                .setDirectory(relativePath);
+        if (continuation != null) {
+            listReqBuilder.setContinuation(continuation);
+        }
+
+        return http.request(new HttpGet(StringUtils.stripEnd(rootPath, "/")), null, listReqBuilder.build(), null)
+                .flatMap(resp -> {
+                    // The continuation is returned in header, read it before the response is consumed and closed
+                    final String nextContinuation = Optional.ofNullable(resp.getFirstHeader(CONTINUATION_HEADER))
+                            .map(Header::getValue)
+                            .orElse(null);
 
-        return http.get(
-                StringUtils.stripEnd(rootPath, "/"),
-                listReqBuilder.setDirectory(relativePath).build(),
-                null,
-                GetRemoteFilesResponse.class)
-                .flatMap(pathList -> Observable.from(pathList.getRemoteFiles()));
+                    return HttpObservable.toObjectOnlyOkResponse(resp, GetRemoteFilesResponse.class)
+                            .map(pathList -> new ListPage(
+                                    Optional.ofNullable(pathList.getRemoteFiles()).orElse(Collections.emptyList()),
+                                    nextContinuation));
+                });
     }
 
-    private Observable<Long> appendData(String filePath, File src) {
-        try {
-            InputStreamEntity reqEntity = new InputStreamEntity(
-                    new FileInputStream(src),
-                    -1,
-                    ContentType.APPLICATION_OCTET_STREAM);
-            BufferedHttpEntity entity = new BufferedHttpEntity(reqEntity);
-            long len = entity.getContentLength();
-
-            HttpPatch req = new HttpPatch(filePath);
-            http.setContentType("application/octet-stream");
-
-            return http.executeReqAndCheckStatus(req, entity, this.appendReqParams, Collections.emptyList(), 202)
-                    .map(ignore -> len);
-        } catch (FileNotFoundException e) {
+    private Observable<Long> appendData(String filePath, File src, @Nullable LongConsumer progressListener) {
+        if (!src.isFile()) {
             throw new RuntimeException(new IllegalArgumentException("Can not find the aritifact"));
-        } catch (IOException e) {
-            throw new RuntimeException(new IllegalArgumentException("Can not read the aritfact"));
         }
+
+        final long len = src.length();
+        final long blockCount = (len + uploadBlockSize - 1) / uploadBlockSize;
+
+        // Append blocks at their explicit positions concurrently, the flush will commit them all at once.
+        // The shared HttpObservable isn't touched, the content type is set by each block entity.
+        return Observable.range(0, (int) blockCount)
+                .flatMap(index -> {
+                    final long position = (long) index * uploadBlockSize;
+                    final long size = Math.min(uploadBlockSize, len - position);
+
+                    return appendBlock(filePath, src, position, size, progressListener)
+                            .subscribeOn(Schedulers.io());
+                }, uploadParallelism)
+                .count()
+                .map(ignore -> len);
+    }
+
+    private Observable<Boolean> appendBlock(String filePath,
+                                            File src,
+                                            long position,
+                                            long size,
+                                            @Nullable LongConsumer progressListener) {
+        final List<NameValuePair> appendReqParams = new ADLSGen2ParamsBuilder()
+                .setAction("append")
+                .setPosition(position)
+                .build();
+
+        return Observable
+                .defer(() -> http.executeReqAndCheckStatus(
+                        new HttpPatch(filePath),
+                        new FileRegionEntity(src, position, size, null),
+                        appendReqParams,
+                        Collections.emptyList(),
+                        202))
+                .map(ADLSGen2FSOperation::closeResponse)
+                .retry(UPLOAD_BLOCK_MAX_RETRIES)
+                // Report the block once it's appended, so the retried bytes are not counted again
+                .doOnNext(ignore -> Optional.ofNullable(progressListener).ifPresent(listener -> listener.accept(size)));
     }
 
     private Observable<Boolean> flushData(String filePath, long flushLen) {
         HttpPatch req = new HttpPatch(filePath);
-        List<NameValuePair> flushReqParams = this.flushReqParamsBuilder.setPosition(flushLen).build();
-        http.setContentType("application/json");
+        List<NameValuePair> flushReqParams = new ADLSGen2ParamsBuilder()
+                .setAction("flush")
+                .setPosition(flushLen)
+                .build();
+        final List<Header> headers = Collections.singletonList(
+                new BasicHeader(HttpHeaders.CONTENT_TYPE, ContentType.APPLICATION_JSON.getMimeType()));
+
+        return http.executeReqAndCheckStatus(req, null, flushReqParams, headers, 200)
+                .map(ADLSGen2FSOperation::closeResponse);
+    }
+
+    private static boolean closeResponse(@NotNull CloseableHttpResponse resp) {
+        try {
+            // Release the connection back to the shared pool
+            resp.close();
+        } catch (IOException ignore) {
+            // The connection will be closed automatically after timeout
+        }
+
+        return true;
+    }
 
-        return http.executeReqAndCheckStatus(req, null, flushReqParams, Collections.emptyList(), 200)
-                .map(ignore -> true);
+    private static class ListPage {
+        @NotNull
+        private final List<RemoteFile> remoteFiles;
+
+        @Nullable
+        private final String continuation;
+
+        ListPage(@NotNull List<RemoteFile> remoteFiles, @Nullable String continuation) {
+            this.remoteFiles = remoteFiles;
+            this.continuation = continuation;
+        }
+
+        @NotNull
+        List<RemoteFile> getRemoteFiles() {
+            return remoteFiles;
+        }
+
+        @Nullable
+        String getContinuation() {
+            return continuation;
+        }
     }
 }
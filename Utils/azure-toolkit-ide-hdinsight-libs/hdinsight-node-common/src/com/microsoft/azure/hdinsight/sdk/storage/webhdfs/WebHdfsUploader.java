@@ -0,0 +1,355 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.storage.webhdfs;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azure.hdinsight.sdk.common.HttpObservable;
+import com.microsoft.azure.hdinsight.sdk.io.FileRegionEntity;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.Header;
+import org.apache.http.HttpStatus;
+import org.apache.http.NameValuePair;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.client.utils.URLEncodedUtils;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.message.BasicNameValuePair;
+import org.apache.http.util.EntityUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.UnknownServiceException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * Upload a local file via WebHDFS by streaming its content with constant memory.
+ *
+ * The file is created under a temporary name unique to the upload, and renamed to the destination once all the
+ * content is written. So if the transfer to the redirected DataNode is broken, the upload is resumed by APPEND to the
+ * file created by this upload only, never to a stale file of the destination name.
+ *
+ * The APPEND could be rejected while the lease of the broken write is held until the NameNode recovers it, and the
+ * length of the file still open could lag the bytes the DataNode has accepted. So if the APPEND fails, or the length
+ * after the APPEND isn't the local file size, the upload is restarted by CREATE of a new temporary file from the
+ * beginning, the new name avoids the lease of the previous file, which is deleted.
+ */
+public class WebHdfsUploader implements ILogger {
+    public static final int DEFAULT_MAX_RETRIES = 3;
+    public static final String TEMP_FILE_SUFFIX = "._COPYING_";
+
+    private static final String WEBHDFS_PREFIX = "/webhdfs/v1";
+
+    /**
+     * The HTTP request executor, to send the WebHDFS requests with the caller's authentication
+     */
+    @FunctionalInterface
+    public interface RequestExecutor {
+        @NotNull
+        CloseableHttpResponse execute(@NotNull HttpRequestBase request) throws IOException;
+    }
+
+    @NotNull
+    private final RequestExecutor executor;
+
+    @NotNull
+    private final RequestConfig requestConfig;
+
+    @NotNull
+    private List<NameValuePair> createParams = new WebHdfsParamsBuilder("CREATE").setOverwrite("true").build();
+
+    private int maxRetries = DEFAULT_MAX_RETRIES;
+
+    public WebHdfsUploader(@NotNull RequestExecutor executor, @NotNull RequestConfig requestConfig) {
+        this.executor = executor;
+        this.requestConfig = requestConfig;
+    }
+
+    public WebHdfsUploader(@NotNull CloseableHttpClient httpClient) {
+        this(httpClient::execute, RequestConfig.DEFAULT);
+    }
+
+    public WebHdfsUploader(@NotNull HttpObservable http) {
+        this(request -> {
+            try {
+                // The parameters are set into the request URI by the HttpObservable, so pass those in the URI back
+                return http.request(request,
+                                    request instanceof HttpEntityEnclosingRequestBase
+                                            ? ((HttpEntityEnclosingRequestBase) request).getEntity()
+                                            : null,
+                                    URLEncodedUtils.parse(request.getURI(), StandardCharsets.UTF_8),
+                                    null)
+                           .toBlocking()
+                           .single();
+            } catch (final RuntimeException ex) {
+                if (ex.getCause() instanceof IOException) {
+                    throw (IOException) ex.getCause();
+                }
+
+                throw ex;
+            }
+        }, http.getDefaultRequestConfig());
+    }
+
+    /**
+     * Set the parameters of the CREATE operation, such as the permission, the default is overwriting only
+     */
+    public WebHdfsUploader setCreateParams(@NotNull List<NameValuePair> createParams) {
+        this.createParams = createParams;
+
+        return this;
+    }
+
+    public WebHdfsUploader setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+
+        return this;
+    }
+
+    /**
+     * Upload the file, replacing the existing destination file
+     *
+     * @param file the local file to upload
+     * @param webHdfsPath the WebHDFS URI of the destination file, such as `https://host/webhdfs/v1/path/to/file`
+     * @param progressListener the listener to receive the count of bytes just uploaded, which are counted once
+     *                         even if resent by a resuming, nullable
+     * @throws IOException if the upload is still failed after the retries
+     */
+    public void upload(@NotNull File file,
+                       @NotNull String webHdfsPath,
+                       @Nullable LongConsumer progressListener) throws IOException {
+        final long fileSize = file.length();
+        final AtomicLong reported = new AtomicLong(0);
+        String tempPath = createTempPath(webHdfsPath);
+
+        try {
+            // Only set if the CREATE of the temporary file has been sent to the DataNode by this upload
+            boolean created = false;
+            // Set if resuming the broken CREATE by APPEND from the offset
+            boolean appending = false;
+            long offset = 0;
+
+            for (int retries = 0; ; retries++) {
+                try {
+                    //two steps to write via webhdfs
+                    // 1.put (or post to append) request to get 307 redirect uri from response
+                    // 2.put (or post) redirect request with file content as entity
+                    final HttpEntityEnclosingRequestBase dataReq;
+                    if (appending) {
+                        dataReq = new HttpPost(getRedirectUri(new HttpPost(buildUri(tempPath, new WebHdfsParamsBuilder("APPEND").build()))));
+                    } else {
+                        dataReq = new HttpPut(getRedirectUri(new HttpPut(buildUri(tempPath, createParams))));
+                        created = true;
+                    }
+
+                    sendData(dataReq, file, offset, createAttemptProgressListener(offset, reported, progressListener));
+
+                    if (appending) {
+                        final long length = getFileLength(tempPath).orElse(-1L);
+                        if (length != fileSize) {
+                            throw new UnknownServiceException(String.format(
+                                    "%s has %d bytes after APPEND rather than %d", tempPath, length, fileSize));
+                        }
+                    }
+
+                    break;
+                } catch (final IOException ex) {
+                    if (retries >= maxRetries) {
+                        throw ex;
+                    }
+
+                    // Resume by APPEND once a CREATE is broken, a failed APPEND restarts the upload
+                    final Optional<Long> written = created && !appending ? getFileLength(tempPath) : Optional.empty();
+                    if (written.isPresent() && written.get() == fileSize) {
+                        // All data has been written before the response broken
+                        break;
+                    }
+
+                    appending = written.isPresent() && written.get() < fileSize;
+                    offset = appending ? written.get() : 0;
+
+                    if (!appending && created) {
+                        deleteQuietly(tempPath);
+                        tempPath = createTempPath(webHdfsPath);
+                        created = false;
+                    }
+
+                    log().warn(String.format("Upload %s via webhdfs is broken at %d bytes, %s: %s",
+                                             file, offset, appending ? "resuming" : "restarting", ex));
+                }
+            }
+
+            rename(tempPath, webHdfsPath);
+        } catch (final IOException | RuntimeException ex) {
+            deleteQuietly(tempPath);
+
+            throw ex;
+        }
+    }
+
+    @NotNull
+    private static String createTempPath(@NotNull String webHdfsPath) {
+        return webHdfsPath + "." + UUID.randomUUID() + TEMP_FILE_SUFFIX;
+    }
+
+    /**
+     * Create the progress listener of an attempt starting at the offset, which only reports the bytes beyond the
+     * position reported by the previous attempts
+     */
+    @NotNull
+    private static LongConsumer createAttemptProgressListener(long offset,
+                                                              @NotNull AtomicLong reported,
+                                                              @Nullable LongConsumer progressListener) {
+        final AtomicLong position = new AtomicLong(offset);
+
+        return written -> {
+            final long current = position.addAndGet(written);
+            final long previous = reported.getAndAccumulate(current, Math::max);
+
+            if (progressListener != null && current > previous) {
+                progressListener.accept(current - previous);
+            }
+        };
+    }
+
+    private void sendData(@NotNull HttpEntityEnclosingRequestBase req,
+                          @NotNull File file,
+                          long offset,
+                          @NotNull LongConsumer progressListener) throws IOException {
+        req.setEntity(new FileRegionEntity(file, offset, file.length() - offset, progressListener));
+        req.setConfig(RequestConfig.copy(requestConfig).setExpectContinueEnabled(true).build());
+
+        try (final CloseableHttpResponse resp = executor.execute(req)) {
+            checkStatus(resp, "Upload " + file + " to " + req.getURI());
+        }
+    }
+
+    @NotNull
+    private String getRedirectUri(@NotNull HttpRequestBase req) throws IOException {
+        try (final CloseableHttpResponse resp = executor.execute(req)) {
+            EntityUtils.consumeQuietly(resp.getEntity());
+
+            final Header location = resp.getFirstHeader("Location");
+            if (location == null || StringUtils.isBlank(location.getValue())) {
+                throw new UnknownServiceException(String.format(
+                        "can not get valid redirect uri using webhdfs from %s, status %s",
+                        req.getURI(), resp.getStatusLine()));
+            }
+
+            return location.getValue();
+        }
+    }
+
+    @NotNull
+    private Optional<Long> getFileLength(@NotNull String webHdfsPath) {
+        try (final CloseableHttpResponse resp = executor.execute(
+                new HttpGet(buildUri(webHdfsPath, new WebHdfsParamsBuilder("GETFILESTATUS").build())))) {
+            if (resp.getStatusLine().getStatusCode() != HttpStatus.SC_OK) {
+                EntityUtils.consumeQuietly(resp.getEntity());
+
+                return Optional.empty();
+            }
+
+            // Response sample: {"FileStatus":{"length":24930,"type":"FILE",...}}
+            final JsonNode length = readJson(resp).path("FileStatus").path("length");
+
+            return length.isNumber() ? Optional.of(length.asLong()) : Optional.empty();
+        } catch (final IOException ex) {
+            log().warn("Can't get the file status of " + webHdfsPath, ex);
+
+            return Optional.empty();
+        }
+    }
+
+    private void rename(@NotNull String source, @NotNull String destination) throws IOException {
+        // WebHDFS RENAME doesn't replace the existing destination
+        try (final CloseableHttpResponse resp = executor.execute(
+                new HttpDelete(buildUri(destination, new WebHdfsParamsBuilder("DELETE").build())))) {
+            if (resp.getStatusLine().getStatusCode() != HttpStatus.SC_NOT_FOUND) {
+                checkStatus(resp, "Delete the existing " + destination);
+            }
+
+            EntityUtils.consumeQuietly(resp.getEntity());
+        }
+
+        final List<NameValuePair> params = new WebHdfsParamsBuilder("RENAME").build();
+        params.add(new BasicNameValuePair("destination", getHdfsPath(destination)));
+
+        try (final CloseableHttpResponse resp = executor.execute(new HttpPut(buildUri(source, params)))) {
+            checkStatus(resp, "Rename " + source + " to " + destination);
+
+            // Response sample: {"boolean":true}
+            if (!readJson(resp).path("boolean").asBoolean(false)) {
+                throw new UnknownServiceException("Rename " + source + " to " + destination + " via webhdfs failed");
+            }
+        }
+    }
+
+    private void deleteQuietly(@NotNull String webHdfsPath) {
+        try (final CloseableHttpResponse resp = executor.execute(
+                new HttpDelete(buildUri(webHdfsPath, new WebHdfsParamsBuilder("DELETE").build())))) {
+            EntityUtils.consumeQuietly(resp.getEntity());
+        } catch (final IOException | RuntimeException ex) {
+            log().warn("Can't delete the temporary file " + webHdfsPath, ex);
+        }
+    }
+
+    private static void checkStatus(@NotNull CloseableHttpResponse resp, @NotNull String action) throws IOException {
+        if (resp.getStatusLine().getStatusCode() >= 300) {
+            EntityUtils.consumeQuietly(resp.getEntity());
+
+            throw new UnknownServiceException(String.format(
+                    "%s via webhdfs failed with status %s", action, resp.getStatusLine()));
+        }
+    }
+
+    @NotNull
+    private static JsonNode readJson(@NotNull CloseableHttpResponse resp) throws IOException {
+        return resp.getEntity() == null
+                ? new ObjectMapper().createObjectNode()
+                : new ObjectMapper().readTree(resp.getEntity().getContent());
+    }
+
+    @NotNull
+    private static URI buildUri(@NotNull String webHdfsPath, @NotNull List<NameValuePair> params) throws IOException {
+        try {
+            return new URIBuilder(webHdfsPath).addParameters(params).build();
+        } catch (final URISyntaxException ex) {
+            throw new IOException("Invalid webhdfs path " + webHdfsPath, ex);
+        }
+    }
+
+    /**
+     * Get the HDFS path from a WebHDFS URI, such as `/path/to/file` from `https://host/webhdfs/v1/path/to/file`
+     */
+    @NotNull
+    static String getHdfsPath(@NotNull String webHdfsPath) throws IOException {
+        final String path = URI.create(webHdfsPath).getPath();
+        final int prefix = path == null ? -1 : path.indexOf(WEBHDFS_PREFIX);
+        if (prefix < 0) {
+            throw new IOException("Not a webhdfs path: " + webHdfsPath);
+        }
+
+        return StringUtils.prependIfMissing(path.substring(prefix + WEBHDFS_PREFIX.length()), "/");
+    }
+}
@@ -45,7 +45,7 @@ public class ADLSGen2Deploy implements Deployable, ILogger {
         // four steps to upload via adls gen2 rest api
         // 1.put request to create new dir
         // 2.put request to create new file(artifact) which is empty
-        // 3.patch request to append data to file
+        // 3.patch requests to append data blocks to file concurrently
         // 4.patch request to flush data to file
 
         final URI destURI = getUploadDir();
@@ -76,7 +76,8 @@ public class ADLSGen2Deploy implements Deployable, ILogger {
                  })
                  .doOnNext(ignore -> log().info(String.format("Create filesystem %s successfully.", dirPath)))
                  .flatMap(ignore -> op.createFile(filePath, "0755"))
-                 .flatMap(ignore -> op.uploadData(filePath, src))
+                 .flatMap(ignore -> op.uploadData(
+                         filePath, src, JobUtils.createUploadProgressReporter(src, src.length(), logSubject)))
                  .doOnNext(ignore -> log().info(String.format("Append data to file %s successfully.", filePath)))
                  .map(ignored -> AbfsUri.parse(filePath).getUri().toString());
     }
@@ -28,7 +28,6 @@ import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.htmlunit.Cache;
 import rx.Observable;
 import rx.Observer;
-import rx.Subscriber;
 import rx.subjects.PublishSubject;
 
 import java.io.File;
@@ -38,6 +37,8 @@ import java.net.UnknownServiceException;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -487,45 +488,54 @@ public class SparkBatchJob implements ISparkBatchJob, ILogger {
     }
 
     /**
-     * Get Spark Job Yarn application state with retries
-     *
-     * @return the Yarn application state got
-     * @throws IOException exceptions in transaction
+     * The key to identify the batch in the shared poll scheduler, the batch ID is only unique in one Livy service
      */
-    public String getState() throws IOException {
-        if (getConnectUri() == null) {
-            throw new SparkJobNotConfiguredException("Can't get Spark job connection URI, " +
-                    "please configure Spark cluster which the Spark job will be submitted.");
-        }
+    @NotNull
+    private String getBatchPollKey() {
+        return getConnectUri() + "#" + getBatchId();
+    }
 
-        int retries = 0;
+    /**
+     * New RxAPI: Get the job status, sharing the request with other polls of the job in the same cycle
+     *
+     * @return Spark Job status observable
+     */
+    @NotNull
+    protected Observable<SparkSubmitResponse> getCoalescedStatus() {
+        return SparkBatchJobPollScheduler.getInstance()
+                .getStatus(getBatchPollKey(), () -> getStatus().map(SparkSubmitResponse.class::cast));
+    }
 
-        do {
-            try {
-                final HttpResponse httpResponse = this.getSubmission().getBatchSparkJobStatus(
-                        this.getConnectUri().toString(), batchId);
+    @NotNull
+    private SparkBatchJobPollScheduler.AdaptiveInterval createPollInterval() {
+        final long maxIntervalMs = TimeUnit.SECONDS.toMillis(getDelaySeconds());
 
-                if (httpResponse.getCode() >= 200 && httpResponse.getCode() < 300) {
-                    final SparkSubmitResponse jobResp = ObjectConvertUtils.convertJsonToObject(
-                            httpResponse.getMessage(), SparkSubmitResponse.class)
-                                                                          .orElseThrow(() -> new UnknownServiceException(
-                                    "Bad spark job response: " + httpResponse.getMessage()));
+        return new SparkBatchJobPollScheduler.AdaptiveInterval(
+                Math.min(SparkBatchJobPollScheduler.MIN_POLL_INTERVAL_MS, maxIntervalMs), maxIntervalMs);
+    }
 
-                    return jobResp.getState();
-                }
-            } catch (final IOException e) {
-                log().debug("Got exception " + e.toString() + ", waiting for a while to try", e);
-            }
+    @NotNull
+    private Observable<SparkSubmitResponse> getStatusWithRetries(@NotNull String failureMessage) {
+        if (getConnectUri() == null) {
+            return Observable.error(new SparkJobNotConfiguredException("Can't get Spark job connection URI, " +
+                    "please configure Spark cluster which the Spark job will be submitted."));
+        }
 
-            try {
-                // Retry interval
-                sleep(TimeUnit.SECONDS.toMillis(this.getDelaySeconds()));
-            } catch (final InterruptedException ex) {
-                throw new IOException("Interrupted in retry attempting", ex);
-            }
-        } while (++retries < this.getRetriesMax());
+        return SparkBatchJobPollScheduler.getInstance()
+                .retryWithInterval(getCoalescedStatus(), getRetriesMax(), createPollInterval())
+                .switchIfEmpty(Observable.error(new UnknownServiceException(
+                        failureMessage + ": Unknown service error after " + (getRetriesMax() - 1) + " retries")));
+    }
 
-        throw new UnknownServiceException("Failed to get job state: Unknown service error after " + --retries + " retries");
+    /**
+     * New RxAPI: Get Spark Job Yarn application state with retries
+     *
+     * @return the Yarn application state observable
+     *         Observable Error: IOException exceptions in transaction
+     */
+    @NotNull
+    public Observable<String> getState() {
+        return getStatusWithRetries("Failed to get job state").map(SparkSubmitResponse::getState);
     }
 
     /**
@@ -628,28 +638,18 @@ public class SparkBatchJob implements ISparkBatchJob, ILogger {
                     "please configure Spark cluster which the Spark job will be submitted."));
         }
 
-        return Observable.create(ob -> {
-            try {
-                final HttpResponse httpResponse = this.getSubmission().getBatchSparkJobStatus(
-                        getConnectUri().toString(), getBatchId());
-
-                if (httpResponse.getCode() >= 200 && httpResponse.getCode() < 300) {
-                    final SparkSubmitResponse jobResp = ObjectConvertUtils.convertJsonToObject(
-                            httpResponse.getMessage(), SparkSubmitResponse.class)
-                                                                          .orElseThrow(() -> new UnknownServiceException(
-                                    "Bad spark job response: " + httpResponse.getMessage()));
-
-                    if (jobResp.getAppId() != null) {
-                        ob.onNext(jobResp.getAppId());
+        return getCoalescedStatus()
+                .onErrorResumeNext(err -> {
+                    if (err instanceof SparkJobException) {
+                        // No application ID for the bad status response
+                        return Observable.empty();
                     }
-                }
 
-                ob.onCompleted();
-            } catch (final IOException ex) {
-                log().warn("Got exception " + ex.toString());
-                ob.onError(ex);
-            }
-        });
+                    log().warn("Got exception " + err.toString());
+                    return Observable.error(err);
+                })
+                .map(SparkSubmitResponse::getAppId)
+                .filter(Objects::nonNull);
     }
 
     /**
@@ -802,91 +802,92 @@ public class SparkBatchJob implements ISparkBatchJob, ILogger {
                 "stderr:",
                 "yarn diagnostics:"));
 
-        return Observable.create(ob -> {
-            try {
-                final int maxLinesPerGet = 128;
-                int linesGot;
-                boolean isFetching = true;
-
-                while (isFetching) {
-                    final int start = nextLivyLogOffset;
-                    final boolean isAppIdAllocated = !this.getSparkJobApplicationIdObservable().isEmpty().toBlocking()
-                            .lastOrDefault(true);
-                    final String logUrl = String.format("%s/%d/log?from=%d&size=%d",
-                                                        this.getConnectUri().toString(), batchId, start, maxLinesPerGet);
-
-                    final HttpResponse httpResponse = this.getSubmission().getHttpResponseViaGet(logUrl);
-
-                    final SparkJobLog sparkJobLog = ObjectConvertUtils.convertJsonToObject(httpResponse.getMessage(),
-                                                                                           SparkJobLog.class)
-                                                                      .orElseThrow(() -> new UnknownServiceException(
-                                    "Bad spark log response: " + httpResponse.getMessage()));
-
-                    synchronized (livyLogOffsetLock) {
-                        if (start != nextLivyLogOffset) {
-                            // The offset is moved by another fetching thread, re-do it with new offset
-                            continue;
-                        }
+        final int maxLinesPerGet = 128;
+        final SparkBatchJobPollScheduler pollScheduler = SparkBatchJobPollScheduler.getInstance();
+        final SparkBatchJobPollScheduler.AdaptiveInterval interval = createPollInterval();
 
-                        // To subscriber
-                        sparkJobLog.getLog().stream()
-                                .filter(line -> !ignoredEmptyLines.contains(line.trim().toLowerCase()))
-                                .forEach(line -> ob.onNext(new SparkLogLine(LIVY, Log, line)));
+        // One poll cycle gets a page of log lines and whether to continue fetching,
+        // the job status is only checked when there are no more lines
+        final Observable<SimpleImmutableEntry<List<String>, Boolean>> logPoll = Observable
+                .fromCallable(() -> fetchLivyLog(maxLinesPerGet))
+                .flatMap(logs -> {
+                    if (!logs.isPresent()) {
+                        // The offset is moved by another fetching thread, re-do it with new offset
+                        interval.onBacklog();
 
-                        linesGot = sparkJobLog.getLog().size();
-                        nextLivyLogOffset += linesGot;
+                        return Observable.just(new SimpleImmutableEntry<>(Collections.<String>emptyList(), true));
                     }
 
-                    // Retry interval
-                    if (linesGot == 0) {
-                        isFetching = "starting".equals(this.getState()) && !isAppIdAllocated;
+                    if (!logs.get().isEmpty()) {
+                        if (logs.get().size() >= maxLinesPerGet) {
+                            interval.onBacklog();
+                        } else {
+                            interval.onActivity();
+                        }
 
-                        sleep(TimeUnit.SECONDS.toMillis(this.getDelaySeconds()));
+                        return Observable.just(new SimpleImmutableEntry<>(logs.get(), true));
                     }
-                }
-            } catch (final IOException ex) {
-                ob.onNext(new SparkLogLine(TOOL, Error, ex.getMessage()));
-            } catch (final InterruptedException ignored) {
-            } finally {
-                ob.onCompleted();
-            }
-        });
-    }
 
-    public boolean isActive() throws IOException {
-        if (getConnectUri() == null) {
-            throw new SparkJobNotConfiguredException("Can't get Spark job connection URI, " +
-                    "please configure Spark cluster which the Spark job will be submitted.");
-        }
+                    interval.onIdle();
 
-        int retries = 0;
+                    return pollScheduler.retryWithInterval(getCoalescedStatus(), getRetriesMax(), createPollInterval())
+                            .switchIfEmpty(Observable.error(new UnknownServiceException(
+                                    "Failed to get job state: Unknown service error after " + getRetriesMax() + " tries")))
+                            .map(status -> new SimpleImmutableEntry<>(
+                                    logs.get(),
+                                    "starting".equals(status.getState()) && status.getAppId() == null));
+                });
 
-        do {
-            try {
-                final HttpResponse httpResponse = this.getSubmission().getBatchSparkJobStatus(
-                        this.getConnectUri().toString(), batchId);
+        return pollScheduler.repeatWithInterval(logPoll, interval)
+                .takeUntil(linesAndIsFetching -> !linesAndIsFetching.getValue())
+                .concatMap(linesAndIsFetching -> Observable.from(linesAndIsFetching.getKey()))
+                .filter(line -> !ignoredEmptyLines.contains(line.trim().toLowerCase()))
+                .map(line -> new SparkLogLine(LIVY, Log, line))
+                .onErrorResumeNext(err -> err instanceof IOException || err instanceof HDIException
+                        ? Observable.just(new SparkLogLine(TOOL, Error, err.getMessage()))
+                        : Observable.error(err));
+    }
 
-                if (httpResponse.getCode() >= 200 && httpResponse.getCode() < 300) {
-                    final SparkSubmitResponse jobResp = ObjectConvertUtils.convertJsonToObject(
-                            httpResponse.getMessage(), SparkSubmitResponse.class)
-                                                                          .orElseThrow(() -> new UnknownServiceException(
-                                    "Bad spark job response: " + httpResponse.getMessage()));
+    /**
+     * Fetch a page of Livy batch log lines from the current offset
+     *
+     * @param maxLinesPerGet the maximum lines count to get
+     * @return the lines got, or empty if the offset is moved by another fetching thread
+     * @throws IOException exceptions in transaction
+     */
+    private Optional<List<String>> fetchLivyLog(final int maxLinesPerGet) throws IOException {
+        final int start = nextLivyLogOffset;
+        final String logUrl = String.format("%s/%d/log?from=%d&size=%d",
+                                            this.getConnectUri().toString(), batchId, start, maxLinesPerGet);
 
-                    return jobResp.isAlive();
-                }
-            } catch (final IOException e) {
-                log().debug("Got exception " + e.toString() + ", waiting for a while to try", e);
-            }
+        final HttpResponse httpResponse = this.getSubmission().getHttpResponseViaGet(logUrl);
 
-            try {
-                // Retry interval
-                sleep(TimeUnit.SECONDS.toMillis(this.getDelaySeconds()));
-            } catch (final InterruptedException ex) {
-                throw new IOException("Interrupted in retry attempting", ex);
+        final SparkJobLog sparkJobLog = ObjectConvertUtils.convertJsonToObject(httpResponse.getMessage(),
+                                                                               SparkJobLog.class)
+                                                          .orElseThrow(() -> new UnknownServiceException(
+                        "Bad spark log response: " + httpResponse.getMessage()));
+
+        synchronized (livyLogOffsetLock) {
+            if (start != nextLivyLogOffset) {
+                return Optional.empty();
             }
-        } while (++retries < this.getRetriesMax());
 
-        throw new UnknownServiceException("Failed to detect job activity: Unknown service error after " + --retries + " retries");
+            final List<String> lines = sparkJobLog.getLog();
+            nextLivyLogOffset += lines.size();
+
+            return Optional.of(lines);
+        }
+    }
+
+    /**
+     * New RxAPI: Detect whether the Spark Job is active with retries
+     *
+     * @return the job activity observable
+     *         Observable Error: IOException exceptions in transaction
+     */
+    @NotNull
+    public Observable<Boolean> isActive() {
+        return getStatusWithRetries("Failed to detect job activity").map(SparkSubmitResponse::isAlive);
     }
 
     protected Observable<SimpleImmutableEntry<String, String>> getJobDoneObservable() {
@@ -895,51 +896,50 @@ public class SparkBatchJob implements ISparkBatchJob, ILogger {
                     "please configure Spark cluster which the Spark job will be submitted."));
         }
 
-        return Observable.create((Subscriber<? super SimpleImmutableEntry<String, String>> ob) -> {
-            try {
-                boolean isJobActive;
-                SparkBatchJobState state = SparkBatchJobState.NOT_STARTED;
-                String diagnostics = "";
-
-                do {
-                    final HttpResponse httpResponse = this.getSubmission().getBatchSparkJobStatus(
-                            this.getConnectUri().toString(), batchId);
-
-                    if (httpResponse.getCode() >= 200 && httpResponse.getCode() < 300) {
-                        final SparkSubmitResponse jobResp = ObjectConvertUtils.convertJsonToObject(
-                                httpResponse.getMessage(), SparkSubmitResponse.class)
-                                                                              .orElseThrow(() -> new UnknownServiceException(
-                                        "Bad spark job response: " + httpResponse.getMessage()));
-
-                        state = SparkBatchJobState.valueOf(jobResp.getState().toUpperCase());
-                        diagnostics = String.join("\n", jobResp.getLog());
+        final SparkBatchJobPollScheduler.AdaptiveInterval interval = createPollInterval();
+        final AtomicReference<SimpleImmutableEntry<String, String>> lastStateAndDiagnostics = new AtomicReference<>(
+                new SimpleImmutableEntry<>(SparkBatchJobState.NOT_STARTED.toString(), ""));
+        final AtomicBoolean isStatusUnavailable = new AtomicBoolean(false);
+
+        final Observable<SimpleImmutableEntry<String, String>> statePoll = getCoalescedStatus()
+                .map(jobResp -> new SimpleImmutableEntry<>(
+                        SparkBatchJobState.valueOf(jobResp.getState().toUpperCase()).toString(),
+                        String.join("\n", jobResp.getLog())))
+                .onErrorResumeNext(err -> {
+                    if (err instanceof SparkJobException) {
+                        // The job status isn't available any more, end with the last state got
+                        isStatusUnavailable.set(true);
+
+                        return Observable.just(lastStateAndDiagnostics.get());
+                    }
 
-                        isJobActive = !isDone(state.toString());
+                    return Observable.error(err);
+                })
+                .doOnNext(stateAndDiagnostics -> {
+                    if (stateAndDiagnostics.getKey().equals(lastStateAndDiagnostics.get().getKey())) {
+                        interval.onIdle();
                     } else {
-                        isJobActive = false;
+                        interval.onActivity();
                     }
 
+                    lastStateAndDiagnostics.set(stateAndDiagnostics);
+                });
 
-                    // Retry interval
-                    sleep(1000);
-                } while (isJobActive);
-
-                ob.onNext(new SimpleImmutableEntry<>(state.toString(), diagnostics));
-                ob.onCompleted();
-            } catch (final IOException ex) {
-                ob.onError(ex);
-            } catch (final InterruptedException ignored) {
-                ob.onCompleted();
-            }
-        });
+        return SparkBatchJobPollScheduler.getInstance().repeatWithInterval(statePoll, interval)
+                .takeUntil(stateAndDiagnostics -> isStatusUnavailable.get() || isDone(stateAndDiagnostics.getKey()))
+                .last();
     }
 
     protected Observable<String> getJobLogAggregationDoneObservable() {
+        final SparkBatchJobPollScheduler.AdaptiveInterval yarnAppPollInterval = createPollInterval();
+
         return getSparkJobApplicationIdObservable()
                 .flatMap(applicationId ->
                         Observable.fromCallable(() ->
                                 getSparkJobYarnApplication(this.getYarnNMConnectUri(), applicationId))
-                                .repeatWhen(ob -> ob.delay(getDelaySeconds(), TimeUnit.SECONDS))
+                                .doOnNext(ignored -> yarnAppPollInterval.onIdle())
+                                .compose(yarnAppPoll -> SparkBatchJobPollScheduler.getInstance()
+                                        .repeatWithInterval(yarnAppPoll, yarnAppPollInterval))
                                 .filter(Objects::nonNull)
                                 .takeUntil(this::isYarnAppLogAggregationDone)
                                 .filter(this::isYarnAppLogAggregationDone))
@@ -1165,12 +1165,18 @@ public class SparkBatchJob implements ISparkBatchJob, ILogger {
     @NotNull
     @Override
     public Observable<String> awaitStarted() {
-        return getStatus()
+        final SparkBatchJobPollScheduler.AdaptiveInterval interval = createPollInterval();
+        final Observable<SimpleImmutableEntry<String, String>> statePoll = getCoalescedStatus()
                 .map(status -> new SimpleImmutableEntry<>(status.getState(), String.join("\n", status.getLog())))
                 .retry(getRetriesMax())
-                .repeatWhen(ob -> ob.doOnNext(ignored -> getCtrlSubject().onNext(
-                        new SparkLogLine(TOOL, Info, "The Spark job is starting...")))
-                                    .delay(getDelaySeconds(), TimeUnit.SECONDS))
+                .doOnNext(stateLogPair -> {
+                    if (!isDone(stateLogPair.getKey()) && !isRunning(stateLogPair.getKey())) {
+                        interval.onIdle();
+                        getCtrlSubject().onNext(new SparkLogLine(TOOL, Info, "The Spark job is starting..."));
+                    }
+                });
+
+        return SparkBatchJobPollScheduler.getInstance().repeatWithInterval(statePoll, interval)
                 .takeUntil(stateLogPair -> isDone(stateLogPair.getKey()) || isRunning(stateLogPair.getKey()))
                 .filter(stateLogPair -> isDone(stateLogPair.getKey()) || isRunning(stateLogPair.getKey()))
                 .flatMap(stateLogPair -> {
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.common;
+
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import rx.Observable;
+import rx.Scheduler;
+import rx.functions.Func0;
+import rx.schedulers.Schedulers;
+import rx.schedulers.Timestamped;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The polling scheduler shared by all active Spark batch jobs.
+ *
+ * The waits between polls are timers on one shared daemon thread rather than sleeping threads, and the poll requests
+ * run on the IO scheduler only when they are issued. The Livy batch status requests for the same batch are
+ * coalesced, so the state, application ID and log polls of a job share one request per cycle.
+ */
+public class SparkBatchJobPollScheduler implements ILogger {
+    public static final long MIN_POLL_INTERVAL_MS = 1000;
+    private static final double BACKOFF_MULTIPLIER = 2.0;
+    private static final double JITTER_RATIO = 0.2;
+
+    /**
+     * The status got within the period is taken as the current one
+     */
+    private static final long STATUS_FRESHNESS_MS = 500;
+
+    /**
+     * Poll intervals with the exponential backoff and jitter. The interval goes back to the minimum one once there is
+     * any activity, such as new log lines or job state changes, and doubles for each idle poll up to the maximum.
+     */
+    public static class AdaptiveInterval {
+        private final long minMillis;
+        private final long maxMillis;
+        private long currentMillis;
+        private boolean isBacklogged = false;
+
+        public AdaptiveInterval(long minMillis, long maxMillis) {
+            this.minMillis = Math.max(0, Math.min(minMillis, maxMillis));
+            this.maxMillis = Math.max(0, maxMillis);
+            this.currentMillis = this.minMillis;
+        }
+
+        public synchronized void onActivity() {
+            currentMillis = minMillis;
+            isBacklogged = false;
+        }
+
+        /**
+         * Poll again without delay, such as a full page of log lines got and more are there
+         */
+        public synchronized void onBacklog() {
+            currentMillis = minMillis;
+            isBacklogged = true;
+        }
+
+        public synchronized void onIdle() {
+            currentMillis = Math.min(maxMillis, Math.max(1, (long) (currentMillis * BACKOFF_MULTIPLIER)));
+            isBacklogged = false;
+        }
+
+        public synchronized long nextDelayMillis() {
+            if (isBacklogged) {
+                return 0;
+            }
+
+            final double jitter = 1 + ThreadLocalRandom.current().nextDouble(-JITTER_RATIO, JITTER_RATIO);
+
+            return (long) (currentMillis * jitter);
+        }
+    }
+
+    @NotNull
+    private final Scheduler timerScheduler;
+
+    @NotNull
+    private final Map<String, Observable<SparkSubmitResponse>> inflightStatus = new ConcurrentHashMap<>();
+
+    @NotNull
+    private final Map<String, Timestamped<SparkSubmitResponse>> recentStatus = new ConcurrentHashMap<>();
+
+    private SparkBatchJobPollScheduler() {
+        final AtomicInteger threadCount = new AtomicInteger();
+
+        this.timerScheduler = Schedulers.from(Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "spark-batch-job-poll-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+
+            return thread;
+        }));
+    }
+
+    private static final class SparkBatchJobPollSchedulerHolder {
+        private static final SparkBatchJobPollScheduler INSTANCE = new SparkBatchJobPollScheduler();
+    }
+
+    public static SparkBatchJobPollScheduler getInstance() {
+        return SparkBatchJobPollSchedulerHolder.INSTANCE;
+    }
+
+    /**
+     * Get the batch status, sharing the in-flight or just finished request for the same batch
+     *
+     * @param batchKey the key to identify the batch
+     * @param statusRequest the factory of the status request
+     * @return the batch status observable
+     */
+    @NotNull
+    public Observable<SparkSubmitResponse> getStatus(@NotNull String batchKey,
+                                                     @NotNull Func0<Observable<SparkSubmitResponse>> statusRequest) {
+        return Observable.defer(() -> {
+            final Timestamped<SparkSubmitResponse> recent = recentStatus.get(batchKey);
+
+            if (recent != null && System.currentTimeMillis() - recent.getTimestampMillis() < STATUS_FRESHNESS_MS) {
+                return Observable.just(recent.getValue());
+            }
+
+            return inflightStatus.computeIfAbsent(batchKey, key -> {
+                final AtomicReference<Observable<SparkSubmitResponse>> shared = new AtomicReference<>();
+
+                shared.set(Observable.defer(statusRequest::call)
+                        .subscribeOn(Schedulers.io())
+                        .doOnNext(status -> putRecentStatus(key, status))
+                        .doOnTerminate(() -> inflightStatus.remove(key, shared.get()))
+                        .cache());
+
+                return shared.get();
+            });
+        });
+    }
+
+    private void putRecentStatus(@NotNull String batchKey, @NotNull SparkSubmitResponse status) {
+        final long now = System.currentTimeMillis();
+
+        // The recent status is only used within the freshness period, drop the stale ones of finished jobs
+        recentStatus.values().removeIf(recent -> now - recent.getTimestampMillis() >= STATUS_FRESHNESS_MS);
+        recentStatus.put(batchKey, new Timestamped<>(now, status));
+    }
+
+    /**
+     * Repeat the poll source after the adaptive interval when it completes, the callers update the interval with
+     * the poll results.
+     *
+     * @param source the poll source
+     * @param interval the adaptive poll interval
+     * @param <T> the poll result type
+     * @return the repeated poll observable
+     */
+    @NotNull
+    public <T> Observable<T> repeatWithInterval(@NotNull Observable<T> source, @NotNull AdaptiveInterval interval) {
+        return source
+                .subscribeOn(Schedulers.io())
+                .repeatWhen(completed -> completed.concatMap(ignored ->
+                        Observable.timer(interval.nextDelayMillis(), TimeUnit.MILLISECONDS, timerScheduler)));
+    }
+
+    /**
+     * Retry the source for errors with the adaptive interval backoff
+     *
+     * @param source the source to retry
+     * @param retriesMax the maximum tries count
+     * @param interval the adaptive retry interval
+     * @param <T> the result type
+     * @return the source with retries, which completes empty when all tries failed
+     */
+    @NotNull
+    public <T> Observable<T> retryWithInterval(@NotNull Observable<T> source,
+                                               int retriesMax,
+                                               @NotNull AdaptiveInterval interval) {
+        return source
+                .subscribeOn(Schedulers.io())
+                .retryWhen(errors -> errors
+                        .doOnNext(err -> log().debug("Got exception " + err + ", waiting for a while to try", err))
+                        .zipWith(Observable.range(1, Math.max(0, retriesMax - 1)), (err, retries) -> retries)
+                        .concatMap(retries -> {
+                            interval.onIdle();
+
+                            return Observable.timer(interval.nextDelayMillis(), TimeUnit.MILLISECONDS, timerScheduler);
+                        }));
+    }
+}
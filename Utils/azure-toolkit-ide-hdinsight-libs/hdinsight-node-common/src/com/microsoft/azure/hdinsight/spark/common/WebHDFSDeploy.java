@@ -9,25 +9,21 @@ import com.microsoft.azure.hdinsight.common.logger.ILogger;
 import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
 import com.microsoft.azure.hdinsight.sdk.common.HttpObservable;
 import com.microsoft.azure.hdinsight.sdk.storage.webhdfs.WebHdfsParamsBuilder;
+import com.microsoft.azure.hdinsight.sdk.storage.webhdfs.WebHdfsUploader;
 import com.microsoft.azure.hdinsight.spark.common.log.SparkLogLine;
 import com.microsoft.azure.hdinsight.spark.jobs.JobUtils;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.azuretools.azurecommons.helpers.Nullable;
-import org.apache.commons.lang3.StringUtils;
 import org.apache.http.NameValuePair;
 import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.utils.URIBuilder;
-import org.apache.http.client.utils.URLEncodedUtils;
-import org.apache.http.entity.BufferedHttpEntity;
-import org.apache.http.entity.ContentType;
-import org.apache.http.entity.InputStreamEntity;
 import rx.Observable;
 import rx.Observer;
 import rx.exceptions.Exceptions;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -63,7 +59,7 @@ public class WebHDFSDeploy implements Deployable, ILogger {
                 .build();
 
         this.http = http;
-        http.setDefaultRequestConfig(RequestConfig.custom().setExpectContinueEnabled(true).build());
+        http.setDefaultRequestConfig(RequestConfig.copy(http.getDefaultRequestConfig()).setExpectContinueEnabled(true).build());
     }
 
     private URI getUploadDir() {
@@ -74,51 +70,50 @@ public class WebHDFSDeploy implements Deployable, ILogger {
     @Override
     public Observable<String> deploy(File src,
                                      Observer<SparkLogLine> logSubject) {
-        //three steps to upload via webhdfs
+        //two steps to upload via webhdfs
         // 1.put request to create new dir
-        // 2.put request to get 307 redirect uri from response
-        // 3.put redirect request with file content as setEntity
+        // 2.upload the file content into a temporary file and rename it to the destination
         final URI dest = getUploadDir();
         final HttpPut req = new HttpPut(dest.toString());
         return http.request(req, null, this.createDirReqParams, null)
                 .doOnNext(
                         resp -> {
+                            closeResponse(resp);
                             if (resp.getStatusLine().getStatusCode() != 200) {
                                 Exceptions.propagate(new UnknownServiceException("Can not create directory to save artifact using webHDFS storage type"));
                             }
                         }
                 )
-                .map(ignored -> new HttpPut(dest.resolve(src.getName()).toString()))
-                .flatMap(put -> http.request(put, null, this.uploadReqParams, null))
-                .map(resp -> resp.getFirstHeader("Location").getValue())
-                .doOnNext(redirectedUri -> {
-                    if (StringUtils.isBlank(redirectedUri)) {
-                        Exceptions.propagate(new UnknownServiceException("Can not get valid redirect uri using webHDFS storage type"));
-                    }
-                })
-                .map(HttpPut::new)
-                .flatMap(put -> {
-                    try {
-                        InputStreamEntity reqEntity = new InputStreamEntity(
-                                new FileInputStream(src),
-                                -1,
-                                ContentType.APPLICATION_OCTET_STREAM);
-                        reqEntity.setChunked(true);
-
-                        return http.request(put, new BufferedHttpEntity(reqEntity), URLEncodedUtils.parse(put.getURI(), "UTF-8"), null);
-                    } catch (IOException ex) {
-                        throw new RuntimeException(new IllegalArgumentException("Can not get local artifact when uploading" + ex.toString()));
-                    }
-                })
                 .map(ignored -> {
+                    if (!src.isFile()) {
+                        throw new RuntimeException(new IllegalArgumentException("Can not get local artifact when uploading " + src));
+                    }
+
                     try {
+                        new WebHdfsUploader(http)
+                                .setCreateParams(this.uploadReqParams)
+                                .upload(src,
+                                        dest.resolve(src.getName()).toString(),
+                                        JobUtils.createUploadProgressReporter(src, src.length(), logSubject));
+
                         return getArtifactUploadedPath(dest.resolve(src.getName()).toString());
+                    } catch (final IOException ex) {
+                        throw Exceptions.propagate(ex);
                     } catch (final URISyntaxException ex) {
                         throw new RuntimeException(new IllegalArgumentException("Can not get valid artifact upload path" + ex.toString()));
                     }
                 });
     }
 
+    private void closeResponse(@NotNull CloseableHttpResponse resp) {
+        try {
+            // Release the connection back to the shared pool
+            resp.close();
+        } catch (IOException ex) {
+            log().warn("Failed to close the WebHDFS response", ex);
+        }
+    }
+
     @Nullable
     public String getArtifactUploadedPath(String rootPath) throws URISyntaxException {
         final List<NameValuePair> params = new WebHdfsParamsBuilder("OPEN").build();
@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.base.Ticker;
+import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.cache.Weigher;
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * The Job View cache which knows the Spark application state.
+ *
+ * The values of finished applications won't change, they are kept in a cache bounded by the estimated value size,
+ * and can be spilled to disk when evicted. The values of running applications are refreshed in background after the
+ * refresh interval, the callers get the current value without waiting for the Spark History Server.
+ *
+ * @param <V> the cached value type
+ */
+class ApplicationStateAwareCache<V> implements ILogger {
+    static final long RUNNING_REFRESH_SECONDS = 10;
+    private static final long RUNNING_EXPIRE_MINUTES = 10;
+    private static final long RUNNING_MAX_SIZE = 100;
+    private static final int REFRESH_THREADS = 2;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    static final Executor refreshExecutor = createRefreshExecutor();
+
+    @NotNull
+    private final String name;
+
+    @NotNull
+    private final CacheLoader<ApplicationKey, V> loader;
+
+    @NotNull
+    private final Predicate<ApplicationKey> isApplicationFinished;
+
+    @NotNull
+    private final LoadingCache<ApplicationKey, V> runningCache;
+
+    @NotNull
+    private final Cache<ApplicationKey, V> finishedCache;
+
+    @NotNull
+    private final JavaType spillType;
+
+    @Nullable
+    private final File spillDir;
+
+    /**
+     * Create the application state aware cache
+     *
+     * @param name the cache name, used in statistics and as the spill directory name
+     * @param loader the value loader
+     * @param isApplicationFinished the predicate whether the application is finished
+     * @param weigher the estimated bytes of a value, which should be cheap since it's called on every put
+     * @param maxFinishedWeightBytes the maximum estimated bytes of the finished applications values
+     * @param spillType the value type to read the spilled JSON back
+     * @param spillRootDir the root directory to spill the evicted finished applications values, null to disable
+     */
+    ApplicationStateAwareCache(@NotNull String name,
+                               @NotNull CacheLoader<ApplicationKey, V> loader,
+                               @NotNull Predicate<ApplicationKey> isApplicationFinished,
+                               @NotNull Weigher<ApplicationKey, V> weigher,
+                               long maxFinishedWeightBytes,
+                               @NotNull JavaType spillType,
+                               @Nullable File spillRootDir) {
+        this(name, loader, isApplicationFinished, weigher, maxFinishedWeightBytes, spillType, spillRootDir,
+             Ticker.systemTicker());
+    }
+
+    ApplicationStateAwareCache(@NotNull String name,
+                               @NotNull CacheLoader<ApplicationKey, V> loader,
+                               @NotNull Predicate<ApplicationKey> isApplicationFinished,
+                               @NotNull Weigher<ApplicationKey, V> weigher,
+                               long maxFinishedWeightBytes,
+                               @NotNull JavaType spillType,
+                               @Nullable File spillRootDir,
+                               @NotNull Ticker ticker) {
+        this.name = name;
+        this.loader = loader;
+        this.isApplicationFinished = isApplicationFinished;
+        this.spillType = spillType;
+        this.spillDir = spillRootDir == null ? null : new File(spillRootDir, name);
+
+        this.runningCache = CacheBuilder.newBuilder()
+                .maximumSize(RUNNING_MAX_SIZE)
+                .initialCapacity(20)
+                .refreshAfterWrite(RUNNING_REFRESH_SECONDS, TimeUnit.SECONDS)
+                .expireAfterAccess(RUNNING_EXPIRE_MINUTES, TimeUnit.MINUTES)
+                .recordStats()
+                .ticker(ticker)
+                .build(CacheLoader.asyncReloading(loader, refreshExecutor));
+
+        this.finishedCache = CacheBuilder.newBuilder()
+                .maximumWeight(maxFinishedWeightBytes)
+                .weigher(weigher)
+                .removalListener(this::onFinishedRemoval)
+                .recordStats()
+                .ticker(ticker)
+                .build();
+    }
+
+    @NotNull
+    private static Executor createRefreshExecutor() {
+        final AtomicInteger threadCount = new AtomicInteger();
+
+        return Executors.newFixedThreadPool(REFRESH_THREADS, runnable -> {
+            final Thread thread = new Thread(runnable, "job-view-cache-refresh-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+
+            return thread;
+        });
+    }
+
+    @NotNull
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Get the value of the application, loading it if absent
+     *
+     * @param key the application key
+     * @return the value, which could be the last one before the background refresh finishes for running applications
+     * @throws ExecutionException for the loading errors
+     */
+    @NotNull
+    V get(@NotNull ApplicationKey key) throws ExecutionException {
+        // Check the presence without recording a miss, the miss of a finished application is recorded by the loading
+        // below, and the lookups of running applications aren't the finished cache ones
+        if (finishedCache.asMap().containsKey(key)) {
+            final V finished = finishedCache.getIfPresent(key);
+            if (finished != null) {
+                return finished;
+            }
+        }
+
+        if (!isApplicationFinished.test(key)) {
+            return runningCache.get(key);
+        }
+
+        // The value got while the application was running could be incomplete, load it again
+        runningCache.invalidate(key);
+
+        return finishedCache.get(key, () -> {
+            final V spilled = readSpilled(key);
+
+            return spilled != null ? spilled : loader.load(key);
+        });
+    }
+
+    @NotNull
+    CacheStats getRunningStats() {
+        return runningCache.stats();
+    }
+
+    @NotNull
+    CacheStats getFinishedStats() {
+        return finishedCache.stats();
+    }
+
+    /**
+     * Get the hit, miss and load time statistics of both the running and finished applications values
+     *
+     * @return the combined statistics
+     */
+    @NotNull
+    CacheStats getStats() {
+        return getRunningStats().plus(getFinishedStats());
+    }
+
+    @NotNull
+    private File getSpillFile(@NotNull File dir, @NotNull ApplicationKey key) {
+        final String fileName = (key.getClusterDetails().getName() + "_" + key.getAppId()).replaceAll("[^\\w.-]", "_");
+
+        return new File(dir, fileName + ".json");
+    }
+
+    private void onFinishedRemoval(@NotNull RemovalNotification<ApplicationKey, V> notification) {
+        if (spillDir == null || notification.getCause() != RemovalCause.SIZE
+                || notification.getKey() == null || notification.getValue() == null) {
+            return;
+        }
+
+        final File spillFile = getSpillFile(spillDir, notification.getKey());
+        final File tempFile = new File(spillFile.getPath() + ".tmp");
+
+        try {
+            Files.createDirectories(spillDir.toPath());
+            objectMapper.writeValue(tempFile, notification.getValue());
+            Files.move(tempFile.toPath(), spillFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
+            log().warn("Failed to spill Job View cache " + name + " of " + notification.getKey().getAppId(), ex);
+        }
+    }
+
+    @Nullable
+    private V readSpilled(@NotNull ApplicationKey key) {
+        if (spillDir == null) {
+            return null;
+        }
+
+        final File spillFile = getSpillFile(spillDir, key);
+        if (!spillFile.isFile()) {
+            return null;
+        }
+
+        try {
+            return objectMapper.readValue(spillFile, spillType);
+        } catch (IOException ex) {
+            log().warn("Failed to read the spilled Job View cache " + name + " of " + key.getAppId(), ex);
+
+            return null;
+        } finally {
+            // It's back in memory, and will be spilled again when evicted
+            if (!spillFile.delete()) {
+                spillFile.deleteOnExit();
+            }
+        }
+    }
+}
@@ -5,6 +5,7 @@
 
 package com.microsoft.azure.hdinsight.spark.jobs;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
@@ -24,12 +25,14 @@ import com.microsoft.azure.hdinsight.sdk.common.HDIException;
 import com.microsoft.azure.hdinsight.sdk.common.HttpObservable;
 import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.SparkSession;
 import com.microsoft.azure.hdinsight.sdk.io.spark.ClusterFileBase64BufferedOutputStream;
+import com.microsoft.azure.hdinsight.sdk.rest.ObjectConvertUtils;
 import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.App;
 import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.ApplicationMasterLogs;
 import com.microsoft.azure.hdinsight.sdk.storage.implementation.HDStorageAccount;
 import com.microsoft.azure.hdinsight.sdk.storage.model.IHDIStorageAccount;
 import com.microsoft.azure.hdinsight.sdk.storage.StorageAccountType;
 import com.microsoft.azure.hdinsight.sdk.storage.webhdfs.WebHdfsParamsBuilder;
+import com.microsoft.azure.hdinsight.sdk.storage.webhdfs.WebHdfsUploader;
 import com.microsoft.azure.hdinsight.spark.common.SparkBatchEspMfaSubmission;
 import com.microsoft.azure.hdinsight.spark.common.SparkBatchSubmission;
 import com.microsoft.azure.hdinsight.spark.common.log.SparkLogLine;
@@ -53,23 +56,12 @@ import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.client.CredentialsProvider;
 import org.apache.http.client.HttpClient;
-import org.apache.http.client.config.RequestConfig;
-import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
-import org.apache.http.client.methods.HttpUriRequest;
-import org.apache.http.client.methods.RequestBuilder;
 import org.apache.http.client.utils.URIBuilder;
-import org.apache.http.entity.BufferedHttpEntity;
-import org.apache.http.entity.ContentType;
-import org.apache.http.entity.InputStreamEntity;
 import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
-import org.htmlunit.BrowserVersion;
 import org.htmlunit.Cache;
-import org.htmlunit.FailingHttpStatusCodeException;
-import org.htmlunit.WebClient;
-import org.htmlunit.html.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import rx.Observable;
@@ -82,20 +74,19 @@ import java.awt.*;
 import java.io.*;
 import java.lang.reflect.Type;
 import java.net.URI;
-import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.UnknownServiceException;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.List;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
 
 import static com.microsoft.azure.hdinsight.common.MessageInfoType.Info;
 import static com.microsoft.azure.hdinsight.spark.common.log.SparkLogLine.TOOL;
-import static org.apache.http.HttpHeaders.AUTHORIZATION;
 import static rx.exceptions.Exceptions.propagate;
 
 public class JobUtils {
@@ -107,6 +98,12 @@ public class JobUtils {
 
     private static final CredentialsProvider provider = new BasicCredentialsProvider();
 
+    // Upload to HDFS through Livy with 256KB BASE64 pages and 4 page writing statements in flight. A page is 8 lines
+    // of the 32KB literal, the retained statements codes in the REPL driver are about 25MB, and a statement polling
+    // response carries 256KB codes back.
+    private static final int LIVY_UPLOAD_PAGE_SIZE_KB = 256;
+    private static final int LIVY_UPLOAD_INFLIGHT_STATEMENTS = 4;
+
     public static void setResponse(@NotNull HttpExchange httpExchange, @NotNull String message) {
         setResponse(httpExchange, message, 200);
     }
@@ -123,6 +120,53 @@ public class JobUtils {
         }
     }
 
+    /**
+     * Set the response with a JSON array of the elements in batches, which are written with the chunked transfer
+     * encoding once each batch is ready, so the partial results get into the view before all batches are loaded
+     *
+     * @param httpExchange the HTTP exchange to response
+     * @param elementBatches the batches of the array elements
+     * @param <T> the array element type
+     */
+    public static <T> void setJsonArrayResponse(@NotNull HttpExchange httpExchange,
+                                                @NotNull Observable<? extends Collection<T>> elementBatches) {
+        JsonGenerator generator = null;
+
+        try {
+            for (final Collection<T> batch : elementBatches.toBlocking().toIterable()) {
+                if (generator == null) {
+                    // The response length 0 for the chunked transfer encoding
+                    httpExchange.sendResponseHeaders(200, 0);
+                    generator = ObjectConvertUtils.createJsonGenerator(httpExchange.getResponseBody());
+                    generator.writeStartArray();
+                }
+
+                for (final T element : batch) {
+                    generator.writeObject(element);
+                }
+
+                generator.flush();
+            }
+
+            if (generator == null) {
+                setResponse(httpExchange, "[]");
+                return;
+            }
+
+            generator.writeEndArray();
+            generator.close();
+            httpExchange.close();
+        } catch (final IOException | RuntimeException e) {
+            if (generator == null) {
+                setResponse(httpExchange, Optional.ofNullable(e.getMessage()).orElse(e.toString()), 500);
+            } else {
+                // The response status is sent, close the connection to let the view know the broken response
+                LOGGER.error("JobUtils set JSON array response error", e);
+                httpExchange.close();
+            }
+        }
+    }
+
     public static URI getLivyLogPath(@NotNull String rootPath, @NotNull String applicationId) {
         final String path = StringHelper.concat(rootPath, File.separator, JobLogFolderName, File.separator, applicationId);
         final File file = new File(path);
@@ -242,85 +286,7 @@ public class JobUtils {
                                                       @NotNull String type,
                                                       long start,
                                                       int size) {
-        final WebClient HTTP_WEB_CLIENT = new WebClient(BrowserVersion.CHROME);
-        HTTP_WEB_CLIENT.getOptions().setUseInsecureSSL(HttpObservable.isSSLCertificateValidationDisabled());
-        HTTP_WEB_CLIENT.setCache(globalCache);
-
-        if (authCode != null) {
-            HTTP_WEB_CLIENT.addRequestHeader(AUTHORIZATION, authCode);
-        }
-
-        return getInformationFromYarnLogDom(HTTP_WEB_CLIENT, baseUrl, type, start, size);
-    }
-
-    private static String getInformationFromYarnLogDom(@NotNull WebClient client,
-                                                      @NotNull String baseUrl,
-                                                      @NotNull String type,
-                                                      long start,
-                                                      int size) {
-        URI url = null;
-
-        try {
-            url = new URI(baseUrl + "/").resolve(
-                    String.format("%s?start=%d", type, start) +
-                            (size <= 0 ? "" : String.format("&&end=%d", start + size)));
-            final HtmlPage htmlPage = client.getPage(url.toString());
-
-            final Iterator<DomElement> iterator = htmlPage.getElementById("navcell").getNextElementSibling().getChildElements().iterator();
-
-            final HashMap<String, String> logTypeMap = new HashMap<>();
-            final AtomicReference<String> logType = new AtomicReference<>();
-            String logs = "";
-
-            while (iterator.hasNext()) {
-                final DomElement node = iterator.next();
-
-                if (node instanceof HtmlParagraph) {
-                    // In history server, need to read log type paragraph in page
-                    final Pattern logTypePattern = Pattern.compile("Log Type:\\s+(\\S+)");
-
-                    Optional.ofNullable(node.getFirstChild())
-                            .map(DomNode::getTextContent)
-                            .map(String::trim)
-                            .map(logTypePattern::matcher)
-                            .filter(Matcher::matches)
-                            .map(matcher -> matcher.group(1))
-                            .ifPresent(logType::set);
-                } else if (node instanceof HtmlPreformattedText) {
-                    // In running, no log type paragraph in page
-                    logs = Optional.ofNullable(node.getFirstChild())
-                                .map(DomNode::getTextContent)
-                                .orElse("");
-
-                    if (logType.get() != null) {
-                        // Only get the first <pre>...</pre>
-                        logTypeMap.put(logType.get(), logs);
-
-                        logType.set(null);
-                    }
-                }
-            }
-
-            return logTypeMap.getOrDefault(type, logs);
-        } catch (final FailingHttpStatusCodeException httpError) {
-            // If the URL is wrong, will get 200 response with content:
-            //      Unable to locate 'xxx' log for container
-            //  OR
-            //      Logs not available for <user>. Aggregation may not be complete, Check back later or try the nodemanager at...
-            //  OR
-            //      Cannot get container logs without ...
-            //
-            // if fetching Yarn log hits the gap between the job running and stop, will get the status 403
-            // the log is moving to job history server, just wait and retry.
-            if (httpError.getStatusCode() != HttpStatus.SC_FORBIDDEN) {
-                LOGGER.warn("The GET request to " + url + " responded error: " + httpError.getMessage());
-            }
-        } catch (final URISyntaxException e) {
-            LOGGER.error("baseUrl has syntax error: " + baseUrl);
-        } catch (final Exception e) {
-            LOGGER.warn("get Spark job log Error", e);
-        }
-        return "";
+        return YarnContainerLogClient.getInstance().getLog(authCode, baseUrl, type, start, size);
     }
 
     /**
@@ -369,7 +335,7 @@ public class JobUtils {
                             remainedLine = "";
                         } else {
                             remainedLine += logs;
-                            nextStart += logs.length();
+                            nextStart += getUtf8Length(logs);
                         }
                     } else {
                         long handledLength = new BufferedReader(new StringReader(
@@ -378,14 +344,13 @@ public class JobUtils {
                                 .map(line -> {
                                     ob.onNext(line);
 
-                                    // Count the line length with linebreak
-                                    // We need to handle this since the web client may convert the LF to CRLF
-                                    return (line.length() + 1);
+                                    // Count the line bytes length with linebreak, since the Yarn log offset is in bytes
+                                    return (getUtf8Length(line) + 1);
                                 })
                                 .reduce(Integer::sum)
                                 .orElse(0);
 
-                        nextStart += handledLength - remainedLine.length();
+                        nextStart += handledLength - getUtf8Length(remainedLine);
                         remainedLine = "";
                     }
 
@@ -405,6 +370,10 @@ public class JobUtils {
         }).subscribeOn(Schedulers.io());
     }
 
+    private static int getUtf8Length(@NotNull final String text) {
+        return text.getBytes(StandardCharsets.UTF_8).length;
+    }
+
     public static HttpEntity getEntity(@NotNull final IClusterDetail clusterDetail, @NotNull final String url) throws IOException, HDIException {
         final HttpClient client;
         if (clusterDetail instanceof MfaEspCluster) {
@@ -658,7 +627,10 @@ public class JobUtils {
                                                         () -> {});
 
                                  ClusterFileBase64BufferedOutputStream clusterFileBase64Out =
-                                         new ClusterFileBase64BufferedOutputStream(sparkSession, destUri);
+                                         new ClusterFileBase64BufferedOutputStream(sparkSession,
+                                                                                   destUri,
+                                                                                   LIVY_UPLOAD_PAGE_SIZE_KB,
+                                                                                   LIVY_UPLOAD_INFLIGHT_STATEMENTS);
                                  Base64OutputStream base64Enc = new Base64OutputStream(clusterFileBase64Out, true);
                                  InputStream inFile;
 
@@ -788,60 +760,46 @@ public class JobUtils {
         return Observable.fromCallable(() -> {
             final File file = new File(artifactPath);
             final String webHdfsUploadPath = destinationRootPath + file.getName();
-            final String redirectUri;
-
-            List<NameValuePair> params = new WebHdfsParamsBuilder("CREATE")
-                    .setOverwrite("true")
-                    .build();
-
-            URIBuilder uriBuilder = new URIBuilder(webHdfsUploadPath);
-            uriBuilder.addParameters(params);
-
-            HttpUriRequest req = RequestBuilder
-                    .put(uriBuilder.build())
-                    .build();
-
-            final CloseableHttpClient httpclient = submission.getHttpClient();
-            try (final CloseableHttpResponse response = httpclient.execute(req)) {
-                //two steps to upload via webhdfs
-                // 1.put request the get 307 redirect uri from response
-                // 2.put redirect request with file content as setEntity
-                redirectUri = response
-                        .getFirstHeader("Location")
-                        .getValue();
-
-                if (StringUtils.isBlank(redirectUri)) {
-                    throw new UnknownServiceException("can not get valid redirect uri using webhdfs");
-                }
-            } catch (final Exception ex) {
-                throw new UnknownServiceException("using webhdfs encounter problem:" + ex.toString());
+
+            new WebHdfsUploader(submission.getHttpClient()).upload(file, webHdfsUploadPath, null);
+
+            final URIBuilder uriBuilder = new URIBuilder(webHdfsUploadPath);
+            uriBuilder.addParameters(new WebHdfsParamsBuilder("OPEN").build());
+
+            //return get file uri
+            return uriBuilder.build().toString();
+        });
+    }
+
+    /**
+     * Create an upload progress listener which sends the percentage into the control subject for every 10 percent
+     *
+     * @param file the file uploading
+     * @param totalSize the total bytes to upload
+     * @param ctrlSubject the control subject to report progress, nullable
+     * @return the listener to accept the count of bytes just written, which is thread-safe
+     */
+    @NotNull
+    public static LongConsumer createUploadProgressReporter(@NotNull File file,
+                                                            long totalSize,
+                                                            @Nullable Observer<SparkLogLine> ctrlSubject) {
+        final AtomicLong uploaded = new AtomicLong(0);
+        final AtomicInteger reportedPercent = new AtomicInteger(0);
+
+        return written -> {
+            if (ctrlSubject == null || totalSize <= 0) {
+                return;
             }
 
-            final InputStreamEntity reqEntity = new InputStreamEntity(
-                    new FileInputStream(file),
-                    -1,
-                    ContentType.APPLICATION_OCTET_STREAM);
-            reqEntity.setChunked(true);
-            final BufferedHttpEntity reqEntityBuf = new BufferedHttpEntity(reqEntity);
-
-            //setup url with redirect url and entity ,config 100 continue to header
-            req = RequestBuilder
-                    .put(redirectUri)
-                    .setEntity(reqEntityBuf)
-                    .setConfig(RequestConfig.custom().setExpectContinueEnabled(true).build())
-                    .build();
-
-            // execute put request
-            try (final CloseableHttpResponse putResp = httpclient.execute(req)) {
-                params = new WebHdfsParamsBuilder("OPEN")
-                        .build();
-                uriBuilder = new URIBuilder(webHdfsUploadPath);
-                uriBuilder.addParameters(params);
-
-                //return get file uri
-                return uriBuilder.build().toString();
+            final int percent = (int) (Math.min(uploaded.addAndGet(written), totalSize) * 100 / totalSize);
+            final int reported = reportedPercent.get();
+
+            if (percent / 10 > reported / 10 && reportedPercent.compareAndSet(reported, percent)) {
+                ctrlSubject.onNext(new SparkLogLine(TOOL, Info, String.format(
+                        "Uploading %s: %d%% (%d/%d KB)",
+                        file.getName(), percent, Math.min(uploaded.get(), totalSize) / 1024, totalSize / 1024)));
             }
-        });
+        };
     }
 
     public static Cache getGlobalCache() {
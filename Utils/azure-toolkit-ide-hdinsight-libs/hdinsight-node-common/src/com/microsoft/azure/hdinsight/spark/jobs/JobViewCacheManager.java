@@ -5,11 +5,18 @@
 
 package com.microsoft.azure.hdinsight.spark.jobs;
 
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
 import com.google.common.cache.LoadingCache;
+import com.google.common.cache.Weigher;
+import com.microsoft.azure.hdinsight.common.HDInsightLoader;
 import com.microsoft.azure.hdinsight.common.JobViewManager;
 import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
+import com.microsoft.azure.hdinsight.sdk.rest.AttemptWithAppId;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.Application;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.event.JobStartEventLog;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.executor.Executor;
@@ -19,99 +26,217 @@ import com.microsoft.azure.hdinsight.sdk.rest.spark.task.Task;
 import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.App;
 import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.ApplicationMasterLogs;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import org.apache.commons.lang3.StringUtils;
+import rx.Observable;
+import rx.schedulers.Schedulers;
 
-import java.util.ArrayList;
+import java.io.File;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 public class JobViewCacheManager {
-    private static final LoadingCache<ApplicationKey, List<Job>> sparkJobLocalCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .initialCapacity(20)
-            .build(new CacheLoader<ApplicationKey, List<Job>>() {
+    private static final long KB = 1024;
+    private static final long MB = 1024 * KB;
+
+    /**
+     * Set the system property to true to spill the evicted finished applications values to the plugin root path
+     */
+    private static final String SPILL_PROPERTY = "hdinsight.jobview.cache.spill";
+
+    @Nullable
+    private static final File spillRootDir = Boolean.getBoolean(SPILL_PROPERTY)
+            ? new File(HDInsightLoader.getHDInsightHelper().getPluginRootPath(), "JobViewCache")
+            : null;
+
+    private static final ApplicationStateAwareCache<List<Job>> sparkJobLocalCache = new ApplicationStateAwareCache<>(
+            "jobs",
+            new CacheLoader<ApplicationKey, List<Job>>() {
                 @Override
                 public List<Job> load(ApplicationKey key) throws Exception {
                     return SparkRestUtil.getLastAttemptJobsFromApp(key);
                 }
-            });
+            },
+            JobViewCacheManager::isApplicationFinished,
+            listWeigher(2 * KB),
+            16 * MB,
+            listType(Job.class),
+            spillRootDir);
 
-    private static final LoadingCache<ApplicationKey, List<Stage>> sparkStageLocalCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .initialCapacity(20)
-            .build(new CacheLoader<ApplicationKey, List<Stage>>() {
+    private static final ApplicationStateAwareCache<List<Stage>> sparkStageLocalCache = new ApplicationStateAwareCache<>(
+            "stages",
+            new CacheLoader<ApplicationKey, List<Stage>>() {
                 @Override
                 public List<Stage> load(ApplicationKey key) throws Exception {
                     return SparkRestUtil.getAllStageFromApp(key);
                 }
-            });
+            },
+            JobViewCacheManager::isApplicationFinished,
+            listWeigher(4 * KB),
+            32 * MB,
+            listType(Stage.class),
+            spillRootDir);
 
-    private static final LoadingCache<ApplicationKey, List<Executor>> sparkExecutorLocalCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .initialCapacity(20)
-            .build(new CacheLoader<ApplicationKey, List<Executor>>() {
+    private static final ApplicationStateAwareCache<List<Executor>> sparkExecutorLocalCache = new ApplicationStateAwareCache<>(
+            "executors",
+            new CacheLoader<ApplicationKey, List<Executor>>() {
                 @Override
                 public List<Executor> load(ApplicationKey key) throws Exception {
                     return SparkRestUtil.getAllExecutorFromApp(key);
                 }
-            });
+            },
+            JobViewCacheManager::isApplicationFinished,
+            listWeigher(2 * KB),
+            16 * MB,
+            listType(Executor.class),
+            spillRootDir);
 
+    /**
+     * The applications list of clusters, which is refreshed in background to know the applications state changes
+     */
     private static final LoadingCache<String, List<Application>> sparkApplicationsLocalCache = CacheBuilder.newBuilder()
             .maximumSize(100)
             .initialCapacity(20)
-            .build(new CacheLoader<String, List<Application>>() {
+            .refreshAfterWrite(ApplicationStateAwareCache.RUNNING_REFRESH_SECONDS, TimeUnit.SECONDS)
+            .recordStats()
+            .build(CacheLoader.asyncReloading(new CacheLoader<String, List<Application>>() {
                 @Override
                 public List<Application> load(String key) throws Exception {
                     return SparkRestUtil.getSparkApplications(JobViewManager.getCluster(key));
                 }
-            });
+            }, ApplicationStateAwareCache.refreshExecutor));
 
-    private static final LoadingCache<ApplicationKey, List<Task>> sparkTasksSummaryLocalCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .initialCapacity(20)
-            .build(new CacheLoader<ApplicationKey, List<Task>>() {
-                @Override
-                public List<Task> load(ApplicationKey key) throws Exception {
-                    List<Task> allTasks = new ArrayList<>();
-                    List<Stage> stages = sparkStageLocalCache.get(key);
-                    for (Stage stage: stages) {
-                        int stageId = stage.getStageId();
-                        int attemptedId = stage.getAttemptId();
-                        List<Task> tasks = SparkRestUtil.getSparkTasks(key, stageId, attemptedId);
-                        allTasks.addAll(tasks);
-                    }
-                    return allTasks;
-                }
-            });
+    /**
+     * The maximum stages count to load tasks concurrently
+     */
+    private static final int STAGE_TASKS_LOAD_CONCURRENCY = 8;
 
-    private static final LoadingCache<ApplicationKey, ApplicationMasterLogs> yarnAppLogLocalCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .initialCapacity(20)
-            .build(new CacheLoader<ApplicationKey, ApplicationMasterLogs>() {
+    /**
+     * The tasks of finished stages, the running stages' tasks are always re-fetched
+     */
+    private static final Cache<StageAttemptKey, List<Task>> sparkStageTasksLocalCache = CacheBuilder.newBuilder()
+            .maximumSize(2000)
+            .initialCapacity(100)
+            .recordStats()
+            .build();
+
+    private static final ApplicationStateAwareCache<ApplicationMasterLogs> yarnAppLogLocalCache = new ApplicationStateAwareCache<>(
+            "yarnLogs",
+            new CacheLoader<ApplicationKey, ApplicationMasterLogs>() {
                 @Override
                 public ApplicationMasterLogs load(ApplicationKey key) throws Exception {
                     return JobUtils.getYarnLogs(key);
                 }
-            });
+            },
+            JobViewCacheManager::isApplicationFinished,
+            JobViewCacheManager::weighYarnLogs,
+            32 * MB,
+            TypeFactory.defaultInstance().constructType(ApplicationMasterLogs.class),
+            spillRootDir);
 
-    private static final LoadingCache<ApplicationKey, App> yarnApplicationLocalCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .initialCapacity(20)
-            .build(new CacheLoader<ApplicationKey, App>() {
+    private static final ApplicationStateAwareCache<App> yarnApplicationLocalCache = new ApplicationStateAwareCache<>(
+            "yarnApps",
+            new CacheLoader<ApplicationKey, App>() {
                 @Override
                 public App load(ApplicationKey key) throws Exception {
                     return YarnRestUtil.getApp(key);
                 }
-            });
+            },
+            JobViewCacheManager::isApplicationFinished,
+            (key, app) -> (int) (2 * KB),
+            4 * MB,
+            TypeFactory.defaultInstance().constructType(App.class),
+            spillRootDir);
 
-    private static final LoadingCache<ApplicationKey, List<JobStartEventLog>> sparkJobStartEventLogCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .initialCapacity(20)
-            .build(new CacheLoader<ApplicationKey, List<JobStartEventLog>>() {
+    // The job start events of completed attempts are cached on disk by SparkRestUtil already, no spill needed
+    private static final ApplicationStateAwareCache<List<JobStartEventLog>> sparkJobStartEventLogCache = new ApplicationStateAwareCache<>(
+            "jobStartEvents",
+            new CacheLoader<ApplicationKey, List<JobStartEventLog>>() {
                 @Override
                 public List<JobStartEventLog> load(ApplicationKey key) throws Exception {
                     return SparkRestUtil.getSparkEventLogs(key);
                 }
-            });
+            },
+            JobViewCacheManager::isApplicationFinished,
+            // The job properties with Spark configurations take most of the event
+            listWeigher(8 * KB),
+            16 * MB,
+            listType(JobStartEventLog.class),
+            null);
+
+    @NotNull
+    private static JavaType listType(@NotNull Class<?> elementClass) {
+        return TypeFactory.defaultInstance().constructCollectionType(List.class, elementClass);
+    }
+
+    /**
+     * Estimate the list size by the elements count, the JSON payload of the Spark REST objects in a list is similar
+     *
+     * @param elementBytes the estimated bytes of an element
+     * @return the list weigher
+     */
+    @NotNull
+    private static <E> Weigher<ApplicationKey, List<E>> listWeigher(long elementBytes) {
+        return (key, list) -> (int) Math.min(Integer.MAX_VALUE, Math.max(1, list.size() * elementBytes));
+    }
+
+    private static int weighYarnLogs(@NotNull ApplicationKey key, @NotNull ApplicationMasterLogs logs) {
+        final long chars = StringUtils.length(logs.getStdout())
+                + StringUtils.length(logs.getStderr())
+                + StringUtils.length(logs.getDirectoryInfo());
+
+        // 2 bytes per char in memory
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(1, chars * 2));
+    }
+
+    /**
+     * Check whether the application is finished by its last attempt in the applications list
+     *
+     * @param key the application key
+     * @return true if the last attempt is completed, false if it's running or unknown
+     */
+    private static boolean isApplicationFinished(@NotNull ApplicationKey key) {
+        try {
+            final Application application = getSingleSparkApplication(key);
+            final AttemptWithAppId lastAttempt = application == null
+                    ? null
+                    : application.getLastAttemptWithAppId(key.getClusterDetails().getName());
+
+            return lastAttempt != null && Boolean.parseBoolean(lastAttempt.getCompleted());
+        } catch (ExecutionException ignored) {
+            return false;
+        }
+    }
+
+    /**
+     * Get the hit, miss and load time statistics of Job View caches, the statistics of running and finished
+     * applications values are combined for an application state aware cache
+     *
+     * @return the map from the cache name to its statistics
+     */
+    @NotNull
+    public static Map<String, CacheStats> getCacheStats() {
+        final Map<String, CacheStats> stats = new LinkedHashMap<>();
+
+        stats.put("applications", sparkApplicationsLocalCache.stats());
+        stats.put("stageTasks", sparkStageTasksLocalCache.stats());
+
+        for (final ApplicationStateAwareCache<?> cache : Arrays.asList(sparkJobLocalCache,
+                                                                       sparkStageLocalCache,
+                                                                       sparkExecutorLocalCache,
+                                                                       yarnAppLogLocalCache,
+                                                                       yarnApplicationLocalCache,
+                                                                       sparkJobStartEventLogCache)) {
+            stats.put(cache.getName(), cache.getStats());
+        }
+
+        return stats;
+    }
 
     public static List<JobStartEventLog> getJobStartEventLogs(@NotNull ApplicationKey key) throws ExecutionException {
         return sparkJobStartEventLogCache.get(key);
@@ -148,7 +273,92 @@ public class JobViewCacheManager {
     }
 
     public static List<Task> getTasks(@NotNull ApplicationKey key) throws ExecutionException {
-        return sparkTasksSummaryLocalCache.get(key);
+        try {
+            return getTasksByStage(key)
+                    .flatMapIterable(tasks -> tasks)
+                    .toList()
+                    .toBlocking()
+                    .single();
+        } catch (RuntimeException ex) {
+            throw new ExecutionException(ex.getCause() != null ? ex.getCause() : ex);
+        }
+    }
+
+    /**
+     * Get the tasks of all stages, the stages are loaded concurrently and the tasks are emitted stage by stage in the
+     * order of stages once they are ready
+     *
+     * @param key the application key
+     * @return the tasks of each stage observable
+     */
+    @NotNull
+    public static Observable<List<Task>> getTasksByStage(@NotNull ApplicationKey key) {
+        return Observable.fromCallable(() -> sparkStageLocalCache.get(key))
+                .flatMapIterable(stages -> stages)
+                .concatMapEager(stage -> Observable.fromCallable(() -> getStageTasks(key, stage))
+                                                   .subscribeOn(Schedulers.io()),
+                                STAGE_TASKS_LOAD_CONCURRENCY,
+                                STAGE_TASKS_LOAD_CONCURRENCY);
+    }
+
+    @NotNull
+    private static List<Task> getStageTasks(@NotNull ApplicationKey key, @NotNull Stage stage) throws Exception {
+        final StageAttemptKey stageKey = new StageAttemptKey(key, stage.getStageId(), stage.getAttemptId());
+        final List<Task> cachedTasks = sparkStageTasksLocalCache.getIfPresent(stageKey);
+
+        if (cachedTasks != null) {
+            return cachedTasks;
+        }
+
+        final List<Task> tasks = SparkRestUtil.getSparkTasks(key, stage.getStageId(), stage.getAttemptId());
+
+        if (isStageFinished(stage)) {
+            sparkStageTasksLocalCache.put(stageKey, tasks);
+        }
+
+        return tasks;
+    }
+
+    private static boolean isStageFinished(@NotNull Stage stage) {
+        final String status = stage.getStatus();
+
+        return "COMPLETE".equalsIgnoreCase(status)
+                || "FAILED".equalsIgnoreCase(status)
+                || "SKIPPED".equalsIgnoreCase(status);
+    }
+
+    private static final class StageAttemptKey {
+        @NotNull
+        private final ApplicationKey applicationKey;
+        private final int stageId;
+        private final int attemptId;
+
+        StageAttemptKey(@NotNull ApplicationKey applicationKey, int stageId, int attemptId) {
+            this.applicationKey = applicationKey;
+            this.stageId = stageId;
+            this.attemptId = attemptId;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(applicationKey, stageId, attemptId);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+
+            if (!(obj instanceof StageAttemptKey)) {
+                return false;
+            }
+
+            final StageAttemptKey that = (StageAttemptKey) obj;
+            return stageId == that.stageId
+                    && attemptId == that.attemptId
+                    && applicationKey.equals(that.applicationKey);
+        }
     }
 
     public static List<Stage> getStages(@NotNull ApplicationKey key) throws ExecutionException {
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.event.JobStartEventLog;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * The streaming reader of Spark event logs, which scans the event log lines as bytes and only parses the lines of
+ * the `SparkListenerJobStart` event, so the memory usage doesn't grow with the event log size.
+ */
+public class SparkEventLogReader {
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private static final byte[] EVENT_KEY_PREFIX = "{\"Event\":\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] JOB_START_EVENT = "\"Event\":\"SparkListenerJobStart\"".getBytes(StandardCharsets.UTF_8);
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private SparkEventLogReader() {
+    }
+
+    /**
+     * Read the job start events of the last attempt from the event logs zip stream, every application attempt has an
+     * entry named `{appId}_{attemptId}` in it
+     *
+     * @param eventLogsZip the event logs zip stream
+     * @param appId the application ID
+     * @return the job start events of the last attempt, or empty if no event log entry found for the application
+     * @throws IOException for reading the stream errors
+     */
+    @NotNull
+    public static Optional<List<JobStartEventLog>> readLastAttemptJobStartEvents(@NotNull InputStream eventLogsZip,
+                                                                                 @NotNull String appId)
+            throws IOException {
+        final Pattern entryNamePattern = Pattern.compile(Pattern.quote(appId) + "_(\\d+)");
+        List<JobStartEventLog> lastAttemptEvents = null;
+        int lastAttemptId = -1;
+
+        final ZipInputStream zipStream = new ZipInputStream(new BufferedInputStream(eventLogsZip, READ_BUFFER_SIZE));
+        ZipEntry entry;
+
+        while ((entry = zipStream.getNextEntry()) != null) {
+            final Matcher entryNameMatcher = entryNamePattern.matcher(entry.getName());
+
+            if (entryNameMatcher.matches()) {
+                final int attemptId = Integer.parseInt(entryNameMatcher.group(1));
+
+                if (attemptId > lastAttemptId) {
+                    lastAttemptEvents = readJobStartEvents(zipStream);
+                    lastAttemptId = attemptId;
+                }
+            }
+
+            zipStream.closeEntry();
+        }
+
+        return Optional.ofNullable(lastAttemptEvents);
+    }
+
+    /**
+     * Read the job start events from the event log stream, one JSON event per line, with the LF or CRLF line ending
+     *
+     * @param eventLog the event log stream, which isn't closed after reading
+     * @return the job start events
+     * @throws IOException for reading the stream errors
+     */
+    @NotNull
+    public static List<JobStartEventLog> readJobStartEvents(@NotNull InputStream eventLog) throws IOException {
+        final List<JobStartEventLog> events = new ArrayList<>();
+        final byte[] buf = new byte[READ_BUFFER_SIZE];
+        byte[] line = new byte[READ_BUFFER_SIZE];
+        int lineLength = 0;
+        int read;
+
+        while ((read = eventLog.read(buf)) >= 0) {
+            int lineStart = 0;
+
+            for (int i = 0; i < read; i++) {
+                if (buf[i] != '\n') {
+                    continue;
+                }
+
+                if (lineLength == 0) {
+                    // The whole line is in the read buffer
+                    parseJobStartEvent(buf, lineStart, i - lineStart, events);
+                } else {
+                    line = append(line, lineLength, buf, lineStart, i - lineStart);
+                    parseJobStartEvent(line, 0, lineLength + i - lineStart, events);
+                    lineLength = 0;
+                }
+
+                lineStart = i + 1;
+            }
+
+            // Keep the incomplete line for the next read
+            line = append(line, lineLength, buf, lineStart, read - lineStart);
+            lineLength += read - lineStart;
+        }
+
+        parseJobStartEvent(line, 0, lineLength, events);
+
+        return events;
+    }
+
+    @NotNull
+    private static byte[] append(@NotNull byte[] dest, int destLength, @NotNull byte[] src, int srcStart, int length) {
+        final byte[] result = destLength + length > dest.length
+                ? Arrays.copyOf(dest, Math.max(dest.length * 2, destLength + length))
+                : dest;
+
+        System.arraycopy(src, srcStart, result, destLength, length);
+
+        return result;
+    }
+
+    private static void parseJobStartEvent(@NotNull byte[] buf,
+                                           int start,
+                                           int length,
+                                           @NotNull List<JobStartEventLog> events) {
+        // Drop the carriage return of the CRLF line ending
+        if (length > 0 && buf[start + length - 1] == '\r') {
+            length--;
+        }
+
+        if (!isJobStartEvent(buf, start, length)) {
+            return;
+        }
+
+        try {
+            events.add(objectMapper.readValue(buf, start, length, JobStartEventLog.class));
+        } catch (IOException ignored) {
+            // Skip the broken event line, such as the last one of an in-progress event log
+        }
+    }
+
+    static boolean isJobStartEvent(@NotNull byte[] buf, int start, int length) {
+        // Spark writes the event type as the first field, check it at the position directly
+        if (regionMatches(buf, start, length, EVENT_KEY_PREFIX, 0)) {
+            return regionMatches(buf, start, length, JOB_START_EVENT, 1);
+        }
+
+        for (int offset = 0; offset + JOB_START_EVENT.length <= length; offset++) {
+            if (regionMatches(buf, start, length, JOB_START_EVENT, offset)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean regionMatches(@NotNull byte[] buf, int start, int length, @NotNull byte[] key, int offset) {
+        if (offset + key.length > length) {
+            return false;
+        }
+
+        for (int i = 0; i < key.length; i++) {
+            if (buf[start + offset + i] != key[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -13,7 +13,6 @@ import com.microsoft.azure.hdinsight.sdk.rest.spark.event.JobStartEventLog;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.executor.Executor;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.job.Job;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.stage.Stage;
-import com.microsoft.azure.hdinsight.sdk.rest.spark.task.Task;
 import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.App;
 import com.microsoft.azure.hdinsight.spark.jobs.framework.JobRequestDetails;
 import com.microsoft.tooling.msservices.components.DefaultLoader;
@@ -58,9 +57,9 @@ public class SparkJobHttpHandler implements HttpHandler {
                 Optional<String> responseString = ObjectConvertUtils.convertObjectToJsonString(executors);
                 JobUtils.setResponse(httpExchange, responseString.orElseThrow(IOException::new));
             } else if (path.contains("tasks_summary")) {
-                List<Task> tasks = JobViewCacheManager.getTasks(new ApplicationKey(requestDetail.getCluster(), requestDetail.getAppId()));
-                Optional<String> responseString = ObjectConvertUtils.convertObjectToJsonString(tasks);
-                JobUtils.setResponse(httpExchange, responseString.orElseThrow(IOException::new));
+                // Stream the tasks into the view stage by stage
+                JobUtils.setJsonArrayResponse(httpExchange, JobViewCacheManager.getTasksByStage(
+                        new ApplicationKey(requestDetail.getCluster(), requestDetail.getAppId())));
             }
         } catch (ExecutionException e) {
             JobUtils.setResponse(httpExchange, e.getMessage(), 500);
@@ -5,7 +5,6 @@
 
 package com.microsoft.azure.hdinsight.spark.jobs;
 
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.microsoft.azure.hdinsight.common.HDInsightLoader;
 import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
 import com.microsoft.azure.hdinsight.sdk.common.HDIException;
@@ -18,22 +17,21 @@ import com.microsoft.azure.hdinsight.sdk.rest.spark.executor.Executor;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.job.Job;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.stage.Stage;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.task.Task;
-import com.microsoft.azure.toolkit.lib.common.utils.JsonUtils;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
 import org.apache.http.HttpEntity;
 
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
 
 public class SparkRestUtil {
     public static final String SPARK_REST_API_ENDPOINT = "%s/sparkhistory/api/v1/applications/%s";
@@ -84,38 +82,60 @@ public class SparkRestUtil {
         return tasks.orElse(RestUtil.getEmptyList(Task.class));
     }
 
+    /**
+     * Get the job start events of the application last attempt, the events are streamed from the event logs zip
+     * without downloading it to disk. The events of the completed attempt are cached in the plugin root path, since
+     * they won't change anymore.
+     *
+     * @param key the application key
+     * @return the job start events
+     */
     public static List<JobStartEventLog> getSparkEventLogs(@NotNull ApplicationKey key) throws HDIException, IOException {
-        String url = String.format("%s/logs", key.getAppId());
-        String eventLogsPath = String.format("%s/SparkEventLogs/%s/eventLogs.zip", HDInsightLoader.getHDInsightHelper().getPluginRootPath(), key.getAppId());
-        File file = new File(eventLogsPath);
-        HttpEntity entity = getSparkRestEntity(key.getClusterDetails(), url);
-        InputStream inputStream = entity.getContent();
-        FileUtils.copyInputStreamToFile(inputStream, file);
-        IOUtils.closeQuietly(inputStream);
-
-        ZipFile zipFile = new ZipFile(file);
-        List<? extends ZipEntry> entities =  Collections.list(zipFile.entries());
-        // every application has an attempt in event log
-        // and the entity name should be in formation "{appId}_{attemptId}"
-        String entityName = String.format("%s_%s", key.getAppId(), entities.size());
-        ZipEntry lastEntity = zipFile.getEntry(entityName);
-        if (lastEntity == null) {
-            throw new HDIException(String.format("No Spark event log entity found for app: %s", key.getAppId()));
+        final AttemptWithAppId attemptWithAppId;
+        try {
+            attemptWithAppId = getLastAttemptFromLocalCache(key);
+        } catch (ExecutionException ex) {
+            throw new HDIException(String.format("Failed to get the attempts of app: %s", key.getAppId()), ex.getCause());
+        }
+
+        final boolean isCompleted = Boolean.parseBoolean(attemptWithAppId.getCompleted());
+        final File cacheFile = new File(String.format("%s/SparkEventLogs/%s/jobStartEvents_%s.json",
+                HDInsightLoader.getHDInsightHelper().getPluginRootPath(), key.getAppId(), attemptWithAppId.getAttemptId()));
+
+        if (isCompleted && cacheFile.isFile()) {
+            try (InputStream cacheStream = new FileInputStream(cacheFile)) {
+                final Optional<List<JobStartEventLog>> cachedEvents =
+                        ObjectConvertUtils.convertJsonStreamToList(cacheStream, JobStartEventLog.class);
+
+                if (cachedEvents.isPresent()) {
+                    return cachedEvents.get();
+                }
+            } catch (IOException ignored) {
+                // Download the event logs again for the broken cache file
+            }
+        }
+
+        final String url = String.format("%s/logs", key.getAppId());
+        final HttpEntity entity = getSparkRestEntity(key.getClusterDetails(), url);
+        final List<JobStartEventLog> jobStartEvents;
+
+        try (InputStream inputStream = entity.getContent()) {
+            // every application has an attempt in event log
+            // and the entity name should be in formation "{appId}_{attemptId}"
+            jobStartEvents = SparkEventLogReader.readLastAttemptJobStartEvents(inputStream, key.getAppId())
+                    .orElseThrow(() -> new HDIException(String.format("No Spark event log entity found for app: %s", key.getAppId())));
+        }
+
+        if (isCompleted) {
+            final Optional<String> eventsJson = ObjectConvertUtils.convertObjectToJsonString(jobStartEvents);
+
+            if (eventsJson.isPresent()) {
+                // Write to a temporary file first, to avoid the partial cache file read by others
+                final File tempFile = new File(cacheFile.getPath() + ".tmp");
+                FileUtils.writeStringToFile(tempFile, eventsJson.get(), StandardCharsets.UTF_8);
+                Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
         }
-        InputStream zipFileInputStream = zipFile.getInputStream(lastEntity);
-        String entityContent = IOUtils.toString(zipFileInputStream, Charset.forName("utf-8"));
-
-        String[] lines = entityContent.split("\n");
-        List<JobStartEventLog> jobStartEvents = Arrays.stream(lines)
-                .filter(line -> {
-                    final Map<String, Object> json = JsonUtils.fromJson(line, new TypeReference<HashMap<String, Object>>() {
-                    });
-                    String eventName = ((String) json.get("Event"));
-                    return eventName.equalsIgnoreCase("SparkListenerJobStart");
-                    })
-                .map(oneLine -> ObjectConvertUtils.convertToObjectQuietly(oneLine, JobStartEventLog.class))
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
 
         return jobStartEvents;
     }
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azure.hdinsight.sdk.common.HttpConnectionPools;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.util.EntityUtils;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The Yarn container log client to read a block of the container log from the NodeManager or the JobHistory server
+ * Web UI, with one HTTP client over the shared pooled connections.
+ *
+ * The log page is asked for `text/plain` first, which is taken as is. The HTML log page is parsed by jsoup, which
+ * also decodes the HTML entities of the log text.
+ */
+public class YarnContainerLogClient implements ILogger {
+    private static final Pattern LOG_TYPE_PATTERN = Pattern.compile("Log Type:\\s+(\\S+)");
+
+    @NotNull
+    private final CloseableHttpClient httpClient;
+
+    private YarnContainerLogClient() {
+        // The client is a light wrapper, the connections are kept in the shared pool
+        this.httpClient = HttpClients.custom()
+                .useSystemProperties()
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(HttpConnectionPools.CONNECTION_REQUEST_TIMEOUT_MS)
+                        .build())
+                .setConnectionManager(HttpConnectionPools.getInstance().getConnectionManager(true))
+                .setConnectionManagerShared(true)
+                .setKeepAliveStrategy(HttpConnectionPools.KEEP_ALIVE_STRATEGY)
+                .build();
+    }
+
+    private static final class YarnContainerLogClientHolder {
+        private static final YarnContainerLogClient INSTANCE = new YarnContainerLogClient();
+    }
+
+    public static YarnContainerLogClient getInstance() {
+        return YarnContainerLogClientHolder.INSTANCE;
+    }
+
+    /**
+     * Get the container log block
+     *
+     * @param authCode the authCode in request's Authorization header
+     * @param baseUrl the container log URL, such as
+     *                `http://host/yarnui/10.0.0.15/node/containerlogs/container_e02_1492415936046_0015_01_000001/livy`
+     * @param type the log type, such as `stderr`
+     * @param start the start byte offset of the log
+     * @param size the bytes count to get, the value 0 or negative for as many as possible
+     * @return the log content, or empty if the log isn't available
+     */
+    @NotNull
+    public String getLog(@Nullable String authCode, @NotNull String baseUrl, @NotNull String type, long start, int size) {
+        URI url = null;
+
+        try {
+            url = new URI(baseUrl + "/").resolve(
+                    String.format("%s?start=%d", type, start) +
+                            (size <= 0 ? "" : String.format("&&end=%d", start + size)));
+
+            final HttpGet get = new HttpGet(url);
+            get.setHeader(HttpHeaders.ACCEPT, "text/plain, text/html;q=0.9");
+            if (authCode != null) {
+                get.setHeader(HttpHeaders.AUTHORIZATION, authCode);
+            }
+
+            try (final CloseableHttpResponse response = httpClient.execute(get)) {
+                final int statusCode = response.getStatusLine().getStatusCode();
+
+                if (statusCode >= 300) {
+                    // If the URL is wrong, will get 200 response with content:
+                    //      Unable to locate 'xxx' log for container
+                    //  OR
+                    //      Logs not available for <user>. Aggregation may not be complete, Check back later or try the nodemanager at...
+                    //  OR
+                    //      Cannot get container logs without ...
+                    //
+                    // if fetching Yarn log hits the gap between the job running and stop, will get the status 403
+                    // the log is moving to job history server, just wait and retry.
+                    if (statusCode != HttpStatus.SC_FORBIDDEN) {
+                        log().warn("The GET request to " + url + " responded error: " + response.getStatusLine());
+                    }
+
+                    return "";
+                }
+
+                final HttpEntity entity = response.getEntity();
+                if (entity == null) {
+                    return "";
+                }
+
+                final ContentType contentType = ContentType.getLenient(entity);
+                if (contentType != null && contentType.getMimeType().equalsIgnoreCase("text/plain")) {
+                    return EntityUtils.toString(entity, StandardCharsets.UTF_8);
+                }
+
+                try (final InputStream content = entity.getContent()) {
+                    final String charset = contentType != null && contentType.getCharset() != null
+                            ? contentType.getCharset().name()
+                            : null;
+
+                    return extractLogFromHtml(Jsoup.parse(content, charset, url.toString()), type);
+                }
+            }
+        } catch (final URISyntaxException e) {
+            log().error("baseUrl has syntax error: " + baseUrl);
+        } catch (final Exception e) {
+            log().warn("get Spark job log from " + url + " Error", e);
+        }
+
+        return "";
+    }
+
+    /**
+     * Extract the log of the type from the Yarn log HTML page. The page content cell (the next sibling of the cell
+     * `navcell`) has `<pre>` blocks for logs. The Yarn History server puts a paragraph with `Log Type: xxx` before
+     * each `<pre>` block, while the NodeManager puts only one `<pre>` block for the running container.
+     *
+     * @param page the HTML page
+     * @param type the log type to get
+     * @return the log of the type if the page has the type paragraph, or the content of the last `<pre>` block
+     */
+    @NotNull
+    static String extractLogFromHtml(@NotNull Document page, @NotNull String type) {
+        final Element contentCell = Optional.ofNullable(page.getElementById("navcell"))
+                .map(Element::nextElementSibling)
+                .orElse(null);
+        if (contentCell == null) {
+            return "";
+        }
+
+        final Map<String, String> logTypeMap = new HashMap<>();
+        String logType = null;
+        String logs = "";
+
+        for (final Element node : contentCell.children()) {
+            if (node.normalName().equals("p")) {
+                // In history server, need to read log type paragraph in page
+                final Matcher matcher = LOG_TYPE_PATTERN.matcher(getFirstText(node).trim());
+                if (matcher.matches()) {
+                    logType = matcher.group(1);
+                }
+            } else if (node.normalName().equals("pre")) {
+                // In running, no log type paragraph in page
+                logs = getFirstText(node);
+
+                if (logType != null) {
+                    // Only get the first <pre>...</pre>
+                    logTypeMap.put(logType, logs);
+                    logType = null;
+                }
+            }
+        }
+
+        return logTypeMap.getOrDefault(type, logs);
+    }
+
+    @NotNull
+    private static String getFirstText(@NotNull Element element) {
+        final Node firstChild = element.childNodeSize() > 0 ? element.childNode(0) : null;
+
+        if (firstChild instanceof TextNode) {
+            return ((TextNode) firstChild).getWholeText();
+        }
+
+        return firstChild instanceof Element ? ((Element) firstChild).wholeText() : "";
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.mock;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The owner and group names of local files, which are resolved from the POSIX file attributes in-process and cached
+ * per path until the file modification time changes. The user and group name lookups could go to the network name
+ * services, the Spark local run asks them for every input file.
+ */
+class LocalFileOwnershipCache {
+    private static final int MAX_CACHED_FILES = 100_000;
+
+    static final boolean IS_POSIX_SUPPORTED = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+
+    static class Ownership {
+        private final long lastModified;
+        private final String owner;
+        private final String group;
+
+        Ownership(long lastModified, String owner, String group) {
+            this.lastModified = lastModified;
+            this.owner = owner;
+            this.group = group;
+        }
+
+        String getOwner() {
+            return owner;
+        }
+
+        String getGroup() {
+            return group;
+        }
+    }
+
+    private final Map<Path, Ownership> cache = Collections.synchronizedMap(
+            new LinkedHashMap<Path, Ownership>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Path, Ownership> eldest) {
+                    return size() > MAX_CACHED_FILES;
+                }
+            });
+
+    private LocalFileOwnershipCache() {
+    }
+
+    private static final class LocalFileOwnershipCacheHolder {
+        private static final LocalFileOwnershipCache INSTANCE = new LocalFileOwnershipCache();
+    }
+
+    static LocalFileOwnershipCache getInstance() {
+        return LocalFileOwnershipCacheHolder.INSTANCE;
+    }
+
+    /**
+     * Get the owner and group names of the file
+     *
+     * @param path the file path
+     * @param attributes the POSIX attributes of the file just read
+     * @return the cached names if the file isn't modified since cached, or the ones resolved from the attributes
+     */
+    Ownership get(Path path, PosixFileAttributes attributes) {
+        final long lastModified = attributes.lastModifiedTime().toMillis();
+        final Ownership cached = cache.get(path);
+
+        if (cached != null && cached.lastModified == lastModified) {
+            return cached;
+        }
+
+        final Ownership ownership = new Ownership(lastModified,
+                                                  attributes.owner().getName(),
+                                                  attributes.group().getName());
+        cache.put(path, ownership);
+
+        return ownership;
+    }
+}
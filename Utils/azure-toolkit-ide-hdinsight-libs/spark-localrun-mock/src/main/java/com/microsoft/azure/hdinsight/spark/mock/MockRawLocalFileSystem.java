@@ -18,6 +18,12 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -29,6 +35,10 @@ class MockRawLocalFileSystem extends RawLocalFileSystem {
     @Override
     public FileStatus getFileStatus(Path f) throws IOException {
         File path = pathToFile(f);
+        if (LocalFileOwnershipCache.IS_POSIX_SUPPORTED) {
+            return new RawLocalFileStatus(path, readPosixAttributes(path, f), getDefaultBlockSize(f), makeQualified(f));
+        }
+
         if (path.exists()) {
             return new RawLocalFileStatus(pathToFile(f), getDefaultBlockSize(f), makeQualified(f));
         } else {
@@ -39,6 +49,10 @@ class MockRawLocalFileSystem extends RawLocalFileSystem {
     @Override
     public FileStatus[] listStatus(Path f) throws IOException {
         File localf = pathToFile(f);
+        if (LocalFileOwnershipCache.IS_POSIX_SUPPORTED) {
+            return listPosixStatus(f, localf);
+        }
+
         FileStatus[] results;
 
         if (!localf.exists()) {
@@ -72,6 +86,46 @@ class MockRawLocalFileSystem extends RawLocalFileSystem {
         return Arrays.copyOf(results, j);
     }
 
+    /// lists the directory with the POSIX attributes of all entries read in one pass, each entry is stat once for the
+    /// length, modification time, permission, owner and group, without forking `ls -ld` processes
+    private FileStatus[] listPosixStatus(Path f, File localf) throws IOException {
+        PosixFileAttributes attributes = readPosixAttributes(localf, f);
+        if (!attributes.isDirectory()) {
+            return new FileStatus[] {
+                    new RawLocalFileStatus(localf, attributes, getDefaultBlockSize(f), makeQualified(f)) };
+        }
+
+        List<FileStatus> results = new ArrayList<>();
+        try (DirectoryStream<java.nio.file.Path> entries = Files.newDirectoryStream(localf.toPath())) {
+            for (java.nio.file.Path entry : entries) {
+                // Assemble the path using the Path 3 arg constructor to make sure
+                // paths with colon are properly resolved on Linux
+                Path child = new Path(f, new Path(null, null, entry.getFileName().toString()));
+
+                try {
+                    results.add(new RawLocalFileStatus(entry.toFile(),
+                                                       Files.readAttributes(entry, PosixFileAttributes.class),
+                                                       getDefaultBlockSize(child),
+                                                       makeQualified(child)));
+                } catch (NoSuchFileException ignored) {
+                    // ignore the files deleted after listed
+                }
+            }
+        } catch (DirectoryIteratorException e) {
+            throw e.getCause();
+        }
+
+        return results.toArray(new FileStatus[0]);
+    }
+
+    private static PosixFileAttributes readPosixAttributes(File file, Path f) throws IOException {
+        try {
+            return Files.readAttributes(file.toPath(), PosixFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException("File " + f + " does not exist");
+        }
+    }
+
     @Override
     public void initialize(URI uri, Configuration conf) throws IOException {
         super.initialize(uri, conf);
@@ -106,6 +160,9 @@ class MockRawLocalFileSystem extends RawLocalFileSystem {
     static class RawLocalFileStatus extends FileStatus {
         private final File file;
 
+        // The POSIX attributes read with the status, null if not supported
+        private final transient PosixFileAttributes attributes;
+
         /* We can add extra fields here. It breaks at least CopyFiles.FilePair().
          * We recognize if the information is already loaded by check if
          * onwer.equals("").
@@ -117,6 +174,18 @@ class MockRawLocalFileSystem extends RawLocalFileSystem {
         RawLocalFileStatus(File f, long defaultBlockSize, Path p) {
             super(f.length(), f.isDirectory(), 1, defaultBlockSize, f.lastModified(), p);
             this.file = f;
+            this.attributes = null;
+        }
+
+        RawLocalFileStatus(File f, PosixFileAttributes attributes, long defaultBlockSize, Path p) {
+            super(attributes.size(),
+                  attributes.isDirectory(),
+                  1,
+                  defaultBlockSize,
+                  attributes.lastModifiedTime().toMillis(),
+                  p);
+            this.file = f;
+            this.attributes = attributes;
         }
 
         @Override
@@ -143,8 +212,36 @@ class MockRawLocalFileSystem extends RawLocalFileSystem {
             return super.getGroup();
         }
 
-        /// loads permissions, owner, and group from `ls -ld`
         private void loadPermissionInfo() {
+            if (attributes != null) {
+                loadPosixPermissionInfo();
+            } else {
+                loadShellPermissionInfo();
+            }
+        }
+
+        /// loads permissions, owner, and group from the POSIX attributes read with the status
+        private void loadPosixPermissionInfo() {
+            LocalFileOwnershipCache.Ownership ownership =
+                    LocalFileOwnershipCache.getInstance().get(file.toPath().toAbsolutePath(), attributes);
+
+            setPermission(toFsPermission(attributes.permissions()));
+            setOwner(ownership.getOwner());
+            setGroup(ownership.getGroup());
+        }
+
+        static FsPermission toFsPermission(Set<PosixFilePermission> permissions) {
+            int mode = 0;
+            for (PosixFilePermission permission : permissions) {
+                // The permissions are declared in order from owner read (0400) to others execute (0001)
+                mode |= 0400 >> permission.ordinal();
+            }
+
+            return new FsPermission((short) mode);
+        }
+
+        /// loads permissions, owner, and group from `ls -ld`
+        private void loadShellPermissionInfo() {
             IOException e = null;
             try {
                 List<String> args = new ArrayList<>(Arrays.asList(Shell.getGetPermissionCommand()));
@@ -26,6 +26,7 @@ import io.cucumber.java.en.Given
 import io.cucumber.java.en.Then
 import org.apache.hadoop.conf.Configuration
 import org.apache.hadoop.fs.Path
+import org.apache.hadoop.fs.permission.FsAction
 import org.assertj.core.api.Assertions.assertThat
 import java.io.File
 import kotlin.test.assertNotNull
@@ -51,4 +52,15 @@ class MockRawLocalFileSystemScenario {
         fs.conf = Configuration()
         assertNotNull(fs.getFileStatus(Path(path)))
     }
+
+    @Then("^mocked directory '(.*)' should list '(.*)' owned by the current user$")
+    fun verifyListStatusOwner(path: String, fileName: String) {
+        val fs = MockRawLocalFileSystem()
+        fs.conf = Configuration()
+        val status = fs.listStatus(Path(path)).first { it.path.name == fileName }
+
+        assertThat(status.owner).isEqualTo(System.getProperty("user.name"))
+        assertThat(status.group).isNotEmpty()
+        assertThat(status.permission.userAction.implies(FsAction.READ)).isTrue()
+    }
 }
\ No newline at end of file
@@ -26,3 +26,7 @@ Feature: Mock File System Unit Test
   Scenario: Resources file exists
     Given set mocked file system local working directory to 'src/test/resources/data/__default__/user/current'
     Then mocked file 'my_words.txt' should exists
+
+  Scenario: Resources directory listed with the file owner
+    Given set mocked file system local working directory to 'src/test/resources/data/__default__/user/current'
+    Then mocked directory '/user/current' should list 'my_words.txt' owned by the current user
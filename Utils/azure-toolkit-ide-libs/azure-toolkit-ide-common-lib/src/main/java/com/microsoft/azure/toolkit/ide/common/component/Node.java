@@ -12,6 +12,7 @@ import com.microsoft.azure.toolkit.lib.common.action.AzureActionManager;
 import com.microsoft.azure.toolkit.lib.common.action.IActionGroup;
 import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
 import com.microsoft.azure.toolkit.lib.common.operation.AzureOperation;
+import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
 import com.microsoft.azure.toolkit.lib.common.utils.Debouncer;
 import com.microsoft.azure.toolkit.lib.common.utils.TailingDebouncer;
 import com.microsoft.azure.toolkit.lib.common.view.IView;
@@ -23,6 +24,10 @@ import org.apache.commons.lang3.exception.ExceptionUtils;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.*;
 import java.util.stream.Collectors;
@@ -255,13 +260,40 @@ public class Node<D> {
         return this.view.get();
     }
 
+    /**
+     * the children builders are independent of each other, they are run concurrently on pooled threads of
+     * {@link AzureTaskManager} (in the operation context of the caller), at most {@link ChildrenBuilder#MAX_CONCURRENT_BUILDERS}
+     * builders of all nodes at a time, the others are run on the caller thread. the children are merged in the order the
+     * builders are added.
+     */
     public List<Node<?>> buildChildren() {
+        final List<ChildrenBuilder<D, ?>> builders = new ArrayList<>(this.childrenBuilders);
+        final List<CompletableFuture<List<Node<?>>>> futures = new ArrayList<>();
         try {
-            return this.childrenBuilders.stream().flatMap((builder) -> builder.build(this)).collect(Collectors.toList());
+            // nested building (e.g. `getChildrenSync` in a builder) is run on the current thread to avoid occupying more threads
+            if (builders.size() < 2 || ChildrenBuilder.isBuilderThread()) {
+                return builders.stream().flatMap((builder) -> builder.build(this)).collect(Collectors.toList());
+            }
+            // null for the builders run on the caller thread since no pooled thread is available
+            builders.stream().skip(1).forEach(b -> futures.add(b.tryBuildOnPooledThread(this)));
+            final List<Node<?>> children = builders.get(0).build(this).collect(Collectors.toCollection(ArrayList::new));
+            for (int i = 0; i < futures.size(); i++) {
+                final CompletableFuture<List<Node<?>>> future = futures.get(i);
+                if (Objects.isNull(future)) {
+                    builders.get(i + 1).build(this).forEach(children::add);
+                } else {
+                    children.addAll(future.get(ChildrenBuilder.BUILD_TIMEOUT_MINUTES, TimeUnit.MINUTES));
+                }
+            }
+            return children;
         } catch (final Exception e) {
-            final Throwable root = ExceptionUtils.getRootCause(e);
-            if (!(root instanceof InterruptedException)) {
-                AzureMessager.getMessager().error(e);
+            futures.stream().filter(Objects::nonNull).forEach(f -> f.cancel(true));
+            final Throwable error = e instanceof ExecutionException && Objects.nonNull(e.getCause()) ? e.getCause() : e;
+            final Throwable root = ExceptionUtils.getRootCause(error);
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            } else if (!(root instanceof InterruptedException)) {
+                AzureMessager.getMessager().error(error);
             }
             return Collections.emptyList();
         }
@@ -402,9 +434,51 @@ public class Node<D> {
 
     @RequiredArgsConstructor
     private static class ChildrenBuilder<D, C> {
+        private static final int MAX_CONCURRENT_BUILDERS = 8;
+        // a builder not started in time (e.g. the pooled threads are exhausted) fails the building rather than blocking it forever
+        private static final long BUILD_TIMEOUT_MINUTES = 5;
+        private static final ThreadLocal<Boolean> BUILDER_THREAD = ThreadLocal.withInitial(() -> false);
+        // shared by all nodes to bound the pooled threads occupied when many nodes with many builders are expanded
+        private static final Semaphore PERMITS = new Semaphore(MAX_CONCURRENT_BUILDERS);
+
         private final Function<? super D, ? extends List<C>> getChildrenData;
         private final BiFunction<C, Node<D>, Node<?>> buildChildNode;
 
+        private static boolean isBuilderThread() {
+            return BUILDER_THREAD.get();
+        }
+
+        /**
+         * @return the future of the children built on a pooled thread, or null if {@link #MAX_CONCURRENT_BUILDERS} builders are running.
+         */
+        @Nullable
+        private CompletableFuture<List<Node<?>>> tryBuildOnPooledThread(Node<D> n) {
+            if (!PERMITS.tryAcquire()) {
+                return null;
+            }
+            final CompletableFuture<List<Node<?>>> future = new CompletableFuture<>();
+            try {
+                AzureTaskManager.getInstance().runOnPooledThread(() -> {
+                    try {
+                        if (future.isCancelled()) {
+                            return;
+                        }
+                        BUILDER_THREAD.set(true);
+                        future.complete(this.build(n).collect(Collectors.toList()));
+                    } catch (final Throwable t) {
+                        future.completeExceptionally(t);
+                    } finally {
+                        BUILDER_THREAD.remove();
+                        PERMITS.release();
+                    }
+                });
+            } catch (final RuntimeException e) {
+                PERMITS.release();
+                throw e;
+            }
+            return future;
+        }
+
         private Stream<Node<?>> build(Node<D> n) {
             final List<C> childrenData = this.getChildrenData.apply(n.value);
             return childrenData.stream().filter(Objects::nonNull).map(d -> buildChildNode.apply(d, n));
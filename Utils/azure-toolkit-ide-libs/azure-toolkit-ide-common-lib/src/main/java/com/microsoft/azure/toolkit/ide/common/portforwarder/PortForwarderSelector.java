@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ *  Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.ide.common.portforwarder;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One selector thread shared by all the port forwarders, which reads the local sockets when readable and writes them
+ * when writable, instead of a thread per forwarder polling them. The registrations and the interest changes are run
+ * on the selector thread. The read buffers are direct buffers pooled across the forwarders.
+ */
+@Slf4j
+final class PortForwarderSelector {
+    static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_POOLED_BUFFERS = 64;
+    // the paused handlers are polled in this interval, e.g. to resume reading when the websocket queue is drained
+    private static final long POLL_INTERVAL_MILLIS = 5;
+
+    private final Selector selector;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final Set<SelectionKey> pausedKeys = ConcurrentHashMap.newKeySet();
+    private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooledBuffers = new AtomicInteger();
+
+    /**
+     * The callbacks invoked on the selector thread.
+     */
+    interface Handler {
+        void onReadable(SelectionKey key);
+
+        void onWritable(SelectionKey key);
+
+        /**
+         * Invoked every poll interval while the handler is paused.
+         */
+        default void onPoll(SelectionKey key) {
+        }
+
+        void onError(Throwable t);
+    }
+
+    private PortForwarderSelector() {
+        try {
+            this.selector = Selector.open();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        final Thread thread = new Thread(this::run, "port-forwarder-selector");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static final class PortForwarderSelectorHolder {
+        private static final PortForwarderSelector INSTANCE = new PortForwarderSelector();
+    }
+
+    static PortForwarderSelector getInstance() {
+        return PortForwarderSelectorHolder.INSTANCE;
+    }
+
+    /**
+     * Register the channel in non-blocking mode with the interest operations.
+     */
+    void register(SelectableChannel channel, int ops, Handler handler) throws IOException {
+        channel.configureBlocking(false);
+        execute(() -> {
+            try {
+                channel.register(selector, ops, handler);
+            } catch (final ClosedChannelException e) {
+                handler.onError(e);
+            }
+        });
+    }
+
+    void addInterest(SelectableChannel channel, int ops) {
+        execute(() -> {
+            final SelectionKey key = channel.keyFor(selector);
+            if (key != null && key.isValid()) {
+                key.interestOpsOr(ops);
+            }
+        });
+    }
+
+    /**
+     * Stop selecting the operations, the handler is polled until {@link #resume(SelectionKey, int)}.
+     */
+    void pause(SelectionKey key, int ops) {
+        key.interestOpsAnd(~ops);
+        pausedKeys.add(key);
+    }
+
+    void resume(SelectionKey key, int ops) {
+        pausedKeys.remove(key);
+        key.interestOpsOr(ops);
+    }
+
+    void removeInterest(SelectionKey key, int ops) {
+        key.interestOpsAnd(~ops);
+    }
+
+    /**
+     * Wake up the selector thread, e.g. to deregister the channels just closed, which are closed on deregistration.
+     */
+    void wakeup() {
+        selector.wakeup();
+    }
+
+    ByteBuffer acquireBuffer() {
+        final ByteBuffer buffer = buffers.poll();
+        if (buffer != null) {
+            pooledBuffers.decrementAndGet();
+            buffer.clear();
+            return buffer;
+        }
+        return ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+    void releaseBuffer(ByteBuffer buffer) {
+        if (pooledBuffers.incrementAndGet() <= MAX_POOLED_BUFFERS) {
+            buffers.offer(buffer);
+        } else {
+            pooledBuffers.decrementAndGet();
+        }
+    }
+
+    private void execute(Runnable task) {
+        tasks.offer(task);
+        selector.wakeup();
+    }
+
+    private void run() {
+        while (true) {
+            try {
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    task.run();
+                }
+                if (pausedKeys.isEmpty()) {
+                    selector.select();
+                } else {
+                    selector.select(POLL_INTERVAL_MILLIS);
+                    pausedKeys.removeIf(key -> !key.isValid());
+                    for (final SelectionKey key : pausedKeys) {
+                        dispatch(key, () -> ((Handler) key.attachment()).onPoll(key));
+                    }
+                }
+                for (final SelectionKey key : selector.selectedKeys()) {
+                    final Handler handler = (Handler) key.attachment();
+                    if (key.isValid() && key.isWritable()) {
+                        dispatch(key, () -> handler.onWritable(key));
+                    }
+                    if (key.isValid() && key.isReadable()) {
+                        dispatch(key, () -> handler.onReadable(key));
+                    }
+                }
+                selector.selectedKeys().clear();
+            } catch (final Throwable t) {
+                log.warn("unexpected error in port forwarder selector", t);
+            }
+        }
+    }
+
+    private void dispatch(SelectionKey key, Runnable callback) {
+        try {
+            callback.run();
+        } catch (final Throwable t) {
+            pausedKeys.remove(key);
+            key.cancel();
+            ((Handler) key.attachment()).onError(t);
+        }
+    }
+}
@@ -15,27 +15,36 @@ import org.jetbrains.annotations.NotNull;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
 import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
-import java.util.function.BooleanSupplier;
 
+/**
+ * Forward the bytes between the local channels and the websocket. The local channels are selectable channels, which
+ * are read and written by the shared {@link PortForwarderSelector} thread when ready. The local reading is paused
+ * while more than {@link #MAX_QUEUED_BYTES} are queued to send by the websocket, and the next websocket message isn't
+ * handled until the last one is written to the local channel.
+ */
 public class PortForwarderWebSocketListener extends WebSocketListener {
+    private static final long MAX_QUEUED_BYTES = 1024 * 1024;
+    private static final int MAX_READS_PER_SELECT = 16;
     protected volatile boolean opened;
     protected boolean more = true;
     protected final ReentrantLock lock = new ReentrantLock();
     protected final Condition moreRequested;
     protected final CompletableFuture<WebSocket> future;
-    protected final ExecutorService pumperService = Executors.newSingleThreadExecutor();
     protected final AtomicBoolean alive = new AtomicBoolean(true);
     protected final ReadableByteChannel in;
     protected final WritableByteChannel out;
     protected final AbstractPortForwarder forwarder;
+    // the part of the last websocket message not written to the local channel yet
+    private volatile ByteBuffer pendingWrite;
+    private volatile WebSocket webSocket;
 
     public PortForwarderWebSocketListener(ReadableByteChannel in, WritableByteChannel out, AbstractPortForwarder forwarder) {
         this.in = in;
@@ -71,20 +80,14 @@ public class PortForwarderWebSocketListener extends WebSocketListener {
         if (response != null) {
             response.close();
         }
-        if (this.in != null) {
-            this.pumperService.execute(() -> {
-                try {
-                    pipe(this.in, webSocket, this.alive::get);
-                } catch (final InterruptedException | IOException e) {
-                    if (e instanceof InterruptedException) {
-                        Thread.currentThread().interrupt();
-                    }
-                    if (this.alive.get()) {
-                        this.closeWebSocket(webSocket, 1001, "Client error");
-                        AzureMessager.getMessager().error(e, "Error while forwarding data from client to remote.");
-                    }
-                }
-            });
+        this.webSocket = webSocket;
+        try {
+            this.registerChannels();
+        } catch (final IOException e) {
+            if (this.alive.get()) {
+                this.closeWebSocket(webSocket, 1001, "Client error");
+                AzureMessager.getMessager().error(e, "Error while forwarding data from client to remote.");
+            }
         }
         future.complete(webSocket);
     }
@@ -158,22 +161,8 @@ public class PortForwarderWebSocketListener extends WebSocketListener {
             }
         }
         this.forwarder.stopForward();
-        this.pumperService.shutdownNow();
-    }
-
-    protected void pipe(ReadableByteChannel in, WebSocket webSocket, BooleanSupplier isAlive) throws IOException, InterruptedException {
-        final ByteBuffer buffer = ByteBuffer.allocate(4096);
-        int read;
-        do {
-            buffer.clear();
-            read = readMessage(in, buffer);
-            if (read > 0) {
-                buffer.flip();
-                webSocket.send(ByteString.of(buffer));
-            } else if (read == 0) {
-                Thread.sleep(50L);
-            }
-        } while (isAlive.getAsBoolean() && read >= 0);
+        // the registered channels are closed when deregistered by the selector
+        PortForwarderSelector.getInstance().wakeup();
     }
 
     protected int readMessage(@NotNull ReadableByteChannel channel, @NotNull final ByteBuffer buffer) throws IOException {
@@ -197,27 +186,109 @@ public class PortForwarderWebSocketListener extends WebSocketListener {
     protected void writeMessage(WebSocket webSocket, ByteString bytes) {
         final ByteBuffer buffer = bytes.asByteBuffer();
         if (this.out != null) {
-            while (true) {
-                try {
-                    if (buffer.hasRemaining()) {
-                        final int written = this.out.write(buffer);
-                        if (written == 0) {
-                            Thread.sleep(50L);
-                        }
-                        continue;
-                    }
+            try {
+                this.out.write(buffer);
+                if (!buffer.hasRemaining()) {
                     this.request();
-                } catch (final InterruptedException | IOException e) {
-                    if (e instanceof InterruptedException) {
-                        Thread.currentThread().interrupt();
+                    return;
+                }
+                // write the rest when the local channel is writable, the next message waits for it
+                this.pendingWrite = buffer;
+                PortForwarderSelector.getInstance().addInterest((SelectableChannel) this.out, SelectionKey.OP_WRITE);
+            } catch (final IOException e) {
+                this.onWriteError(webSocket, e);
+            }
+        }
+    }
+
+    private void registerChannels() throws IOException {
+        final PortForwarderSelector selector = PortForwarderSelector.getInstance();
+        final ChannelHandler handler = new ChannelHandler();
+        if (this.in != null && !(this.in instanceof SelectableChannel) || this.out != null && !(this.out instanceof SelectableChannel)) {
+            throw new IOException("The local channels to forward should be selectable.");
+        }
+        if (this.in != null) {
+            selector.register((SelectableChannel) this.in, SelectionKey.OP_READ, handler);
+        }
+        if (this.out != null && this.out != this.in) {
+            selector.register((SelectableChannel) this.out, 0, handler);
+        }
+    }
+
+    private void onReadError(WebSocket webSocket, Throwable e) {
+        if (this.alive.get()) {
+            this.closeWebSocket(webSocket, 1001, "Client error");
+            AzureMessager.getMessager().error(e, "Error while forwarding data from client to remote.");
+        }
+    }
+
+    private void onWriteError(WebSocket webSocket, Throwable e) {
+        if (this.alive.get()) {
+            this.closeWebSocket(webSocket, 1002, "Protocol error");
+            AzureMessager.getMessager().error(e, "Error while forwarding data from remote to client.");
+        }
+    }
+
+    private class ChannelHandler implements PortForwarderSelector.Handler {
+        @Override
+        public void onReadable(SelectionKey key) {
+            final PortForwarderSelector selector = PortForwarderSelector.getInstance();
+            final ByteBuffer buffer = selector.acquireBuffer();
+            try {
+                for (int i = 0; i < MAX_READS_PER_SELECT; i++) {
+                    buffer.clear();
+                    final int read = readMessage(in, buffer);
+                    if (read < 0) {
+                        selector.removeInterest(key, SelectionKey.OP_READ);
+                        return;
                     }
-                    if (this.alive.get()) {
-                        this.closeWebSocket(webSocket, 1002, "Protocol error");
-                        AzureMessager.getMessager().error(e, "Error while forwarding data from remote to client.");
+                    if (read == 0) {
+                        return;
+                    }
+                    buffer.flip();
+                    webSocket.send(ByteString.of(buffer));
+                    if (webSocket.queueSize() > MAX_QUEUED_BYTES) {
+                        selector.pause(key, SelectionKey.OP_READ);
+                        return;
+                    }
+                }
+            } catch (final IOException e) {
+                key.cancel();
+                onReadError(webSocket, e);
+            } finally {
+                selector.releaseBuffer(buffer);
+            }
+        }
+
+        @Override
+        public void onPoll(SelectionKey key) {
+            if (webSocket.queueSize() <= MAX_QUEUED_BYTES / 2) {
+                PortForwarderSelector.getInstance().resume(key, SelectionKey.OP_READ);
+            }
+        }
+
+        @Override
+        public void onWritable(SelectionKey key) {
+            final ByteBuffer buffer = pendingWrite;
+            try {
+                if (buffer != null) {
+                    out.write(buffer);
+                    if (buffer.hasRemaining()) {
+                        return;
                     }
                 }
-                return;
+                pendingWrite = null;
+                PortForwarderSelector.getInstance().removeInterest(key, SelectionKey.OP_WRITE);
+                request();
+            } catch (final IOException e) {
+                key.cancel();
+                onWriteError(webSocket, e);
             }
         }
+
+        @Override
+        public void onError(Throwable t) {
+            onReadError(webSocket, t);
+        }
     }
 }
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ *  Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.ide.common.component;
+
+import com.microsoft.azure.toolkit.lib.common.task.AzureTask;
+import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class NodeTest {
+    private static final long TIMEOUT_SECONDS = 30;
+
+    @BeforeClass
+    public static void registerTaskManager() {
+        AzureTaskManager.register(new HeadlessTaskManager());
+    }
+
+    @Test
+    public void testMergeChildrenInBuilderOrder() {
+        // the later builders complete first
+        final Node<String> node = new Node<>("root")
+            .addChildren(d -> build("a", 3, 200))
+            .addChildren(d -> build("b", 2, 100))
+            .addChildren(d -> build("c", 1, 0));
+
+        Assert.assertEquals(Arrays.asList("a0", "a1", "a2", "b0", "b1", "c0"), values(node.buildChildren()));
+    }
+
+    @Test
+    public void testRunBuildersConcurrently() {
+        final int builders = 4;
+        // every builder waits for all the others started, which never completes if they run one by one
+        final CountDownLatch started = new CountDownLatch(builders);
+        final Node<String> node = new Node<>("root");
+        IntStream.range(0, builders).forEach(i -> node.addChildren(d -> {
+            started.countDown();
+            try {
+                Assert.assertTrue("the builders are not run concurrently", started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            } catch (final InterruptedException e) {
+                throw new AssertionError(e);
+            }
+            return build(String.valueOf(i), 1, 0);
+        }));
+
+        Assert.assertEquals(Arrays.asList("00", "10", "20", "30"), values(node.buildChildren()));
+    }
+
+    @Test
+    public void testBuildNestedChildrenOnBuilderThread() {
+        final List<Thread> nestedThreads = Collections.synchronizedList(new ArrayList<>());
+        final Node<String> nested = new Node<>("nested")
+            .addChildren(d -> record(nestedThreads, build("x", 1, 0)))
+            .addChildren(d -> record(nestedThreads, build("y", 1, 0)));
+        final List<Thread> builderThreads = Collections.synchronizedList(new ArrayList<>());
+        final Node<String> node = new Node<>("root")
+            .addChildren(d -> build("a", 1, 0))
+            .addChildren(d -> record(builderThreads, nested.buildChildren()));
+
+        Assert.assertEquals(Arrays.asList("a0", "x0", "y0"), values(node.buildChildren()));
+        Assert.assertEquals(1, builderThreads.size());
+        Assert.assertEquals(Arrays.asList(builderThreads.get(0), builderThreads.get(0)), nestedThreads);
+    }
+
+    @Test
+    public void testBoundBuildersOnPooledThreads() throws InterruptedException {
+        final int nodes = 4;
+        final int builders = 10;
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final List<List<Object>> results = Collections.synchronizedList(new ArrayList<>());
+        final List<Thread> callers = IntStream.range(0, nodes).mapToObj(n -> new Thread(() -> {
+            final Node<String> node = new Node<>("root" + n);
+            IntStream.range(0, builders).forEach(i -> node.addChildren(d -> {
+                final boolean pooled = Thread.currentThread().getName().startsWith(HeadlessTaskManager.THREAD_NAME);
+                if (pooled) {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                }
+                try {
+                    return build(String.valueOf(i), 1, 50);
+                } finally {
+                    if (pooled) {
+                        running.decrementAndGet();
+                    }
+                }
+            }));
+            results.add(values(node.buildChildren()));
+        }, "caller-" + n)).collect(Collectors.toList());
+        callers.forEach(Thread::start);
+        for (final Thread caller : callers) {
+            caller.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+        }
+
+        final List<Object> expected = IntStream.range(0, builders).mapToObj(i -> i + "0").collect(Collectors.toList());
+        Assert.assertEquals(Collections.nCopies(nodes, expected), results);
+        // the builders beyond the bound are run on the caller threads
+        Assert.assertTrue("max builders on pooled threads: " + maxRunning.get(), maxRunning.get() <= 8);
+        Assert.assertTrue("no builder on pooled threads", maxRunning.get() > 0);
+    }
+
+    private static List<Node<?>> build(String prefix, int count, long latencyMillis) {
+        try {
+            Thread.sleep(latencyMillis);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return IntStream.range(0, count).mapToObj(i -> new Node<>(prefix + i)).collect(Collectors.toList());
+    }
+
+    private static <T> T record(List<Thread> threads, T result) {
+        threads.add(Thread.currentThread());
+        return result;
+    }
+
+    private static List<Object> values(List<Node<?>> nodes) {
+        return nodes.stream().map(Node::getValue).collect(Collectors.toList());
+    }
+
+    private static class HeadlessTaskManager extends AzureTaskManager {
+        private static final String THREAD_NAME = "headless-pooled-thread";
+        private final ExecutorService pool = Executors.newCachedThreadPool(r -> {
+            final Thread thread = new Thread(r, THREAD_NAME);
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        @Override
+        protected void doRead(Runnable runnable, AzureTask<?> task) {
+            runnable.run();
+        }
+
+        @Override
+        protected void doWrite(Runnable runnable, AzureTask<?> task) {
+            runnable.run();
+        }
+
+        @Override
+        protected void doRunOnPooledThread(Runnable runnable, AzureTask<?> task) {
+            pool.execute(runnable);
+        }
+
+        @Override
+        protected void doRunLater(Runnable runnable, AzureTask<?> task) {
+            pool.execute(runnable);
+        }
+
+        @Override
+        protected void doRunAndWait(Runnable runnable, AzureTask<?> task) {
+            runnable.run();
+        }
+
+        @Override
+        protected void doRunInBackground(Runnable runnable, AzureTask<?> task) {
+            pool.execute(runnable);
+        }
+
+        @Override
+        protected void doRunInModal(Runnable runnable, AzureTask<?> task) {
+            pool.execute(runnable);
+        }
+    }
+}
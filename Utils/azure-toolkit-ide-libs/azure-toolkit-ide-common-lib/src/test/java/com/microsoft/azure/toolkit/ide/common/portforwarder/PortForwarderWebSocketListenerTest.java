@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ *  Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.ide.common.portforwarder;
+
+import okhttp3.OkHttpClient;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okio.ByteString;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Forward a loopback socket through the listener to a websocket echo server, the bytes written to the local socket
+ * should be read back in order.
+ */
+public class PortForwarderWebSocketListenerTest {
+    private static final int TIMEOUT_SECONDS = 60;
+    /**
+     * Fails a test that hangs on the blocking reads of the local socket, the reading thread is interrupted and the
+     * interruptible channel is closed then
+     */
+    private static final long TEST_TIMEOUT_MILLIS = 2L * TIMEOUT_SECONDS * 1000;
+    private static final long ECHO_MAX_QUEUED_BYTES = 1024 * 1024;
+
+    private MockWebServer server;
+    private SocketChannel client;
+    private PortForwarderWebSocketListener listener;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.enqueue(new MockResponse().withWebSocketUpgrade(new WebSocketListener() {
+            @Override
+            public void onMessage(WebSocket webSocket, ByteString bytes) {
+                // Stop reading while the echoes are queued, as a remote peer blocked by the TCP flow control
+                while (webSocket.queueSize() > ECHO_MAX_QUEUED_BYTES) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                }
+                webSocket.send(bytes);
+            }
+        }));
+        server.start();
+
+        final SocketChannel accepted;
+        try (ServerSocketChannel local = ServerSocketChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+            client = SocketChannel.open(local.getLocalAddress());
+            accepted = local.accept();
+        }
+        final AbstractPortForwarder forwarder = new AbstractPortForwarder() {
+            @Override
+            protected WebSocketBuilder createSocketBuilder(OkHttpClient httpClient) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            protected PortForwarderWebSocketListener createWebSocketListener(SocketChannel portForwarder) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        listener = new PortForwarderWebSocketListener(accepted, accepted, forwarder);
+        new WebSocketBuilder(new OkHttpClient()).uri(server.url("/").toString())
+            .buildAsync(listener)
+            .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        client.close();
+        listener.closeForwarder();
+        server.shutdown();
+    }
+
+    @Test(timeout = TEST_TIMEOUT_MILLIS)
+    public void testPingPong() throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(1);
+        final int rounds = 1000;
+        for (int i = 0; i < rounds; i++) {
+            buffer.clear();
+            buffer.put((byte) i).flip();
+            client.write(buffer);
+            buffer.clear();
+            while (buffer.hasRemaining()) {
+                Assert.assertTrue(client.read(buffer) >= 0);
+            }
+            Assert.assertEquals((byte) i, buffer.get(0));
+        }
+    }
+
+    @Test(timeout = TEST_TIMEOUT_MILLIS)
+    public void testForwardInOrder() throws Exception {
+        assertEchoed(8L * 1024 * 1024);
+    }
+
+    /**
+     * More bytes than the 16MB okhttp websocket queue limit, which closes the websocket if the local reading isn't
+     * paused while the queue is full
+     */
+    @Test(timeout = TEST_TIMEOUT_MILLIS)
+    public void testForwardBeyondWebSocketQueueLimit() throws Exception {
+        assertEchoed(64L * 1024 * 1024);
+        Assert.assertTrue(listener.isAlive());
+    }
+
+    private void assertEchoed(final long total) throws Exception {
+        final CompletableFuture<Void> written = CompletableFuture.runAsync(() -> {
+            final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            try {
+                for (long sent = 0; sent < total; ) {
+                    buffer.clear();
+                    for (int i = 0; i < buffer.capacity() && sent + i < total; i++) {
+                        buffer.put(pattern(sent + i));
+                    }
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        sent += client.write(buffer);
+                    }
+                }
+            } catch (final IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        long received = 0;
+        while (received < total) {
+            buffer.clear();
+            final int read = client.read(buffer);
+            Assert.assertTrue("the local socket is closed after " + received + " bytes", read >= 0);
+            for (int i = 0; i < read; i++) {
+                Assert.assertEquals("byte " + (received + i), pattern(received + i), buffer.get(i));
+            }
+            received += read;
+        }
+        written.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private static byte pattern(long index) {
+        return (byte) (index * 31 + (index >> 8));
+    }
+}